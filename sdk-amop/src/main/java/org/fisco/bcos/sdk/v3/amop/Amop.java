@@ -21,6 +21,8 @@ import org.fisco.bcos.sdk.jni.amop.AmopRequestCallback;
 import org.fisco.bcos.sdk.jni.amop.AmopResponseCallback;
 import org.fisco.bcos.sdk.jni.common.JniException;
 import org.fisco.bcos.sdk.v3.config.ConfigOption;
+import org.fisco.bcos.sdk.v3.config.model.ThreadPoolConfig;
+import org.fisco.bcos.sdk.v3.utils.CallbackDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,7 +43,14 @@ public interface Amop {
     static Amop build(ConfigOption configOption) throws JniException {
         long nativePointer = BcosSDKJniObj.create(configOption.getJniConfig());
         logger.info("build AMOP, configOption: {}", configOption);
-        return new AmopImp(nativePointer);
+        ThreadPoolConfig threadPoolConfig = configOption.getThreadPoolConfig();
+        if (threadPoolConfig == null) {
+            return new AmopImp(nativePointer);
+        }
+        return new AmopImp(
+                nativePointer,
+                CallbackDispatcher.create(
+                        "amop", threadPoolConfig, threadPoolConfig.getAmopCallbackPoolSize()));
     }
 
     /**
@@ -22,6 +22,7 @@ import org.fisco.bcos.sdk.jni.amop.AmopJniObj;
 import org.fisco.bcos.sdk.jni.amop.AmopRequestCallback;
 import org.fisco.bcos.sdk.jni.amop.AmopResponseCallback;
 import org.fisco.bcos.sdk.jni.common.JniException;
+import org.fisco.bcos.sdk.v3.utils.CallbackDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,17 +31,48 @@ public class AmopImp implements Amop {
     private static final Logger logger = LoggerFactory.getLogger(AmopImp.class);
 
     private AmopJniObj amopJni;
+    // the messages of a topic are passed to the callback in order
+    private volatile CallbackDispatcher callbackDispatcher;
 
     public AmopImp(long nativePointer) throws JniException {
+        this(nativePointer, CallbackDispatcher.inline("amop"));
+    }
+
+    public AmopImp(long nativePointer, CallbackDispatcher callbackDispatcher)
+            throws JniException {
         this.amopJni = AmopJniObj.build(nativePointer);
+        this.callbackDispatcher = callbackDispatcher;
 
-        logger.info("newAmop, nativePointer: {}", nativePointer);
+        logger.info(
+                "newAmop, nativePointer: {}, callbackDispatcher: {}",
+                nativePointer,
+                callbackDispatcher.getName());
         start();
     }
 
+    /** @return the dispatcher calling the callbacks of the topics, to get the stats */
+    public CallbackDispatcher getCallbackDispatcher() {
+        return callbackDispatcher;
+    }
+
+    /**
+     * call the callbacks subscribed or set later by the dispatcher, the messages of a topic are
+     * still passed in order
+     *
+     * @param callbackDispatcher the dispatcher
+     */
+    public void setCallbackDispatcher(CallbackDispatcher callbackDispatcher) {
+        this.callbackDispatcher = callbackDispatcher;
+    }
+
     @Override
     public void subscribeTopic(String topicName, AmopRequestCallback callback) {
-        amopJni.subscribeTopic(topicName, callback);
+        CallbackDispatcher dispatcher = this.callbackDispatcher;
+        amopJni.subscribeTopic(
+                topicName,
+                (endpoint, seq, response) ->
+                        dispatcher.dispatch(
+                                topicName, () -> callback.onRequest(endpoint, seq, response)));
     }
 
     @Override
@@ -53,7 +85,12 @@ public class AmopImp implements Amop {
     @Override
     public void sendAmopMsg(
             String topic, byte[] content, int timeout, AmopResponseCallback callback) {
-        amopJni.sendAmopMsg(topic, content, timeout, callback);
+        CallbackDispatcher dispatcher = this.callbackDispatcher;
+        amopJni.sendAmopMsg(
+                topic,
+                content,
+                timeout,
+                response -> dispatcher.dispatch(() -> callback.onResponse(response)));
     }
 
     @Override
@@ -73,7 +110,10 @@ public class AmopImp implements Amop {
 
     @Override
     public void setCallback(AmopRequestCallback cb) {
-        amopJni.setCallback(cb);
+        CallbackDispatcher dispatcher = this.callbackDispatcher;
+        amopJni.setCallback(
+                (endpoint, seq, response) ->
+                        dispatcher.dispatch(cb, () -> cb.onRequest(endpoint, seq, response)));
     }
 
     @Override
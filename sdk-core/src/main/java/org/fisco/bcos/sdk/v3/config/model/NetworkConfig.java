@@ -30,6 +30,9 @@ public class NetworkConfig {
     private List<String> peers;
     private String defaultGroup;
     private int timeout = -1;
+    // the deadline of the synchronous requests in milliseconds, -1 to follow the message timeout,
+    // 0 for no deadline
+    private int requestTimeout = -1;
 
     public NetworkConfig() {}
 
@@ -42,7 +45,15 @@ public class NetworkConfig {
             if (Objects.nonNull(value)) {
                 timeout = Integer.valueOf((String) value);
             }
-            logger.info("network config items, timeout: {}, peers: {}", timeout, peers);
+            value = networkProperty.get("requestTimeout");
+            if (Objects.nonNull(value)) {
+                requestTimeout = Integer.valueOf((String) value);
+            }
+            logger.info(
+                    "network config items, timeout: {}, requestTimeout: {}, peers: {}",
+                    timeout,
+                    requestTimeout,
+                    peers);
         }
     }
 
@@ -69,4 +80,12 @@ public class NetworkConfig {
     public void setTimeout(int timeout) {
         this.timeout = timeout;
     }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
 }
@@ -23,7 +23,18 @@ import org.slf4j.LoggerFactory;
 public class ThreadPoolConfig {
     private static final Logger logger = LoggerFactory.getLogger(ThreadPoolConfig.class);
 
-    private int threadPoolSize;
+    public static final String CALLBACK_MODE_INLINE = "inline";
+    public static final String CALLBACK_MODE_EXECUTOR = "executor";
+    public static final int DEFAULT_CALLBACK_QUEUE_SIZE = 10000;
+
+    private int threadPoolSize = Runtime.getRuntime().availableProcessors();
+    // inline: call the callbacks on the native threads, executor: on the sdk thread pools
+    private String callbackMode = CALLBACK_MODE_INLINE;
+    private int clientCallbackPoolSize = threadPoolSize;
+    private int eventCallbackPoolSize = threadPoolSize;
+    private int amopCallbackPoolSize = threadPoolSize;
+    // the callbacks exceeding the queue are called on the native threads
+    private int callbackQueueSize = DEFAULT_CALLBACK_QUEUE_SIZE;
 
     public int getThreadPoolSize() {
         return threadPoolSize;
@@ -33,6 +44,51 @@ public class ThreadPoolConfig {
         this.threadPoolSize = threadPoolSize;
     }
 
+    public String getCallbackMode() {
+        return callbackMode;
+    }
+
+    public void setCallbackMode(String callbackMode) {
+        this.callbackMode = callbackMode;
+    }
+
+    public int getClientCallbackPoolSize() {
+        return clientCallbackPoolSize;
+    }
+
+    public void setClientCallbackPoolSize(int clientCallbackPoolSize) {
+        this.clientCallbackPoolSize = clientCallbackPoolSize;
+    }
+
+    public int getEventCallbackPoolSize() {
+        return eventCallbackPoolSize;
+    }
+
+    public void setEventCallbackPoolSize(int eventCallbackPoolSize) {
+        this.eventCallbackPoolSize = eventCallbackPoolSize;
+    }
+
+    public int getAmopCallbackPoolSize() {
+        return amopCallbackPoolSize;
+    }
+
+    public void setAmopCallbackPoolSize(int amopCallbackPoolSize) {
+        this.amopCallbackPoolSize = amopCallbackPoolSize;
+    }
+
+    public int getCallbackQueueSize() {
+        return callbackQueueSize;
+    }
+
+    public void setCallbackQueueSize(int callbackQueueSize) {
+        this.callbackQueueSize = callbackQueueSize;
+    }
+
+    /** @return true if the callbacks are called on the sdk thread pools */
+    public boolean isCallbackOnExecutor() {
+        return CALLBACK_MODE_EXECUTOR.equalsIgnoreCase(this.callbackMode);
+    }
+
     public ThreadPoolConfig() {}
 
     public ThreadPoolConfig(ConfigProperty configProperty) {
@@ -41,6 +97,47 @@ public class ThreadPoolConfig {
         String value = ConfigProperty.getValue(threadPoolConfig, "threadPoolSize", cpuNum);
 
         this.threadPoolSize = Integer.valueOf(value);
-        logger.debug("Init ThreadPoolConfig, threadPoolSize: {}", this.threadPoolSize);
+        this.callbackMode =
+                ConfigProperty.getValue(threadPoolConfig, "callbackMode", CALLBACK_MODE_INLINE);
+        if (!CALLBACK_MODE_INLINE.equalsIgnoreCase(this.callbackMode)
+                && !this.isCallbackOnExecutor()) {
+            logger.warn("unknown callbackMode: {}, use inline", this.callbackMode);
+            this.callbackMode = CALLBACK_MODE_INLINE;
+        }
+        this.clientCallbackPoolSize =
+                Integer.valueOf(
+                        ConfigProperty.getValue(threadPoolConfig, "clientCallbackPoolSize", value));
+        this.eventCallbackPoolSize =
+                Integer.valueOf(
+                        ConfigProperty.getValue(threadPoolConfig, "eventCallbackPoolSize", value));
+        this.amopCallbackPoolSize =
+                Integer.valueOf(
+                        ConfigProperty.getValue(threadPoolConfig, "amopCallbackPoolSize", value));
+        this.callbackQueueSize =
+                Integer.valueOf(
+                        ConfigProperty.getValue(
+                                threadPoolConfig,
+                                "callbackQueueSize",
+                                String.valueOf(DEFAULT_CALLBACK_QUEUE_SIZE)));
+        logger.debug("Init ThreadPoolConfig: {}", this);
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadPoolConfig{"
+                + "threadPoolSize="
+                + threadPoolSize
+                + ", callbackMode='"
+                + callbackMode
+                + '\''
+                + ", clientCallbackPoolSize="
+                + clientCallbackPoolSize
+                + ", eventCallbackPoolSize="
+                + eventCallbackPoolSize
+                + ", amopCallbackPoolSize="
+                + amopCallbackPoolSize
+                + ", callbackQueueSize="
+                + callbackQueueSize
+                + '}';
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.model;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.jni.common.JniException;
+import org.fisco.bcos.sdk.jni.utilities.tx.TransactionBuilderJniObj;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Owner of the native TransactionData created by TransactionBuilderJniObj.createTransactionData.
+ *
+ * <p>The native memory is released when the handle is closed. If a handle becomes unreachable
+ * without being closed, the native memory is released by a daemon reaper thread, or earlier the
+ * next time a handle is created, and the leak is counted in {@link #getLeakedCount()}.
+ */
+public class TransactionDataHandle implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDataHandle.class);
+
+    private static final ReferenceQueue<TransactionDataHandle> unreachableHandles =
+            new ReferenceQueue<>();
+    // keep the releasers reachable until the native memory is released
+    private static final Set<Releaser> aliveReleasers = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong leakedCount = new AtomicLong(0);
+
+    static {
+        // release the leaked handles even if no more handle is created
+        Thread reaper =
+                new Thread(TransactionDataHandle::reapUnreachable, "transaction-data-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    private final long transactionData;
+    private final Releaser releaser;
+
+    private TransactionDataHandle(long transactionData) {
+        this.transactionData = transactionData;
+        this.releaser = new Releaser(this, transactionData);
+        aliveReleasers.add(this.releaser);
+    }
+
+    /**
+     * create the native TransactionData and take the ownership of it
+     *
+     * @param groupID the group id
+     * @param chainID the chain id
+     * @param to the target contract address
+     * @param data the hex encoded input
+     * @param abi the abi, only used when deploy contract
+     * @param blockLimit the block limit
+     * @return the handle of the TransactionData
+     * @throws JniException create TransactionData failed
+     */
+    public static TransactionDataHandle create(
+            String groupID, String chainID, String to, String data, String abi, long blockLimit)
+            throws JniException {
+        releaseUnreachable();
+        return new TransactionDataHandle(
+                TransactionBuilderJniObj.createTransactionData(
+                        groupID, chainID, to, data, abi, blockLimit));
+    }
+
+    /**
+     * take the ownership of a TransactionData pointer, the pointer must not be destroyed by others
+     *
+     * @param transactionData the TransactionData pointer
+     * @return the handle of the TransactionData
+     */
+    public static TransactionDataHandle wrap(long transactionData) {
+        releaseUnreachable();
+        return new TransactionDataHandle(transactionData);
+    }
+
+    /**
+     * @return the native TransactionData pointer
+     * @throws IllegalStateException the handle has been closed
+     */
+    public long get() {
+        if (this.releaser.isReleased()) {
+            throw new IllegalStateException("the TransactionData has been released");
+        }
+        return this.transactionData;
+    }
+
+    public boolean isClosed() {
+        return this.releaser.isReleased();
+    }
+
+    @Override
+    public void close() {
+        if (this.releaser.release()) {
+            this.releaser.clear();
+        }
+    }
+
+    /** @return the count of the TransactionData not released yet */
+    public static long getAliveCount() {
+        return aliveReleasers.size();
+    }
+
+    /** @return the count of the TransactionData released without close */
+    public static long getLeakedCount() {
+        return leakedCount.get();
+    }
+
+    /** release the TransactionData whose handle has been garbage collected without close */
+    public static void releaseUnreachable() {
+        Releaser releaser;
+        while ((releaser = (Releaser) unreachableHandles.poll()) != null) {
+            releaseLeaked(releaser);
+        }
+    }
+
+    private static void reapUnreachable() {
+        while (true) {
+            try {
+                releaseLeaked((Releaser) unreachableHandles.remove());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("release the unreachable TransactionData failed, e: ", e);
+            }
+        }
+    }
+
+    private static void releaseLeaked(Releaser releaser) {
+        if (releaser.release()) {
+            leakedCount.incrementAndGet();
+            logger.warn(
+                    "TransactionData not closed before garbage collected, pointer: {}",
+                    releaser.transactionData);
+        }
+    }
+
+    private static class Releaser extends PhantomReference<TransactionDataHandle> {
+        private final long transactionData;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        Releaser(TransactionDataHandle handle, long transactionData) {
+            super(handle, unreachableHandles);
+            this.transactionData = transactionData;
+        }
+
+        boolean isReleased() {
+            return this.released.get();
+        }
+
+        boolean release() {
+            if (!this.released.compareAndSet(false, true)) {
+                return false;
+            }
+            aliveReleasers.remove(this);
+            TransactionBuilderJniObj.destroyTransactionData(this.transactionData);
+            return true;
+        }
+    }
+}
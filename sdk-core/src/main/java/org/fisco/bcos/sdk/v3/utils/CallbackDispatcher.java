@@ -0,0 +1,307 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.utils;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.config.model.ThreadPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Call the callbacks of the native layer on an executor, so a slow callback doesn't stall the
+ * other responses on the native thread.
+ *
+ * <p>The callbacks are called inline on the calling thread if no executor is given. The callbacks
+ * dispatched with the same key are called one by one in the dispatched order, e.g. the logs of an
+ * event subscription. The callbacks rejected by the executor, e.g. when its queue is full, are
+ * called inline, which slows down the native layer instead of dropping the callbacks.
+ */
+public class CallbackDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CallbackDispatcher.class);
+    // the callbacks of a key called in a row before the thread is yielded to the other keys
+    private static final int MAX_KEY_BATCH = 64;
+
+    private final String name;
+    private final Executor executor;
+    private final ConcurrentHashMap<Object, KeyQueue> keyQueues = new ConcurrentHashMap<>();
+
+    private final AtomicLong dispatchedCount = new AtomicLong(0);
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder inlineCount = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalCallbackNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxCallbackNanos = new AtomicLong(0);
+
+    /** the callbacks of a key waiting to be called, only accessed in the compute of the key */
+    private static class KeyQueue {
+        private final ArrayDeque<Runnable> callbacks = new ArrayDeque<>();
+        private boolean running = false;
+    }
+
+    /**
+     * create the dispatcher
+     *
+     * @param name the name of the dispatcher, e.g. the component of the callbacks
+     * @param executor the executor to call the callbacks, null to call them inline
+     */
+    public CallbackDispatcher(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * @param name the name of the dispatcher
+     * @return the dispatcher calling the callbacks inline
+     */
+    public static CallbackDispatcher inline(String name) {
+        return new CallbackDispatcher(name, null);
+    }
+
+    /**
+     * create the dispatcher by the thread pool config. The threads of the sdk managed pool are
+     * daemon and exit when idle, so the pool needs no shutdown.
+     *
+     * @param name the name of the dispatcher, also the name of the threads
+     * @param config the thread pool config
+     * @param poolSize the threads of the pool
+     * @return the dispatcher calling the callbacks inline or on the sdk managed pool
+     */
+    public static CallbackDispatcher create(String name, ThreadPoolConfig config, int poolSize) {
+        if (Objects.isNull(config) || !config.isCallbackOnExecutor()) {
+            return inline(name);
+        }
+        int threads = Math.max(1, poolSize);
+        ThreadPoolExecutor threadPool =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        ThreadPoolService.DEFAULT_KEEP_ALIVE_TIME,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(Math.max(1, config.getCallbackQueueSize())),
+                        new BasicThreadFactory.Builder()
+                                .namingPattern(name + "-callback-%d")
+                                .daemon(true)
+                                .build(),
+                        new ThreadPoolExecutor.AbortPolicy());
+        threadPool.allowCoreThreadTimeOut(true);
+        logger.info(
+                "create callback dispatcher, name: {}, poolSize: {}, queueSize: {}",
+                name,
+                threads,
+                config.getCallbackQueueSize());
+        return new CallbackDispatcher(name, threadPool);
+    }
+
+    /**
+     * call the callback on the executor
+     *
+     * @param callback the callback
+     */
+    public void dispatch(Runnable callback) {
+        long dispatchNanos = System.nanoTime();
+        this.dispatchedCount.incrementAndGet();
+        if (Objects.isNull(this.executor)) {
+            this.run(callback, dispatchNanos);
+            return;
+        }
+        this.execute(() -> this.run(callback, dispatchNanos));
+    }
+
+    /**
+     * call the callback on the executor after the callbacks dispatched with the same key
+     *
+     * @param key the key of the callbacks to be called in order, e.g. the subscription
+     * @param callback the callback
+     */
+    public void dispatch(Object key, Runnable callback) {
+        long dispatchNanos = System.nanoTime();
+        this.dispatchedCount.incrementAndGet();
+        if (Objects.isNull(this.executor)) {
+            this.run(callback, dispatchNanos);
+            return;
+        }
+        Runnable timedCallback = () -> this.run(callback, dispatchNanos);
+        boolean[] start = new boolean[1];
+        this.keyQueues.compute(
+                key,
+                (k, existing) -> {
+                    KeyQueue queue = Objects.isNull(existing) ? new KeyQueue() : existing;
+                    queue.callbacks.addLast(timedCallback);
+                    if (!queue.running) {
+                        queue.running = true;
+                        start[0] = true;
+                    }
+                    return queue;
+                });
+        if (start[0]) {
+            this.execute(() -> this.drain(key));
+        }
+    }
+
+    // call the callbacks of the key, the key queue is removed once drained
+    private void drain(Object key) {
+        int called = 0;
+        while (true) {
+            // yield the thread to the other keys, the queue stays running
+            if (called > 0
+                    && called % MAX_KEY_BATCH == 0
+                    && this.tryExecute(() -> this.drain(key))) {
+                return;
+            }
+            Runnable[] next = new Runnable[1];
+            this.keyQueues.computeIfPresent(
+                    key,
+                    (k, existing) -> {
+                        next[0] = existing.callbacks.pollFirst();
+                        if (Objects.isNull(next[0])) {
+                            existing.running = false;
+                            return null;
+                        }
+                        return existing;
+                    });
+            if (Objects.isNull(next[0])) {
+                return;
+            }
+            next[0].run();
+            called++;
+        }
+    }
+
+    private void execute(Runnable task) {
+        if (!this.tryExecute(task)) {
+            task.run();
+        }
+    }
+
+    // false if the queue is full or the executor is shut down, the task is run by the caller
+    private boolean tryExecute(Runnable task) {
+        try {
+            this.executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            this.inlineCount.increment();
+            return false;
+        }
+    }
+
+    private void run(Runnable callback, long dispatchNanos) {
+        long startNanos = System.nanoTime();
+        long queueWaitNanos = startNanos - dispatchNanos;
+        this.totalQueueWaitNanos.add(queueWaitNanos);
+        this.maxQueueWaitNanos.accumulateAndGet(queueWaitNanos, Math::max);
+        try {
+            callback.run();
+        } catch (Exception e) {
+            this.failedCount.increment();
+            logger.warn("callback failed, dispatcher: {}, e: ", this.name, e);
+        } finally {
+            long callbackNanos = System.nanoTime() - startNanos;
+            this.totalCallbackNanos.add(callbackNanos);
+            this.maxCallbackNanos.accumulateAndGet(callbackNanos, Math::max);
+            this.completedCount.increment();
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /** @return the executor calling the callbacks, null if they are called inline */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    public long getDispatchedCount() {
+        return this.dispatchedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount.sum();
+    }
+
+    /** @return the count of the callbacks dispatched and not completed yet */
+    public long getPendingCount() {
+        return Math.max(0, this.dispatchedCount.get() - this.completedCount.sum());
+    }
+
+    /** @return the count of the callbacks throwing exceptions */
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    /** @return the count of the callbacks called inline as the executor rejected them */
+    public long getInlineCount() {
+        return this.inlineCount.sum();
+    }
+
+    /** @return the average time from dispatched to called, in microseconds */
+    public long getAverageQueueWaitMicros() {
+        long completed = this.completedCount.sum();
+        return completed == 0
+                ? 0
+                : TimeUnit.NANOSECONDS.toMicros(this.totalQueueWaitNanos.sum() / completed);
+    }
+
+    public long getMaxQueueWaitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxQueueWaitNanos.get());
+    }
+
+    /** @return the average time the callbacks take, in microseconds */
+    public long getAverageCallbackMicros() {
+        long completed = this.completedCount.sum();
+        return completed == 0
+                ? 0
+                : TimeUnit.NANOSECONDS.toMicros(this.totalCallbackNanos.sum() / completed);
+    }
+
+    public long getMaxCallbackMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxCallbackNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "CallbackDispatcher{"
+                + "name='"
+                + name
+                + '\''
+                + ", inline="
+                + Objects.isNull(executor)
+                + ", dispatched="
+                + getDispatchedCount()
+                + ", pending="
+                + getPendingCount()
+                + ", failed="
+                + getFailedCount()
+                + ", calledInline="
+                + getInlineCount()
+                + ", averageQueueWaitMicros="
+                + getAverageQueueWaitMicros()
+                + ", averageCallbackMicros="
+                + getAverageCallbackMicros()
+                + '}';
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.fisco.bcos.sdk.v3.utils;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publish the items to the subscribers by their demand, e.g. the block notifications and the event
+ * logs pushed by the native layer.
+ *
+ * <p>The publishing thread never waits for the subscribers: the items are buffered for every
+ * subscriber and delivered on the executor as the subscriber requests them. The items exceeding
+ * the buffer of a slow subscriber are handled by the {@link PublisherConfig.OverflowStrategy}, and
+ * the other subscribers are not affected. The methods of a subscriber are called one at a time.
+ *
+ * @param <T> the type of the items
+ */
+public class DemandPublisher<T> implements Flow.Publisher<T> {
+    private static final Logger logger = LoggerFactory.getLogger(DemandPublisher.class);
+
+    // shared by the publishers created without an executor, a slow subscriber holds one thread
+    // only and never delays the other subscribers or the common pool of the application
+    private static final ThreadPoolExecutor defaultExecutor =
+            new ThreadPoolExecutor(
+                    0,
+                    Integer.MAX_VALUE,
+                    ThreadPoolService.DEFAULT_KEEP_ALIVE_TIME,
+                    TimeUnit.SECONDS,
+                    new SynchronousQueue<>(),
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("demand-publisher-%d")
+                            .daemon(true)
+                            .build());
+
+    private final String name;
+    private final PublisherConfig.OverflowStrategy overflowStrategy;
+    private final int bufferSize;
+    private final Executor executor;
+    private final List<DemandSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    // set once closed, the later subscribers are terminated at once
+    private volatile boolean closed = false;
+    private volatile Throwable closedError;
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+    private final AtomicLong maxLag = new AtomicLong(0);
+    // the time from publishing an item to delivering it to a subscriber
+    private final LongAdder totalDeliveryLagNanos = new LongAdder();
+    private final AtomicLong maxDeliveryLagNanos = new AtomicLong(0);
+
+    /**
+     * create the publisher delivering the items on the shared daemon threads of the publishers
+     *
+     * @param name the name of the publisher, e.g. the group of the blocks
+     * @param config the overflow strategy and the buffer size of the subscribers
+     */
+    public DemandPublisher(String name, PublisherConfig config) {
+        this(name, config, defaultExecutor);
+    }
+
+    /**
+     * create the publisher
+     *
+     * @param name the name of the publisher, e.g. the group of the blocks
+     * @param config the overflow strategy and the buffer size of the subscribers
+     * @param executor the executor to call the subscribers
+     */
+    public DemandPublisher(String name, PublisherConfig config, Executor executor) {
+        this.name = name;
+        this.overflowStrategy = config.getOverflowStrategy();
+        this.bufferSize = Math.max(1, config.getBufferSize());
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        DemandSubscription subscription = new DemandSubscription(subscriber);
+        this.subscriptions.add(subscription);
+        // checked after added, so the subscriber is either terminated here or by close
+        if (this.closed) {
+            subscription.terminate(this.closedError);
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * publish the item to the current subscribers, never blocks
+     *
+     * @param item the item, not null
+     * @return the subscribers the item is offered to
+     */
+    public int publish(T item) {
+        Objects.requireNonNull(item, "item");
+        if (this.closed) {
+            return 0;
+        }
+        this.publishedCount.increment();
+        long publishNanos = System.nanoTime();
+        int offered = 0;
+        for (DemandSubscription subscription : this.subscriptions) {
+            subscription.offer(item, publishNanos);
+            offered++;
+        }
+        return offered;
+    }
+
+    /** complete the subscribers after the items buffered, the later items are not published */
+    public void close() {
+        this.closeExceptionally(null);
+    }
+
+    /**
+     * fail the subscribers at once, the items buffered are dropped
+     *
+     * @param error the error, null to complete the subscribers normally
+     */
+    public void closeExceptionally(Throwable error) {
+        if (this.closed) {
+            return;
+        }
+        this.closedError = error;
+        this.closed = true;
+        for (DemandSubscription subscription : this.subscriptions) {
+            subscription.terminate(error);
+            subscription.schedule();
+        }
+        logger.info(
+                "close publisher, name: {}, published: {}, delivered: {}, dropped: {}, error: {}",
+                this.name,
+                this.getPublishedCount(),
+                this.getDeliveredCount(),
+                this.getDroppedCount(),
+                Objects.isNull(error) ? "" : error.getMessage());
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getSubscriberCount() {
+        return this.subscriptions.size();
+    }
+
+    public long getPublishedCount() {
+        return this.publishedCount.sum();
+    }
+
+    /** @return the items delivered to all the subscribers */
+    public long getDeliveredCount() {
+        return this.deliveredCount.sum();
+    }
+
+    /** @return the items dropped by DROP_OLDEST and LATEST_ONLY for the slow subscribers */
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    /** @return the subscribers failed by the full buffer of BUFFER */
+    public long getOverflowCount() {
+        return this.overflowCount.sum();
+    }
+
+    /** @return the items published but not delivered yet of the slowest subscriber */
+    public long getLag() {
+        long lag = 0;
+        for (DemandSubscription subscription : this.subscriptions) {
+            lag = Math.max(lag, subscription.getPending());
+        }
+        return lag;
+    }
+
+    public long getMaxLag() {
+        return this.maxLag.get();
+    }
+
+    /** @return the average time from publishing an item to delivering it in microseconds */
+    public long getAvgDeliveryLagMicros() {
+        long delivered = this.getDeliveredCount();
+        return delivered == 0
+                ? 0
+                : TimeUnit.NANOSECONDS.toMicros(this.totalDeliveryLagNanos.sum() / delivered);
+    }
+
+    public long getMaxDeliveryLagMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxDeliveryLagNanos.get());
+    }
+
+    /** an item waiting for the demand of a subscriber */
+    private static class Item<T> {
+        private final T value;
+        private final long publishNanos;
+
+        private Item(T value, long publishNanos) {
+            this.value = value;
+            this.publishNanos = publishNanos;
+        }
+    }
+
+    /**
+     * the buffer and the demand of a subscriber, the subscriber is called by the drain loop which
+     * runs on one thread at a time
+     */
+    private class DemandSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong(0);
+        // the drain requests, the drain loop runs while it is not zero
+        private final AtomicInteger wip = new AtomicInteger(0);
+        private volatile boolean cancelled = false;
+        // only accessed by the drain loop
+        private boolean subscribed = false;
+        // guarded by this
+        private final ArrayDeque<Item<T>> items = new ArrayDeque<>();
+        private boolean done = false;
+        private Throwable error;
+
+        private DemandSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void offer(T value, long publishNanos) {
+            int dropped = 0;
+            boolean overflow = false;
+            int pending;
+            synchronized (this) {
+                if (this.done || this.cancelled) {
+                    return;
+                }
+                if (overflowStrategy == PublisherConfig.OverflowStrategy.LATEST_ONLY) {
+                    dropped = this.items.size();
+                    this.items.clear();
+                } else if (this.items.size() >= bufferSize) {
+                    if (overflowStrategy == PublisherConfig.OverflowStrategy.DROP_OLDEST) {
+                        this.items.pollFirst();
+                        dropped = 1;
+                    } else {
+                        overflow = true;
+                        this.items.clear();
+                        this.done = true;
+                        this.error =
+                                new IllegalStateException(
+                                        "the buffer of the subscriber is full, publisher: "
+                                                + name
+                                                + ", bufferSize: "
+                                                + bufferSize);
+                    }
+                }
+                if (!overflow) {
+                    this.items.addLast(new Item<>(value, publishNanos));
+                }
+                pending = this.items.size();
+            }
+            if (dropped > 0) {
+                droppedCount.add(dropped);
+            }
+            if (overflow) {
+                overflowCount.increment();
+                logger.warn(
+                        "the subscriber is too slow, fail it, publisher: {}, bufferSize: {}",
+                        name,
+                        bufferSize);
+            }
+            maxLag.accumulateAndGet(pending, Math::max);
+            this.schedule();
+        }
+
+        private synchronized int getPending() {
+            return this.items.size();
+        }
+
+        // complete the subscriber after the items buffered, or fail it at once
+        private void terminate(Throwable error) {
+            synchronized (this) {
+                if (this.done) {
+                    return;
+                }
+                this.done = true;
+                this.error = error;
+                if (Objects.nonNull(error)) {
+                    this.items.clear();
+                }
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.terminate(new IllegalArgumentException("non-positive request: " + n));
+            } else {
+                // capped at Long.MAX_VALUE, which is no limit
+                this.requested.accumulateAndGet(
+                        n,
+                        (current, added) ->
+                                current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                this.items.clear();
+            }
+        }
+
+        private void schedule() {
+            if (this.wip.getAndIncrement() != 0) {
+                // the running drain loop picks up the change
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                this.run();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!this.subscribed) {
+                    this.subscribed = true;
+                    try {
+                        this.subscriber.onSubscribe(this);
+                    } catch (Throwable e) {
+                        logger.warn("onSubscribe failed, cancel it, publisher: {}, e: ", name, e);
+                        this.cancel();
+                    }
+                }
+                long requested = this.requested.get();
+                long emitted = 0;
+                while (true) {
+                    if (this.cancelled) {
+                        return;
+                    }
+                    Item<T> item = null;
+                    Throwable failure;
+                    boolean completed;
+                    synchronized (this) {
+                        failure = this.error;
+                        if (Objects.isNull(failure) && emitted != requested) {
+                            item = this.items.pollFirst();
+                        }
+                        completed = this.done && Objects.isNull(item) && this.items.isEmpty();
+                    }
+                    if (Objects.nonNull(failure) || completed) {
+                        this.signalTerminal(failure);
+                        return;
+                    }
+                    if (Objects.isNull(item)) {
+                        break;
+                    }
+                    this.deliver(item);
+                    emitted++;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    this.requested.addAndGet(-emitted);
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver(Item<T> item) {
+            long lagNanos = System.nanoTime() - item.publishNanos;
+            try {
+                this.subscriber.onNext(item.value);
+            } catch (Throwable e) {
+                logger.warn("onNext failed, cancel the subscriber, publisher: {}, e: ", name, e);
+                this.cancel();
+                return;
+            }
+            deliveredCount.increment();
+            totalDeliveryLagNanos.add(lagNanos);
+            maxDeliveryLagNanos.accumulateAndGet(lagNanos, Math::max);
+        }
+
+        private void signalTerminal(Throwable failure) {
+            this.cancel();
+            try {
+                if (Objects.nonNull(failure)) {
+                    this.subscriber.onError(failure);
+                } else {
+                    this.subscriber.onComplete();
+                }
+            } catch (Throwable e) {
+                logger.warn("the subscriber failed to terminate, publisher: {}, e: ", name, e);
+            }
+        }
+    }
+}
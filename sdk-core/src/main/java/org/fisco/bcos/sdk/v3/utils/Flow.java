@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.fisco.bcos.sdk.v3.utils;
+
+/**
+ * The interfaces of the publishers with the demand of the subscribers, the same as
+ * java.util.concurrent.Flow of Java 9 and the Reactive Streams, for the sdk built for Java 8. A
+ * Reactive Streams subscriber can be adapted by forwarding the calls one to one.
+ */
+public final class Flow {
+    private Flow() {}
+
+    /**
+     * the producer of the items received by the subscribers
+     *
+     * @param <T> the type of the items
+     */
+    public interface Publisher<T> {
+        /**
+         * add the subscriber, onSubscribe is called before any other method of the subscriber
+         *
+         * @param subscriber the subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * the receiver of the items, the methods of a subscription are called one at a time and never
+     * concurrently
+     *
+     * @param <T> the type of the items
+     */
+    public interface Subscriber<T> {
+        /**
+         * called first, no item is received before the subscriber requests by the subscription
+         *
+         * @param subscription the subscription to request the items or cancel
+         */
+        void onSubscribe(Subscription subscription);
+
+        /** @param item the next item, called no more than the items requested */
+        void onNext(T item);
+
+        /** @param throwable the failure, no method is called after it */
+        void onError(Throwable throwable);
+
+        /** called when no more items, no method is called after it */
+        void onComplete();
+    }
+
+    /** the link between a publisher and a subscriber */
+    public interface Subscription {
+        /**
+         * add the demand of the subscriber, onError is called with IllegalArgumentException if n is
+         * not positive
+         *
+         * @param n the items more to receive, Long.MAX_VALUE for no limit
+         */
+        void request(long n);
+
+        /** stop receiving the items, the items may still be received for a while */
+        void cancel();
+    }
+}
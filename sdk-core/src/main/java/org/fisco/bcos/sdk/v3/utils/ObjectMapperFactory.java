@@ -17,11 +17,17 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** Factory for managing our ObjectMapper instances. */
 public class ObjectMapperFactory {
 
     private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+    private static final ConcurrentHashMap<Class<?>, ObjectReader> OBJECT_READERS =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ObjectWriter> OBJECT_WRITERS =
+            new ConcurrentHashMap<>();
 
     static {
         configureObjectMapper(DEFAULT_OBJECT_MAPPER);
@@ -37,6 +43,39 @@ public class ObjectMapperFactory {
         return DEFAULT_OBJECT_MAPPER.reader();
     }
 
+    /**
+     * get the reader bound to the type, the deserializer of the type is resolved once and the
+     * reader is shared
+     *
+     * @param valueType the type to read
+     * @return the cached reader of the type
+     */
+    public static ObjectReader getObjectReader(Class<?> valueType) {
+        // lock-free for the cached types
+        ObjectReader objectReader = OBJECT_READERS.get(valueType);
+        if (objectReader == null) {
+            objectReader =
+                    OBJECT_READERS.computeIfAbsent(valueType, DEFAULT_OBJECT_MAPPER::readerFor);
+        }
+        return objectReader;
+    }
+
+    /**
+     * get the writer bound to the type, the serializer of the type is resolved once and the
+     * writer is shared
+     *
+     * @param valueType the type to write
+     * @return the cached writer of the type
+     */
+    public static ObjectWriter getObjectWriter(Class<?> valueType) {
+        ObjectWriter objectWriter = OBJECT_WRITERS.get(valueType);
+        if (objectWriter == null) {
+            objectWriter =
+                    OBJECT_WRITERS.computeIfAbsent(valueType, DEFAULT_OBJECT_MAPPER::writerFor);
+        }
+        return objectWriter;
+    }
+
     private static ObjectMapper configureObjectMapper(ObjectMapper objectMapper) {
         objectMapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
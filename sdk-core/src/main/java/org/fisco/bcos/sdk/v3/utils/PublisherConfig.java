@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.fisco.bcos.sdk.v3.utils;
+
+/** the parameters of the DemandPublisher */
+public class PublisherConfig {
+    /** what to do with the item published when the buffer of a slow subscriber is full */
+    public enum OverflowStrategy {
+        // keep every item, the subscriber fails with onError once its buffer is full
+        BUFFER,
+        // drop the oldest item buffered to keep the new one
+        DROP_OLDEST,
+        // keep the latest item only, e.g. the latest block number
+        LATEST_ONLY
+    }
+
+    private OverflowStrategy overflowStrategy = OverflowStrategy.BUFFER;
+    // the max items buffered for a subscriber not requesting them, not used by LATEST_ONLY
+    private int bufferSize = 1024;
+
+    public OverflowStrategy getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+    public void setOverflowStrategy(OverflowStrategy overflowStrategy) {
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PublisherConfig{"
+                + "overflowStrategy="
+                + overflowStrategy
+                + ", bufferSize="
+                + bufferSize
+                + '}';
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.fisco.bcos.sdk.v3.test.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.config.model.ThreadPoolConfig;
+import org.fisco.bcos.sdk.v3.utils.CallbackDispatcher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CallbackDispatcherTest {
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService newExecutor(int threads, int queueSize) {
+        ExecutorService executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(queueSize),
+                        new ThreadPoolExecutor.AbortPolicy());
+        executors.add(executor);
+        return executor;
+    }
+
+    @Test
+    public void testInline() {
+        ThreadPoolConfig config = new ThreadPoolConfig();
+        Assert.assertFalse(config.isCallbackOnExecutor());
+        CallbackDispatcher dispatcher = CallbackDispatcher.create("test", config, 4);
+        Thread caller = Thread.currentThread();
+        Thread[] called = new Thread[2];
+        dispatcher.dispatch(() -> called[0] = Thread.currentThread());
+        dispatcher.dispatch("key", () -> called[1] = Thread.currentThread());
+        Assert.assertSame(caller, called[0]);
+        Assert.assertSame(caller, called[1]);
+        Assert.assertEquals(2, dispatcher.getCompletedCount());
+    }
+
+    @Test
+    public void testExecutor() throws Exception {
+        ThreadPoolConfig config = new ThreadPoolConfig();
+        config.setCallbackMode(ThreadPoolConfig.CALLBACK_MODE_EXECUTOR);
+        CallbackDispatcher dispatcher = CallbackDispatcher.create("test", config, 2);
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread[] called = new Thread[1];
+        dispatcher.dispatch(
+                () -> {
+                    called[0] = Thread.currentThread();
+                    latch.countDown();
+                });
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertNotSame(Thread.currentThread(), called[0]);
+        Assert.assertTrue(called[0].isDaemon());
+        Assert.assertTrue(called[0].getName().startsWith("test-callback-"));
+    }
+
+    @Test
+    public void testKeyedOrder() throws Exception {
+        CallbackDispatcher dispatcher = new CallbackDispatcher("test", newExecutor(8, 100000));
+        int keys = 4;
+        int callbacksPerKey = 1000;
+        List<List<Integer>> received = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            received.add(new ArrayList<>());
+        }
+        CountDownLatch latch = new CountDownLatch(keys * callbacksPerKey);
+        // the callbacks of every key are dispatched by its own thread, as the native threads do
+        List<Thread> producers = new ArrayList<>();
+        for (int key = 0; key < keys; key++) {
+            List<Integer> keyReceived = received.get(key);
+            Integer dispatchKey = key;
+            producers.add(
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < callbacksPerKey; i++) {
+                                    int sequence = i;
+                                    dispatcher.dispatch(
+                                            dispatchKey,
+                                            () -> {
+                                                // not synchronized, the key is called by one
+                                                // thread at a time
+                                                keyReceived.add(sequence);
+                                                latch.countDown();
+                                            });
+                                }
+                            }));
+        }
+        producers.forEach(Thread::start);
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (List<Integer> keyReceived : received) {
+            Assert.assertEquals(callbacksPerKey, keyReceived.size());
+            for (int i = 0; i < callbacksPerKey; i++) {
+                Assert.assertEquals(i, keyReceived.get(i).intValue());
+            }
+        }
+        Assert.assertEquals(keys * callbacksPerKey, dispatcher.getDispatchedCount());
+    }
+
+    @Test
+    public void testSlowCallbackNotBlockingOthers() throws Exception {
+        CallbackDispatcher dispatcher = new CallbackDispatcher("test", newExecutor(2, 100));
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(
+                "slow",
+                () -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        CountDownLatch slowKeyCalled = new CountDownLatch(1);
+        dispatcher.dispatch("slow", slowKeyCalled::countDown);
+
+        // the other keys are still called while the slow callback runs
+        CountDownLatch fastCalled = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch("fast", fastCalled::countDown);
+        }
+        Assert.assertTrue(fastCalled.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, slowKeyCalled.getCount());
+
+        release.countDown();
+        Assert.assertTrue(slowKeyCalled.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(dispatcher.getMaxCallbackMicros() > 0);
+    }
+
+    @Test
+    public void testQueueFullCalledInline() throws Exception {
+        CallbackDispatcher dispatcher = new CallbackDispatcher("test", newExecutor(1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking =
+                () -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+        // one running and one queued
+        dispatcher.dispatch(blocking);
+        dispatcher.dispatch(() -> {});
+        Thread[] called = new Thread[1];
+        dispatcher.dispatch(() -> called[0] = Thread.currentThread());
+        Assert.assertSame(Thread.currentThread(), called[0]);
+        Assert.assertEquals(1, dispatcher.getInlineCount());
+
+        // the failed callback is counted, not thrown to the caller
+        dispatcher.dispatch(
+                () -> {
+                    throw new IllegalStateException("callback failed");
+                });
+        Assert.assertEquals(1, dispatcher.getFailedCount());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(0, dispatcher.getPendingCount());
+        Assert.assertEquals(4, dispatcher.getCompletedCount());
+        Assert.assertTrue(dispatcher.getMaxQueueWaitMicros() > 0);
+    }
+}
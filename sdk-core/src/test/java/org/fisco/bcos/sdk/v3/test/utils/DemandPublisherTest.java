@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.fisco.bcos.sdk.v3.test.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.utils.DemandPublisher;
+import org.fisco.bcos.sdk.v3.utils.Flow;
+import org.fisco.bcos.sdk.v3.utils.PublisherConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DemandPublisherTest {
+    /** the subscriber requesting the items by the test */
+    private static class TestSubscriber implements Flow.Subscriber<Integer> {
+        private final List<Integer> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed = false;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            this.items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+            this.terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+            this.terminated.countDown();
+        }
+    }
+
+    private static DemandPublisher<Integer> newPublisher(
+            PublisherConfig.OverflowStrategy strategy, int bufferSize) {
+        PublisherConfig config = new PublisherConfig();
+        config.setOverflowStrategy(strategy);
+        config.setBufferSize(bufferSize);
+        // call the subscribers on the publishing thread, so the test is deterministic
+        return new DemandPublisher<>("test", config, Runnable::run);
+    }
+
+    private static void publish(DemandPublisher<Integer> publisher, int from, int to) {
+        for (int i = from; i < to; i++) {
+            publisher.publish(i);
+        }
+    }
+
+    @Test
+    public void testDemand() {
+        DemandPublisher<Integer> publisher =
+                newPublisher(PublisherConfig.OverflowStrategy.BUFFER, 100);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        Assert.assertNotNull(subscriber.subscription);
+
+        // nothing is delivered before requested
+        publish(publisher, 0, 10);
+        Assert.assertTrue(subscriber.items.isEmpty());
+        Assert.assertEquals(10, publisher.getLag());
+
+        subscriber.subscription.request(3);
+        Assert.assertEquals(3, subscriber.items.size());
+        Assert.assertEquals(7, publisher.getLag());
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        publish(publisher, 10, 20);
+        Assert.assertEquals(20, subscriber.items.size());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i, subscriber.items.get(i).intValue());
+        }
+        Assert.assertEquals(0, publisher.getLag());
+        Assert.assertEquals(10, publisher.getMaxLag());
+        Assert.assertEquals(20, publisher.getDeliveredCount());
+        Assert.assertTrue(publisher.getMaxDeliveryLagMicros() > 0);
+
+        // the buffered items are delivered before the completion
+        TestSubscriber slow = new TestSubscriber();
+        publisher.subscribe(slow);
+        publish(publisher, 20, 22);
+        publisher.close();
+        Assert.assertFalse(slow.completed);
+        slow.subscription.request(2);
+        Assert.assertTrue(slow.completed);
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertEquals(0, publisher.getSubscriberCount());
+        Assert.assertEquals(0, publisher.publish(22));
+
+        // the subscriber after closed is completed at once
+        TestSubscriber late = new TestSubscriber();
+        publisher.subscribe(late);
+        Assert.assertTrue(late.completed);
+    }
+
+    @Test
+    public void testBufferOverflow() {
+        DemandPublisher<Integer> publisher =
+                newPublisher(PublisherConfig.OverflowStrategy.BUFFER, 5);
+        TestSubscriber slow = new TestSubscriber();
+        TestSubscriber fast = new TestSubscriber();
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+        fast.subscription.request(Long.MAX_VALUE);
+        publish(publisher, 0, 6);
+        // the slow subscriber fails, the fast one is not affected
+        Assert.assertTrue(slow.error instanceof IllegalStateException);
+        Assert.assertTrue(slow.items.isEmpty());
+        Assert.assertEquals(6, fast.items.size());
+        Assert.assertEquals(1, publisher.getOverflowCount());
+        Assert.assertEquals(1, publisher.getSubscriberCount());
+    }
+
+    @Test
+    public void testDropOldest() {
+        DemandPublisher<Integer> publisher =
+                newPublisher(PublisherConfig.OverflowStrategy.DROP_OLDEST, 3);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        publish(publisher, 0, 10);
+        subscriber.subscription.request(10);
+        Assert.assertEquals(Arrays.asList(7, 8, 9), subscriber.items);
+        Assert.assertEquals(7, publisher.getDroppedCount());
+        Assert.assertEquals(3, publisher.getMaxLag());
+    }
+
+    @Test
+    public void testLatestOnly() {
+        DemandPublisher<Integer> publisher =
+                newPublisher(PublisherConfig.OverflowStrategy.LATEST_ONLY, 100);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        publish(publisher, 0, 10);
+        subscriber.subscription.request(1);
+        publish(publisher, 10, 12);
+        subscriber.subscription.request(5);
+        Assert.assertEquals(Arrays.asList(9, 11), subscriber.items);
+        Assert.assertEquals(10, publisher.getDroppedCount());
+        Assert.assertEquals(1, publisher.getMaxLag());
+    }
+
+    @Test
+    public void testInvalidRequestAndCancel() {
+        DemandPublisher<Integer> publisher =
+                newPublisher(PublisherConfig.OverflowStrategy.BUFFER, 10);
+        TestSubscriber invalid = new TestSubscriber();
+        publisher.subscribe(invalid);
+        invalid.subscription.request(0);
+        Assert.assertTrue(invalid.error instanceof IllegalArgumentException);
+
+        TestSubscriber cancelled = new TestSubscriber();
+        publisher.subscribe(cancelled);
+        cancelled.subscription.request(1);
+        publish(publisher, 0, 1);
+        cancelled.subscription.cancel();
+        publish(publisher, 1, 2);
+        Assert.assertEquals(1, cancelled.items.size());
+        Assert.assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test
+    public void testSlowSubscriberNotBlockingPublisher() throws Exception {
+        PublisherConfig config = new PublisherConfig();
+        config.setOverflowStrategy(PublisherConfig.OverflowStrategy.DROP_OLDEST);
+        config.setBufferSize(10);
+        DemandPublisher<Integer> publisher = new DemandPublisher<>("test", config);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        publisher.subscribe(
+                new Flow.Subscriber<Integer>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(Integer item) {
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        received.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {}
+
+                    @Override
+                    public void onComplete() {
+                        completed.countDown();
+                    }
+                });
+        long start = System.nanoTime();
+        publish(publisher, 0, 10000);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        publisher.close();
+        release.countDown();
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        // the subscriber is blocked on at most one item, then gets the latest ones buffered
+        Assert.assertTrue(received.size() <= 11);
+        Assert.assertEquals(9999, received.get(received.size() - 1).intValue());
+        Assert.assertEquals(10000, publisher.getDroppedCount() + received.size());
+    }
+
+    @Test
+    public void testDefaultExecutorDaemonThreads() throws Exception {
+        DemandPublisher<Integer> publisher = new DemandPublisher<>("test", new PublisherConfig());
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch received = new CountDownLatch(1);
+        publisher.subscribe(
+                new Flow.Subscriber<Integer>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onNext(Integer item) {
+                        threads.add(Thread.currentThread());
+                        received.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {}
+
+                    @Override
+                    public void onComplete() {}
+                });
+        publisher.publish(1);
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+        // not the common pool shared with the application
+        Assert.assertTrue(threads.get(0).isDaemon());
+        Assert.assertTrue(threads.get(0).getName().startsWith("demand-publisher-"));
+        publisher.close();
+    }
+}
@@ -13,14 +13,30 @@
  */
 package org.fisco.bcos.sdk.v3;
 
+import java.io.File;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.fisco.bcos.sdk.jni.BcosSDKJniObj;
 import org.fisco.bcos.sdk.jni.BlockNotifier;
+import org.fisco.bcos.sdk.jni.rpc.RpcJniObj;
 import org.fisco.bcos.sdk.v3.amop.Amop;
+import org.fisco.bcos.sdk.v3.client.BlockLimitTracker;
 import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.client.ClientImpl;
+import org.fisco.bcos.sdk.v3.client.ClientRegistry;
+import org.fisco.bcos.sdk.v3.client.GroupInfoSnapshot;
 import org.fisco.bcos.sdk.v3.config.Config;
 import org.fisco.bcos.sdk.v3.config.ConfigOption;
 import org.fisco.bcos.sdk.v3.config.exceptions.ConfigException;
 import org.fisco.bcos.sdk.v3.eventsub.EventSubscribe;
+import org.fisco.bcos.sdk.v3.utils.DemandPublisher;
+import org.fisco.bcos.sdk.v3.utils.PublisherConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +45,20 @@ public class BcosSDK {
 
     private final ConfigOption config;
     private BcosSDKJniObj bcosSDKJniObj;
+    // the shared clients by group, all on the native sdk of this BcosSDK
+    private final ClientRegistry clientRegistry =
+            new ClientRegistry(this::createClient, this::closeClient);
+    // the groups whose block notifications are dispatched to the shared client
+    private final Set<String> notifiedGroups = ConcurrentHashMap.newKeySet();
+    // the publishers of the block numbers by group, fed by the block notifier of the group
+    private final Map<String, List<DemandPublisher<BigInteger>>> blockPublishers =
+            new ConcurrentHashMap<>();
+    // the group info snapshot files to start the shared clients from
+    private final Map<String, File> snapshotFiles = new ConcurrentHashMap<>();
+    // the modules with their own native sdk, destroyed by stopAll
+    private final List<Amop> amops = new CopyOnWriteArrayList<>();
+    private final List<EventSubscribe> eventSubscribes = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
 
     public ConfigOption getConfig() {
         return config;
@@ -76,13 +106,18 @@ public class BcosSDK {
     }
 
     /**
-     * Get a Client instance of a specific group
+     * Get the shared Client instance of a specific group, the client is created by the first call
+     * and reused by the later calls. The configuration of the shared client can't be changed, e.g.
+     * the request timeout and the enabled transports, since it affects all the users of the group,
+     * build an own client by Client.build for the custom configuration. Stopping or destroying the
+     * shared client is ignored, evict it by {@link #evictClient(String)} instead.
      *
      * @return Client
      */
     public Client getClient(String groupId) throws BcosSDKException {
+        this.checkNotStopped();
         try {
-            return Client.build(groupId, config, bcosSDKJniObj.getNativePointer());
+            return this.clientRegistry.get(groupId);
         } catch (Exception e) {
             logger.warn("create client for failed, error: {}", e);
             throw new BcosSDKException("get Client failed, e: " + e.getMessage());
@@ -90,35 +125,248 @@ public class BcosSDK {
     }
 
     /**
-     * Get a Client instance of default group in config
+     * Get the shared Client instance of a specific group, starting from the group info snapshot
+     * file if the client is not created yet. The group info is got from the node and exported to
+     * the file if the file is absent or invalid.
+     *
+     * @param groupId the group
+     * @param snapshotFile the group info snapshot file of the group
+     * @return Client
+     */
+    public Client getClient(String groupId, File snapshotFile) throws BcosSDKException {
+        this.snapshotFiles.put(groupId, snapshotFile);
+        return this.getClient(groupId);
+    }
+
+    /**
+     * export the group info snapshot of the shared client of the group
+     *
+     * @param groupId the group
+     * @param snapshotFile the snapshot file, replaced atomically
+     * @return the exported snapshot
+     */
+    public GroupInfoSnapshot exportGroupInfoSnapshot(String groupId, File snapshotFile)
+            throws BcosSDKException {
+        Client client = this.getClient(groupId);
+        if (!(client instanceof ClientImpl)) {
+            throw new BcosSDKException(
+                    "export group info snapshot failed, unsupported client: " + client);
+        }
+        try {
+            return ((ClientImpl) client).exportGroupInfoSnapshot(snapshotFile);
+        } catch (Exception e) {
+            throw new BcosSDKException(
+                    "export group info snapshot failed, e: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the shared Client instance of default group in config
      *
      * @return Client
      */
     public Client getClient() throws BcosSDKException {
+        String groupId = config.getNetworkConfig().getDefaultGroup();
+        if ((groupId == null) || groupId.isEmpty()) {
+            throw new BcosSDKException(
+                    "get Client failed, e: The default group is not set, "
+                            + "please set it in config.toml: defaultGroup field");
+        }
+        return this.getClient(groupId);
+    }
+
+    /**
+     * get the group info of the shared client of the group from the node again, e.g. after the
+     * nodes of the group changed
+     *
+     * @param groupId the group
+     * @return the shared client
+     */
+    public Client refreshClient(String groupId) throws BcosSDKException {
+        Client client = this.getClient(groupId);
         try {
-            String groupId = config.getNetworkConfig().getDefaultGroup();
-            if ((groupId == null) || groupId.isEmpty()) {
-                throw new RuntimeException(
-                        "The default group is not set, please set it in config.toml: defaultGroup field");
+            if (client instanceof ClientImpl) {
+                ((ClientImpl) client).refreshGroupInfo();
             }
-            return Client.build(
-                    config.getNetworkConfig().getDefaultGroup(),
-                    config,
-                    bcosSDKJniObj.getNativePointer());
+            return client;
         } catch (Exception e) {
-            logger.warn("create client for failed, error: {}", e);
-            throw new BcosSDKException("get Client failed, e: " + e.getMessage());
+            logger.warn("refresh client failed, groupID: {}, error: {}", groupId, e);
+            throw new BcosSDKException("refresh Client failed, e: " + e.getMessage());
+        }
+    }
+
+    /**
+     * close the shared client of the group and remove it, the next {@link #getClient(String)}
+     * creates a new one. The requests of the evicted client fail, so its users get a new one
+     * instead of sending the transactions with a stale block limit.
+     *
+     * @param groupId the group
+     * @return true if the client of the group is evicted
+     */
+    public boolean evictClient(String groupId) {
+        return this.clientRegistry.evict(groupId);
+    }
+
+    /** @return the registry of the shared clients, to get the groups and the stats */
+    public ClientRegistry getClientRegistry() {
+        return this.clientRegistry;
+    }
+
+    private Client createClient(String groupId) {
+        try {
+            File snapshotFile = this.snapshotFiles.get(groupId);
+            GroupInfoSnapshot snapshot = this.loadSnapshot(groupId, snapshotFile);
+            Client client =
+                    Client.build(groupId, config, bcosSDKJniObj.getNativePointer(), snapshot);
+            if (snapshotFile != null && snapshot == null) {
+                this.saveSnapshot(client, snapshotFile);
+            }
+            if (client instanceof ClientImpl) {
+                ((ClientImpl) client).markShared();
+            }
+            this.registerGroupNotifier(groupId);
+            return client;
+        } catch (Exception e) {
+            throw new BcosSDKException("create Client failed, e: " + e.getMessage(), e);
+        }
+    }
+
+    // return null to get the group info from the node if the snapshot can't be used
+    private GroupInfoSnapshot loadSnapshot(String groupId, File snapshotFile) {
+        if (snapshotFile == null || !snapshotFile.exists()) {
+            return null;
+        }
+        try {
+            GroupInfoSnapshot snapshot = GroupInfoSnapshot.load(snapshotFile);
+            if (groupId.equals(snapshot.getGroupID())) {
+                return snapshot;
+            }
+            logger.warn(
+                    "ignore the group info snapshot of another group, groupID: {}, file: {}",
+                    groupId,
+                    snapshotFile);
+        } catch (Exception e) {
+            logger.warn(
+                    "ignore the invalid group info snapshot, file: {}, e: {}",
+                    snapshotFile,
+                    e.getMessage());
+        }
+        return null;
+    }
+
+    // the client is usable without the snapshot, so the export failure is only logged
+    private void saveSnapshot(Client client, File snapshotFile) {
+        if (!(client instanceof ClientImpl)) {
+            return;
+        }
+        try {
+            ((ClientImpl) client).exportGroupInfoSnapshot(snapshotFile);
+        } catch (Exception e) {
+            logger.warn(
+                    "export group info snapshot failed, file: {}, e: {}",
+                    snapshotFile,
+                    e.getMessage());
+        }
+    }
+
+    // the native sdk is shared by the clients, so only the resources of the client are released,
+    // and its later requests fail
+    private void closeClient(Client client) {
+        if (client instanceof ClientImpl) {
+            ((ClientImpl) client)
+                    .invalidate(
+                            "the shared client is evicted, get the client by BcosSDK.getClient"
+                                    + " again, groupID: "
+                                    + client.getGroup());
+        }
+    }
+
+    // keep the block limit of the shared client and the block publishers updated by the block
+    // notifications, the notifier is registered once per group as it can't be unregistered
+    private void registerGroupNotifier(String groupId) {
+        if (!this.notifiedGroups.add(groupId)) {
+            return;
+        }
+        this.registerBlockNotifier(
+                groupId,
+                (groupID, blockNumber) -> {
+                    Client client = this.clientRegistry.getIfPresent(groupID);
+                    if (client instanceof ClientImpl) {
+                        BlockLimitTracker tracker = ((ClientImpl) client).getBlockLimitTracker();
+                        if (tracker != null) {
+                            tracker.onResponse(groupID, blockNumber);
+                        }
+                    }
+                    this.publishBlock(groupID, blockNumber);
+                });
+    }
+
+    private void publishBlock(String groupId, BigInteger blockNumber) {
+        List<DemandPublisher<BigInteger>> publishers = this.blockPublishers.get(groupId);
+        if (publishers == null) {
+            return;
+        }
+        for (DemandPublisher<BigInteger> publisher : publishers) {
+            if (publisher.isClosed()) {
+                publishers.remove(publisher);
+            } else {
+                publisher.publish(blockNumber);
+            }
         }
     }
 
+    /**
+     * Create the publisher of the new block numbers of a group, the block numbers are delivered to
+     * the subscribers by their demand instead of on the native thread. The publisher stops
+     * publishing once closed, and is closed by stopAll.
+     *
+     * @param groupId the group
+     * @param config the overflow strategy of the slow subscribers, e.g. LATEST_ONLY to receive
+     *     only the latest block number
+     * @return the publisher
+     */
+    public DemandPublisher<BigInteger> createBlockPublisher(
+            String groupId, PublisherConfig config) {
+        return this.registerBlockPublisher(
+                groupId, config, new DemandPublisher<>("block-" + groupId, config));
+    }
+
+    /**
+     * Create the publisher of the new block numbers of a group, delivering the block numbers to
+     * the subscribers on the given executor.
+     *
+     * @param groupId the group
+     * @param config the overflow strategy of the slow subscribers
+     * @param executor the executor to call the subscribers, not shut down by stopAll
+     * @return the publisher
+     */
+    public DemandPublisher<BigInteger> createBlockPublisher(
+            String groupId, PublisherConfig config, Executor executor) {
+        return this.registerBlockPublisher(
+                groupId, config, new DemandPublisher<>("block-" + groupId, config, executor));
+    }
+
+    private DemandPublisher<BigInteger> registerBlockPublisher(
+            String groupId, PublisherConfig config, DemandPublisher<BigInteger> publisher) {
+        this.checkNotStopped();
+        this.blockPublishers
+                .computeIfAbsent(groupId, group -> new CopyOnWriteArrayList<>())
+                .add(publisher);
+        this.registerGroupNotifier(groupId);
+        logger.info("create block publisher, groupId: {}, config: {}", groupId, config);
+        return publisher;
+    }
+
     /**
      * Get a amop instance of a specific group
      *
      * @return Client
      */
     public Amop getAmop() throws BcosSDKException {
+        this.checkNotStopped();
         try {
             Amop amop = Amop.build(config);
+            this.amops.add(amop);
             return amop;
         } catch (Exception e) {
             logger.error("create amop for failed, error: {}", e);
@@ -132,8 +380,10 @@ public class BcosSDK {
      * @return Client
      */
     public EventSubscribe getEventSubscribe(String groupId) throws BcosSDKException {
+        this.checkNotStopped();
         try {
             EventSubscribe eventSubscribe = EventSubscribe.build(groupId, config);
+            this.eventSubscribes.add(eventSubscribe);
             return eventSubscribe;
         } catch (Exception e) {
             logger.warn("create event sub for failed, error: {}", e);
@@ -141,6 +391,50 @@ public class BcosSDK {
         }
     }
 
-    /** Stop all module of BcosSDK */
-    public void stopAll() {}
+    private void checkNotStopped() {
+        if (this.stopped.get()) {
+            throw new BcosSDKException("the BcosSDK is stopped");
+        }
+    }
+
+    /**
+     * Stop all module of BcosSDK: close the shared clients, stop and destroy the amop and event
+     * subscribe instances got from it, and then the native sdk. The BcosSDK can't be used after
+     * stopped.
+     */
+    public void stopAll() {
+        if (!this.stopped.compareAndSet(false, true)) {
+            return;
+        }
+        this.clientRegistry.close();
+        for (Amop amop : this.amops) {
+            try {
+                amop.stop();
+                amop.destroy();
+            } catch (Exception e) {
+                logger.warn("stop amop failed, error: {}", e.getMessage());
+            }
+        }
+        this.amops.clear();
+        for (EventSubscribe eventSubscribe : this.eventSubscribes) {
+            try {
+                eventSubscribe.stop();
+                eventSubscribe.destroy();
+            } catch (Exception e) {
+                logger.warn("stop event sub failed, error: {}", e.getMessage());
+            }
+        }
+        this.eventSubscribes.clear();
+        for (List<DemandPublisher<BigInteger>> publishers : this.blockPublishers.values()) {
+            publishers.forEach(DemandPublisher::close);
+        }
+        this.blockPublishers.clear();
+        if (this.bcosSDKJniObj != null) {
+            long nativePointer = this.bcosSDKJniObj.getNativePointer();
+            RpcJniObj.build(nativePointer).stop();
+            BcosSDKJniObj.destroy(nativePointer);
+            this.bcosSDKJniObj = null;
+        }
+        logger.info("stop BcosSDK");
+    }
 }
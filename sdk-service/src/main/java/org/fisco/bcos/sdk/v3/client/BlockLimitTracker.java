@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.jni.BlockNotifier;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BlockNumber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Track the latest block number of a group to serve the block limit of the transactions without a
+ * round trip to the node.
+ *
+ * <p>The block number is updated by the block notifications (register the tracker by {@link
+ * org.fisco.bcos.sdk.v3.BcosSDK#registerBlockNotifier(String, BlockNotifier)}), and refreshed by
+ * getBlockNumber when no notification is received in the refresh interval. The block number never
+ * goes backwards.
+ */
+public class BlockLimitTracker implements BlockNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(BlockLimitTracker.class);
+    public static final long DEFAULT_BLOCK_LIMIT_RANGE = 500;
+    public static final long DEFAULT_REFRESH_INTERVAL_MS = 3000;
+    // shared by the trackers of all the groups, the refresh is asynchronous
+    private static final ScheduledExecutorService refreshScheduler = createScheduler();
+
+    private final String groupID;
+    private final Supplier<CompletableFuture<BigInteger>> blockNumberFetcher;
+    private final long blockLimitRange;
+    private final long refreshIntervalMs;
+    private final AtomicLong blockNumber = new AtomicLong(-1);
+    private volatile long lastUpdateNanos = System.nanoTime();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private ScheduledFuture<?> refreshTask;
+
+    private final AtomicLong notifyCount = new AtomicLong(0);
+    private final AtomicLong refreshCount = new AtomicLong(0);
+    private final AtomicLong refreshFailedCount = new AtomicLong(0);
+
+    /**
+     * create the tracker refreshing the block number by the client
+     *
+     * @param client the client of the group
+     */
+    public BlockLimitTracker(Client client) {
+        this(
+                client.getGroup(),
+                () -> client.getBlockNumberAsync().thenApply(BlockNumber::getBlockNumber),
+                DEFAULT_BLOCK_LIMIT_RANGE,
+                DEFAULT_REFRESH_INTERVAL_MS);
+    }
+
+    /**
+     * create the tracker
+     *
+     * @param groupID the group to track
+     * @param blockNumberFetcher fetch the latest block number from the node
+     * @param blockLimitRange the block limit is the block number plus this range
+     * @param refreshIntervalMs fetch the block number if no notification is received in this
+     *     interval
+     */
+    public BlockLimitTracker(
+            String groupID,
+            Supplier<CompletableFuture<BigInteger>> blockNumberFetcher,
+            long blockLimitRange,
+            long refreshIntervalMs) {
+        this.groupID = groupID;
+        this.blockNumberFetcher = blockNumberFetcher;
+        this.blockLimitRange = blockLimitRange;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("block-limit-tracker-%d")
+                                .daemon(true)
+                                .build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * refresh the tracker if it is still referenced. The shared scheduler holds the tracker weakly,
+     * so the client not stopped can still be collected, and the task is cancelled then.
+     */
+    private static class RefreshTask implements Runnable {
+        private final WeakReference<BlockLimitTracker> trackerReference;
+        private volatile ScheduledFuture<?> future;
+
+        private RefreshTask(BlockLimitTracker tracker) {
+            this.trackerReference = new WeakReference<>(tracker);
+        }
+
+        @Override
+        public void run() {
+            BlockLimitTracker tracker = this.trackerReference.get();
+            if (Objects.nonNull(tracker)) {
+                tracker.refreshIfStale();
+                return;
+            }
+            ScheduledFuture<?> scheduled = this.future;
+            if (Objects.nonNull(scheduled)) {
+                scheduled.cancel(false);
+            }
+            logger.debug("the block limit tracker is collected, cancel its refresh");
+        }
+    }
+
+    /** start refreshing the block number periodically */
+    public synchronized void start() {
+        if (Objects.nonNull(this.refreshTask)) {
+            return;
+        }
+        RefreshTask task = new RefreshTask(this);
+        task.future =
+                refreshScheduler.scheduleWithFixedDelay(
+                        task,
+                        this.refreshIntervalMs,
+                        this.refreshIntervalMs,
+                        TimeUnit.MILLISECONDS);
+        this.refreshTask = task.future;
+    }
+
+    /** stop refreshing the block number */
+    public synchronized void stop() {
+        if (Objects.nonNull(this.refreshTask)) {
+            this.refreshTask.cancel(false);
+            this.refreshTask = null;
+        }
+    }
+
+    @Override
+    public void onResponse(String groupId, BigInteger blockNumber) {
+        if (Objects.isNull(blockNumber) || !this.groupID.equals(groupId)) {
+            return;
+        }
+        this.notifyCount.incrementAndGet();
+        this.update(blockNumber.longValue());
+    }
+
+    /**
+     * update the block number, the smaller one is ignored
+     *
+     * @param blockNumber the latest block number known
+     */
+    public void update(long blockNumber) {
+        this.blockNumber.accumulateAndGet(blockNumber, Math::max);
+        this.lastUpdateNanos = System.nanoTime();
+    }
+
+    private void refreshIfStale() {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastUpdateNanos);
+        if (elapsedMs >= this.refreshIntervalMs) {
+            this.refresh();
+        }
+    }
+
+    /** fetch the block number from the node asynchronously */
+    public void refresh() {
+        // at most one fetch at a time
+        if (!this.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        this.refreshCount.incrementAndGet();
+        CompletableFuture<BigInteger> future;
+        try {
+            future = this.blockNumberFetcher.get();
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete(
+                (number, e) -> {
+                    this.refreshing.set(false);
+                    if (Objects.nonNull(e) || Objects.isNull(number)) {
+                        this.refreshFailedCount.incrementAndGet();
+                        logger.warn(
+                                "refresh block number failed, groupID: {}, e: {}",
+                                this.groupID,
+                                Objects.nonNull(e) ? e.getMessage() : "null block number");
+                        return;
+                    }
+                    this.update(number.longValue());
+                });
+    }
+
+    /** @return the latest block number known, -1 if unknown */
+    public long getBlockNumber() {
+        return this.blockNumber.get();
+    }
+
+    /** @return the block limit of the transactions, -1 if the block number is unknown */
+    public long getBlockLimit() {
+        long number = this.blockNumber.get();
+        return number < 0 ? -1 : number + this.blockLimitRange;
+    }
+
+    public String getGroupID() {
+        return this.groupID;
+    }
+
+    /** @return the count of the block notifications received */
+    public long getNotifyCount() {
+        return this.notifyCount.get();
+    }
+
+    /** @return the count of the block number fetched from the node */
+    public long getRefreshCount() {
+        return this.refreshCount.get();
+    }
+
+    public long getRefreshFailedCount() {
+        return this.refreshFailedCount.get();
+    }
+}
@@ -16,8 +16,12 @@
 package org.fisco.bcos.sdk.v3.client;
 
 import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import org.fisco.bcos.sdk.jni.BcosSDKJniObj;
 import org.fisco.bcos.sdk.jni.common.JniException;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.protocol.request.BatchRequest;
 import org.fisco.bcos.sdk.v3.client.protocol.request.Transaction;
 import org.fisco.bcos.sdk.v3.client.protocol.response.Abi;
 import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
@@ -43,6 +47,7 @@ import org.fisco.bcos.sdk.v3.client.protocol.response.SystemConfig;
 import org.fisco.bcos.sdk.v3.client.protocol.response.TotalTransactionCount;
 import org.fisco.bcos.sdk.v3.config.ConfigOption;
 import org.fisco.bcos.sdk.v3.crypto.CryptoSuite;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
 import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +55,10 @@ import org.slf4j.LoggerFactory;
 /**
  * This is the interface of client module.
  *
+ * <p>The async methods returning the futures adapt the callback variants and send to any node of
+ * the group, use {@link ClientFutures#of} with the callback variant to get the future of a request
+ * sent to a node.
+ *
  * @author Maggie
  */
 public interface Client {
@@ -98,6 +107,32 @@ public interface Client {
         return new ClientImpl(groupId, configOption, nativePointer);
     }
 
+    /**
+     * Build a client instance of the group from the group info snapshot, without getting the
+     * group info from the node. The snapshot is verified against the node in background, see
+     * {@link ClientImpl#getRevalidation()}
+     *
+     * @param groupId the group info
+     * @param configOption the config
+     * @param nativePointer jni impl native handler
+     * @param snapshot the group info snapshot exported by {@link
+     *     ClientImpl#exportGroupInfoSnapshot(java.io.File)}
+     * @return a client instance
+     */
+    static Client build(
+            String groupId,
+            ConfigOption configOption,
+            long nativePointer,
+            GroupInfoSnapshot snapshot)
+            throws JniException {
+        logger.info(
+                "build, groupID: {}, nativePointer: {}, snapshot: {}",
+                groupId,
+                nativePointer,
+                snapshot);
+        return new ClientImpl(groupId, configOption, nativePointer, snapshot);
+    }
+
     /** @return native pointer */
     long getNativePointer();
 
@@ -175,6 +210,18 @@ public interface Client {
     void sendTransactionAsync(
             String signedTransactionData, boolean withProof, TransactionCallback callback);
 
+    /**
+     * Ledger operation: async send transaction
+     *
+     * @param signedTransactionData transaction string
+     * @return the future of the transaction receipt
+     */
+    default CompletableFuture<TransactionReceipt> sendTransactionAsync(
+            String signedTransactionData, boolean withProof) {
+        return ClientFutures.ofTransaction(
+                callback -> this.sendTransactionAsync(signedTransactionData, withProof, callback));
+    }
+
     /**
      * Ledger operation: async send transaction
      *
@@ -213,6 +260,16 @@ public interface Client {
      */
     void callAsync(Transaction transaction, RespCallback<Call> callback);
 
+    /**
+     * Ledger operation: async call contract functions without sending transaction
+     *
+     * @param transaction transaction instance
+     * @return the future of the response
+     */
+    default CompletableFuture<Call> callAsync(Transaction transaction) {
+        return ClientFutures.of(callback -> this.callAsync(transaction, callback));
+    }
+
     /**
      * Ledger operation: async call contract functions without sending transaction
      *
@@ -244,6 +301,15 @@ public interface Client {
      */
     void getBlockNumberAsync(RespCallback<BlockNumber> callback);
 
+    /**
+     * Ledger operation: async get block number
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<BlockNumber> getBlockNumberAsync() {
+        return ClientFutures.of(callback -> this.getBlockNumberAsync(callback));
+    }
+
     /**
      * Ledger operation: async get block number
      *
@@ -277,6 +343,16 @@ public interface Client {
      */
     void getCodeAsync(String address, RespCallback<Code> callback);
 
+    /**
+     * Ledger operation: async get code
+     *
+     * @param address the address string
+     * @return the future of the response
+     */
+    default CompletableFuture<Code> getCodeAsync(String address) {
+        return ClientFutures.of(callback -> this.getCodeAsync(address, callback));
+    }
+
     /**
      * Ledger operation: async get code
      *
@@ -311,6 +387,16 @@ public interface Client {
      */
     void getABIAsync(String address, RespCallback<Abi> callback);
 
+    /**
+     * Ledger operation: async get abi
+     *
+     * @param address the address string
+     * @return the future of the response
+     */
+    default CompletableFuture<Abi> getABIAsync(String address) {
+        return ClientFutures.of(callback -> this.getABIAsync(address, callback));
+    }
+
     /**
      * Ledger operation: async get abi
      *
@@ -342,6 +428,15 @@ public interface Client {
      */
     void getTotalTransactionCountAsync(RespCallback<TotalTransactionCount> callback);
 
+    /**
+     * Ledger operation: async get total transaction count
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<TotalTransactionCount> getTotalTransactionCountAsync() {
+        return ClientFutures.of(callback -> this.getTotalTransactionCountAsync(callback));
+    }
+
     /**
      * Ledger operation: async get total transaction count
      *
@@ -382,6 +477,19 @@ public interface Client {
             boolean onlyTxHash,
             RespCallback<BcosBlock> callback);
 
+    /**
+     * Ledger operation: async get block by hash
+     *
+     * @param blockHash the hashcode of the block
+     * @param onlyTxHash the boolean define the tx is full or not
+     * @return the future of the response
+     */
+    default CompletableFuture<BcosBlock> getBlockByHashAsync(
+            String blockHash, boolean onlyHeader, boolean onlyTxHash) {
+        return ClientFutures.of(
+                callback -> this.getBlockByHashAsync(blockHash, onlyHeader, onlyTxHash, callback));
+    }
+
     /**
      * Ledger operation: async get block by hash
      *
@@ -433,6 +541,22 @@ public interface Client {
             boolean onlyTxHash,
             RespCallback<BcosBlock> callback);
 
+    /**
+     * Ledger operation: async get block by block number
+     *
+     * @param blockNumber the number of the block
+     * @param onlyHeader the boolean if only need header
+     * @param onlyTxHash the boolean if you need all transactions
+     * @return the future of the response
+     */
+    default CompletableFuture<BcosBlock> getBlockByNumberAsync(
+            BigInteger blockNumber, boolean onlyHeader, boolean onlyTxHash) {
+        return ClientFutures.of(
+                callback ->
+                        this.getBlockByNumberAsync(
+                                blockNumber, onlyHeader, onlyTxHash, callback));
+    }
+
     /**
      * Ledger operation: async get block by block number
      *
@@ -465,6 +589,16 @@ public interface Client {
      */
     void getBlockHashByNumberAsync(BigInteger blockNumber, RespCallback<BlockHash> callback);
 
+    /**
+     * Ledger operation: async get block hash by block number
+     *
+     * @param blockNumber the number of the block
+     * @return the future of the response
+     */
+    default CompletableFuture<BlockHash> getBlockHashByNumberAsync(BigInteger blockNumber) {
+        return ClientFutures.of(callback -> this.getBlockHashByNumberAsync(blockNumber, callback));
+    }
+
     /**
      * Ledger operation: async get block hash by block number
      *
@@ -513,6 +647,19 @@ public interface Client {
     void getTransactionAsync(
             String transactionHash, Boolean withProof, RespCallback<BcosTransaction> callback);
 
+    /**
+     * Ledger operation: async get trnasaction by hash
+     *
+     * @param transactionHash the hashcode of transaction
+     * @param withProof with the transaction proof
+     * @return the future of the response
+     */
+    default CompletableFuture<BcosTransaction> getTransactionAsync(
+            String transactionHash, Boolean withProof) {
+        return ClientFutures.of(
+                callback -> this.getTransactionAsync(transactionHash, withProof, callback));
+    }
+
     /**
      * Ledger operation: async get trnasaction by hash
      *
@@ -559,6 +706,19 @@ public interface Client {
             Boolean withProof,
             RespCallback<BcosTransactionReceipt> callback);
 
+    /**
+     * Ledger operation: async get transaction receipt by transaction hash
+     *
+     * @param transactionHash the hashcode of transaction
+     * @param withProof with the transaction receipt proof
+     * @return the future of the response
+     */
+    default CompletableFuture<BcosTransactionReceipt> getTransactionReceiptAsync(
+            String transactionHash, Boolean withProof) {
+        return ClientFutures.of(
+                callback -> this.getTransactionReceiptAsync(transactionHash, withProof, callback));
+    }
+
     /**
      * Ledger operation: async get transaction receipt by transaction hash
      *
@@ -602,6 +762,15 @@ public interface Client {
      */
     void getPendingTxSizeAsync(RespCallback<PendingTxSize> callback);
 
+    /**
+     * Ledger operation: async get pending transaction size
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<PendingTxSize> getPendingTxSizeAsync() {
+        return ClientFutures.of(callback -> this.getPendingTxSizeAsync(callback));
+    }
+
     /**
      * Get cached block height
      *
@@ -625,6 +794,11 @@ public interface Client {
 
     void getGroupPeersAsync(RespCallback<GroupPeers> callback);
 
+    /** @return the future of the response */
+    default CompletableFuture<GroupPeers> getGroupPeersAsync() {
+        return ClientFutures.of(callback -> this.getGroupPeersAsync(callback));
+    }
+
     /**
      * Peer operation: async get connected peers
      *
@@ -632,6 +806,15 @@ public interface Client {
      */
     void getPeersAsync(RespCallback<Peers> callback);
 
+    /**
+     * Peer operation: async get connected peers
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<Peers> getPeersAsync() {
+        return ClientFutures.of(callback -> this.getPeersAsync(callback));
+    }
+
     /**
      * Peer operation: get observer node list
      *
@@ -682,6 +865,15 @@ public interface Client {
      */
     void getSealerListAsync(RespCallback<SealerList> callback);
 
+    /**
+     * Peer operation: async get sealer node list
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<SealerList> getSealerListAsync() {
+        return ClientFutures.of(callback -> this.getSealerListAsync(callback));
+    }
+
     /**
      * Peer operation: async get sealer node list
      *
@@ -712,6 +904,15 @@ public interface Client {
      */
     void getPbftViewAsync(RespCallback<PbftView> callback);
 
+    /**
+     * Peer operation: async get pbft view
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<PbftView> getPbftViewAsync() {
+        return ClientFutures.of(callback -> this.getPbftViewAsync(callback));
+    }
+
     /**
      * Peer operation: async get pbft view
      *
@@ -745,6 +946,16 @@ public interface Client {
      */
     void getSystemConfigByKeyAsync(String key, RespCallback<SystemConfig> callback);
 
+    /**
+     * Peer operation: async get system config
+     *
+     * @param key the string of key
+     * @return the future of the response
+     */
+    default CompletableFuture<SystemConfig> getSystemConfigByKeyAsync(String key) {
+        return ClientFutures.of(callback -> this.getSystemConfigByKeyAsync(key, callback));
+    }
+
     /**
      * Peer operation: async get system config
      *
@@ -783,6 +994,15 @@ public interface Client {
      */
     void getSyncStatusAsync(RespCallback<SyncStatus> callback);
 
+    /**
+     * Peer operation: async get sync status
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<SyncStatus> getSyncStatusAsync() {
+        return ClientFutures.of(callback -> this.getSyncStatusAsync(callback));
+    }
+
     /**
      * async get consensus status
      *
@@ -798,6 +1018,15 @@ public interface Client {
      */
     void getConsensusStatusAsync(RespCallback<ConsensusStatus> callback);
 
+    /**
+     * async get consensus status
+     *
+     * @return the future of the response
+     */
+    default CompletableFuture<ConsensusStatus> getConsensusStatusAsync() {
+        return ClientFutures.of(callback -> this.getConsensusStatusAsync(callback));
+    }
+
     /**
      * sync get consensus status
      *
@@ -822,6 +1051,11 @@ public interface Client {
 
     void getGroupListAsync(RespCallback<BcosGroupList> callback);
 
+    /** @return the future of the response */
+    default CompletableFuture<BcosGroupList> getGroupListAsync() {
+        return ClientFutures.of(callback -> this.getGroupListAsync(callback));
+    }
+
     /**
      * get group info
      *
@@ -831,6 +1065,11 @@ public interface Client {
 
     void getGroupInfoAsync(RespCallback<BcosGroupInfo> callback);
 
+    /** @return the future of the response */
+    default CompletableFuture<BcosGroupInfo> getGroupInfoAsync() {
+        return ClientFutures.of(callback -> this.getGroupInfoAsync(callback));
+    }
+
     /**
      * get group info list
      *
@@ -840,6 +1079,11 @@ public interface Client {
 
     void getGroupInfoListAsync(RespCallback<BcosGroupInfoList> callback);
 
+    /** @return the future of the response */
+    default CompletableFuture<BcosGroupInfoList> getGroupInfoListAsync() {
+        return ClientFutures.of(callback -> this.getGroupInfoListAsync(callback));
+    }
+
     /**
      * get group node info
      *
@@ -849,6 +1093,62 @@ public interface Client {
 
     void getGroupNodeInfoAsync(String node, RespCallback<BcosGroupNodeInfo> callback);
 
+    /**
+     * @param node the node
+     * @return the future of the response
+     */
+    default CompletableFuture<BcosGroupNodeInfo> getGroupNodeInfoAsync(String node) {
+        return ClientFutures.of(callback -> this.getGroupNodeInfoAsync(node, callback));
+    }
+
+    /**
+     * create a batch request, the requests added to it are sent to the node in one json rpc batch
+     *
+     * @return the batch request builder
+     * @throws ClientException if batching is not supported by the client
+     */
+    default BatchRequest batchRequest() {
+        throw new ClientException(
+                "batch request is not supported by the client " + this.getClass().getName());
+    }
+
+    /**
+     * get the deadline of the synchronous requests, set by the requestTimeout of the network config
+     * by default
+     *
+     * @return the timeout in milliseconds, 0 for no deadline
+     */
+    default long getRequestTimeout() {
+        return 0;
+    }
+
+    /**
+     * set the deadline of the synchronous requests of this client, the requests exceeding it throw
+     * ClientTimeoutException
+     *
+     * @param timeoutMs the timeout in milliseconds, 0 for no deadline
+     * @throws ClientException if the client is shared, e.g. got by BcosSDK.getClient, or the
+     *     client has no deadline of the requests
+     */
+    default void setRequestTimeout(long timeoutMs) {
+        throw new ClientException(
+                "request timeout is not supported by the client " + this.getClass().getName());
+    }
+
+    /**
+     * run the synchronous requests in the call with another deadline, e.g. <code>
+     * client.withTimeout(500, () -&gt; client.getBlockNumber())</code>
+     *
+     * @param timeoutMs the timeout of each request in the call in milliseconds, 0 for no deadline
+     * @param call the call sending the requests in the current thread
+     * @param <T> the result type of the call
+     * @return the result of the call, the call runs without the deadline if the client has no
+     *     deadline of the requests
+     */
+    default <T> T withTimeout(long timeoutMs, Supplier<T> call) {
+        return call.get();
+    }
+
     // ------------------------- rpc interface end ------------------------------------------
 
     void start();
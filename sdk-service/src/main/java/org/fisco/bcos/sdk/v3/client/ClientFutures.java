@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+
+/**
+ * Adapt the callback based async methods of the client to the futures, the futures are completed
+ * in the callbacks and no thread is blocked. e.g. to get the block number of a node:
+ *
+ * <pre>
+ * ClientFutures.of(callback -&gt; client.getBlockNumberAsync(node, callback))
+ * </pre>
+ */
+public final class ClientFutures {
+    private ClientFutures() {}
+
+    /**
+     * @param asyncCall call the async method by the callback
+     * @param <T> the type of the response
+     * @return the future of the response, completed exceptionally by a ClientException with the
+     *     error code of the error response
+     */
+    public static <T> CompletableFuture<T> of(Consumer<RespCallback<T>> asyncCall) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            asyncCall.accept(
+                    new RespCallback<T>() {
+                        @Override
+                        public void onResponse(T t) {
+                            future.complete(t);
+                        }
+
+                        @Override
+                        public void onError(Response errorResponse) {
+                            future.completeExceptionally(
+                                    new ClientException(
+                                            errorResponse.getErrorCode(),
+                                            errorResponse.getErrorMessage(),
+                                            "get response failed, errorCode: "
+                                                    + errorResponse.getErrorCode()
+                                                    + ", error message: "
+                                                    + errorResponse.getErrorMessage()));
+                        }
+                    });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @param asyncCall send the transaction by the callback
+     * @return the future of the receipt, the errors and the timeout are received as the receipts
+     *     with the status, the same as the TransactionCallback
+     */
+    public static CompletableFuture<TransactionReceipt> ofTransaction(
+            Consumer<TransactionCallback> asyncCall) {
+        CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        try {
+            asyncCall.accept(
+                    new TransactionCallback() {
+                        @Override
+                        public void onResponse(TransactionReceipt receipt) {
+                            future.complete(receipt);
+                        }
+                    });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -15,20 +15,36 @@ package org.fisco.bcos.sdk.v3.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.fisco.bcos.sdk.jni.BcosSDKJniObj;
 import org.fisco.bcos.sdk.jni.rpc.RpcCallback;
 import org.fisco.bcos.sdk.jni.rpc.RpcJniObj;
 import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientTimeoutException;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetricsListener;
 import org.fisco.bcos.sdk.v3.client.protocol.model.GroupNodeIniConfig;
 import org.fisco.bcos.sdk.v3.client.protocol.model.GroupNodeIniInfo;
+import org.fisco.bcos.sdk.v3.client.protocol.request.BatchRequest;
 import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
 import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcRequest;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcRequestWriter;
 import org.fisco.bcos.sdk.v3.client.protocol.request.Transaction;
 import org.fisco.bcos.sdk.v3.client.protocol.response.Abi;
 import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
@@ -52,13 +68,30 @@ import org.fisco.bcos.sdk.v3.client.protocol.response.SealerList;
 import org.fisco.bcos.sdk.v3.client.protocol.response.SyncStatus;
 import org.fisco.bcos.sdk.v3.client.protocol.response.SystemConfig;
 import org.fisco.bcos.sdk.v3.client.protocol.response.TotalTransactionCount;
+import org.fisco.bcos.sdk.v3.client.transport.CachingRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.CoalescingConfig;
+import org.fisco.bcos.sdk.v3.client.transport.CoalescingRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.ConcurrencyLimitConfig;
+import org.fisco.bcos.sdk.v3.client.transport.ConcurrencyLimitRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.HedgeConfig;
+import org.fisco.bcos.sdk.v3.client.transport.HedgedRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.LoadAwareRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.MetricsRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.NodeLoad;
+import org.fisco.bcos.sdk.v3.client.transport.NodeSelectionConfig;
+import org.fisco.bcos.sdk.v3.client.transport.ResponseCacheConfig;
+import org.fisco.bcos.sdk.v3.client.transport.RetryConfig;
+import org.fisco.bcos.sdk.v3.client.transport.RetryingRpcTransport;
 import org.fisco.bcos.sdk.v3.config.ConfigOption;
+import org.fisco.bcos.sdk.v3.config.model.NetworkConfig;
+import org.fisco.bcos.sdk.v3.config.model.ThreadPoolConfig;
 import org.fisco.bcos.sdk.v3.crypto.CryptoSuite;
 import org.fisco.bcos.sdk.v3.model.CryptoType;
 import org.fisco.bcos.sdk.v3.model.JsonRpcResponse;
 import org.fisco.bcos.sdk.v3.model.Response;
 import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
 import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+import org.fisco.bcos.sdk.v3.utils.CallbackDispatcher;
 import org.fisco.bcos.sdk.v3.utils.Hex;
 import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
 import org.slf4j.Logger;
@@ -67,6 +100,14 @@ import org.slf4j.LoggerFactory;
 public class ClientImpl implements Client {
     private static final Logger logger = LoggerFactory.getLogger(ClientImpl.class);
     private static final int BlockLimitRange = 500;
+    // the deadline of the sync requests when neither requestTimeout nor messageTimeout is set
+    private static final long DEFAULT_REQUEST_TIMEOUT_MS = 10000;
+    private static final ExecutorService revalidationExecutor =
+            Executors.newCachedThreadPool(
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("group-info-revalidation-%d")
+                            .daemon(true)
+                            .build());
 
     // ------------basic group info --------------
     private String groupID = "";
@@ -79,17 +120,68 @@ public class ClientImpl implements Client {
     // ------------ runtime info -----------------
 
     private long blockNumber = 0;
+    private BlockLimitTracker blockLimitTracker;
 
     private final ConfigOption configOption;
     private BcosGroupInfo.GroupInfo groupInfo;
+    // the raw getGroupInfo response, kept for the group info snapshot
+    private byte[] groupInfoResponse;
+    private volatile CompletableFuture<Void> revalidation = CompletableFuture.completedFuture(null);
+    // set if the chain changed since the snapshot the client is started from
+    private volatile ClientException invalidation;
+    private volatile List<String> groupNodeNames = new ArrayList<>();
     private GroupNodeIniConfig groupNodeIniConfig;
     private CryptoSuite cryptoSuite;
     private RpcJniObj rpcJniObj;
+    private volatile RpcTransport rpcTransport = this::sendRequestByJni;
+    // the transports enabled by the enable methods in the order of TRANSPORT_ORDER, guarded by this
+    private final List<TransportLayer> transportLayers = new ArrayList<>();
+    private volatile LoadAwareRpcTransport loadAwareRpcTransport;
+    // set for the shared client of BcosSDK, whose configuration affects all the users of it
+    private volatile boolean shared = false;
+    // the peers of the group connected, refreshed for the failover of the retries
+    private volatile List<String> groupPeers = new ArrayList<>();
+    private volatile long groupPeersUpdateTime = 0;
+    private final AtomicBoolean groupPeersRefreshing = new AtomicBoolean(false);
+    // call the callbacks of the async requests off the native threads
+    private volatile CallbackDispatcher callbackDispatcher = CallbackDispatcher.inline("client");
+    // set to false once the node rejects a json rpc batch request, and confirmed once it answers
+    private final AtomicBoolean batchSupported = new AtomicBoolean(true);
+    private final AtomicBoolean batchConfirmed = new AtomicBoolean(false);
+    // the deadline of the sync requests in milliseconds, 0 for no deadline
+    private volatile long requestTimeout = DEFAULT_REQUEST_TIMEOUT_MS;
+    // the deadline set by withTimeout for the requests sent by the current thread
+    private final ThreadLocal<Long> callTimeout = new ThreadLocal<>();
+    private final AtomicLong lateResponseCount = new AtomicLong(0);
+    // parse the transactions of the blocks when accessed, see BcosBlock.LazyTransactionList
+    private volatile boolean lazyBlockTransactions = false;
 
     protected final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
 
     protected void initGroupInfo() {
-        this.groupInfo = getGroupInfo().getResult();
+        Response response = this.getGroupInfoResponse();
+        BcosGroupInfo.GroupInfo groupInfo =
+                this.parseResponseIntoJsonRpcResponse(
+                                new JsonRpcRequest(
+                                        JsonRpcMethods.GET_GROUP_INFO, Arrays.asList(groupID)),
+                                response,
+                                BcosGroupInfo.class)
+                        .getResult();
+        this.applyGroupInfo(groupInfo, response.getContent());
+        this.blockNumber = this.getBlockNumber().getBlockNumber().longValue();
+
+        logger.info(
+                "init group info in rpc, chainID: {}, smCrypto: {}, wasm: {}, authCheck:{}, blockNumber: {}, GroupNodeIniConfig: {}",
+                chainID,
+                smCrypto,
+                wasm,
+                authCheck,
+                blockNumber,
+                groupNodeIniConfig);
+    }
+
+    // set the basic group info by the group info of the node
+    private void applyGroupInfo(BcosGroupInfo.GroupInfo groupInfo, byte[] groupInfoResponse) {
         if (groupInfo == null) {
             logger.error("The group not exist, groupID: {}", groupID);
             throw new ClientException(
@@ -107,30 +199,119 @@ public class ClientImpl implements Client {
                             + this.groupID);
         }
 
+        List<String> nodeNames = new ArrayList<>();
+        for (BcosGroupNodeInfo.GroupNodeInfo nodeInfo : nodeList) {
+            nodeNames.add(nodeInfo.getName());
+        }
+
         BcosGroupNodeInfo.GroupNodeInfo groupNodeInfo = groupInfo.getNodeList().get(0);
         GroupNodeIniInfo nodeIniConfig = groupNodeInfo.getIniConfig();
 
+        this.groupInfo = groupInfo;
+        this.groupInfoResponse = groupInfoResponse;
+        this.groupNodeNames = nodeNames;
         this.groupNodeIniConfig = GroupNodeIniConfig.newIniConfig(nodeIniConfig);
         this.chainID = groupNodeIniConfig.getChain().getChainID();
         this.wasm = groupNodeIniConfig.getExecutor().isWasm();
         this.authCheck = groupNodeIniConfig.getExecutor().isAuthCheck();
         this.smCrypto = groupNodeIniConfig.getChain().isSmCrypto();
-        this.blockNumber = this.getBlockNumber().getBlockNumber().longValue();
+    }
 
+    // start from the snapshot instead of getting the group info from the node
+    private void initGroupInfo(GroupInfoSnapshot snapshot) {
+        if (!Objects.equals(snapshot.getGroupID(), this.groupID)) {
+            throw new ClientException(
+                    "the group info snapshot is of another group, groupID: "
+                            + this.groupID
+                            + ", snapshot groupID: "
+                            + snapshot.getGroupID());
+        }
+        this.applyGroupInfo(
+                snapshot.getGroupInfo(),
+                snapshot.getGroupInfoResponse().getBytes(StandardCharsets.UTF_8));
+        snapshot.checkCompatible(this.chainID, this.smCrypto);
+        this.blockNumber = snapshot.getBlockNumber();
         logger.info(
-                "init group info in rpc, chainID: {}, smCrypto: {}, wasm: {}, authCheck:{}, blockNumber: {}, GroupNodeIniConfig: {}",
+                "init group info from snapshot, chainID: {}, smCrypto: {}, wasm: {}, snapshot: {}",
                 chainID,
                 smCrypto,
                 wasm,
-                authCheck,
-                blockNumber,
-                groupNodeIniConfig);
+                snapshot);
+    }
+
+    // verify the snapshot against the node, the client is invalidated if the chain changed
+    private void revalidateGroupInfo(GroupInfoSnapshot snapshot) {
+        Response response = this.getGroupInfoResponse();
+        BcosGroupInfo.GroupInfo current =
+                this.parseResponseIntoJsonRpcResponse(
+                                new JsonRpcRequest(
+                                        JsonRpcMethods.GET_GROUP_INFO, Arrays.asList(groupID)),
+                                response,
+                                BcosGroupInfo.class)
+                        .getResult();
+        if (current == null || current.getNodeList() == null || current.getNodeList().isEmpty()) {
+            throw new ClientException(
+                    "The group not exist or has no nodes, groupID: " + this.groupID);
+        }
+        GroupNodeIniConfig currentIniConfig =
+                GroupNodeIniConfig.newIniConfig(current.getNodeList().get(0).getIniConfig());
+        try {
+            snapshot.checkCompatible(
+                    currentIniConfig.getChain().getChainID(),
+                    currentIniConfig.getChain().isSmCrypto());
+        } catch (ClientException e) {
+            this.invalidation = e;
+            logger.error(
+                    "the group info snapshot is stale, invalidate the client, groupID: {}, e: {}",
+                    this.groupID,
+                    e.getMessage());
+            throw e;
+        }
+        synchronized (this) {
+            this.applyGroupInfo(current, response.getContent());
+        }
+        logger.info("the group info snapshot is revalidated, groupID: {}", this.groupID);
     }
 
     protected ClientImpl(String groupID, ConfigOption configOption, long nativePointer) {
+        this(groupID, configOption, nativePointer, null);
+    }
+
+    /**
+     * create the client sending the requests by the transport instead of the native sdk, the group
+     * info is not got from the node, e.g. for the tests
+     *
+     * @param groupID the group
+     * @param configOption the config, null for the default request timeout
+     * @param rpcTransport the transport to send the json rpc requests
+     */
+    protected ClientImpl(String groupID, ConfigOption configOption, RpcTransport rpcTransport) {
+        this.groupID = groupID;
+        this.configOption = configOption;
+        this.rpcTransport = rpcTransport;
+        this.requestTimeout = resolveRequestTimeout(configOption);
+        this.callbackDispatcher = createCallbackDispatcher(configOption);
+    }
+
+    /**
+     * create the client, starting from the group info snapshot if given
+     *
+     * @param groupID the group
+     * @param configOption the config
+     * @param nativePointer jni impl native handler
+     * @param snapshot the group info snapshot of the group, null to get the group info from the
+     *     node
+     */
+    protected ClientImpl(
+            String groupID,
+            ConfigOption configOption,
+            long nativePointer,
+            GroupInfoSnapshot snapshot) {
         this.groupID = groupID;
         this.configOption = configOption;
         this.rpcJniObj = RpcJniObj.build(nativePointer);
+        this.requestTimeout = resolveRequestTimeout(configOption);
+        this.callbackDispatcher = createCallbackDispatcher(configOption);
 
         // start rpc
         start();
@@ -138,7 +319,21 @@ public class ClientImpl implements Client {
         // groupID is set, init group basic info, eg: chain_id, sm_crypto, is_wasm
         if (Objects.nonNull(groupID) && !groupID.isEmpty()) {
 
-            initGroupInfo();
+            if (Objects.isNull(snapshot)) {
+                initGroupInfo();
+            } else {
+                initGroupInfo(snapshot);
+            }
+
+            // serve the block limit without a round trip to the node
+            this.blockLimitTracker = new BlockLimitTracker(this);
+            if (Objects.isNull(snapshot)) {
+                this.blockLimitTracker.update(this.blockNumber);
+            } else {
+                // the block number of the snapshot is stale
+                this.blockLimitTracker.refresh();
+            }
+            this.blockLimitTracker.start();
 
             // init crypto suite
             if (smCrypto) {
@@ -147,6 +342,12 @@ public class ClientImpl implements Client {
             } else {
                 this.cryptoSuite = new CryptoSuite(CryptoType.ECDSA_TYPE, configOption);
             }
+
+            if (Objects.nonNull(snapshot)) {
+                this.revalidation =
+                        CompletableFuture.runAsync(
+                                () -> this.revalidateGroupInfo(snapshot), revalidationExecutor);
+            }
         }
 
         logger.info(
@@ -157,6 +358,91 @@ public class ClientImpl implements Client {
                 isWASM());
     }
 
+    /**
+     * @return the snapshot of the current group info, to start the clients of the group without
+     *     the getGroupInfo request
+     * @throws ClientException if the client is not bound to a group
+     */
+    public synchronized GroupInfoSnapshot getGroupInfoSnapshot() {
+        if (Objects.isNull(this.groupInfoResponse)) {
+            throw new ClientException("the client is not bound to a group");
+        }
+        long latestBlockNumber =
+                this.blockLimitTracker != null && this.blockLimitTracker.getBlockNumber() >= 0
+                        ? this.blockLimitTracker.getBlockNumber()
+                        : this.blockNumber;
+        return new GroupInfoSnapshot(
+                this.groupID,
+                this.chainID,
+                this.smCrypto,
+                this.wasm,
+                latestBlockNumber,
+                this.groupInfoResponse);
+    }
+
+    /**
+     * @return the future of verifying the group info snapshot against the node, completed
+     *     exceptionally if the chain or the crypto type changed; completed at once if the client
+     *     is not started from a snapshot
+     */
+    public CompletableFuture<Void> getRevalidation() {
+        return this.revalidation;
+    }
+
+    /**
+     * export the group info snapshot to the file
+     *
+     * @param file the snapshot file, replaced atomically
+     * @return the exported snapshot
+     */
+    public GroupInfoSnapshot exportGroupInfoSnapshot(File file) {
+        GroupInfoSnapshot snapshot = this.getGroupInfoSnapshot();
+        snapshot.save(file);
+        logger.info("export group info snapshot, file: {}, snapshot: {}", file, snapshot);
+        return snapshot;
+    }
+
+    // fail the requests once the client is found started from a stale snapshot
+    private void checkNotInvalidated() {
+        ClientException e = this.invalidation;
+        if (e != null) {
+            throw new ClientException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * get the group info from the node again, e.g. after the nodes of the group changed
+     *
+     * @throws ClientException if the group info can't be got
+     */
+    public synchronized void refreshGroupInfo() {
+        if (Objects.isNull(this.groupID) || this.groupID.isEmpty()) {
+            return;
+        }
+        String previousChainID = this.chainID;
+        Boolean previousSmCrypto = this.smCrypto;
+        initGroupInfo();
+        if (this.blockLimitTracker != null) {
+            this.blockLimitTracker.update(this.blockNumber);
+        }
+        if (!Objects.equals(previousChainID, this.chainID)
+                || !Objects.equals(previousSmCrypto, this.smCrypto)) {
+            logger.warn(
+                    "the chain changed, groupID: {}, chainID: {} -> {}, smCrypto: {} -> {}",
+                    this.groupID,
+                    previousChainID,
+                    this.chainID,
+                    previousSmCrypto,
+                    this.smCrypto);
+            this.cryptoSuite =
+                    new CryptoSuite(
+                            this.smCrypto ? CryptoType.SM_TYPE : CryptoType.ECDSA_TYPE,
+                            this.configOption);
+        }
+        logger.info(
+                "refresh group info, groupID: {}, nodes: {}", this.groupID, this.groupNodeNames);
+    }
+
     @Override
     public long getNativePointer() {
         return rpcJniObj.getNativePointer();
@@ -460,7 +746,7 @@ public class ClientImpl implements Client {
             boolean onlyHeader,
             boolean onlyTxHash,
             RespCallback<BcosBlock> callback) {
-        this.getBlockByHash("", blockHash, onlyHeader, onlyTxHash);
+        this.getBlockByHashAsync("", blockHash, onlyHeader, onlyTxHash, callback);
     }
 
     @Override
@@ -599,7 +885,7 @@ public class ClientImpl implements Client {
                 node,
                 new JsonRpcRequest(
                         JsonRpcMethods.GET_TRANSACTION_BY_HASH,
-                        Arrays.asList(this.groupID, node, transactionHash)),
+                        Arrays.asList(this.groupID, node, transactionHash, withProof)),
                 BcosTransaction.class,
                 callback);
     }
@@ -682,6 +968,10 @@ public class ClientImpl implements Client {
 
     @Override
     public BigInteger getBlockLimit() {
+        this.checkNotInvalidated();
+        if (Objects.nonNull(this.blockLimitTracker) && this.blockLimitTracker.getBlockLimit() > 0) {
+            return BigInteger.valueOf(this.blockLimitTracker.getBlockLimit());
+        }
         BigInteger blockLimit = BigInteger.valueOf(this.rpcJniObj.getBlockLimit(this.groupID));
         if (logger.isDebugEnabled()) {
             logger.debug("getBlockLimit, group: {}, blockLimit: {}", groupID, blockLimit);
@@ -948,8 +1238,16 @@ public class ClientImpl implements Client {
 
     @Override
     public BcosGroupInfo getGroupInfo() {
+        return this.parseResponseIntoJsonRpcResponse(
+                new JsonRpcRequest(JsonRpcMethods.GET_GROUP_INFO, Arrays.asList(groupID)),
+                this.getGroupInfoResponse(),
+                BcosGroupInfo.class);
+    }
+
+    private Response getGroupInfoResponse() {
         try {
             CompletableFuture<Response> future = new CompletableFuture<>();
+            long startNanos = System.nanoTime();
 
             this.rpcJniObj.getGroupInfo(
                     groupID,
@@ -963,13 +1261,9 @@ public class ClientImpl implements Client {
                             logger.debug("getGroupInfo onResponse: {}", response);
                         }
 
-                        future.complete(response);
+                        this.completeResponse(future, JsonRpcMethods.GET_GROUP_INFO, response);
                     });
-            Response response = future.get();
-            return this.parseResponseIntoJsonRpcResponse(
-                    new JsonRpcRequest(JsonRpcMethods.GET_GROUP_INFO, Arrays.asList(groupID)),
-                    response,
-                    BcosGroupInfo.class);
+            return this.waitForResponse(future, JsonRpcMethods.GET_GROUP_INFO, "", startNanos);
         } catch (InterruptedException | ExecutionException e) {
             logger.error("e: ", e);
             throw new ClientException(
@@ -1051,15 +1345,34 @@ public class ClientImpl implements Client {
                 callback);
     }
 
+    @Override
+    public BatchRequest batchRequest() {
+        return new BatchRequest(
+                        this.groupID, this.rpcTransport, this.batchSupported, this.batchConfirmed)
+                .timeout(this.getEffectiveRequestTimeout());
+    }
+
     @Override
     public void start() {
         if (rpcJniObj != null) {
             rpcJniObj.start();
         }
+        if (blockLimitTracker != null) {
+            blockLimitTracker.start();
+        }
     }
 
     @Override
     public void stop() {
+        if (this.ignoredOnShared("stop")) {
+            return;
+        }
+        if (blockLimitTracker != null) {
+            blockLimitTracker.stop();
+        }
+        if (loadAwareRpcTransport != null) {
+            loadAwareRpcTransport.stop();
+        }
         if (rpcJniObj != null) {
             rpcJniObj.stop();
         }
@@ -1067,6 +1380,9 @@ public class ClientImpl implements Client {
 
     @Override
     public void destroy() {
+        if (this.ignoredOnShared("destroy")) {
+            return;
+        }
         if (rpcJniObj != null) {
             BcosSDKJniObj.destroy(rpcJniObj.getNativePointer());
             rpcJniObj = null;
@@ -1085,7 +1401,19 @@ public class ClientImpl implements Client {
                                     request, response, responseType);
                     callback.onResponse(jsonRpcResponse);
                 } catch (ClientException e) {
-                    callback.onError(response);
+                    if (response.getErrorCode() != 0) {
+                        callback.onError(response);
+                        return;
+                    }
+                    // the json rpc error or the decode error, report it with the error code
+                    Response errorResponse = new Response();
+                    errorResponse.setErrorCode(e.getErrorCode());
+                    errorResponse.setErrorMessage(
+                            Objects.nonNull(e.getErrorMessage())
+                                    ? e.getErrorMessage()
+                                    : e.getMessage());
+                    errorResponse.setContent(response.getContent());
+                    callback.onError(errorResponse);
                 }
             }
         };
@@ -1093,30 +1421,32 @@ public class ClientImpl implements Client {
 
     public <T extends JsonRpcResponse> T callRemoteMethod(
             String groupID, String node, JsonRpcRequest request, Class<T> responseType) {
+        this.checkNotInvalidated();
         try {
             CompletableFuture<Response> future = new CompletableFuture<>();
+            long startNanos = System.nanoTime();
 
-            String data = this.objectMapper.writeValueAsString(request);
-            this.rpcJniObj.genericMethod(
+            String data = JsonRpcRequestWriter.write(request);
+            this.rpcTransport.sendRequest(
                     groupID,
                     node,
+                    request.getMethod(),
                     data,
-                    (resp) -> {
-                        Response response = new Response();
-                        response.setErrorCode(resp.getErrorCode());
-                        response.setErrorMessage(resp.getErrorMessage());
-                        response.setContent(resp.getData());
-
-                        if (logger.isTraceEnabled()) {
-                            logger.trace(
-                                    " callRemoteMethod ===>>> request: {}, response: {}",
-                                    request,
-                                    response);
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            if (logger.isTraceEnabled()) {
+                                logger.trace(
+                                        " callRemoteMethod ===>>> request: {}, response: {}",
+                                        request,
+                                        response);
+                            }
+
+                            completeResponse(future, request.getMethod(), response);
                         }
-
-                        future.complete(response);
                     });
-            Response response = future.get();
+            Response response =
+                    this.waitForResponse(future, request.getMethod(), node, startNanos);
             return this.parseResponseIntoJsonRpcResponse(request, response, responseType);
         } catch (JsonProcessingException | InterruptedException | ExecutionException e) {
             logger.error("e: ", e);
@@ -1133,34 +1463,628 @@ public class ClientImpl implements Client {
             JsonRpcRequest request,
             Class<T> responseType,
             RespCallback<T> callback) {
-
+        ClientException invalidated = this.invalidation;
+        if (invalidated != null) {
+            Response errorResponse = new Response();
+            errorResponse.setErrorCode(invalidated.getErrorCode());
+            errorResponse.setErrorMessage(invalidated.getMessage());
+            callback.onError(errorResponse);
+            return;
+        }
         try {
-            this.rpcJniObj.genericMethod(
+            this.rpcTransport.sendRequest(
                     groupID,
                     node,
-                    this.objectMapper.writeValueAsString(request),
-                    (resp) -> {
-                        Response response = new Response();
-                        response.setErrorCode(resp.getErrorCode());
-                        response.setErrorMessage(resp.getErrorMessage());
-                        response.setContent(resp.getData());
-
-                        if (logger.isTraceEnabled()) {
-                            logger.trace(
-                                    " ===>>> asyncCallRemoteMethod, group: {}, node: {}, request: {}, response: {}",
-                                    groupID,
-                                    node,
-                                    request,
-                                    response);
+                    request.getMethod(),
+                    JsonRpcRequestWriter.write(request),
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            if (logger.isTraceEnabled()) {
+                                logger.trace(
+                                        " ===>>> asyncCallRemoteMethod, group: {}, node: {}, request: {}, response: {}",
+                                        groupID,
+                                        node,
+                                        request,
+                                        response);
+                            }
+
+                            callbackDispatcher.dispatch(
+                                    () ->
+                                            createResponseCallback(request, responseType, callback)
+                                                    .onResponse(response));
                         }
-
-                        ResponseCallback responseCallback =
-                                createResponseCallback(request, responseType, callback);
-                        responseCallback.onResponse(response);
                     });
         } catch (JsonProcessingException e) {
             logger.error("e: ", e);
+            Response errorResponse = new Response();
+            errorResponse.setErrorCode(-1);
+            errorResponse.setErrorMessage("encode request failed: " + e.getMessage());
+            callback.onError(errorResponse);
+        }
+    }
+
+    private void completeResponse(
+            CompletableFuture<Response> future, String method, Response response) {
+        if (!future.complete(response)) {
+            // the request has timed out, nobody is waiting for the response
+            this.lateResponseCount.incrementAndGet();
+            if (logger.isDebugEnabled()) {
+                logger.debug("discard the late response, method: {}", method);
+            }
+        }
+    }
+
+    private Response waitForResponse(
+            CompletableFuture<Response> future, String method, String node, long startNanos)
+            throws InterruptedException, ExecutionException {
+        long timeoutMs = this.getEffectiveRequestTimeout();
+        if (timeoutMs <= 0) {
+            return future.get();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            ClientTimeoutException timeoutException =
+                    new ClientTimeoutException(method, node, elapsedMs, timeoutMs);
+            // complete the future so the response received later is discarded
+            if (!future.completeExceptionally(timeoutException)) {
+                return future.get();
+            }
+            logger.warn(
+                    "request timeout, method: {}, node: {}, elapsed: {}ms, timeout: {}ms",
+                    method,
+                    node,
+                    elapsedMs,
+                    timeoutMs);
+            throw timeoutException;
+        }
+    }
+
+    private static long resolveRequestTimeout(ConfigOption configOption) {
+        if (Objects.isNull(configOption) || Objects.isNull(configOption.getNetworkConfig())) {
+            return DEFAULT_REQUEST_TIMEOUT_MS;
+        }
+        NetworkConfig networkConfig = configOption.getNetworkConfig();
+        if (networkConfig.getRequestTimeout() >= 0) {
+            return networkConfig.getRequestTimeout();
+        }
+        if (networkConfig.getTimeout() > 0) {
+            return networkConfig.getTimeout();
+        }
+        return DEFAULT_REQUEST_TIMEOUT_MS;
+    }
+
+    private long getEffectiveRequestTimeout() {
+        Long timeout = this.callTimeout.get();
+        return Objects.nonNull(timeout) ? timeout : this.requestTimeout;
+    }
+
+    @Override
+    public long getRequestTimeout() {
+        return this.requestTimeout;
+    }
+
+    @Override
+    public void setRequestTimeout(long timeoutMs) {
+        this.checkConfigurable("setRequestTimeout");
+        this.requestTimeout = Math.max(0, timeoutMs);
+    }
+
+    @Override
+    public <T> T withTimeout(long timeoutMs, Supplier<T> call) {
+        Long previous = this.callTimeout.get();
+        this.callTimeout.set(Math.max(0, timeoutMs));
+        try {
+            return call.get();
+        } finally {
+            if (Objects.isNull(previous)) {
+                this.callTimeout.remove();
+            } else {
+                this.callTimeout.set(previous);
+            }
+        }
+    }
+
+    /** @return the count of the responses received after the request timed out */
+    public long getLateResponseCount() {
+        return this.lateResponseCount.get();
+    }
+
+    /**
+     * send the serialized request by the native rpc, the default transport of the client
+     *
+     * @param groupID the group of the request
+     * @param node the node to send to, empty for any node of the group
+     * @param request the serialized json rpc request
+     * @param callback the callback of the raw response
+     */
+    protected void sendRequestByJni(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.rpcJniObj.genericMethod(
+                groupID,
+                node,
+                request,
+                (resp) -> {
+                    Response response = new Response();
+                    response.setErrorCode(resp.getErrorCode());
+                    response.setErrorMessage(resp.getErrorMessage());
+                    response.setContent(resp.getData());
+                    callback.onResponse(response);
+                });
+    }
+
+    /**
+     * the positions of the transports enabled by the enable methods, from the one closest to the
+     * node to the one called by the client, whatever order they are enabled in:
+     *
+     * <ul>
+     *   <li>the metrics, reporting every request sent to the native layer with the node chosen
+     *   <li>the load aware routing, choosing the node of the requests sent to any node
+     *   <li>the hedged reads, sending a read to another node if the first one is slow
+     *   <li>the retry, so every attempt is routed and hedged
+     *   <li>the concurrency limit, a request takes one slot for all its attempts
+     *   <li>the request coalescing, the coalesced requests take one slot
+     *   <li>the response cache, the cache hits don't go through the other transports
+     * </ul>
+     */
+    private static final List<Class<? extends RpcTransport>> TRANSPORT_ORDER =
+            Arrays.asList(
+                    MetricsRpcTransport.class,
+                    LoadAwareRpcTransport.class,
+                    HedgedRpcTransport.class,
+                    RetryingRpcTransport.class,
+                    ConcurrencyLimitRpcTransport.class,
+                    CoalescingRpcTransport.class,
+                    CachingRpcTransport.class);
+
+    /** a transport enabled by an enable method, decorating the transports below it */
+    private static class TransportLayer {
+        private final Class<?> type;
+        // the delegate of the transport, switched when the transport below it is replaced
+        private final SwitchableRpcTransport delegate;
+        private RpcTransport transport;
+
+        private TransportLayer(
+                Class<?> type, SwitchableRpcTransport delegate, RpcTransport transport) {
+            this.type = type;
+            this.delegate = delegate;
+            this.transport = transport;
+        }
+    }
+
+    /** forward the requests to the target, which can be replaced */
+    private static class SwitchableRpcTransport implements RpcTransport {
+        private volatile RpcTransport target;
+
+        private SwitchableRpcTransport(RpcTransport target) {
+            this.target = target;
+        }
+
+        @Override
+        public void sendRequest(
+                String groupID, String node, String request, ResponseCallback callback) {
+            this.target.sendRequest(groupID, node, request, callback);
+        }
+
+        @Override
+        public void sendRequest(
+                String groupID,
+                String node,
+                String method,
+                String request,
+                ResponseCallback callback) {
+            this.target.sendRequest(groupID, node, method, request, callback);
+        }
+    }
+
+    // enable the transport at its position in TRANSPORT_ORDER, the transport of the same type
+    // enabled before is replaced in place instead of decorated again, so enabling it twice doesn't
+    // stack them
+    private synchronized <T extends RpcTransport> T enableTransport(
+            Class<T> type, Function<RpcTransport, T> factory) {
+        this.checkConfigurable("enable " + type.getSimpleName());
+        for (int i = 0; i < this.transportLayers.size(); i++) {
+            TransportLayer layer = this.transportLayers.get(i);
+            if (layer.type != type) {
+                continue;
+            }
+            T transport = factory.apply(layer.delegate);
+            RpcTransport replaced = layer.transport;
+            layer.transport = transport;
+            if (i + 1 < this.transportLayers.size()) {
+                this.transportLayers.get(i + 1).delegate.target = transport;
+            } else {
+                this.rpcTransport = transport;
+            }
+            if (replaced instanceof LoadAwareRpcTransport) {
+                ((LoadAwareRpcTransport) replaced).stop();
+            }
+            logger.info("replace {}, groupID: {}", type.getSimpleName(), this.groupID);
+            return transport;
+        }
+        int position = this.transportLayers.size();
+        while (position > 0
+                && transportRank(this.transportLayers.get(position - 1).type)
+                        > transportRank(type)) {
+            position--;
+        }
+        if (position == this.transportLayers.size()) {
+            SwitchableRpcTransport delegate = new SwitchableRpcTransport(this.rpcTransport);
+            T transport = factory.apply(delegate);
+            this.transportLayers.add(new TransportLayer(type, delegate, transport));
+            this.rpcTransport = transport;
+            return transport;
+        }
+        // inserted below the transports with the higher positions
+        SwitchableRpcTransport above = this.transportLayers.get(position).delegate;
+        SwitchableRpcTransport delegate = new SwitchableRpcTransport(above.target);
+        T transport = factory.apply(delegate);
+        this.transportLayers.add(position, new TransportLayer(type, delegate, transport));
+        above.target = transport;
+        return transport;
+    }
+
+    private static int transportRank(Class<?> type) {
+        int rank = TRANSPORT_ORDER.indexOf(type);
+        return rank < 0 ? TRANSPORT_ORDER.size() : rank;
+    }
+
+    /**
+     * mark the client as shared by the users of the group, e.g. the client of BcosSDK. The
+     * configuration of the shared client can't be changed, since it affects all the users of it.
+     */
+    public void markShared() {
+        this.shared = true;
+    }
+
+    public boolean isShared() {
+        return this.shared;
+    }
+
+    private void checkConfigurable(String operation) {
+        if (this.shared) {
+            throw new ClientException(
+                    operation
+                            + " is not allowed on the client shared by all the users of the group,"
+                            + " build an own client by Client.build for the custom configuration,"
+                            + " groupID: "
+                            + this.groupID);
+        }
+    }
+
+    // the shared client is stopped by BcosSDK only, the users used to own the client may still
+    // stop or destroy it after use
+    private boolean ignoredOnShared(String operation) {
+        if (!this.shared) {
+            return false;
+        }
+        logger.warn(
+                "{} is ignored on the client shared by all the users of the group, evict it by BcosSDK.evictClient instead, groupID: {}",
+                operation,
+                this.groupID);
+        return true;
+    }
+
+    /**
+     * fail the later requests of the client with the reason and stop its background tasks, e.g.
+     * once the shared client is evicted from BcosSDK, so the users still holding it fail fast
+     * instead of sending the transactions with a stale block limit
+     *
+     * @param reason the error message of the failed requests
+     */
+    public void invalidate(String reason) {
+        if (this.invalidation == null) {
+            this.invalidation = new ClientException(reason);
+        }
+        if (this.blockLimitTracker != null) {
+            this.blockLimitTracker.stop();
+        }
+        if (this.loadAwareRpcTransport != null) {
+            this.loadAwareRpcTransport.stop();
+        }
+        logger.info("invalidate the client, groupID: {}, reason: {}", this.groupID, reason);
+    }
+
+    /** @return the tracker of the block number, null if the client is not bound to a group */
+    public BlockLimitTracker getBlockLimitTracker() {
+        return this.blockLimitTracker;
+    }
+
+    /**
+     * report the latency, the error code and the sizes of the requests to the listener, including
+     * the nodes chosen by the hedging and the routing
+     *
+     * @param listener the listener of the requests, e.g. a RpcMetricsRegistry
+     * @return the metrics transport
+     */
+    public MetricsRpcTransport enableMetrics(RpcMetricsListener listener) {
+        MetricsRpcTransport metricsRpcTransport =
+                this.enableTransport(
+                        MetricsRpcTransport.class,
+                        delegate -> new MetricsRpcTransport(delegate, listener));
+        logger.info("enable rpc metrics, groupID: {}, listener: {}", this.groupID, listener);
+        return metricsRpcTransport;
+    }
+
+    /**
+     * hedge the idempotent reads sent to any node across the connected nodes of the group, the
+     * same peers the retry fails over to
+     *
+     * @param config the parameters of the hedging
+     * @return the hedging transport, to get the stats
+     */
+    public HedgedRpcTransport enableHedgedReads(HedgeConfig config) {
+        HedgedRpcTransport hedgedRpcTransport =
+                this.enableTransport(
+                        HedgedRpcTransport.class,
+                        delegate ->
+                                new HedgedRpcTransport(
+                                        delegate,
+                                        () ->
+                                                this.getConnectedNodes(
+                                                        config.getPeersRefreshIntervalMs()),
+                                        config));
+        logger.info("enable hedged reads, groupID: {}, config: {}", this.groupID, config);
+        return hedgedRpcTransport;
+    }
+
+    /**
+     * route the transactions and the reads sent to any node by the load of the nodes of the group,
+     * the load is sampled by getPendingTxSize, getSyncStatus and getBlockNumber of every node
+     *
+     * @param config the parameters of the node selection
+     * @return the load aware transport, to get the load of the nodes and the stats
+     */
+    public LoadAwareRpcTransport enableLoadAwareRouting(NodeSelectionConfig config) {
+        LoadAwareRpcTransport loadAwareRpcTransport =
+                this.enableTransport(
+                        LoadAwareRpcTransport.class,
+                        delegate ->
+                                new LoadAwareRpcTransport(
+                                        delegate,
+                                        () -> this.groupNodeNames,
+                                        this::probeNodeLoad,
+                                        config));
+        this.loadAwareRpcTransport = loadAwareRpcTransport;
+        loadAwareRpcTransport.start();
+        logger.info("enable load aware routing, groupID: {}, config: {}", this.groupID, config);
+        return loadAwareRpcTransport;
+    }
+
+    // the probes are sent in parallel to the native rpc, not through the transports enabled nor
+    // waiting for the request timeout, the load aware transport bounds them by the probe timeout
+    private CompletableFuture<NodeLoad> probeNodeLoad(String node) {
+        CompletableFuture<PendingTxSize> pendingTxSize =
+                this.probeByJni(node, JsonRpcMethods.GET_PENDING_TX_SIZE, PendingTxSize.class);
+        CompletableFuture<SyncStatus> syncStatus =
+                this.probeByJni(node, JsonRpcMethods.GET_SYNC_STATUS, SyncStatus.class);
+        CompletableFuture<BlockNumber> blockNumber =
+                this.probeByJni(node, JsonRpcMethods.GET_BLOCK_NUMBER, BlockNumber.class);
+        return CompletableFuture.allOf(pendingTxSize, syncStatus, blockNumber)
+                .thenApply(
+                        ignored ->
+                                new NodeLoad(
+                                        pendingTxSize.join().getPendingTxSize().longValue(),
+                                        blockNumber.join().getBlockNumber().longValue(),
+                                        Boolean.TRUE.equals(
+                                                syncStatus
+                                                        .join()
+                                                        .getSyncStatus()
+                                                        .getIsSyncing())));
+    }
+
+    private <T extends JsonRpcResponse> CompletableFuture<T> probeByJni(
+            String node, String method, Class<T> responseType) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        JsonRpcRequest request = new JsonRpcRequest(method, Arrays.asList(this.groupID, node));
+        try {
+            this.sendRequestByJni(
+                    this.groupID,
+                    node,
+                    JsonRpcRequestWriter.write(request),
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            try {
+                                future.complete(
+                                        parseResponseIntoJsonRpcResponse(
+                                                request, response, responseType));
+                            } catch (Exception e) {
+                                future.completeExceptionally(e);
+                            }
+                        }
+                    });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
         }
+        return future;
+    }
+
+    /** @return the load aware transport, null if the load aware routing is not enabled */
+    public LoadAwareRpcTransport getLoadAwareRpcTransport() {
+        return this.loadAwareRpcTransport;
+    }
+
+    /**
+     * cache the responses of the immutable chain data, the cache hits don't go through the other
+     * transports enabled
+     *
+     * @param config the parameters of the cache
+     * @return the caching transport, to get the stats
+     */
+    public CachingRpcTransport enableResponseCache(ResponseCacheConfig config) {
+        CachingRpcTransport cachingRpcTransport =
+                this.enableTransport(
+                        CachingRpcTransport.class,
+                        delegate -> new CachingRpcTransport(delegate, config));
+        logger.info("enable response cache, groupID: {}, config: {}", this.groupID, config);
+        return cachingRpcTransport;
+    }
+
+    /**
+     * limit the requests in flight globally and per method, so the producers of the async requests
+     * slow down before the memory runs out. The retried and the hedged attempts of a request take
+     * one slot.
+     *
+     * @param config the limits and the admission mode
+     * @return the limiting transport, to get the queue depth and the stats
+     */
+    public ConcurrencyLimitRpcTransport enableConcurrencyLimit(ConcurrencyLimitConfig config) {
+        ConcurrencyLimitRpcTransport concurrencyLimitRpcTransport =
+                this.enableTransport(
+                        ConcurrencyLimitRpcTransport.class,
+                        delegate -> new ConcurrencyLimitRpcTransport(delegate, config));
+        logger.info("enable concurrency limit, groupID: {}, config: {}", this.groupID, config);
+        return concurrencyLimitRpcTransport;
+    }
+
+    /**
+     * send the concurrent identical reads once and pass the response to all the callers, the
+     * coalesced requests take one slot of the concurrency limit.
+     *
+     * @param config the methods to coalesce
+     * @return the coalescing transport, to get the coalescing ratio
+     */
+    public CoalescingRpcTransport enableRequestCoalescing(CoalescingConfig config) {
+        CoalescingRpcTransport coalescingRpcTransport =
+                this.enableTransport(
+                        CoalescingRpcTransport.class,
+                        delegate -> new CoalescingRpcTransport(delegate, config));
+        logger.info("enable request coalescing, groupID: {}, config: {}", this.groupID, config);
+        return coalescingRpcTransport;
+    }
+
+    /**
+     * retry the failed reads with the exponential backoff, the requests sent to any node fail over
+     * to the other peers of the group. Every attempt is routed and hedged if enabled.
+     *
+     * @param config the parameters of the retry
+     * @return the retrying transport, to get the stats of the attempts
+     */
+    public RetryingRpcTransport enableRetry(RetryConfig config) {
+        RetryingRpcTransport retryingRpcTransport =
+                this.enableTransport(
+                        RetryingRpcTransport.class,
+                        delegate ->
+                                new RetryingRpcTransport(
+                                        delegate,
+                                        () ->
+                                                this.getConnectedNodes(
+                                                        config.getPeersRefreshIntervalMs()),
+                                        config));
+        logger.info("enable retry, groupID: {}, config: {}", this.groupID, config);
+        return retryingRpcTransport;
+    }
+
+    public boolean isLazyBlockTransactions() {
+        return this.lazyBlockTransactions;
+    }
+
+    /**
+     * keep the transactions of the blocks got as the raw json and parse a transaction when it is
+     * accessed, the iteration of the transactions doesn't keep the parsed ones. The transactions of
+     * the blocks are read only if enabled.
+     *
+     * @param lazyBlockTransactions parse the transactions lazily or not
+     */
+    public void setLazyBlockTransactions(boolean lazyBlockTransactions) {
+        this.checkConfigurable("setLazyBlockTransactions");
+        this.lazyBlockTransactions = lazyBlockTransactions;
+        logger.info(
+                "set lazy block transactions, groupID: {}, lazy: {}",
+                this.groupID,
+                lazyBlockTransactions);
+    }
+
+    // the nodes of the group connected by getGroupPeers, all the nodes if the peers are unknown,
+    // shared by the retry and the hedged reads
+    private List<String> getConnectedNodes(long refreshIntervalMs) {
+        if (System.currentTimeMillis() - this.groupPeersUpdateTime >= refreshIntervalMs
+                && this.groupPeersRefreshing.compareAndSet(false, true)) {
+            this.getGroupPeersAsync(
+                    new RespCallback<GroupPeers>() {
+                        @Override
+                        public void onResponse(GroupPeers groupPeers) {
+                            if (Objects.nonNull(groupPeers.getGroupPeers())) {
+                                ClientImpl.this.groupPeers = groupPeers.getGroupPeers();
+                            }
+                            onGroupPeersRefreshed();
+                        }
+
+                        @Override
+                        public void onError(Response errorResponse) {
+                            logger.warn(
+                                    "refresh group peers failed, groupID: {}, error: {}",
+                                    groupID,
+                                    errorResponse.getErrorMessage());
+                            onGroupPeersRefreshed();
+                        }
+                    });
+        }
+        List<String> nodes = this.groupNodeNames;
+        List<String> peers = this.groupPeers;
+        List<String> connected = new ArrayList<>();
+        for (String node : nodes) {
+            if (peers.contains(node)) {
+                connected.add(node);
+            }
+        }
+        return connected.isEmpty() ? nodes : connected;
+    }
+
+    private void onGroupPeersRefreshed() {
+        this.groupPeersUpdateTime = System.currentTimeMillis();
+        this.groupPeersRefreshing.set(false);
+    }
+
+    private static CallbackDispatcher createCallbackDispatcher(ConfigOption configOption) {
+        ThreadPoolConfig threadPoolConfig =
+                Objects.isNull(configOption) ? null : configOption.getThreadPoolConfig();
+        if (Objects.isNull(threadPoolConfig)) {
+            return CallbackDispatcher.inline("client");
+        }
+        return CallbackDispatcher.create(
+                "client", threadPoolConfig, threadPoolConfig.getClientCallbackPoolSize());
+    }
+
+    /** @return the dispatcher calling the callbacks of the async requests, to get the stats */
+    public CallbackDispatcher getCallbackDispatcher() {
+        return this.callbackDispatcher;
+    }
+
+    /**
+     * call the callbacks of the async requests by the dispatcher, e.g. on the executor of the
+     * application
+     *
+     * @param callbackDispatcher the dispatcher
+     */
+    public void setCallbackDispatcher(CallbackDispatcher callbackDispatcher) {
+        this.checkConfigurable("setCallbackDispatcher");
+        this.callbackDispatcher = callbackDispatcher;
+    }
+
+    /** @return the names of the nodes of the group */
+    public List<String> getGroupNodeNames() {
+        return this.groupNodeNames;
+    }
+
+    /** @return the transport to send the json rpc requests */
+    public RpcTransport getRpcTransport() {
+        return this.rpcTransport;
+    }
+
+    /**
+     * replace the transport, e.g. to decorate the default transport. The transports enabled before
+     * are kept in the replaced chain and can't be replaced by the enable methods any more.
+     *
+     * @param rpcTransport the transport to send the json rpc requests
+     */
+    public synchronized void setRpcTransport(RpcTransport rpcTransport) {
+        this.checkConfigurable("setRpcTransport");
+        this.transportLayers.clear();
+        this.rpcTransport = rpcTransport;
     }
 
     protected <T extends JsonRpcResponse> T parseResponseIntoJsonRpcResponse(
@@ -1168,8 +2092,12 @@ public class ClientImpl implements Client {
             throws ClientException {
         try {
             if (response.getErrorCode() == 0) {
-                // parse the response into JsonRPCResponse
-                T jsonRpcResponse = objectMapper.readValue(response.getContent(), responseType);
+                // parse the response into JsonRPCResponse by the reader cached for the type
+                T jsonRpcResponse =
+                        this.lazyBlockTransactions && responseType == BcosBlock.class
+                                ? responseType.cast(BcosBlock.readLazily(response.getContent()))
+                                : ObjectMapperFactory.getObjectReader(responseType)
+                                        .readValue(response.getContent());
                 if (jsonRpcResponse.getError() != null) {
                     logger.error(
                             "parseResponseIntoJsonRpcResponse failed for non-empty error message, method: {}, group: {}, retErrorMessage: {}, retErrorCode: {}",
@@ -1198,6 +2126,9 @@ public class ClientImpl implements Client {
                                 + ", error message: "
                                 + response.getErrorMessage());
             }
+        } catch (ClientException e) {
+            // keep the error code of the response
+            throw e;
         } catch (Exception e) {
             logger.error(
                     "parseResponseIntoJsonRpcResponse failed for decode the message exception, errorMessage: {}, groupId: {}",
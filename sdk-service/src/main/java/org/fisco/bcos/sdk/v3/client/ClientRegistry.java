@@ -0,0 +1,183 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread-safe registry of the shared clients by group.
+ *
+ * <p>The client of a group is created once by the first caller, the concurrent callers of the same
+ * group wait for it instead of creating their own, and the callers of the other groups are not
+ * blocked. A failed creation is not kept, so the next caller tries again. The evicted clients are
+ * closed by the closer after they are removed, e.g. the requests of them fail, so the callers still
+ * holding them get the client again.
+ */
+public class ClientRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ClientRegistry.class);
+
+    private final Function<String, Client> factory;
+    private final Consumer<Client> closer;
+    private final ConcurrentHashMap<String, CompletableFuture<Client>> clients =
+            new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    private final AtomicLong createdCount = new AtomicLong(0);
+    private final AtomicLong reusedCount = new AtomicLong(0);
+    private final AtomicLong evictedCount = new AtomicLong(0);
+
+    /**
+     * create the registry
+     *
+     * @param factory create the client of the group
+     * @param closer release the resources of the evicted client
+     */
+    public ClientRegistry(Function<String, Client> factory, Consumer<Client> closer) {
+        this.factory = factory;
+        this.closer = closer;
+    }
+
+    /**
+     * get the shared client of the group, create it if not exists
+     *
+     * @param groupID the group
+     * @return the client
+     * @throws ClientException if the registry is closed
+     */
+    public Client get(String groupID) {
+        Objects.requireNonNull(groupID, "the groupID must not be null");
+        if (this.closed) {
+            throw new ClientException("the client registry is closed, groupID: " + groupID);
+        }
+        CompletableFuture<Client> future = this.clients.get(groupID);
+        if (future == null) {
+            CompletableFuture<Client> created = new CompletableFuture<>();
+            future = this.clients.putIfAbsent(groupID, created);
+            if (future == null) {
+                return this.create(groupID, created);
+            }
+        }
+        this.reusedCount.incrementAndGet();
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Client create(String groupID, CompletableFuture<Client> future) {
+        Client client;
+        try {
+            client = this.factory.apply(groupID);
+        } catch (RuntimeException e) {
+            this.clients.remove(groupID, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        this.createdCount.incrementAndGet();
+        future.complete(client);
+        logger.info("create shared client, groupID: {}", groupID);
+        if (this.closed) {
+            // closed while creating
+            this.evict(groupID);
+            throw new ClientException("the client registry is closed, groupID: " + groupID);
+        }
+        return client;
+    }
+
+    /**
+     * @param groupID the group
+     * @return the created client of the group, null if not created or being created
+     */
+    public Client getIfPresent(String groupID) {
+        CompletableFuture<Client> future = this.clients.get(groupID);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    /**
+     * remove the client of the group and close it, the next get creates a new one
+     *
+     * @param groupID the group
+     * @return true if the client of the group is evicted
+     */
+    public boolean evict(String groupID) {
+        CompletableFuture<Client> future = this.clients.remove(groupID);
+        if (future == null) {
+            return false;
+        }
+        this.evictedCount.incrementAndGet();
+        // close it once it is created if it is being created
+        future.thenAccept(
+                client -> {
+                    try {
+                        this.closer.accept(client);
+                        logger.info("close shared client, groupID: {}", groupID);
+                    } catch (Exception e) {
+                        logger.warn(
+                                "close shared client failed, groupID: {}, e: {}",
+                                groupID,
+                                e.getMessage());
+                    }
+                });
+        return true;
+    }
+
+    /** evict all the clients, the registry can't create clients after closed */
+    public void close() {
+        this.closed = true;
+        for (String groupID : new ArrayList<>(this.clients.keySet())) {
+            this.evict(groupID);
+        }
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /** @return the groups having a client created or being created */
+    public List<String> getGroups() {
+        return new ArrayList<>(this.clients.keySet());
+    }
+
+    public long getCreatedCount() {
+        return this.createdCount.get();
+    }
+
+    /** @return the count of the gets served by the client created or being created by others */
+    public long getReusedCount() {
+        return this.reusedCount.get();
+    }
+
+    public long getEvictedCount() {
+        return this.evictedCount.get();
+    }
+}
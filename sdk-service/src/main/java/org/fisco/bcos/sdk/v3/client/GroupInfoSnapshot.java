@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosGroupInfo;
+import org.fisco.bcos.sdk.v3.utils.Hex;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+
+/**
+ * The group info of a group exported to a local file, to start the clients without the getGroupInfo
+ * request.
+ *
+ * <p>The snapshot keeps the raw getGroupInfo response of the node, so it is parsed in the same way
+ * as the response. It is verified by a checksum when loaded, and the chain and crypto type in it
+ * are verified against the node in the background after the client is started.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GroupInfoSnapshot {
+    public static final int FORMAT_VERSION = 1;
+
+    private int formatVersion = FORMAT_VERSION;
+    private String groupID;
+    private String chainID;
+    private boolean smCrypto;
+    private boolean wasm;
+    private long blockNumber;
+    private long exportTime;
+    private String groupInfoResponse;
+    private String checksum;
+
+    public GroupInfoSnapshot() {}
+
+    /**
+     * create the snapshot
+     *
+     * @param groupID the group
+     * @param chainID the chain of the group
+     * @param smCrypto whether the group uses the sm crypto
+     * @param wasm whether the group uses the wasm vm
+     * @param blockNumber the block number when exported
+     * @param groupInfoResponse the raw getGroupInfo response of the node
+     */
+    public GroupInfoSnapshot(
+            String groupID,
+            String chainID,
+            boolean smCrypto,
+            boolean wasm,
+            long blockNumber,
+            byte[] groupInfoResponse) {
+        this.groupID = groupID;
+        this.chainID = chainID;
+        this.smCrypto = smCrypto;
+        this.wasm = wasm;
+        this.blockNumber = blockNumber;
+        this.exportTime = System.currentTimeMillis();
+        this.groupInfoResponse = new String(groupInfoResponse, StandardCharsets.UTF_8);
+        this.checksum = this.computeChecksum();
+    }
+
+    /**
+     * load the snapshot from the file and verify it
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws ClientException if the file can't be read, or the snapshot is not valid
+     */
+    public static GroupInfoSnapshot load(File file) {
+        GroupInfoSnapshot snapshot;
+        try {
+            snapshot =
+                    ObjectMapperFactory.getObjectReader(GroupInfoSnapshot.class)
+                            .readValue(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new ClientException(
+                    "load group info snapshot failed, file: " + file + ", e: " + e.getMessage(),
+                    e);
+        }
+        if (snapshot.formatVersion != FORMAT_VERSION) {
+            throw new ClientException(
+                    "unsupported group info snapshot version: "
+                            + snapshot.formatVersion
+                            + ", file: "
+                            + file);
+        }
+        if (Objects.isNull(snapshot.groupInfoResponse)
+                || !snapshot.computeChecksum().equals(snapshot.checksum)) {
+            throw new ClientException("the group info snapshot is corrupted, file: " + file);
+        }
+        return snapshot;
+    }
+
+    /**
+     * save the snapshot to the file, the file is replaced at once so the readers never see a
+     * partial snapshot
+     *
+     * @param file the snapshot file
+     * @throws ClientException if the file can't be written
+     */
+    public void save(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try {
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+            File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+            try {
+                Files.write(
+                        tempFile.toPath(),
+                        ObjectMapperFactory.getObjectMapper().writeValueAsBytes(this));
+                try {
+                    Files.move(
+                            tempFile.toPath(),
+                            file.toPath(),
+                            StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(
+                            tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        } catch (IOException e) {
+            throw new ClientException(
+                    "save group info snapshot failed, file: " + file + ", e: " + e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * @return the group info parsed from the raw response
+     * @throws ClientException if the response can't be parsed
+     */
+    @JsonIgnore
+    public BcosGroupInfo.GroupInfo getGroupInfo() {
+        try {
+            return ObjectMapperFactory.getObjectReader(BcosGroupInfo.class)
+                    .<BcosGroupInfo>readValue(this.groupInfoResponse)
+                    .getResult();
+        } catch (IOException e) {
+            throw new ClientException(
+                    "parse the group info of the snapshot failed, e: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * check the chain and crypto type of the group are not changed since the snapshot
+     *
+     * @param chainID the current chain of the group
+     * @param smCrypto whether the group uses the sm crypto now
+     * @throws ClientException if changed
+     */
+    public void checkCompatible(String chainID, boolean smCrypto) {
+        if (!Objects.equals(this.chainID, chainID) || this.smCrypto != smCrypto) {
+            throw new ClientException(
+                    "the chain of the group changed since the group info snapshot, groupID: "
+                            + this.groupID
+                            + ", chainID: "
+                            + this.chainID
+                            + " -> "
+                            + chainID
+                            + ", smCrypto: "
+                            + this.smCrypto
+                            + " -> "
+                            + smCrypto);
+        }
+    }
+
+    private String computeChecksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String content =
+                    formatVersion
+                            + "|"
+                            + groupID
+                            + "|"
+                            + chainID
+                            + "|"
+                            + smCrypto
+                            + "|"
+                            + wasm
+                            + "|"
+                            + blockNumber
+                            + "|"
+                            + exportTime
+                            + "|"
+                            + groupInfoResponse;
+            return Hex.toHexString(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new ClientException("SHA-256 is not supported, e: " + e.getMessage(), e);
+        }
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public void setFormatVersion(int formatVersion) {
+        this.formatVersion = formatVersion;
+    }
+
+    public String getGroupID() {
+        return groupID;
+    }
+
+    public void setGroupID(String groupID) {
+        this.groupID = groupID;
+    }
+
+    public String getChainID() {
+        return chainID;
+    }
+
+    public void setChainID(String chainID) {
+        this.chainID = chainID;
+    }
+
+    public boolean isSmCrypto() {
+        return smCrypto;
+    }
+
+    public void setSmCrypto(boolean smCrypto) {
+        this.smCrypto = smCrypto;
+    }
+
+    public boolean isWasm() {
+        return wasm;
+    }
+
+    public void setWasm(boolean wasm) {
+        this.wasm = wasm;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public void setBlockNumber(long blockNumber) {
+        this.blockNumber = blockNumber;
+    }
+
+    public long getExportTime() {
+        return exportTime;
+    }
+
+    public void setExportTime(long exportTime) {
+        this.exportTime = exportTime;
+    }
+
+    public String getGroupInfoResponse() {
+        return groupInfoResponse;
+    }
+
+    public void setGroupInfoResponse(String groupInfoResponse) {
+        this.groupInfoResponse = groupInfoResponse;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupInfoSnapshot{"
+                + "formatVersion="
+                + formatVersion
+                + ", groupID='"
+                + groupID
+                + '\''
+                + ", chainID='"
+                + chainID
+                + '\''
+                + ", smCrypto="
+                + smCrypto
+                + ", wasm="
+                + wasm
+                + ", blockNumber="
+                + blockNumber
+                + ", exportTime="
+                + exportTime
+                + '}';
+    }
+}
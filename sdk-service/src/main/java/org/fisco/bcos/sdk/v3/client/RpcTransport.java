@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+
+/** Send the serialized json rpc request to the node, the raw response is passed to the callback. */
+public interface RpcTransport {
+    /**
+     * send the request
+     *
+     * @param groupID the group of the request
+     * @param node the node to send to, empty for any node of the group
+     * @param request the serialized json rpc request
+     * @param callback the callback of the raw response
+     */
+    void sendRequest(String groupID, String node, String request, ResponseCallback callback);
+
+    /**
+     * send the request of the json rpc method, the transports treating the methods differently
+     * override it
+     *
+     * @param groupID the group of the request
+     * @param node the node to send to, empty for any node of the group
+     * @param method the json rpc method of the request
+     * @param request the serialized json rpc request
+     * @param callback the callback of the raw response
+     */
+    default void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        this.sendRequest(groupID, node, request, callback);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2014-2020 [fisco-dev]
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fisco.bcos.sdk.v3.client.exceptions;
+
+/** Throw exception when the response of a request is not received before the deadline. */
+public class ClientTimeoutException extends ClientException {
+    // not a json rpc error code, distinguish the timeout from the errors returned by the node
+    public static final int TIMEOUT_ERROR_CODE = -50001;
+
+    private final String method;
+    private final String node;
+    private final long elapsedMs;
+    private final long timeoutMs;
+
+    public ClientTimeoutException(String method, String node, long elapsedMs, long timeoutMs) {
+        super(
+                TIMEOUT_ERROR_CODE,
+                "request timeout",
+                "request timeout, method: "
+                        + method
+                        + ", node: "
+                        + (node == null || node.isEmpty() ? "any" : node)
+                        + ", elapsed: "
+                        + elapsedMs
+                        + "ms, timeout: "
+                        + timeoutMs
+                        + "ms");
+        this.method = method;
+        this.node = node;
+        this.elapsedMs = elapsedMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /** @return the node the request was sent to, empty if sent to any node of the group */
+    public String getNode() {
+        return node;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientTimeoutException{"
+                + "method='"
+                + method
+                + '\''
+                + ", node='"
+                + node
+                + '\''
+                + ", elapsedMs="
+                + elapsedMs
+                + ", timeoutMs="
+                + timeoutMs
+                + '}';
+    }
+}
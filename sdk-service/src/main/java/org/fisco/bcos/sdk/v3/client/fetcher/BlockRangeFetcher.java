@@ -0,0 +1,468 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.fetcher;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.protocol.model.JsonTransactionResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetch a range of blocks with many requests in flight, and deliver them to the consumer strictly
+ * in the order of the block number.
+ *
+ * <p>The blocks received out of order wait in a reorder buffer, the blocks in flight and buffered
+ * never exceed maxBufferedBlocks, so a slow block or a slow consumer stops the fetching instead of
+ * growing the memory. The concurrency grows while the latency stays near the lowest one observed,
+ * and shrinks when the latency grows or the requests fail. A failed block is retried with backoff,
+ * if it still fails the fetch completes exceptionally and can be resumed from {@link
+ * #getNextBlockNumber()}.
+ */
+public class BlockRangeFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(BlockRangeFetcher.class);
+    private static final ScheduledThreadPoolExecutor retryScheduler = createScheduler();
+
+    private final Function<Long, CompletableFuture<BcosBlock.Block>> blockFetcher;
+    private final Function<String, CompletableFuture<TransactionReceipt>> receiptFetcher;
+    private final BlockRangeFetcherConfig config;
+
+    // the state of the running fetch, guarded by this
+    private boolean running = false;
+    // identify the fetch of the requests, the completions of the previous fetches are ignored
+    private long fetchId = 0;
+    private Consumer<FetchedBlock> consumer;
+    private CompletableFuture<Long> result;
+    private long endBlockNumber;
+    private long nextToRequest;
+    private volatile long nextToDeliver;
+    private int inFlight;
+    private int concurrency;
+    private int successesSinceAdjust;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private final Map<Long, FetchedBlock> reorderBuffer = new HashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final AtomicLong deliveredCount = new AtomicLong(0);
+    private final AtomicLong retryCount = new AtomicLong(0);
+    private volatile int maxBufferedCount = 0;
+    private volatile long startNanos;
+
+    /**
+     * create the fetcher fetching the blocks by the client
+     *
+     * @param client the client of the group
+     * @param config the parameters of the fetcher
+     */
+    public BlockRangeFetcher(Client client, BlockRangeFetcherConfig config) {
+        this(
+                blockNumber ->
+                        client.getBlockByNumberAsync(
+                                        BigInteger.valueOf(blockNumber),
+                                        false,
+                                        !config.isFullTransactions())
+                                .thenApply(BcosBlock::getBlock),
+                transactionHash ->
+                        client.getTransactionReceiptAsync(transactionHash, false)
+                                .thenApply(BcosTransactionReceipt::getTransactionReceipt),
+                config);
+    }
+
+    /**
+     * create the fetcher
+     *
+     * @param blockFetcher fetch the block of the block number
+     * @param receiptFetcher fetch the receipt of the transaction hash
+     * @param config the parameters of the fetcher
+     */
+    public BlockRangeFetcher(
+            Function<Long, CompletableFuture<BcosBlock.Block>> blockFetcher,
+            Function<String, CompletableFuture<TransactionReceipt>> receiptFetcher,
+            BlockRangeFetcherConfig config) {
+        this.blockFetcher = blockFetcher;
+        this.receiptFetcher = receiptFetcher;
+        this.config = config;
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("block-range-fetcher-%d")
+                                .daemon(true)
+                                .build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * fetch the blocks, the consumer is called by one thread at a time in the order of the block
+     * number
+     *
+     * @param fromBlockNumber the first block to fetch
+     * @param toBlockNumber the last block to fetch
+     * @param consumer consume the fetched blocks
+     * @return the future of the last block number delivered, completed exceptionally if a block
+     *     can't be fetched or the consumer throws
+     */
+    public CompletableFuture<Long> fetch(
+            long fromBlockNumber, long toBlockNumber, Consumer<FetchedBlock> consumer) {
+        CompletableFuture<Long> future;
+        synchronized (this) {
+            if (this.running) {
+                throw new IllegalStateException("the fetcher is running");
+            }
+            future = new CompletableFuture<>();
+            if (fromBlockNumber > toBlockNumber) {
+                future.complete(toBlockNumber);
+                return future;
+            }
+            this.running = true;
+            this.fetchId++;
+            this.consumer = consumer;
+            this.result = future;
+            this.endBlockNumber = toBlockNumber;
+            this.nextToRequest = fromBlockNumber;
+            this.nextToDeliver = fromBlockNumber;
+            this.inFlight = 0;
+            this.concurrency =
+                    Math.max(
+                            this.config.getMinConcurrency(),
+                            Math.min(
+                                    this.config.getMaxConcurrency(),
+                                    this.config.getInitialConcurrency()));
+            this.successesSinceAdjust = 0;
+            this.reorderBuffer.clear();
+            this.deliveredCount.set(0);
+            this.retryCount.set(0);
+            this.startNanos = System.nanoTime();
+        }
+        logger.info(
+                "fetch blocks, from: {}, to: {}, config: {}",
+                fromBlockNumber,
+                toBlockNumber,
+                this.config);
+        this.pump();
+        return future;
+    }
+
+    /** stop fetching, the future of the fetch completes with the last block number delivered */
+    public void stop() {
+        CompletableFuture<Long> future;
+        synchronized (this) {
+            if (!this.running) {
+                return;
+            }
+            this.running = false;
+            this.reorderBuffer.clear();
+            future = this.result;
+        }
+        future.complete(this.nextToDeliver - 1);
+    }
+
+    private void pump() {
+        List<Long> blockNumbers = new ArrayList<>();
+        long currentFetchId;
+        synchronized (this) {
+            currentFetchId = this.fetchId;
+            while (this.running
+                    && this.inFlight < this.concurrency
+                    && this.nextToRequest <= this.endBlockNumber
+                    && this.nextToRequest - this.nextToDeliver
+                            < this.config.getMaxBufferedBlocks()) {
+                blockNumbers.add(this.nextToRequest++);
+                this.inFlight++;
+            }
+        }
+        for (Long blockNumber : blockNumbers) {
+            this.request(currentFetchId, blockNumber, 0);
+        }
+    }
+
+    // the requests and the retries of the previous fetches are not sent
+    private synchronized boolean isCurrent(long requestFetchId) {
+        return this.running && requestFetchId == this.fetchId;
+    }
+
+    private void request(long requestFetchId, long blockNumber, int attempt) {
+        if (attempt > 0 && !this.isCurrent(requestFetchId)) {
+            return;
+        }
+        long requestNanos = System.nanoTime();
+        CompletableFuture<FetchedBlock> future;
+        try {
+            future =
+                    this.blockFetcher
+                            .apply(blockNumber)
+                            .thenCompose(block -> this.fetchReceipts(blockNumber, block));
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete(
+                (fetchedBlock, e) ->
+                        this.onFetched(
+                                requestFetchId,
+                                blockNumber,
+                                attempt,
+                                requestNanos,
+                                fetchedBlock,
+                                e));
+    }
+
+    private CompletableFuture<FetchedBlock> fetchReceipts(long blockNumber, BcosBlock.Block block) {
+        if (Objects.isNull(block)) {
+            CompletableFuture<FetchedBlock> future = new CompletableFuture<>();
+            future.completeExceptionally(
+                    new ClientException("the block is not found, blockNumber: " + blockNumber));
+            return future;
+        }
+        List<BcosBlock.TransactionResult> transactions = block.getTransactions();
+        if (!this.config.isFetchReceipts()
+                || Objects.isNull(transactions)
+                || transactions.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new FetchedBlock(blockNumber, block, Collections.emptyList()));
+        }
+        List<CompletableFuture<TransactionReceipt>> receiptFutures = new ArrayList<>();
+        for (BcosBlock.TransactionResult transaction : transactions) {
+            Object value = transaction.get();
+            String transactionHash =
+                    value instanceof JsonTransactionResponse
+                            ? ((JsonTransactionResponse) value).getHash()
+                            : (String) value;
+            receiptFutures.add(this.receiptFetcher.apply(transactionHash));
+        }
+        return CompletableFuture.allOf(receiptFutures.toArray(new CompletableFuture[0]))
+                .thenApply(
+                        v -> {
+                            List<TransactionReceipt> receipts =
+                                    new ArrayList<>(receiptFutures.size());
+                            for (CompletableFuture<TransactionReceipt> receiptFuture :
+                                    receiptFutures) {
+                                receipts.add(receiptFuture.join());
+                            }
+                            return new FetchedBlock(blockNumber, block, receipts);
+                        });
+    }
+
+    private void onFetched(
+            long requestFetchId,
+            long blockNumber,
+            int attempt,
+            long requestNanos,
+            FetchedBlock fetchedBlock,
+            Throwable e) {
+        if (Objects.nonNull(e)) {
+            boolean retry;
+            synchronized (this) {
+                if (requestFetchId != this.fetchId) {
+                    return;
+                }
+                // fewer requests in flight after the errors
+                this.concurrency = Math.max(this.config.getMinConcurrency(), this.concurrency / 2);
+                this.successesSinceAdjust = 0;
+                retry = this.running && attempt < this.config.getMaxRetries();
+                if (!retry) {
+                    this.inFlight--;
+                }
+            }
+            if (retry) {
+                // keep the slot in flight for the retry
+                this.retryCount.incrementAndGet();
+                logger.debug(
+                        "fetch block failed, retry later, blockNumber: {}, attempt: {}, e: {}",
+                        blockNumber,
+                        attempt,
+                        e.getMessage());
+                retryScheduler.schedule(
+                        () -> this.request(requestFetchId, blockNumber, attempt + 1),
+                        this.config.getRetryBackoffMs() * (attempt + 1),
+                        TimeUnit.MILLISECONDS);
+            } else {
+                this.fail(
+                        new ClientException(
+                                "fetch block failed, blockNumber: "
+                                        + blockNumber
+                                        + ", attempts: "
+                                        + (attempt + 1)
+                                        + ", error: "
+                                        + e.getMessage(),
+                                e));
+            }
+            return;
+        }
+        synchronized (this) {
+            if (requestFetchId != this.fetchId) {
+                return;
+            }
+            this.inFlight--;
+            this.adjustConcurrency(System.nanoTime() - requestNanos);
+            if (this.running) {
+                this.reorderBuffer.put(blockNumber, fetchedBlock);
+                this.maxBufferedCount = Math.max(this.maxBufferedCount, this.reorderBuffer.size());
+            }
+        }
+        this.drain();
+        this.pump();
+    }
+
+    // called with the lock held
+    private void adjustConcurrency(long latencyNanos) {
+        this.minLatencyNanos = Math.min(this.minLatencyNanos, latencyNanos);
+        // adjust at most once per round of the requests in flight
+        if (++this.successesSinceAdjust < this.concurrency) {
+            return;
+        }
+        this.successesSinceAdjust = 0;
+        if (latencyNanos <= this.minLatencyNanos * (1 + this.config.getLatencyTolerance())) {
+            this.concurrency = Math.min(this.config.getMaxConcurrency(), this.concurrency + 1);
+        } else {
+            this.concurrency = Math.max(this.config.getMinConcurrency(), this.concurrency - 1);
+        }
+    }
+
+    // deliver the buffered blocks in order, by one thread at a time
+    private void drain() {
+        while (this.draining.compareAndSet(false, true)) {
+            try {
+                while (true) {
+                    FetchedBlock fetchedBlock;
+                    Consumer<FetchedBlock> blockConsumer;
+                    synchronized (this) {
+                        if (!this.running) {
+                            return;
+                        }
+                        fetchedBlock = this.reorderBuffer.remove(this.nextToDeliver);
+                        blockConsumer = this.consumer;
+                    }
+                    if (Objects.isNull(fetchedBlock)) {
+                        break;
+                    }
+                    try {
+                        blockConsumer.accept(fetchedBlock);
+                    } catch (Exception e) {
+                        this.fail(
+                                new ClientException(
+                                        "consume block failed, blockNumber: "
+                                                + fetchedBlock.getBlockNumber()
+                                                + ", error: "
+                                                + e.getMessage(),
+                                        e));
+                        return;
+                    }
+                    this.deliveredCount.incrementAndGet();
+                    this.nextToDeliver = fetchedBlock.getBlockNumber() + 1;
+                }
+                this.completeIfDone();
+            } finally {
+                this.draining.set(false);
+            }
+            // a block may be buffered by another thread after the loop above
+            synchronized (this) {
+                if (!this.running || !this.reorderBuffer.containsKey(this.nextToDeliver)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void completeIfDone() {
+        CompletableFuture<Long> future;
+        synchronized (this) {
+            if (!this.running || this.nextToDeliver <= this.endBlockNumber) {
+                return;
+            }
+            this.running = false;
+            future = this.result;
+        }
+        logger.info(
+                "fetch blocks finished, to: {}, blocks/s: {}",
+                this.endBlockNumber,
+                this.getBlocksPerSecond());
+        future.complete(this.endBlockNumber);
+    }
+
+    private void fail(ClientException e) {
+        CompletableFuture<Long> future;
+        synchronized (this) {
+            if (!this.running) {
+                return;
+            }
+            this.running = false;
+            this.reorderBuffer.clear();
+            future = this.result;
+        }
+        logger.warn(
+                "fetch blocks failed, resume from: {}, e: {}", this.nextToDeliver, e.getMessage());
+        future.completeExceptionally(e);
+    }
+
+    public synchronized boolean isRunning() {
+        return this.running;
+    }
+
+    /** @return the next block number to deliver, to resume the fetch from after a failure */
+    public long getNextBlockNumber() {
+        return this.nextToDeliver;
+    }
+
+    /** @return the current count of the requests allowed in flight */
+    public synchronized int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public long getDeliveredCount() {
+        return this.deliveredCount.get();
+    }
+
+    public long getRetryCount() {
+        return this.retryCount.get();
+    }
+
+    /** @return the most blocks waiting in the reorder buffer at the same time */
+    public int getMaxBufferedCount() {
+        return this.maxBufferedCount;
+    }
+
+    /** @return the delivered blocks per second since the last fetch started */
+    public double getBlocksPerSecond() {
+        double seconds = (System.nanoTime() - this.startNanos) / 1e9;
+        return seconds <= 0 ? 0 : this.deliveredCount.get() / seconds;
+    }
+
+    public BlockRangeFetcherConfig getConfig() {
+        return this.config;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.fetcher;
+
+/** the parameters of the BlockRangeFetcher */
+public class BlockRangeFetcherConfig {
+    // the concurrency is adjusted between min and max by the latency and the errors
+    private int initialConcurrency = 8;
+    private int minConcurrency = 1;
+    private int maxConcurrency = 64;
+    // the blocks fetched but not delivered, including the ones in flight
+    private int maxBufferedBlocks = 256;
+    private int maxRetries = 3;
+    private long retryBackoffMs = 200;
+    // the latency can grow by this ratio over the lowest one before the concurrency is decreased
+    private double latencyTolerance = 1.0;
+    private boolean fullTransactions = true;
+    private boolean fetchReceipts = false;
+
+    public int getInitialConcurrency() {
+        return initialConcurrency;
+    }
+
+    public void setInitialConcurrency(int initialConcurrency) {
+        this.initialConcurrency = initialConcurrency;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = minConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxBufferedBlocks() {
+        return maxBufferedBlocks;
+    }
+
+    public void setMaxBufferedBlocks(int maxBufferedBlocks) {
+        this.maxBufferedBlocks = maxBufferedBlocks;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /** @return fetch the transaction objects of the blocks, or only the transaction hashes */
+    public boolean isFullTransactions() {
+        return fullTransactions;
+    }
+
+    public void setFullTransactions(boolean fullTransactions) {
+        this.fullTransactions = fullTransactions;
+    }
+
+    /** @return fetch the receipts of the transactions of the blocks */
+    public boolean isFetchReceipts() {
+        return fetchReceipts;
+    }
+
+    public void setFetchReceipts(boolean fetchReceipts) {
+        this.fetchReceipts = fetchReceipts;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockRangeFetcherConfig{"
+                + "initialConcurrency="
+                + initialConcurrency
+                + ", minConcurrency="
+                + minConcurrency
+                + ", maxConcurrency="
+                + maxConcurrency
+                + ", maxBufferedBlocks="
+                + maxBufferedBlocks
+                + ", maxRetries="
+                + maxRetries
+                + ", retryBackoffMs="
+                + retryBackoffMs
+                + ", latencyTolerance="
+                + latencyTolerance
+                + ", fullTransactions="
+                + fullTransactions
+                + ", fetchReceipts="
+                + fetchReceipts
+                + '}';
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.fetcher;
+
+import java.util.List;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+
+/** a block fetched by the BlockRangeFetcher, with the receipts of its transactions if fetched */
+public class FetchedBlock {
+    private final long blockNumber;
+    private final BcosBlock.Block block;
+    private final List<TransactionReceipt> receipts;
+
+    public FetchedBlock(
+            long blockNumber, BcosBlock.Block block, List<TransactionReceipt> receipts) {
+        this.blockNumber = blockNumber;
+        this.block = block;
+        this.receipts = receipts;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public BcosBlock.Block getBlock() {
+        return block;
+    }
+
+    /** @return the receipts in the order of the transactions, empty if not fetched */
+    public List<TransactionReceipt> getReceipts() {
+        return receipts;
+    }
+
+    @Override
+    public String toString() {
+        return "FetchedBlock{"
+                + "blockNumber="
+                + blockNumber
+                + ", transactions="
+                + (block.getTransactions() == null ? 0 : block.getTransactions().size())
+                + ", receipts="
+                + receipts.size()
+                + '}';
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with a bounded relative error, in the way of the
+ * HdrHistogram.
+ *
+ * <p>The values below 32 are counted exactly. The larger values are counted in 16 linear buckets
+ * per power of two, so the value of a bucket is within 1/16 of the recorded values. The values
+ * above {@link #MAX_VALUE} are counted as MAX_VALUE. Recording is wait-free, reading while
+ * recording gives a view which may be slightly inconsistent.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // the values below it are counted exactly
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    private static final int MAX_MAGNITUDE = 40;
+    public static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong(0);
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT
+                + (magnitude - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT
+                + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    // the highest value counted by the bucket
+    private static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * record a value
+     *
+     * @param value the value, the negative values are counted as 0
+     */
+    public void record(long value) {
+        long bounded = Math.max(0, Math.min(MAX_VALUE, value));
+        this.counts.incrementAndGet(indexOf(bounded));
+        this.count.increment();
+        this.sum.add(bounded);
+        if (bounded > this.max.get()) {
+            this.max.accumulateAndGet(bounded, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    public double getMean() {
+        long total = this.count.sum();
+        return total == 0 ? 0 : (double) this.sum.sum() / total;
+    }
+
+    /**
+     * @param percentile the percentile, in [0, 100]
+     * @return the value which the given percentile of the recorded values are at or below, within
+     *     the precision of the buckets, 0 if nothing is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = this.count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += this.counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    /** clear the recorded values, the values recorded at the same time may be partly kept */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.counts.set(i, 0);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{"
+                + "count="
+                + this.getCount()
+                + ", mean="
+                + String.format("%.1f", this.getMean())
+                + ", p50="
+                + this.getValueAtPercentile(50)
+                + ", p99="
+                + this.getValueAtPercentile(99)
+                + ", p999="
+                + this.getValueAtPercentile(99.9)
+                + ", max="
+                + this.getMax()
+                + '}';
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** the metrics of the requests of one json rpc method sent to one node */
+public class RpcMetrics {
+    private final String method;
+    private final String node;
+    private final Histogram latencyMicros = new Histogram();
+    private final Histogram requestSizes = new Histogram();
+    private final Histogram responseSizes = new Histogram();
+    private final AtomicLong inFlight = new AtomicLong(0);
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final ConcurrentHashMap<Integer, LongAdder> errorCounts = new ConcurrentHashMap<>();
+
+    public RpcMetrics(String method, String node) {
+        this.method = method;
+        this.node = node;
+    }
+
+    void onRequest(int requestSize) {
+        this.requestCount.increment();
+        this.inFlight.incrementAndGet();
+        this.requestSizes.record(requestSize);
+    }
+
+    void onResponse(long latencyNanos, int errorCode, int responseSize) {
+        this.inFlight.decrementAndGet();
+        this.latencyMicros.record(latencyNanos / 1000);
+        this.responseSizes.record(responseSize);
+        if (errorCode != 0) {
+            this.errorCount.increment();
+            LongAdder counter = this.errorCounts.get(errorCode);
+            if (counter == null) {
+                counter = this.errorCounts.computeIfAbsent(errorCode, k -> new LongAdder());
+            }
+            counter.increment();
+        }
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    /** @return the node, empty for the requests sent to any node of the group */
+    public String getNode() {
+        return this.node;
+    }
+
+    /** @return the latencies of the responses, in microseconds */
+    public Histogram getLatencyMicros() {
+        return this.latencyMicros;
+    }
+
+    /** @return the sizes of the requests, in chars */
+    public Histogram getRequestSizes() {
+        return this.requestSizes;
+    }
+
+    /** @return the sizes of the response contents, in bytes */
+    public Histogram getResponseSizes() {
+        return this.responseSizes;
+    }
+
+    /** @return the count of the requests sent and waiting for response */
+    public long getInFlight() {
+        return this.inFlight.get();
+    }
+
+    public long getRequestCount() {
+        return this.requestCount.sum();
+    }
+
+    public long getErrorCount() {
+        return this.errorCount.sum();
+    }
+
+    /** @return the count of the failed responses by the error code */
+    public Map<Integer, Long> getErrorCounts() {
+        Map<Integer, Long> result = new HashMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : this.errorCounts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return "RpcMetrics{"
+                + "method='"
+                + method
+                + '\''
+                + ", node='"
+                + node
+                + '\''
+                + ", requestCount="
+                + this.getRequestCount()
+                + ", inFlight="
+                + this.getInFlight()
+                + ", errorCounts="
+                + this.getErrorCounts()
+                + ", latencyMicros="
+                + latencyMicros
+                + ", requestSizes="
+                + requestSizes
+                + ", responseSizes="
+                + responseSizes
+                + '}';
+    }
+}
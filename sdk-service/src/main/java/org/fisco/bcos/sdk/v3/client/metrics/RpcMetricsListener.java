@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.metrics;
+
+/**
+ * Listener of the json rpc requests sent through the MetricsRpcTransport. It is called on the
+ * sending thread and the response thread of every request, so it must be cheap and must not block.
+ */
+public interface RpcMetricsListener {
+    /**
+     * called before the request is sent
+     *
+     * @param groupID the group of the request
+     * @param node the node to send to, empty for any node of the group
+     * @param method the json rpc method, "batch" for the batch requests
+     * @param requestSize the size of the serialized request, in chars
+     */
+    void onRequest(String groupID, String node, String method, int requestSize);
+
+    /**
+     * called when the response is received
+     *
+     * @param groupID the group of the request
+     * @param node the node the request was sent to, empty for any node of the group
+     * @param method the json rpc method, "batch" for the batch requests
+     * @param latencyNanos the time from sending the request to receiving the response
+     * @param errorCode 0 for success, the error code of the transport if it failed, otherwise the
+     *     code of the json rpc error
+     * @param responseSize the size of the response content, in bytes
+     */
+    void onResponse(
+            String groupID,
+            String node,
+            String method,
+            long latencyNanos,
+            int errorCode,
+            int responseSize);
+}
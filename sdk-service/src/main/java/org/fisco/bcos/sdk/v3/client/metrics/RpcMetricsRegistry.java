@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** the default listener, keeping the metrics by the json rpc method and the node */
+public class RpcMetricsRegistry implements RpcMetricsListener {
+    // method -> node -> metrics, nested so the lookup doesn't allocate a key
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, RpcMetrics>> metrics =
+            new ConcurrentHashMap<>();
+
+    @Override
+    public void onRequest(String groupID, String node, String method, int requestSize) {
+        this.getOrCreate(method, node).onRequest(requestSize);
+    }
+
+    @Override
+    public void onResponse(
+            String groupID,
+            String node,
+            String method,
+            long latencyNanos,
+            int errorCode,
+            int responseSize) {
+        this.getOrCreate(method, node).onResponse(latencyNanos, errorCode, responseSize);
+    }
+
+    private RpcMetrics getOrCreate(String method, String node) {
+        ConcurrentHashMap<String, RpcMetrics> nodeMetrics = this.metrics.get(method);
+        if (nodeMetrics == null) {
+            nodeMetrics = this.metrics.computeIfAbsent(method, k -> new ConcurrentHashMap<>());
+        }
+        RpcMetrics rpcMetrics = nodeMetrics.get(node);
+        if (rpcMetrics == null) {
+            rpcMetrics = nodeMetrics.computeIfAbsent(node, k -> new RpcMetrics(method, node));
+        }
+        return rpcMetrics;
+    }
+
+    /**
+     * @param method the json rpc method
+     * @param node the node, empty for the requests sent to any node of the group
+     * @return the metrics, null if no request of the method is sent to the node
+     */
+    public RpcMetrics getMetrics(String method, String node) {
+        ConcurrentHashMap<String, RpcMetrics> nodeMetrics = this.metrics.get(method);
+        return nodeMetrics == null ? null : nodeMetrics.get(node);
+    }
+
+    /**
+     * @param method the json rpc method
+     * @return the metrics of the method by node
+     */
+    public List<RpcMetrics> getMetrics(String method) {
+        ConcurrentHashMap<String, RpcMetrics> nodeMetrics = this.metrics.get(method);
+        return nodeMetrics == null ? new ArrayList<>() : new ArrayList<>(nodeMetrics.values());
+    }
+
+    /** @return the metrics of all the methods and nodes */
+    public List<RpcMetrics> getAllMetrics() {
+        List<RpcMetrics> result = new ArrayList<>();
+        for (ConcurrentHashMap<String, RpcMetrics> nodeMetrics : this.metrics.values()) {
+            result.addAll(nodeMetrics.values());
+        }
+        return result;
+    }
+}
@@ -21,6 +21,7 @@ import org.fisco.bcos.sdk.jni.utilities.tx.TransactionBuilderJniObj;
 import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
 import org.fisco.bcos.sdk.v3.crypto.CryptoSuite;
 import org.fisco.bcos.sdk.v3.model.MerkleProofUnit;
+import org.fisco.bcos.sdk.v3.model.TransactionDataHandle;
 import org.fisco.bcos.sdk.v3.utils.AddressUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -143,19 +144,18 @@ public class JsonTransactionResponse {
 
     // calculate the hash for the transaction
     public String calculateHash(CryptoSuite cryptoSuite) throws ClientException {
-        try {
-            long transactionData =
-                    TransactionBuilderJniObj.createTransactionData(
-                            this.groupID,
-                            this.chainID,
-                            this.to,
-                            this.input,
-                            this.abi,
-                            this.blockLimit);
+        try (TransactionDataHandle transactionData =
+                TransactionDataHandle.create(
+                        this.groupID,
+                        this.chainID,
+                        this.to,
+                        this.input,
+                        this.abi,
+                        this.blockLimit)) {
             long jniKeyPair = cryptoSuite.getCryptoKeyPair().getJniKeyPair();
             int jniKeyPairCryptoType = KeyPairJniObj.getJniKeyPairCryptoType(jniKeyPair);
             return TransactionBuilderJniObj.calcTransactionDataHash(
-                    jniKeyPairCryptoType, transactionData);
+                    jniKeyPairCryptoType, transactionData.get());
         } catch (Exception e) {
             logger.warn(
                     "calculate hash for the transaction failed, version: {}, transactionHash: {}, error info: {}",
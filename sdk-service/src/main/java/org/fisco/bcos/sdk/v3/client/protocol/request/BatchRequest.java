@@ -0,0 +1,433 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.protocol.request;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientTimeoutException;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BatchResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransaction;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BlockHash;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BlockNumber;
+import org.fisco.bcos.sdk.v3.client.protocol.response.Call;
+import org.fisco.bcos.sdk.v3.client.protocol.response.Code;
+import org.fisco.bcos.sdk.v3.client.protocol.response.PendingTxSize;
+import org.fisco.bcos.sdk.v3.client.protocol.response.SystemConfig;
+import org.fisco.bcos.sdk.v3.client.protocol.response.TotalTransactionCount;
+import org.fisco.bcos.sdk.v3.model.JsonRpcResponse;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.utils.Hex;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build a json rpc batch request, all the requests added are serialized into one json array and
+ * sent to the node at once. If the node rejects the batch, the requests are sent one by one and the
+ * following batches of the client are sent one by one too.
+ */
+public class BatchRequest {
+    private static final Logger logger = LoggerFactory.getLogger(BatchRequest.class);
+    // json rpc error codes for the requests without a valid response
+    public static final int PARSE_ERROR = -32700;
+    public static final int INTERNAL_ERROR = -32603;
+    // the method passed to the transport for the batches
+    public static final String BATCH_METHOD = "batch";
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final String groupID;
+    private final RpcTransport rpcTransport;
+    private final AtomicBoolean batchSupported;
+    private final AtomicBoolean batchConfirmed;
+    private String node = "";
+    private long timeoutMs = 0;
+
+    private final List<JsonRpcRequest> requests = new ArrayList<>();
+    private final List<Class<? extends JsonRpcResponse>> responseTypes = new ArrayList<>();
+
+    /**
+     * create the batch request
+     *
+     * @param groupID the group of the requests
+     * @param rpcTransport the transport to send the requests
+     * @param batchSupported shared by the batches of a client, set to false once the node rejects
+     *     a batch
+     */
+    public BatchRequest(String groupID, RpcTransport rpcTransport, AtomicBoolean batchSupported) {
+        this(groupID, rpcTransport, batchSupported, new AtomicBoolean(false));
+    }
+
+    /**
+     * create the batch request
+     *
+     * @param groupID the group of the requests
+     * @param rpcTransport the transport to send the requests
+     * @param batchSupported shared by the batches of a client, set to false once the node rejects
+     *     a batch
+     * @param batchConfirmed shared by the batches of a client, set to true once the node answers a
+     *     batch, the transport errors before it are taken as the batch rejected
+     */
+    public BatchRequest(
+            String groupID,
+            RpcTransport rpcTransport,
+            AtomicBoolean batchSupported,
+            AtomicBoolean batchConfirmed) {
+        this.groupID = groupID;
+        this.rpcTransport = rpcTransport;
+        this.batchSupported = batchSupported;
+        this.batchConfirmed = batchConfirmed;
+    }
+
+    /**
+     * send the batch to the specified node, must be set before adding requests
+     *
+     * @param node the node name, empty for any node of the group
+     * @return this batch request
+     */
+    public BatchRequest node(String node) {
+        this.node = Objects.isNull(node) ? "" : node;
+        return this;
+    }
+
+    /**
+     * set the deadline of {@link #send()}
+     *
+     * @param timeoutMs the timeout in milliseconds, 0 for no deadline
+     * @return this batch request
+     */
+    public BatchRequest timeout(long timeoutMs) {
+        this.timeoutMs = Math.max(0, timeoutMs);
+        return this;
+    }
+
+    /**
+     * add a request
+     *
+     * @param request the json rpc request
+     * @param responseType the type to decode the response
+     * @return this batch request
+     */
+    public BatchRequest add(JsonRpcRequest request, Class<? extends JsonRpcResponse> responseType) {
+        this.requests.add(request);
+        this.responseTypes.add(responseType);
+        return this;
+    }
+
+    public BatchRequest getTransactionReceipt(String transactionHash, boolean withProof) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_TRANSACTIONRECEIPT,
+                        Arrays.asList(this.groupID, this.node, transactionHash, withProof)),
+                BcosTransactionReceipt.class);
+    }
+
+    public BatchRequest getTransaction(String transactionHash, boolean withProof) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_TRANSACTION_BY_HASH,
+                        Arrays.asList(this.groupID, this.node, transactionHash, withProof)),
+                BcosTransaction.class);
+    }
+
+    public BatchRequest getBlockByNumber(
+            BigInteger blockNumber, boolean onlyHeader, boolean onlyTxHash) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                        Arrays.asList(
+                                this.groupID, this.node, blockNumber, onlyHeader, onlyTxHash)),
+                BcosBlock.class);
+    }
+
+    public BatchRequest getBlockByHash(String blockHash, boolean onlyHeader, boolean onlyTxHash) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_BLOCK_BY_HASH,
+                        Arrays.asList(this.groupID, this.node, blockHash, onlyHeader, onlyTxHash)),
+                BcosBlock.class);
+    }
+
+    public BatchRequest getBlockHashByNumber(BigInteger blockNumber) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_BLOCKHASH_BY_NUMBER,
+                        Arrays.asList(this.groupID, this.node, blockNumber)),
+                BlockHash.class);
+    }
+
+    public BatchRequest call(Transaction transaction) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.CALL,
+                        Arrays.asList(
+                                this.groupID,
+                                this.node,
+                                Hex.trimPrefix(transaction.getTo()),
+                                Hex.toHexString(transaction.getData()))),
+                Call.class);
+    }
+
+    public BatchRequest getCode(String address) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_CODE,
+                        Arrays.asList(this.groupID, this.node, Hex.trimPrefix(address))),
+                Code.class);
+    }
+
+    public BatchRequest getBlockNumber() {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_BLOCK_NUMBER, Arrays.asList(this.groupID, this.node)),
+                BlockNumber.class);
+    }
+
+    public BatchRequest getPendingTxSize() {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_PENDING_TX_SIZE, Arrays.asList(this.groupID, this.node)),
+                PendingTxSize.class);
+    }
+
+    public BatchRequest getTotalTransactionCount() {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_TOTAL_TRANSACTION_COUNT,
+                        Arrays.asList(this.groupID, this.node)),
+                TotalTransactionCount.class);
+    }
+
+    public BatchRequest getSystemConfigByKey(String key) {
+        return this.add(
+                new JsonRpcRequest(
+                        JsonRpcMethods.GET_SYSTEM_CONFIG_BY_KEY,
+                        Arrays.asList(this.groupID, this.node, key)),
+                SystemConfig.class);
+    }
+
+    public int size() {
+        return this.requests.size();
+    }
+
+    public List<JsonRpcRequest> getRequests() {
+        return this.requests;
+    }
+
+    /**
+     * send the batch and wait for the responses
+     *
+     * @return the responses in the order of the requests
+     */
+    public BatchResponse send() {
+        long startNanos = System.nanoTime();
+        CompletableFuture<BatchResponse> future = this.sendAsync();
+        try {
+            if (this.timeoutMs <= 0) {
+                return future.get();
+            }
+            return future.get(this.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            ClientTimeoutException timeoutException =
+                    new ClientTimeoutException(
+                            "batch(" + this.requests.size() + ")",
+                            this.node,
+                            elapsedMs,
+                            this.timeoutMs);
+            // the responses received later are discarded
+            if (!future.completeExceptionally(timeoutException)) {
+                return future.join();
+            }
+            throw timeoutException;
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("e: ", e);
+            throw new ClientException(
+                    "send batch request failed, error message: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * send the batch
+     *
+     * @return the future of the responses in the order of the requests
+     */
+    public CompletableFuture<BatchResponse> sendAsync() {
+        CompletableFuture<BatchResponse> future = new CompletableFuture<>();
+        if (this.requests.isEmpty()) {
+            future.complete(new BatchResponse(new ArrayList<>(), true));
+            return future;
+        }
+        if (!this.batchSupported.get()) {
+            this.sendOneByOne(future);
+            return future;
+        }
+        String data;
+        try {
+            data = JsonRpcRequestWriter.write(this.requests);
+        } catch (JsonProcessingException e) {
+            future.completeExceptionally(
+                    new ClientException("encode batch request failed: " + e.getMessage(), e));
+            return future;
+        }
+        this.rpcTransport.sendRequest(
+                this.groupID,
+                this.node,
+                BATCH_METHOD,
+                data,
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        try {
+                            onBatchResponse(response, future);
+                        } catch (Exception e) {
+                            future.completeExceptionally(e);
+                        }
+                    }
+                });
+        return future;
+    }
+
+    private void onBatchResponse(Response response, CompletableFuture<BatchResponse> future)
+            throws Exception {
+        JsonRpcResponse[] responses = new JsonRpcResponse[this.requests.size()];
+        if (response.getErrorCode() != 0 && !this.batchConfirmed.get()) {
+            // the node may reject the array envelope by the transport error
+            logger.warn(
+                    "the batch request failed before any batch answered, send the requests one by one, errorCode: {}, errorMessage: {}",
+                    response.getErrorCode(),
+                    response.getErrorMessage());
+            this.batchSupported.set(false);
+            this.sendOneByOne(future);
+            return;
+        }
+        if (response.getErrorCode() != 0) {
+            for (int i = 0; i < responses.length; i++) {
+                responses[i] =
+                        this.errorResponse(
+                                i, response.getErrorCode(), response.getErrorMessage());
+            }
+            future.complete(new BatchResponse(Arrays.asList(responses), true));
+            return;
+        }
+        JsonNode root = this.objectMapper.readTree(response.getContent());
+        if (!root.isArray()) {
+            logger.warn(
+                    "the node does not support json rpc batch request, send the requests one by one, response: {}",
+                    root);
+            this.batchSupported.set(false);
+            this.sendOneByOne(future);
+            return;
+        }
+        this.batchConfirmed.set(true);
+        // the responses of a batch may be in any order, match them by the id
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < this.requests.size(); i++) {
+            indexById.put(this.requests.get(i).getId(), i);
+        }
+        for (JsonNode element : root) {
+            JsonNode id = element.get("id");
+            Integer index = id == null ? null : indexById.get(id.asLong());
+            if (index == null) {
+                logger.warn("unknown response in the batch: {}", element);
+                continue;
+            }
+            try {
+                responses[index] =
+                        this.objectMapper.treeToValue(element, this.responseTypes.get(index));
+            } catch (JsonProcessingException e) {
+                responses[index] = this.errorResponse(index, PARSE_ERROR, e.getMessage());
+            }
+        }
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i] == null) {
+                responses[i] = this.errorResponse(i, INTERNAL_ERROR, "no response in the batch");
+            }
+        }
+        future.complete(new BatchResponse(Arrays.asList(responses), true));
+    }
+
+    private void sendOneByOne(CompletableFuture<BatchResponse> future) {
+        JsonRpcResponse[] responses = new JsonRpcResponse[this.requests.size()];
+        AtomicInteger remaining = new AtomicInteger(responses.length);
+        for (int i = 0; i < this.requests.size(); i++) {
+            int index = i;
+            try {
+                this.rpcTransport.sendRequest(
+                        this.groupID,
+                        this.node,
+                        this.requests.get(i).getMethod(),
+                        JsonRpcRequestWriter.write(this.requests.get(i)),
+                        new ResponseCallback() {
+                            @Override
+                            public void onResponse(Response response) {
+                                responses[index] = decodeResponse(index, response);
+                                if (remaining.decrementAndGet() == 0) {
+                                    future.complete(
+                                            new BatchResponse(Arrays.asList(responses), false));
+                                }
+                            }
+                        });
+            } catch (JsonProcessingException e) {
+                responses[index] = this.errorResponse(index, PARSE_ERROR, e.getMessage());
+                if (remaining.decrementAndGet() == 0) {
+                    future.complete(new BatchResponse(Arrays.asList(responses), false));
+                }
+            }
+        }
+    }
+
+    private JsonRpcResponse decodeResponse(int index, Response response) {
+        if (response.getErrorCode() != 0) {
+            return this.errorResponse(index, response.getErrorCode(), response.getErrorMessage());
+        }
+        try {
+            return ObjectMapperFactory.getObjectReader(this.responseTypes.get(index))
+                    .readValue(response.getContent());
+        } catch (Exception e) {
+            return this.errorResponse(index, PARSE_ERROR, e.getMessage());
+        }
+    }
+
+    private JsonRpcResponse errorResponse(int index, int code, String message) {
+        JsonRpcResponse response;
+        try {
+            response = this.responseTypes.get(index).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            response = new JsonRpcResponse();
+        }
+        response.setId(this.requests.get(index).getId());
+        response.setError(new JsonRpcResponse.Error(code, message));
+        return response;
+    }
+}
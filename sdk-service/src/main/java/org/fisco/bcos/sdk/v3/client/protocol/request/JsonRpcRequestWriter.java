@@ -0,0 +1,237 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.protocol.request;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+
+/**
+ * Serialize the json rpc requests into a buffer reused by the thread.
+ *
+ * <p>The output is the same as the ObjectMapper. The head of the request is resolved once per
+ * method, and the writer of the params once per type. The strings needing no escape, e.g. the hex
+ * of the signed transactions, are appended as they are, so a large param is copied once into the
+ * buffer and once into the String passed to the native sdk.
+ */
+public class JsonRpcRequestWriter {
+    // the buffer growing larger than this is not kept by the thread
+    private static final int MAX_RETAINED_CHARS = 256 * 1024;
+    private static final int INITIAL_CHARS = 1024;
+
+    private static final ThreadLocal<StringBuilder> buffers =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CHARS));
+    // {"jsonrpc":"2.0","method":"<method>","params": by the method
+    private static final ConcurrentHashMap<String, String> heads = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ParamWriter> paramWriters =
+            new ConcurrentHashMap<>();
+    private static final ParamWriter escapedStringWriter = jacksonWriter(String.class);
+
+    /** write a param of the resolved type to the buffer */
+    @FunctionalInterface
+    private interface ParamWriter {
+        void write(Object param, StringBuilder buffer) throws IOException;
+    }
+
+    private JsonRpcRequestWriter() {}
+
+    /**
+     * serialize the request
+     *
+     * @param request the json rpc request
+     * @return the json of the request
+     * @throws JsonProcessingException if a param can't be serialized
+     */
+    public static String write(JsonRpcRequest<?> request) throws JsonProcessingException {
+        StringBuilder buffer = acquireBuffer();
+        try {
+            writeRequest(request, buffer);
+            return buffer.toString();
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * serialize the requests as a json rpc batch
+     *
+     * @param requests the json rpc requests
+     * @return the json array of the requests
+     * @throws JsonProcessingException if a param can't be serialized
+     */
+    public static String write(List<? extends JsonRpcRequest> requests)
+            throws JsonProcessingException {
+        StringBuilder buffer = acquireBuffer();
+        try {
+            buffer.append('[');
+            for (int i = 0; i < requests.size(); i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                writeRequest(requests.get(i), buffer);
+            }
+            buffer.append(']');
+            return buffer.toString();
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private static StringBuilder acquireBuffer() {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static void releaseBuffer(StringBuilder buffer) {
+        if (buffer.capacity() > MAX_RETAINED_CHARS) {
+            buffers.set(new StringBuilder(INITIAL_CHARS));
+        }
+    }
+
+    private static void writeRequest(JsonRpcRequest<?> request, StringBuilder buffer)
+            throws JsonProcessingException {
+        try {
+            buffer.append(head(request.getJsonrpc(), request.getMethod()));
+            List<?> params = request.getParams();
+            if (params == null) {
+                buffer.append("null");
+            } else {
+                buffer.append('[');
+                for (int i = 0; i < params.size(); i++) {
+                    if (i > 0) {
+                        buffer.append(',');
+                    }
+                    writeParam(params.get(i), buffer);
+                }
+                buffer.append(']');
+            }
+            buffer.append(",\"id\":").append(request.getId()).append('}');
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw JsonMappingException.fromUnexpectedIOE(e);
+        }
+    }
+
+    private static String head(String jsonrpc, String method) throws JsonProcessingException {
+        if (!"2.0".equals(jsonrpc)) {
+            return buildHead(jsonrpc, method);
+        }
+        String head = heads.get(method);
+        if (head == null) {
+            head = buildHead(jsonrpc, method);
+            heads.putIfAbsent(method, head);
+        }
+        return head;
+    }
+
+    private static String buildHead(String jsonrpc, String method)
+            throws JsonProcessingException {
+        return "{\"jsonrpc\":"
+                + ObjectMapperFactory.getObjectMapper().writeValueAsString(jsonrpc)
+                + ",\"method\":"
+                + ObjectMapperFactory.getObjectMapper().writeValueAsString(method)
+                + ",\"params\":";
+    }
+
+    private static void writeParam(Object param, StringBuilder buffer) throws IOException {
+        if (param == null) {
+            buffer.append("null");
+            return;
+        }
+        Class<?> type = param.getClass();
+        ParamWriter paramWriter = paramWriters.get(type);
+        if (paramWriter == null) {
+            paramWriter = paramWriters.computeIfAbsent(type, JsonRpcRequestWriter::resolve);
+        }
+        paramWriter.write(param, buffer);
+    }
+
+    private static ParamWriter resolve(Class<?> type) {
+        if (type == String.class) {
+            return JsonRpcRequestWriter::writeString;
+        }
+        if (type == Boolean.class
+                || type == Integer.class
+                || type == Long.class
+                || type == Short.class
+                || type == Byte.class
+                || type == BigInteger.class) {
+            return (param, buffer) -> buffer.append(param);
+        }
+        return jacksonWriter(type);
+    }
+
+    private static ParamWriter jacksonWriter(Class<?> type) {
+        return (param, buffer) ->
+                ObjectMapperFactory.getObjectWriter(type)
+                        .writeValue(new StringBuilderWriter(buffer), param);
+    }
+
+    private static void writeString(Object param, StringBuilder buffer) throws IOException {
+        String value = (String) param;
+        if (needsEscape(value)) {
+            escapedStringWriter.write(value, buffer);
+            return;
+        }
+        buffer.append('"').append(value).append('"');
+    }
+
+    private static boolean needsEscape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** append the output of the ObjectMapper to the buffer */
+    private static class StringBuilderWriter extends Writer {
+        private final StringBuilder buffer;
+
+        StringBuilderWriter(StringBuilder buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            this.buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String value, int offset, int length) {
+            this.buffer.append(value, offset, offset + length);
+        }
+
+        @Override
+        public void write(int c) {
+            this.buffer.append((char) c);
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.protocol.response;
+
+import java.util.Collections;
+import java.util.List;
+import org.fisco.bcos.sdk.v3.model.JsonRpcResponse;
+
+/** the responses of a batch request, in the order of the requests added to the batch */
+public class BatchResponse {
+    private final List<JsonRpcResponse> responses;
+    private final boolean batched;
+
+    public BatchResponse(List<JsonRpcResponse> responses, boolean batched) {
+        this.responses = Collections.unmodifiableList(responses);
+        this.batched = batched;
+    }
+
+    public int size() {
+        return this.responses.size();
+    }
+
+    /**
+     * @param index the index of the request in the batch
+     * @return the response, with the error set if the request failed
+     */
+    public JsonRpcResponse get(int index) {
+        return this.responses.get(index);
+    }
+
+    /**
+     * @param index the index of the request in the batch
+     * @param responseType the response type registered with the request
+     * @param <T> the response type
+     * @return the response, with the error set if the request failed
+     */
+    public <T extends JsonRpcResponse> T get(int index, Class<T> responseType) {
+        return responseType.cast(this.responses.get(index));
+    }
+
+    public boolean hasError(int index) {
+        return this.responses.get(index).hasError();
+    }
+
+    /**
+     * @param index the index of the request in the batch
+     * @return the error of the request, null if succeeded
+     */
+    public JsonRpcResponse.Error getError(int index) {
+        return this.responses.get(index).getError();
+    }
+
+    public List<JsonRpcResponse> getResponses() {
+        return this.responses;
+    }
+
+    /** @return false if the node rejected the batch and the requests were sent one by one */
+    public boolean isBatched() {
+        return this.batched;
+    }
+}
@@ -21,22 +21,28 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
 import org.fisco.bcos.sdk.v3.client.protocol.model.JsonTransactionResponse;
 import org.fisco.bcos.sdk.v3.model.JsonRpcResponse;
 import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BcosBlock extends JsonRpcResponse<BcosBlock.Block> {
+    // the attribute of the response bytes, the transactions are parsed lazily from them if set
+    private static final String LAZY_SOURCE_ATTRIBUTE = "BcosBlock.lazySource";
 
     @Override
     @JsonDeserialize(using = BlockDeserializer.class)
@@ -48,6 +54,20 @@ public class BcosBlock extends JsonRpcResponse<BcosBlock.Block> {
         return this.getResult();
     }
 
+    /**
+     * parse the block, the transactions are kept as the raw json and parsed when accessed, see
+     * LazyTransactionList
+     *
+     * @param content the bytes of the getBlockByHash or getBlockByNumber response
+     * @return the block
+     * @throws IOException if the response can't be parsed
+     */
+    public static BcosBlock readLazily(byte[] content) throws IOException {
+        return ObjectMapperFactory.getObjectReader(BcosBlock.class)
+                .withAttribute(LAZY_SOURCE_ATTRIBUTE, content)
+                .readValue(content);
+    }
+
     public interface TransactionResult<T> {
         T get();
     }
@@ -167,14 +187,13 @@ public class BcosBlock extends JsonRpcResponse<BcosBlock.Block> {
 
     // decode the block
     public static class BlockDeserializer extends JsonDeserializer<Block> {
-        private final ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public Block deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
             if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return this.objectReader.readValue(jsonParser, Block.class);
+                // by the context, so the attributes of the reader are kept
+                return deserializationContext.readValue(jsonParser, Block.class);
             } else {
                 return null; // null is wrapped by Optional in above getter
             }
@@ -217,18 +236,21 @@ public class BcosBlock extends JsonRpcResponse<BcosBlock.Block> {
     public static class TransactionResultDeserializer
             extends JsonDeserializer<List<TransactionResult>> {
 
-        private final ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public List<TransactionResult> deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
+            Object lazySource = deserializationContext.getAttribute(LAZY_SOURCE_ATTRIBUTE);
+            if (lazySource instanceof byte[]) {
+                return LazyTransactionList.scan(jsonParser, (byte[]) lazySource);
+            }
             List<TransactionResult> transactionResults = new ArrayList<>();
             JsonToken nextToken = jsonParser.nextToken();
 
             if (nextToken == JsonToken.START_OBJECT) {
                 Iterator<TransactionObject> transactionObjectIterator =
-                        objectReader.readValues(jsonParser, TransactionObject.class);
+                        ObjectMapperFactory.getObjectReader(TransactionObject.class)
+                                .readValues(jsonParser);
                 while (transactionObjectIterator.hasNext()) {
                     transactionResults.add(transactionObjectIterator.next());
                 }
@@ -236,7 +258,8 @@ public class BcosBlock extends JsonRpcResponse<BcosBlock.Block> {
                 jsonParser.getValueAsString();
 
                 Iterator<TransactionHash> transactionHashIterator =
-                        objectReader.readValues(jsonParser, TransactionHash.class);
+                        ObjectMapperFactory.getObjectReader(TransactionHash.class)
+                                .readValues(jsonParser);
                 while (transactionHashIterator.hasNext()) {
                     transactionResults.add(transactionHashIterator.next());
                 }
@@ -244,4 +267,108 @@ public class BcosBlock extends JsonRpcResponse<BcosBlock.Block> {
             return transactionResults;
         }
     }
+
+    /**
+     * the transactions kept as the raw json of the response, a transaction is parsed every time it
+     * is accessed and the parsed transactions are not kept, so iterating the transactions of a
+     * large block doesn't hold them all. The list is read only.
+     */
+    public static class LazyTransactionList extends AbstractList<TransactionResult> {
+        private final byte[] source;
+        // the offset of the transactions array and of every transaction in the source
+        private final int arrayOffset;
+        private final int[] offsets;
+        private final int size;
+        private final int endOffset;
+        private final ObjectReader reader;
+
+        private LazyTransactionList(
+                byte[] source,
+                int arrayOffset,
+                int[] offsets,
+                int size,
+                int endOffset,
+                ObjectReader reader) {
+            this.source = source;
+            this.arrayOffset = arrayOffset;
+            this.offsets = offsets;
+            this.size = size;
+            this.endOffset = endOffset;
+            this.reader = reader;
+        }
+
+        // the parser is at the start of the transactions array of the source
+        static LazyTransactionList scan(JsonParser jsonParser, byte[] source) throws IOException {
+            if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
+                throw JsonMappingException.from(jsonParser, "the transactions are not an array");
+            }
+            int arrayOffset = valueOffset(jsonParser, source, (byte) '[');
+            int[] offsets = new int[16];
+            int size = 0;
+            ObjectReader reader = ObjectMapperFactory.getObjectReader(TransactionHash.class);
+            JsonToken token;
+            while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    reader = ObjectMapperFactory.getObjectReader(TransactionObject.class);
+                }
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                byte expected = token == JsonToken.START_OBJECT ? (byte) '{' : (byte) '"';
+                offsets[size++] = valueOffset(jsonParser, source, expected);
+                jsonParser.skipChildren();
+            }
+            int endOffset = (int) jsonParser.getCurrentLocation().getByteOffset();
+            return new LazyTransactionList(
+                    source, arrayOffset, offsets, size, endOffset, reader);
+        }
+
+        // the offset of the current token, checked against the source
+        private static int valueOffset(JsonParser jsonParser, byte[] source, byte expected)
+                throws JsonMappingException {
+            int offset = (int) jsonParser.getTokenLocation().getByteOffset();
+            if (offset < 0 || offset >= source.length || source[offset] != expected) {
+                throw JsonMappingException.from(
+                        jsonParser, "the transactions are not parsed from the source");
+            }
+            return offset;
+        }
+
+        @Override
+        public TransactionResult get(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+            }
+            int offset = this.offsets[index];
+            try {
+                return this.reader.readValue(this.source, offset, this.endOffset - offset);
+            } catch (IOException e) {
+                throw new ClientException(
+                        "parse the transaction failed, index: " + index + ", e: " + e.getMessage(),
+                        e);
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        /** @return iterate the transactions by one parser, the parsed ones are not kept */
+        @Override
+        public Iterator<TransactionResult> iterator() {
+            try {
+                return this.reader.readValues(
+                        this.source, this.arrayOffset, this.endOffset - this.arrayOffset);
+            } catch (IOException e) {
+                throw new ClientException(
+                        "parse the transactions failed, e: " + e.getMessage(), e);
+            }
+        }
+
+        /** @return the bytes of the response kept for the transactions */
+        public int getSourceSize() {
+            return this.source.length;
+        }
+    }
 }
@@ -7,8 +7,6 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.databind.util.Converter;
@@ -91,14 +89,13 @@ public class BcosGroupInfo extends JsonRpcResponse<BcosGroupInfo.GroupInfo> {
     }
 
     public static class GroupInfoDeserializer extends JsonDeserializer<BcosGroupInfo.GroupInfo> {
-        private final ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public BcosGroupInfo.GroupInfo deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
             if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return this.objectReader.readValue(jsonParser, BcosGroupInfo.GroupInfo.class);
+                return ObjectMapperFactory.getObjectReader(BcosGroupInfo.GroupInfo.class)
+                        .readValue(jsonParser);
             } else {
                 return null; // null is wrapped by Optional in above getter
             }
@@ -110,7 +107,8 @@ public class BcosGroupInfo extends JsonRpcResponse<BcosGroupInfo.GroupInfo> {
         @Override
         public GroupNodeGenesisInfo convert(String value) {
             try {
-                return new ObjectMapper().readValue(value, GroupNodeGenesisInfo.class);
+                return ObjectMapperFactory.getObjectReader(GroupNodeGenesisInfo.class)
+                        .readValue(value);
             } catch (JsonProcessingException e) {
                 throw new RuntimeException(e);
             }
@@ -7,8 +7,6 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.databind.util.Converter;
@@ -121,15 +119,13 @@ public class BcosGroupNodeInfo extends JsonRpcResponse<BcosGroupNodeInfo.GroupNo
 
     public static class GroupNodeInfoDeserializer
             extends JsonDeserializer<BcosGroupNodeInfo.GroupNodeInfo> {
-        private final ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public BcosGroupNodeInfo.GroupNodeInfo deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
             if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return this.objectReader.readValue(
-                        jsonParser, BcosGroupNodeInfo.GroupNodeInfo.class);
+                return ObjectMapperFactory.getObjectReader(BcosGroupNodeInfo.GroupNodeInfo.class)
+                        .readValue(jsonParser);
             } else {
                 return null; // null is wrapped by Optional in above getter
             }
@@ -140,7 +136,7 @@ public class BcosGroupNodeInfo extends JsonRpcResponse<BcosGroupNodeInfo.GroupNo
         @Override
         public GroupNodeIniInfo convert(String value) {
             try {
-                return new ObjectMapper().readValue(value, GroupNodeIniInfo.class);
+                return ObjectMapperFactory.getObjectReader(GroupNodeIniInfo.class).readValue(value);
             } catch (JsonProcessingException e) {
                 throw new RuntimeException(e);
             }
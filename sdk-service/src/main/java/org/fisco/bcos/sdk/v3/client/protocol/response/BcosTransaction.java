@@ -4,7 +4,6 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.IOException;
 import java.util.Optional;
 import org.fisco.bcos.sdk.v3.client.protocol.model.JsonTransactionResponse;
@@ -17,14 +16,13 @@ public class BcosTransaction extends JsonRpcResponse<JsonTransactionResponse> {
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<JsonTransactionResponse> {
-        private ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public JsonTransactionResponse deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
             if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return objectReader.readValue(jsonParser, JsonTransactionResponse.class);
+                return ObjectMapperFactory.getObjectReader(JsonTransactionResponse.class)
+                        .readValue(jsonParser);
             } else {
                 return null; // null is wrapped by Optional in above getter
             }
@@ -19,7 +19,6 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.IOException;
 import org.fisco.bcos.sdk.v3.model.JsonRpcResponse;
 import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
@@ -32,14 +31,13 @@ public class BcosTransactionReceipt extends JsonRpcResponse<TransactionReceipt>
     }
 
     public static class ResponseDeserialiser extends JsonDeserializer<TransactionReceipt> {
-        private ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public TransactionReceipt deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
             if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return this.objectReader.readValue(jsonParser, TransactionReceipt.class);
+                return ObjectMapperFactory.getObjectReader(TransactionReceipt.class)
+                        .readValue(jsonParser);
             } else {
                 return null; // null is wrapped by Optional in above getter
             }
@@ -20,7 +20,6 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.io.IOException;
 import java.util.List;
@@ -168,14 +167,13 @@ public class Peers extends JsonRpcResponse<Peers.PeersInfo> {
 
     // decode the block
     public static class PeersDeserializer extends JsonDeserializer<Peers.PeersInfo> {
-        private final ObjectReader objectReader = ObjectMapperFactory.getObjectReader();
-
         @Override
         public Peers.PeersInfo deserialize(
                 JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException {
             if (jsonParser.getCurrentToken() != JsonToken.VALUE_NULL) {
-                return this.objectReader.readValue(jsonParser, Peers.PeersInfo.class);
+                return ObjectMapperFactory.getObjectReader(Peers.PeersInfo.class)
+                        .readValue(jsonParser);
             } else {
                 return null; // null is wrapped by Optional in above getter
             }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache of the responses of the immutable chain data, e.g. the blocks, transactions
+ * and receipts by hash.
+ *
+ * <p>Only the successful responses with a non-empty result are cached, so the receipts of the
+ * pending transactions, the blocks not committed yet and the code of the unknown addresses are
+ * always fetched from the node. The cache is bounded by the entry count and the total size of the
+ * responses, the least recently used entries are evicted first.
+ */
+public class CachingRpcTransport implements RpcTransport {
+    private static final Logger logger = LoggerFactory.getLogger(CachingRpcTransport.class);
+    private static final String ID_FIELD = ",\"id\":";
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final RpcTransport delegate;
+    private final ResponseCacheConfig config;
+    private final Set<String> methods;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weightBytes = 0;
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong uncacheableCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+    private final ConcurrentHashMap<String, AtomicLong> methodHitCounts =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> methodMissCounts =
+            new ConcurrentHashMap<>();
+
+    /**
+     * create the transport
+     *
+     * @param delegate the transport sending the requests not cached
+     * @param config the parameters of the cache
+     */
+    public CachingRpcTransport(RpcTransport delegate, ResponseCacheConfig config) {
+        this.delegate = delegate;
+        this.config = config;
+        this.methods = new HashSet<>(config.getMethods());
+        if (this.methods.retainAll(ResponseCacheConfig.CACHEABLE_METHODS)) {
+            logger.warn(
+                    "only the immutable data can be cached, the methods are limited to: {}",
+                    this.methods);
+        }
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.delegate.sendRequest(groupID, node, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        String key = this.methods.contains(method) ? requestKey(groupID, node, request) : null;
+        if (Objects.isNull(key)) {
+            this.delegate.sendRequest(groupID, node, method, request, callback);
+            return;
+        }
+        byte[] content = this.get(key);
+        if (Objects.nonNull(content)) {
+            this.hitCount.incrementAndGet();
+            this.methodHitCounts.computeIfAbsent(method, k -> new AtomicLong()).incrementAndGet();
+            Response response = new Response();
+            response.setErrorCode(0);
+            response.setErrorMessage("");
+            response.setContent(content);
+            callback.onResponse(response);
+            return;
+        }
+        this.missCount.incrementAndGet();
+        this.methodMissCounts.computeIfAbsent(method, k -> new AtomicLong()).incrementAndGet();
+        this.delegate.sendRequest(
+                groupID,
+                node,
+                method,
+                request,
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        if (isCacheable(response)) {
+                            put(key, response.getContent());
+                        } else {
+                            uncacheableCount.incrementAndGet();
+                        }
+                        callback.onResponse(response);
+                    }
+                });
+    }
+
+    // the request without the id, null if the request has no id
+    static String requestKey(String groupID, String node, String request) {
+        int index = request.lastIndexOf(ID_FIELD);
+        if (index < 0) {
+            return null;
+        }
+        return groupID + "|" + node + "|" + request.substring(0, index);
+    }
+
+    private boolean isCacheable(Response response) {
+        if (response.getErrorCode() != 0 || Objects.isNull(response.getContent())) {
+            return false;
+        }
+        try {
+            JsonNode root = this.objectMapper.readTree(response.getContent());
+            JsonNode error = root.get("error");
+            if (Objects.nonNull(error) && !error.isNull()) {
+                return false;
+            }
+            JsonNode result = root.get("result");
+            if (Objects.isNull(result) || result.isNull()) {
+                return false;
+            }
+            // the empty code or abi of an unknown address
+            if (result.isTextual()) {
+                String text = result.asText();
+                return !text.isEmpty() && !"0x".equals(text);
+            }
+            return result.size() > 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private synchronized byte[] get(String key) {
+        return this.entries.get(key);
+    }
+
+    private synchronized void put(String key, byte[] content) {
+        long weight = weightOf(key, content);
+        if (weight > this.config.getMaxWeightBytes()) {
+            return;
+        }
+        byte[] previous = this.entries.put(key, content);
+        if (Objects.nonNull(previous)) {
+            this.weightBytes -= weightOf(key, previous);
+        }
+        this.weightBytes += weight;
+        Iterator<Map.Entry<String, byte[]>> iterator = this.entries.entrySet().iterator();
+        while ((this.entries.size() > this.config.getMaxEntries()
+                        || this.weightBytes > this.config.getMaxWeightBytes())
+                && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            this.weightBytes -= weightOf(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            this.evictionCount.incrementAndGet();
+        }
+    }
+
+    private static long weightOf(String key, byte[] content) {
+        return 2L * key.length() + content.length;
+    }
+
+    /** remove all the cached responses */
+    public synchronized void invalidateAll() {
+        this.entries.clear();
+        this.weightBytes = 0;
+    }
+
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /** @return the count of the responses not cached, e.g. errors and pending receipts */
+    public long getUncacheableCount() {
+        return this.uncacheableCount.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+
+    /** @return the ratio of the requests answered by the cache */
+    public double getHitRatio() {
+        return ratio(this.hitCount.get(), this.missCount.get());
+    }
+
+    /**
+     * @param method the json rpc method
+     * @return the ratio of the requests of the method answered by the cache
+     */
+    public double getHitRatio(String method) {
+        AtomicLong hits = this.methodHitCounts.get(method);
+        AtomicLong misses = this.methodMissCounts.get(method);
+        return ratio(
+                Objects.isNull(hits) ? 0 : hits.get(), Objects.isNull(misses) ? 0 : misses.get());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /** @return the total size of the cached responses */
+    public synchronized long getWeightBytes() {
+        return this.weightBytes;
+    }
+
+    public ResponseCacheConfig getConfig() {
+        return this.config;
+    }
+}
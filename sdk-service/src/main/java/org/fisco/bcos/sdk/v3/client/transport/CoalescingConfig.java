@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+
+/** the parameters of the CoalescingRpcTransport */
+public class CoalescingConfig {
+    // only the idempotent reads can be coalesced, the waiters get the same response
+    private Set<String> methods =
+            new HashSet<>(
+                    Arrays.asList(
+                            JsonRpcMethods.CALL,
+                            JsonRpcMethods.GET_BLOCK_NUMBER,
+                            JsonRpcMethods.GET_BLOCK_BY_HASH,
+                            JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                            JsonRpcMethods.GET_BLOCKHASH_BY_NUMBER,
+                            JsonRpcMethods.GET_TRANSACTION_BY_HASH,
+                            JsonRpcMethods.GET_TRANSACTIONRECEIPT,
+                            JsonRpcMethods.GET_SYSTEM_CONFIG_BY_KEY,
+                            JsonRpcMethods.GET_CODE,
+                            JsonRpcMethods.GET_ABI,
+                            JsonRpcMethods.GET_PENDING_TX_SIZE,
+                            JsonRpcMethods.GET_TOTAL_TRANSACTION_COUNT,
+                            JsonRpcMethods.GET_SEALER_LIST,
+                            JsonRpcMethods.GET_OBSERVER_LIST,
+                            JsonRpcMethods.GET_SYNC_STATUS,
+                            JsonRpcMethods.GET_CONSENSUS_STATUS,
+                            JsonRpcMethods.GET_PBFT_VIEW));
+    // the request in flight longer than this is not joined, a new request is sent instead, so the
+    // waiters joining late are not answered by a stale or stuck request
+    private long maxJoinAgeMs = 1000;
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(Set<String> methods) {
+        this.methods = methods;
+    }
+
+    public long getMaxJoinAgeMs() {
+        return maxJoinAgeMs;
+    }
+
+    public void setMaxJoinAgeMs(long maxJoinAgeMs) {
+        this.maxJoinAgeMs = maxJoinAgeMs;
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingConfig{" + "methods=" + methods + ", maxJoinAgeMs=" + maxJoinAgeMs + '}';
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-flight coalescing of the identical reads. The concurrent requests of the same method and
+ * params to the same group and node are sent once, the response is passed to all the waiters.
+ *
+ * <p>The requests are compared without the json rpc id. The waiters keep their own deadline: a
+ * sync request timing out doesn't cancel the request for the others, and the request in flight
+ * longer than maxJoinAgeMs is not joined.
+ */
+public class CoalescingRpcTransport implements RpcTransport {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingRpcTransport.class);
+    public static final int FAILED_ERROR_CODE = -1;
+
+    private final RpcTransport delegate;
+    private final CoalescingConfig config;
+    private final Set<String> methods;
+    private final long maxJoinAgeNanos;
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong flightCount = new AtomicLong(0);
+    private final AtomicLong coalescedCount = new AtomicLong(0);
+    private final AtomicLong expiredFlightCount = new AtomicLong(0);
+    private final AtomicLong maxWaiters = new AtomicLong(0);
+    private final ConcurrentHashMap<String, AtomicLong> methodRequestCounts =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> methodCoalescedCounts =
+            new ConcurrentHashMap<>();
+
+    // the request sent to the node and its waiters, the waiters are added in the map compute
+    private static class Flight {
+        private final long startNanos = System.nanoTime();
+        private final List<ResponseCallback> waiters = new ArrayList<>();
+    }
+
+    /**
+     * create the transport
+     *
+     * @param delegate the transport sending the requests
+     * @param config the methods to coalesce
+     */
+    public CoalescingRpcTransport(RpcTransport delegate, CoalescingConfig config) {
+        this.delegate = delegate;
+        this.config = config;
+        this.methods = new HashSet<>(config.getMethods());
+        this.maxJoinAgeNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxJoinAgeMs());
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.delegate.sendRequest(groupID, node, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        String key =
+                this.methods.contains(method)
+                        ? CachingRpcTransport.requestKey(groupID, node, request)
+                        : null;
+        if (Objects.isNull(key)) {
+            this.delegate.sendRequest(groupID, node, method, request, callback);
+            return;
+        }
+        this.requestCount.incrementAndGet();
+        this.methodRequestCounts.computeIfAbsent(method, k -> new AtomicLong()).incrementAndGet();
+        boolean[] leader = new boolean[1];
+        boolean[] expired = new boolean[1];
+        Flight flight =
+                this.flights.compute(
+                        key,
+                        (k, existing) -> {
+                            if (Objects.nonNull(existing)) {
+                                if (System.nanoTime() - existing.startNanos
+                                        <= this.maxJoinAgeNanos) {
+                                    existing.waiters.add(callback);
+                                    return existing;
+                                }
+                                expired[0] = true;
+                            }
+                            Flight created = new Flight();
+                            created.waiters.add(callback);
+                            leader[0] = true;
+                            return created;
+                        });
+        if (expired[0]) {
+            this.expiredFlightCount.incrementAndGet();
+        }
+        if (!leader[0]) {
+            this.coalescedCount.incrementAndGet();
+            this.methodCoalescedCounts
+                    .computeIfAbsent(method, k -> new AtomicLong())
+                    .incrementAndGet();
+            return;
+        }
+        this.flightCount.incrementAndGet();
+        try {
+            this.delegate.sendRequest(
+                    groupID,
+                    node,
+                    method,
+                    request,
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            complete(key, flight, response);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            logger.warn("send the coalesced request failed, method: {}, e: ", method, e);
+            Response response = new Response();
+            response.setErrorCode(FAILED_ERROR_CODE);
+            response.setErrorMessage("send request failed: " + e.getMessage());
+            this.complete(key, flight, response);
+        }
+    }
+
+    private void complete(String key, Flight flight, Response response) {
+        // no waiter joins once the flight is removed or replaced, the removal is ordered after
+        // the joins by the map
+        this.flights.remove(key, flight);
+        List<ResponseCallback> waiters = flight.waiters;
+        this.maxWaiters.accumulateAndGet(waiters.size(), Math::max);
+        for (ResponseCallback waiter : waiters) {
+            // every waiter gets its own response, the content is shared and read only
+            Response copy = new Response();
+            copy.setErrorCode(response.getErrorCode());
+            copy.setErrorMessage(response.getErrorMessage());
+            copy.setContent(response.getContent());
+            try {
+                waiter.onResponse(copy);
+            } catch (Exception e) {
+                logger.warn("callback of the coalesced request failed, e: ", e);
+            }
+        }
+    }
+
+    /** @return the requests of the methods to coalesce */
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    /** @return the requests sent to the node */
+    public long getFlightCount() {
+        return this.flightCount.get();
+    }
+
+    /** @return the requests answered by the request of another waiter */
+    public long getCoalescedCount() {
+        return this.coalescedCount.get();
+    }
+
+    /** @return the requests in flight longer than maxJoinAgeMs, sent again */
+    public long getExpiredFlightCount() {
+        return this.expiredFlightCount.get();
+    }
+
+    /** @return the most waiters answered by one request */
+    public long getMaxWaiters() {
+        return this.maxWaiters.get();
+    }
+
+    /** @return the requests in flight */
+    public int getInFlightCount() {
+        return this.flights.size();
+    }
+
+    /** @return the ratio of the requests answered by the request of another waiter */
+    public double getCoalescingRatio() {
+        return ratio(this.coalescedCount.get(), this.requestCount.get());
+    }
+
+    /**
+     * @param method the json rpc method
+     * @return the ratio of the requests of the method answered by the request of another waiter
+     */
+    public double getCoalescingRatio(String method) {
+        AtomicLong coalesced = this.methodCoalescedCounts.get(method);
+        AtomicLong requests = this.methodRequestCounts.get(method);
+        return ratio(
+                Objects.isNull(coalesced) ? 0 : coalesced.get(),
+                Objects.isNull(requests) ? 0 : requests.get());
+    }
+
+    private static double ratio(long coalesced, long requests) {
+        return requests == 0 ? 0 : (double) coalesced / requests;
+    }
+
+    public CoalescingConfig getConfig() {
+        return this.config;
+    }
+}
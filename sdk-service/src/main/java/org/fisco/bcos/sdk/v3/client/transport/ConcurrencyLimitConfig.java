@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** the parameters of the ConcurrencyLimitRpcTransport */
+public class ConcurrencyLimitConfig {
+    /** what to do with the request exceeding the limit */
+    public enum AdmissionMode {
+        // block the sending thread until the request is admitted or the max wait time elapses
+        BLOCK,
+        // reject the request at once
+        FAIL_FAST,
+        // queue the request, it is sent once a request in flight is completed
+        ASYNC_WAIT
+    }
+
+    // the max requests in flight of all the methods, 0 for unlimited
+    private int maxInFlight = 10000;
+    // the max requests in flight of the method, the methods absent are only limited by maxInFlight
+    private Map<String, Integer> methodMaxInFlight = new HashMap<>();
+    private AdmissionMode admissionMode = AdmissionMode.BLOCK;
+    // the request waiting longer than this is rejected, 0 to wait forever
+    private long maxWaitMs = 10000;
+    // the max requests queued in the ASYNC_WAIT mode, the requests exceeding it are rejected
+    private int maxQueueSize = 10000;
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Map<String, Integer> getMethodMaxInFlight() {
+        return methodMaxInFlight;
+    }
+
+    public void setMethodMaxInFlight(Map<String, Integer> methodMaxInFlight) {
+        this.methodMaxInFlight = methodMaxInFlight;
+    }
+
+    /**
+     * limit the requests in flight of the method
+     *
+     * @param method the json rpc method
+     * @param maxInFlight the max requests in flight of the method
+     * @return this config
+     */
+    public ConcurrencyLimitConfig addMethodMaxInFlight(String method, int maxInFlight) {
+        this.methodMaxInFlight.put(method, maxInFlight);
+        return this;
+    }
+
+    public AdmissionMode getAdmissionMode() {
+        return admissionMode;
+    }
+
+    public void setAdmissionMode(AdmissionMode admissionMode) {
+        this.admissionMode = admissionMode;
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public void setMaxWaitMs(long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitConfig{"
+                + "maxInFlight="
+                + maxInFlight
+                + ", methodMaxInFlight="
+                + methodMaxInFlight
+                + ", admissionMode="
+                + admissionMode
+                + ", maxWaitMs="
+                + maxWaitMs
+                + ", maxQueueSize="
+                + maxQueueSize
+                + '}';
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limit the requests in flight, globally and per json rpc method.
+ *
+ * <p>A request is in flight from being sent until its response is received. The request exceeding
+ * the limit is blocked, rejected or queued by the admission mode, so the producers slow down
+ * before the callbacks and the buffers of the requests pile up in the native layer. The rejected
+ * request is answered by an error response with the error code -1, and so is the queued request
+ * waiting longer than the max wait time, even if no request in flight is answered. Don't use the
+ * BLOCK mode to send requests in the callbacks of the responses, which may block the thread
+ * releasing the limit.
+ */
+public class ConcurrencyLimitRpcTransport implements RpcTransport {
+    private static final Logger logger =
+            LoggerFactory.getLogger(ConcurrencyLimitRpcTransport.class);
+    public static final int REJECTED_ERROR_CODE = -1;
+    // expire the queued requests waiting too long, shared by all the transports
+    private static final ScheduledThreadPoolExecutor expireScheduler =
+            new ScheduledThreadPoolExecutor(
+                    1,
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("concurrency-limit-expire-%d")
+                            .daemon(true)
+                            .build());
+
+    static {
+        // the expire tasks are cancelled once the requests are admitted
+        expireScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    private final RpcTransport delegate;
+    private final ConcurrencyLimitConfig config;
+
+    // guarded by this
+    private int inFlight = 0;
+    private final Map<String, Integer> methodInFlight = new HashMap<>();
+    private final ArrayDeque<PendingRequest> queue = new ArrayDeque<>();
+    private int blockedCount = 0;
+
+    private final AtomicLong admittedCount = new AtomicLong(0);
+    private final AtomicLong waitedCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final AtomicLong totalWaitNanos = new AtomicLong(0);
+    private volatile int maxQueueDepth = 0;
+
+    /** a request waiting in the ASYNC_WAIT mode */
+    private static class PendingRequest {
+        private final String groupID;
+        private final String node;
+        private final String method;
+        private final String request;
+        private final ResponseCallback callback;
+        private final long enqueueNanos = System.nanoTime();
+        // guarded by the transport
+        private ScheduledFuture<?> expireTask;
+
+        PendingRequest(
+                String groupID,
+                String node,
+                String method,
+                String request,
+                ResponseCallback callback) {
+            this.groupID = groupID;
+            this.node = node;
+            this.method = method;
+            this.request = request;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * create the transport
+     *
+     * @param delegate the transport sending the requests
+     * @param config the limits and the admission mode
+     */
+    public ConcurrencyLimitRpcTransport(RpcTransport delegate, ConcurrencyLimitConfig config) {
+        this.delegate = delegate;
+        this.config = config;
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.sendRequest(groupID, node, MetricsRpcTransport.UNKNOWN_METHOD, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        switch (this.config.getAdmissionMode()) {
+            case FAIL_FAST:
+                if (!this.tryAdmit(method)) {
+                    this.reject(method, callback, "too many requests in flight");
+                    return;
+                }
+                break;
+            case ASYNC_WAIT:
+                if (!this.admitOrEnqueue(groupID, node, method, request, callback)) {
+                    return;
+                }
+                break;
+            default:
+                if (!this.admitBlocking(method)) {
+                    this.reject(method, callback, "wait for the requests in flight timeout");
+                    return;
+                }
+                break;
+        }
+        this.send(groupID, node, method, request, callback);
+    }
+
+    private void send(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        this.admittedCount.incrementAndGet();
+        try {
+            this.delegate.sendRequest(
+                    groupID,
+                    node,
+                    method,
+                    request,
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            // the limit is released before the response, so the requests sent by
+                            // the callback are admitted, and the queued requests are sent after
+                            // it, so a failure sending them can't lose the response
+                            List<PendingRequest> admitted = release(method);
+                            try {
+                                callback.onResponse(response);
+                            } finally {
+                                sendAdmitted(admitted);
+                            }
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // no response will be received
+            this.sendAdmitted(this.release(method));
+            throw e;
+        }
+    }
+
+    // guarded by this
+    private boolean hasGlobalCapacity() {
+        int maxInFlight = this.config.getMaxInFlight();
+        return maxInFlight <= 0 || this.inFlight < maxInFlight;
+    }
+
+    // guarded by this
+    private boolean hasCapacity(String method) {
+        if (!this.hasGlobalCapacity()) {
+            return false;
+        }
+        Integer methodMax = this.config.getMethodMaxInFlight().get(method);
+        return Objects.isNull(methodMax) || this.methodInFlight.getOrDefault(method, 0) < methodMax;
+    }
+
+    // guarded by this
+    private void acquire(String method) {
+        this.inFlight++;
+        if (this.config.getMethodMaxInFlight().containsKey(method)) {
+            this.methodInFlight.merge(method, 1, Integer::sum);
+        }
+    }
+
+    private synchronized boolean tryAdmit(String method) {
+        if (!this.hasCapacity(method)) {
+            return false;
+        }
+        this.acquire(method);
+        return true;
+    }
+
+    private boolean admitBlocking(String method) {
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(this.config.getMaxWaitMs());
+        long startNanos = System.nanoTime();
+        synchronized (this) {
+            if (this.hasCapacity(method)) {
+                this.acquire(method);
+                return true;
+            }
+            this.waitedCount.incrementAndGet();
+            this.blockedCount++;
+            this.updateMaxQueueDepth();
+            try {
+                while (!this.hasCapacity(method)) {
+                    long waitNanos = maxWaitNanos - (System.nanoTime() - startNanos);
+                    if (maxWaitNanos == 0) {
+                        this.wait();
+                    } else if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                    } else {
+                        return false;
+                    }
+                }
+                this.acquire(method);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                this.blockedCount--;
+                this.totalWaitNanos.addAndGet(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    // return true if the request is admitted at once, false if it is queued or rejected
+    private boolean admitOrEnqueue(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        synchronized (this) {
+            // the queued requests are sent first
+            if (this.queue.isEmpty() && this.hasCapacity(method)) {
+                this.acquire(method);
+                return true;
+            }
+            if (this.queue.size() < this.config.getMaxQueueSize()) {
+                PendingRequest pending =
+                        new PendingRequest(groupID, node, method, request, callback);
+                this.queue.addLast(pending);
+                long maxWaitMs = this.config.getMaxWaitMs();
+                if (maxWaitMs > 0) {
+                    pending.expireTask =
+                            expireScheduler.schedule(
+                                    () -> this.expire(pending), maxWaitMs, TimeUnit.MILLISECONDS);
+                }
+                this.waitedCount.incrementAndGet();
+                this.updateMaxQueueDepth();
+                return false;
+            }
+        }
+        this.reject(method, callback, "the queue of the requests waiting is full");
+        return false;
+    }
+
+    // return the queued requests admitted, to be sent by the caller out of the lock
+    private List<PendingRequest> release(String method) {
+        List<PendingRequest> admitted = null;
+        synchronized (this) {
+            this.inFlight--;
+            this.methodInFlight.computeIfPresent(method, (key, count) -> count - 1);
+            if (this.blockedCount > 0) {
+                this.notifyAll();
+            }
+            // skip the requests of the methods at their limit, the others are not blocked
+            Iterator<PendingRequest> iterator = this.queue.iterator();
+            while (iterator.hasNext() && this.hasGlobalCapacity()) {
+                PendingRequest pending = iterator.next();
+                if (this.hasCapacity(pending.method)) {
+                    iterator.remove();
+                    this.acquire(pending.method);
+                    if (Objects.nonNull(pending.expireTask)) {
+                        pending.expireTask.cancel(false);
+                    }
+                    admitted = add(admitted, pending);
+                }
+            }
+        }
+        return admitted;
+    }
+
+    private void sendAdmitted(List<PendingRequest> admitted) {
+        if (Objects.isNull(admitted)) {
+            return;
+        }
+        for (PendingRequest pending : admitted) {
+            this.totalWaitNanos.addAndGet(System.nanoTime() - pending.enqueueNanos);
+            try {
+                this.send(
+                        pending.groupID,
+                        pending.node,
+                        pending.method,
+                        pending.request,
+                        pending.callback);
+            } catch (RuntimeException e) {
+                // the limit is released by send, the queued request is answered instead of
+                // throwing to the thread receiving the response of another request
+                logger.warn("send the queued request failed, method: {}, e: ", pending.method, e);
+                this.reject(
+                        pending.method, pending.callback, "send failed, error: " + e.getMessage());
+            }
+        }
+    }
+
+    // reject the queued request waiting longer than the max wait time, if not admitted yet
+    private void expire(PendingRequest pending) {
+        synchronized (this) {
+            if (!this.queue.remove(pending)) {
+                return;
+            }
+        }
+        this.totalWaitNanos.addAndGet(System.nanoTime() - pending.enqueueNanos);
+        this.reject(pending.method, pending.callback, "wait for the requests in flight timeout");
+    }
+
+    private static List<PendingRequest> add(List<PendingRequest> list, PendingRequest pending) {
+        List<PendingRequest> result = Objects.isNull(list) ? new ArrayList<>() : list;
+        result.add(pending);
+        return result;
+    }
+
+    // guarded by this
+    private void updateMaxQueueDepth() {
+        int depth = this.queue.size() + this.blockedCount;
+        if (depth > this.maxQueueDepth) {
+            this.maxQueueDepth = depth;
+        }
+    }
+
+    private void reject(String method, ResponseCallback callback, String reason) {
+        this.rejectedCount.incrementAndGet();
+        if (logger.isDebugEnabled()) {
+            logger.debug("reject the request, method: {}, reason: {}", method, reason);
+        }
+        Response response = new Response();
+        response.setErrorCode(REJECTED_ERROR_CODE);
+        response.setErrorMessage(
+                "request rejected by the concurrency limit, method: " + method + ", " + reason);
+        callback.onResponse(response);
+    }
+
+    /** @return the count of the requests in flight */
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    /**
+     * @param method the json rpc method
+     * @return the count of the requests of the method in flight, 0 if the method is not limited
+     */
+    public synchronized int getInFlight(String method) {
+        return this.methodInFlight.getOrDefault(method, 0);
+    }
+
+    /** @return the count of the requests queued and the threads blocked waiting for admission */
+    public synchronized int getQueueDepth() {
+        return this.queue.size() + this.blockedCount;
+    }
+
+    public int getMaxQueueDepth() {
+        return this.maxQueueDepth;
+    }
+
+    /** @return the count of the requests sent */
+    public long getAdmittedCount() {
+        return this.admittedCount.get();
+    }
+
+    /** @return the count of the requests not admitted at once */
+    public long getWaitedCount() {
+        return this.waitedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    /** @return the total time the requests waited for admission, in milliseconds */
+    public long getTotalWaitMs() {
+        return TimeUnit.NANOSECONDS.toMillis(this.totalWaitNanos.get());
+    }
+
+    public ConcurrencyLimitConfig getConfig() {
+        return this.config;
+    }
+}
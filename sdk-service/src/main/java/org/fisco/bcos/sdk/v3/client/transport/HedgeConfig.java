@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+
+/** the parameters of the HedgedRpcTransport */
+public class HedgeConfig {
+    // only the idempotent methods reading the immutable data can be hedged
+    private Set<String> methods =
+            new HashSet<>(
+                    Arrays.asList(
+                            JsonRpcMethods.CALL,
+                            JsonRpcMethods.GET_BLOCK_BY_HASH,
+                            JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                            JsonRpcMethods.GET_BLOCKHASH_BY_NUMBER,
+                            JsonRpcMethods.GET_TRANSACTION_BY_HASH,
+                            JsonRpcMethods.GET_TRANSACTIONRECEIPT,
+                            JsonRpcMethods.GET_CODE,
+                            JsonRpcMethods.GET_ABI));
+    // the hedge is sent when the primary request takes longer than this percentile of the latency
+    // of the primary node
+    private double delayPercentile = 0.95;
+    // the delay used before enough latency samples of the node are collected
+    private long initialDelayMs = 100;
+    private long minDelayMs = 5;
+    private long maxDelayMs = 2000;
+    private int minSamples = 20;
+    // the latest samples kept for each node
+    private int sampleWindowSize = 512;
+    // the hedges sent can't exceed this ratio of the hedgeable requests
+    private double maxHedgeRatio = 0.1;
+    // the hedges can be sent in a burst before the budget is exhausted
+    private double maxHedgeBurst = 10;
+    // the interval to refresh the peers of the group the requests are sent to
+    private long peersRefreshIntervalMs = 30000;
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(Set<String> methods) {
+        this.methods = methods;
+    }
+
+    public double getDelayPercentile() {
+        return delayPercentile;
+    }
+
+    public void setDelayPercentile(double delayPercentile) {
+        this.delayPercentile = delayPercentile;
+    }
+
+    public long getInitialDelayMs() {
+        return initialDelayMs;
+    }
+
+    public void setInitialDelayMs(long initialDelayMs) {
+        this.initialDelayMs = initialDelayMs;
+    }
+
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    public void setMinDelayMs(long minDelayMs) {
+        this.minDelayMs = minDelayMs;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public int getSampleWindowSize() {
+        return sampleWindowSize;
+    }
+
+    public void setSampleWindowSize(int sampleWindowSize) {
+        this.sampleWindowSize = sampleWindowSize;
+    }
+
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    public void setMaxHedgeRatio(double maxHedgeRatio) {
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    public double getMaxHedgeBurst() {
+        return maxHedgeBurst;
+    }
+
+    public void setMaxHedgeBurst(double maxHedgeBurst) {
+        this.maxHedgeBurst = maxHedgeBurst;
+    }
+
+    public long getPeersRefreshIntervalMs() {
+        return peersRefreshIntervalMs;
+    }
+
+    public void setPeersRefreshIntervalMs(long peersRefreshIntervalMs) {
+        this.peersRefreshIntervalMs = peersRefreshIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "HedgeConfig{"
+                + "methods="
+                + methods
+                + ", delayPercentile="
+                + delayPercentile
+                + ", initialDelayMs="
+                + initialDelayMs
+                + ", minDelayMs="
+                + minDelayMs
+                + ", maxDelayMs="
+                + maxDelayMs
+                + ", minSamples="
+                + minSamples
+                + ", sampleWindowSize="
+                + sampleWindowSize
+                + ", maxHedgeRatio="
+                + maxHedgeRatio
+                + ", maxHedgeBurst="
+                + maxHedgeBurst
+                + ", peersRefreshIntervalMs="
+                + peersRefreshIntervalMs
+                + '}';
+    }
+}
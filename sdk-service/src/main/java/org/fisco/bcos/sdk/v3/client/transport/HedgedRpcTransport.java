@@ -0,0 +1,368 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hedge the idempotent reads across the nodes of the group.
+ *
+ * <p>The request sent to any node is sent to one connected node of the group chosen in turn. If
+ * no successful response is received after the delay (the p95 latency of the node by default),
+ * the same request is sent to the node with the lowest latency of the others, the first successful
+ * response is passed to the callback and the other one is ignored. The hedges are limited by a
+ * budget proportional to the hedgeable requests, so a slow group can't double the load.
+ */
+public class HedgedRpcTransport implements RpcTransport {
+    private static final Logger logger = LoggerFactory.getLogger(HedgedRpcTransport.class);
+    private static final ScheduledThreadPoolExecutor hedgeScheduler = createScheduler();
+
+    private final RpcTransport delegate;
+    private final Supplier<List<String>> nodesSupplier;
+    private final HedgeConfig config;
+    private final ConcurrentHashMap<String, LatencyWindow> nodeLatencies =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger nextNode = new AtomicInteger(0);
+    private double hedgeBudget;
+
+    private final AtomicLong hedgeableCount = new AtomicLong(0);
+    private final AtomicLong hedgeSentCount = new AtomicLong(0);
+    private final AtomicLong hedgeWinCount = new AtomicLong(0);
+    private final AtomicLong budgetExhaustedCount = new AtomicLong(0);
+
+    /**
+     * create the transport
+     *
+     * @param delegate the transport sending the requests
+     * @param nodesSupplier supply the names of the connected nodes of the group, the primary and
+     *     the hedge nodes are chosen from them
+     * @param config the parameters of the hedging
+     */
+    public HedgedRpcTransport(
+            RpcTransport delegate, Supplier<List<String>> nodesSupplier, HedgeConfig config) {
+        this.delegate = delegate;
+        this.nodesSupplier = nodesSupplier;
+        this.config = config;
+        this.hedgeBudget = config.getMaxHedgeBurst();
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("hedged-read-%d")
+                                .daemon(true)
+                                .build());
+        // most hedges are cancelled by the primary response, don't keep them in the queue
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.delegate.sendRequest(groupID, node, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        // the request to the specified node is not hedged
+        if ((Objects.nonNull(node) && !node.isEmpty())
+                || !this.config.getMethods().contains(method)) {
+            this.delegate.sendRequest(groupID, node, method, request, callback);
+            return;
+        }
+        List<String> nodes = this.nodesSupplier.get();
+        if (Objects.isNull(nodes) || nodes.size() < 2) {
+            this.delegate.sendRequest(groupID, node, method, request, callback);
+            return;
+        }
+        this.hedgeableCount.incrementAndGet();
+        this.addBudget();
+        String primaryNode =
+                nodes.get(Math.floorMod(this.nextNode.getAndIncrement(), nodes.size()));
+        new HedgedCall(groupID, method, request, nodes, primaryNode, callback).start();
+    }
+
+    private class HedgedCall {
+        private final String groupID;
+        private final String method;
+        private final String request;
+        private final List<String> nodes;
+        private final String primaryNode;
+        private final ResponseCallback callback;
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private final AtomicBoolean hedged = new AtomicBoolean(false);
+        // the attempts sent or about to be sent, the error is passed once none left
+        private final AtomicInteger outstanding = new AtomicInteger(0);
+        private volatile Response lastError;
+        private volatile ScheduledFuture<?> hedgeTask;
+
+        HedgedCall(
+                String groupID,
+                String method,
+                String request,
+                List<String> nodes,
+                String primaryNode,
+                ResponseCallback callback) {
+            this.groupID = groupID;
+            this.method = method;
+            this.request = request;
+            this.nodes = nodes;
+            this.primaryNode = primaryNode;
+            this.callback = callback;
+        }
+
+        void start() {
+            this.outstanding.incrementAndGet();
+            this.send(this.primaryNode, false);
+            if (!this.done.get()) {
+                this.hedgeTask =
+                        hedgeScheduler.schedule(
+                                this::hedge,
+                                getHedgeDelayMs(this.primaryNode),
+                                TimeUnit.MILLISECONDS);
+                // the response may be received before the task is set
+                if (this.done.get()) {
+                    this.hedgeTask.cancel(false);
+                }
+            }
+        }
+
+        private void hedge() {
+            if (this.done.get()) {
+                return;
+            }
+            // reserve the slot before marking hedged, so a failed primary waits for the hedge
+            this.outstanding.incrementAndGet();
+            if (this.hedged.getAndSet(true)) {
+                this.release();
+                return;
+            }
+            if (!tryAcquireBudget()) {
+                budgetExhaustedCount.incrementAndGet();
+                this.release();
+                return;
+            }
+            String hedgeNode = selectHedgeNode(this.nodes, this.primaryNode);
+            hedgeSentCount.incrementAndGet();
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                        "send hedged request, method: {}, primary node: {}, hedge node: {}",
+                        this.method,
+                        this.primaryNode,
+                        hedgeNode);
+            }
+            this.send(hedgeNode, true);
+        }
+
+        private void send(String node, boolean isHedge) {
+            long startNanos = System.nanoTime();
+            delegate.sendRequest(
+                    this.groupID,
+                    node,
+                    this.method,
+                    this.request,
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            onAttemptResponse(node, isHedge, startNanos, response);
+                        }
+                    });
+        }
+
+        private void onAttemptResponse(
+                String node, boolean isHedge, long startNanos, Response response) {
+            if (response.getErrorCode() == 0) {
+                this.outstanding.decrementAndGet();
+                recordLatency(node, System.nanoTime() - startNanos);
+                if (this.done.compareAndSet(false, true)) {
+                    this.cancelHedge();
+                    if (isHedge) {
+                        hedgeWinCount.incrementAndGet();
+                    }
+                    this.callback.onResponse(response);
+                }
+                return;
+            }
+            this.lastError = response;
+            // the primary node failed, try the other node at once
+            if (!isHedge && !this.hedged.get()) {
+                this.cancelHedge();
+                this.hedge();
+            }
+            this.release();
+        }
+
+        // release the slot of an attempt, pass the last error if all the attempts failed
+        private void release() {
+            if (this.outstanding.decrementAndGet() != 0) {
+                return;
+            }
+            // read after the slot released, the error is set before the failed attempt releases
+            Response error = this.lastError;
+            if (Objects.nonNull(error) && this.done.compareAndSet(false, true)) {
+                this.callback.onResponse(error);
+            }
+        }
+
+        private void cancelHedge() {
+            ScheduledFuture<?> task = this.hedgeTask;
+            if (Objects.nonNull(task)) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private long getHedgeDelayMs(String node) {
+        LatencyWindow window = this.nodeLatencies.get(node);
+        long delayMs = this.config.getInitialDelayMs();
+        if (Objects.nonNull(window) && window.size() >= this.config.getMinSamples()) {
+            delayMs =
+                    TimeUnit.NANOSECONDS.toMillis(
+                            window.percentile(this.config.getDelayPercentile()));
+        }
+        return Math.max(
+                this.config.getMinDelayMs(), Math.min(this.config.getMaxDelayMs(), delayMs));
+    }
+
+    // the node with the lowest latency except the primary one, the nodes without samples first
+    private String selectHedgeNode(List<String> nodes, String primaryNode) {
+        String selected = null;
+        long selectedLatency = Long.MAX_VALUE;
+        for (String node : nodes) {
+            if (node.equals(primaryNode)) {
+                continue;
+            }
+            LatencyWindow window = this.nodeLatencies.get(node);
+            long latency =
+                    Objects.isNull(window) || window.size() == 0
+                            ? 0
+                            : window.percentile(this.config.getDelayPercentile());
+            if (latency < selectedLatency) {
+                selected = node;
+                selectedLatency = latency;
+            }
+        }
+        return selected;
+    }
+
+    private void recordLatency(String node, long latencyNanos) {
+        this.nodeLatencies
+                .computeIfAbsent(node, key -> new LatencyWindow(this.config.getSampleWindowSize()))
+                .add(latencyNanos);
+    }
+
+    private synchronized void addBudget() {
+        this.hedgeBudget =
+                Math.min(
+                        this.config.getMaxHedgeBurst(),
+                        this.hedgeBudget + this.config.getMaxHedgeRatio());
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (this.hedgeBudget < 1) {
+            return false;
+        }
+        this.hedgeBudget -= 1;
+        return true;
+    }
+
+    /** @return the count of the requests which can be hedged */
+    public long getHedgeableCount() {
+        return this.hedgeableCount.get();
+    }
+
+    /** @return the count of the hedged requests sent */
+    public long getHedgeSentCount() {
+        return this.hedgeSentCount.get();
+    }
+
+    /** @return the count of the requests answered by the hedge first */
+    public long getHedgeWinCount() {
+        return this.hedgeWinCount.get();
+    }
+
+    /** @return the count of the hedges not sent because the budget is exhausted */
+    public long getBudgetExhaustedCount() {
+        return this.budgetExhaustedCount.get();
+    }
+
+    /**
+     * @param node the node name
+     * @return the delay percentile of the latency of the node in milliseconds, -1 if unknown
+     */
+    public long getLatencyPercentileMs(String node) {
+        LatencyWindow window = this.nodeLatencies.get(node);
+        if (Objects.isNull(window) || window.size() == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(window.percentile(this.config.getDelayPercentile()));
+    }
+
+    public HedgeConfig getConfig() {
+        return this.config;
+    }
+
+    /** the latest latency samples of a node */
+    private static class LatencyWindow {
+        private final long[] samples;
+        private int count = 0;
+        private int next = 0;
+        private long[] sorted;
+
+        LatencyWindow(int size) {
+            this.samples = new long[Math.max(1, size)];
+        }
+
+        synchronized void add(long latencyNanos) {
+            this.samples[this.next] = latencyNanos;
+            this.next = (this.next + 1) % this.samples.length;
+            this.count = Math.min(this.count + 1, this.samples.length);
+            this.sorted = null;
+        }
+
+        synchronized int size() {
+            return this.count;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (this.sorted == null) {
+                this.sorted = Arrays.copyOf(this.samples, this.count);
+                Arrays.sort(this.sorted);
+            }
+            int index = (int) Math.ceil(percentile * this.count) - 1;
+            return this.sorted[Math.max(0, Math.min(this.count - 1, index))];
+        }
+    }
+}
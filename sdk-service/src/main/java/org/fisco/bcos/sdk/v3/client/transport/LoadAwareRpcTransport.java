@@ -0,0 +1,437 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Route the requests sent to any node by the load of the nodes of the group.
+ *
+ * <p>The load of every node (pending tx size, block number and sync status) is sampled in
+ * background by probing the nodes in parallel, and the read latency of every node is tracked by
+ * the responses of the reads. The transactions are sent to the synced node with the least pending
+ * transactions, counting the transactions routed to it since the last sample. The reads are sent to
+ * the node with the lowest latency, weighted by its requests in flight, of the nodes not lagging
+ * behind. Nothing is sent to choose the node, the requests are passed to the native layer unchanged
+ * if no node is eligible.
+ */
+public class LoadAwareRpcTransport implements RpcTransport {
+    private static final Logger logger = LoggerFactory.getLogger(LoadAwareRpcTransport.class);
+    // only schedules the samples and the probe timeouts, the probes never block it
+    private static final ScheduledExecutorService sampleScheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("node-load-sampler-%d")
+                            .daemon(true)
+                            .build());
+
+    private final RpcTransport delegate;
+    private final Supplier<List<String>> nodesSupplier;
+    private final NodeLoadProbe probe;
+    private final NodeSelectionConfig config;
+    private final ConcurrentHashMap<String, NodeState> nodeStates = new ConcurrentHashMap<>();
+    private volatile long highestBlockNumber = -1;
+    private ScheduledFuture<?> sampleTask;
+    private final AtomicBoolean sampling = new AtomicBoolean(false);
+
+    private final AtomicLong routedSendCount = new AtomicLong(0);
+    private final AtomicLong routedReadCount = new AtomicLong(0);
+    private final AtomicLong passThroughCount = new AtomicLong(0);
+    private final AtomicLong sampleFailureCount = new AtomicLong(0);
+
+    /**
+     * create the transport, call {@link #start()} to sample the nodes periodically
+     *
+     * @param delegate the transport sending the requests
+     * @param nodesSupplier supply the names of the nodes of the group
+     * @param probe sample the load of a node
+     * @param config the parameters of the node selection
+     */
+    public LoadAwareRpcTransport(
+            RpcTransport delegate,
+            Supplier<List<String>> nodesSupplier,
+            NodeLoadProbe probe,
+            NodeSelectionConfig config) {
+        this.delegate = delegate;
+        this.nodesSupplier = nodesSupplier;
+        this.probe = probe;
+        this.config = config;
+    }
+
+    /** start sampling the nodes periodically */
+    public synchronized void start() {
+        if (this.sampleTask != null) {
+            return;
+        }
+        this.sampleTask =
+                sampleScheduler.scheduleWithFixedDelay(
+                        this::sampleQuietly,
+                        0,
+                        this.config.getSampleIntervalMs(),
+                        TimeUnit.MILLISECONDS);
+        logger.info("start load aware node selection, config: {}", this.config);
+    }
+
+    /** stop sampling the nodes, the requests are passed through once the samples are too old */
+    public synchronized void stop() {
+        if (this.sampleTask != null) {
+            this.sampleTask.cancel(false);
+            this.sampleTask = null;
+        }
+    }
+
+    private void sampleQuietly() {
+        // the last round is still waiting for the probes, bounded by the probe timeout
+        if (!this.sampling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.sample().whenComplete((result, e) -> this.sampling.set(false));
+        } catch (Exception e) {
+            this.sampling.set(false);
+            logger.warn("sample the load of the nodes failed, e: ", e);
+        }
+    }
+
+    /**
+     * sample the load of all the nodes of the group once, called every sample interval. The nodes
+     * are probed in parallel without blocking, a node not answering in the probe timeout is
+     * sampled as failed
+     *
+     * @return the future completed when all the nodes are sampled or failed
+     */
+    public CompletableFuture<Void> sample() {
+        List<String> nodes = this.nodesSupplier.get();
+        if (Objects.isNull(nodes)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // the nodes removed from the group
+        this.nodeStates.keySet().retainAll(new HashSet<>(nodes));
+        AtomicLong highest = new AtomicLong(-1);
+        CompletableFuture<?>[] probes = new CompletableFuture<?>[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            String node = nodes.get(i);
+            NodeState state = this.nodeStates.computeIfAbsent(node, key -> new NodeState());
+            probes[i] =
+                    this.probeWithTimeout(node)
+                            .handle(
+                                    (load, e) -> {
+                                        if (Objects.isNull(e)) {
+                                            state.onSample(load);
+                                            highest.accumulateAndGet(
+                                                    load.getBlockNumber(), Math::max);
+                                            return null;
+                                        }
+                                        state.onSampleFailure();
+                                        this.sampleFailureCount.incrementAndGet();
+                                        logger.warn(
+                                                "sample the load of the node failed, node: {}, e: {}",
+                                                node,
+                                                e.getMessage());
+                                        return null;
+                                    });
+        }
+        return CompletableFuture.allOf(probes)
+                .thenRun(
+                        () -> {
+                            this.highestBlockNumber = highest.get();
+                            if (logger.isDebugEnabled()) {
+                                logger.debug(
+                                        "sample the load of the nodes, highestBlockNumber: {}, nodes: {}",
+                                        this.highestBlockNumber,
+                                        this.nodeStates);
+                            }
+                        });
+    }
+
+    private CompletableFuture<NodeLoad> probeWithTimeout(String node) {
+        CompletableFuture<NodeLoad> result = new CompletableFuture<>();
+        long timeoutMs = this.config.getProbeTimeoutMs();
+        ScheduledFuture<?> timeout =
+                sampleScheduler.schedule(
+                        () ->
+                                result.completeExceptionally(
+                                        new TimeoutException(
+                                                "probe the load of the node timeout, node: "
+                                                        + node
+                                                        + ", timeout: "
+                                                        + timeoutMs
+                                                        + "ms")),
+                        timeoutMs,
+                        TimeUnit.MILLISECONDS);
+        CompletableFuture<NodeLoad> probeFuture;
+        try {
+            probeFuture = this.probe.probe(node);
+        } catch (RuntimeException e) {
+            probeFuture = new CompletableFuture<>();
+            probeFuture.completeExceptionally(e);
+        }
+        probeFuture.whenComplete(
+                (load, e) -> {
+                    timeout.cancel(false);
+                    if (Objects.isNull(e)) {
+                        result.complete(load);
+                    } else {
+                        result.completeExceptionally(e);
+                    }
+                });
+        return result;
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.delegate.sendRequest(groupID, node, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        String selectedNode = null;
+        if (Objects.nonNull(node) && !node.isEmpty()) {
+            selectedNode = node;
+        } else if (this.config.getSendMethods().contains(method)) {
+            selectedNode = this.selectSendNode();
+            if (Objects.nonNull(selectedNode)) {
+                this.routedSendCount.incrementAndGet();
+            }
+        } else if (this.config.getReadMethods().contains(method)) {
+            selectedNode = this.selectReadNode();
+            if (Objects.nonNull(selectedNode)) {
+                this.routedReadCount.incrementAndGet();
+            }
+        }
+        NodeState state = Objects.isNull(selectedNode) ? null : this.nodeStates.get(selectedNode);
+        if (Objects.isNull(state)) {
+            if (Objects.isNull(selectedNode)) {
+                this.passThroughCount.incrementAndGet();
+            }
+            this.delegate.sendRequest(groupID, node, method, request, callback);
+            return;
+        }
+        // only the reads are compared by the latency, a transaction waits for the commit
+        boolean isRead = this.config.getReadMethods().contains(method);
+        long startNanos = System.nanoTime();
+        state.inFlight.incrementAndGet();
+        this.delegate.sendRequest(
+                groupID,
+                selectedNode,
+                method,
+                request,
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        state.inFlight.decrementAndGet();
+                        if (isRead && response.getErrorCode() == 0) {
+                            state.recordLatency(
+                                    System.nanoTime() - startNanos, config.getLatencyWeight());
+                        }
+                        callback.onResponse(response);
+                    }
+                });
+    }
+
+    // the synced node with the least pending transactions, including the ones routed to it since
+    // the last sample
+    private String selectSendNode() {
+        List<String> nodes = this.nodesSupplier.get();
+        if (Objects.isNull(nodes)) {
+            return null;
+        }
+        long now = System.nanoTime();
+        String selected = null;
+        NodeState selectedState = null;
+        long selectedLoad = Long.MAX_VALUE;
+        int selectedInFlight = Integer.MAX_VALUE;
+        for (String node : nodes) {
+            NodeState state = this.nodeStates.get(node);
+            if (!this.isEligible(state, now) || state.load.isSyncing()) {
+                continue;
+            }
+            long load = state.load.getPendingTxSize() + state.routedSends.get();
+            int inFlight = state.inFlight.get();
+            if (load < selectedLoad || (load == selectedLoad && inFlight < selectedInFlight)) {
+                selected = node;
+                selectedState = state;
+                selectedLoad = load;
+                selectedInFlight = inFlight;
+            }
+        }
+        if (Objects.nonNull(selectedState)) {
+            selectedState.routedSends.incrementAndGet();
+        }
+        return selected;
+    }
+
+    // the node not lagging behind with the lowest latency weighted by its requests in flight
+    private String selectReadNode() {
+        List<String> nodes = this.nodesSupplier.get();
+        if (Objects.isNull(nodes)) {
+            return null;
+        }
+        long now = System.nanoTime();
+        String selected = null;
+        double selectedCost = Double.MAX_VALUE;
+        for (String node : nodes) {
+            NodeState state = this.nodeStates.get(node);
+            if (!this.isEligible(state, now)) {
+                continue;
+            }
+            // the nodes without latency samples are tried first
+            double latency = Math.max(1, state.latencyNanos);
+            double cost = latency * (state.inFlight.get() + 1);
+            if (cost < selectedCost) {
+                selected = node;
+                selectedCost = cost;
+            }
+        }
+        return selected;
+    }
+
+    // sampled recently and not lagging behind
+    private boolean isEligible(NodeState state, long now) {
+        if (Objects.isNull(state)
+                || Objects.isNull(state.load)
+                || !state.available
+                || now - state.sampleNanos
+                        > TimeUnit.MILLISECONDS.toNanos(this.config.getMaxSampleAgeMs())) {
+            return false;
+        }
+        long lag = this.highestBlockNumber - state.load.getBlockNumber();
+        return lag <= this.config.getMaxBlockLag();
+    }
+
+    /**
+     * @param node the node name
+     * @return the last sampled load of the node, null if not sampled
+     */
+    public NodeLoad getNodeLoad(String node) {
+        NodeState state = this.nodeStates.get(node);
+        return Objects.isNull(state) ? null : state.load;
+    }
+
+    /**
+     * @param node the node name
+     * @return the moving average of the read latency of the node in microseconds, -1 if unknown
+     */
+    public long getLatencyMicros(String node) {
+        NodeState state = this.nodeStates.get(node);
+        if (Objects.isNull(state) || state.latencyNanos < 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMicros((long) state.latencyNanos);
+    }
+
+    /**
+     * @param node the node name
+     * @return the count of the requests routed to the node and waiting for response
+     */
+    public int getInFlight(String node) {
+        NodeState state = this.nodeStates.get(node);
+        return Objects.isNull(state) ? 0 : state.inFlight.get();
+    }
+
+    /** @return the highest block number of the nodes of the last sample, -1 if unknown */
+    public long getHighestBlockNumber() {
+        return this.highestBlockNumber;
+    }
+
+    /** @return the count of the transactions routed to the least loaded node */
+    public long getRoutedSendCount() {
+        return this.routedSendCount.get();
+    }
+
+    /** @return the count of the reads routed to the fastest node */
+    public long getRoutedReadCount() {
+        return this.routedReadCount.get();
+    }
+
+    /** @return the count of the requests passed to the native layer as no node is eligible */
+    public long getPassThroughCount() {
+        return this.passThroughCount.get();
+    }
+
+    public long getSampleFailureCount() {
+        return this.sampleFailureCount.get();
+    }
+
+    public NodeSelectionConfig getConfig() {
+        return this.config;
+    }
+
+    /** the sampled load and the tracked latency of a node */
+    private static class NodeState {
+        private volatile NodeLoad load;
+        private volatile long sampleNanos;
+        private volatile boolean available;
+        // the transactions routed to the node since the last sample
+        private final AtomicLong routedSends = new AtomicLong(0);
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+        private volatile double latencyNanos = -1;
+
+        void onSample(NodeLoad load) {
+            this.load = load;
+            this.sampleNanos = System.nanoTime();
+            this.available = true;
+            this.routedSends.set(0);
+        }
+
+        void onSampleFailure() {
+            this.available = false;
+        }
+
+        synchronized void recordLatency(long nanos, double weight) {
+            this.latencyNanos =
+                    this.latencyNanos < 0
+                            ? nanos
+                            : weight * nanos + (1 - weight) * this.latencyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "NodeState{"
+                    + "load="
+                    + load
+                    + ", available="
+                    + available
+                    + ", routedSends="
+                    + routedSends
+                    + ", inFlight="
+                    + inFlight
+                    + ", latencyNanos="
+                    + latencyNanos
+                    + '}';
+        }
+    }
+}
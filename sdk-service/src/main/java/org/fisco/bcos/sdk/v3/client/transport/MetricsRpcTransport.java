@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetricsListener;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Report the latency, the error code and the sizes of every request to the listener.
+ *
+ * <p>The json rpc error code is only parsed if the "error" key comes before the "result" key of
+ * the response, so the large results are not parsed twice. The requests sent to any node are
+ * reported with an empty node, unless the node is chosen by a transport below the metrics, e.g.
+ * the hedged reads enabled by ClientImpl.
+ */
+public class MetricsRpcTransport implements RpcTransport {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRpcTransport.class);
+    private static final JsonFactory jsonFactory =
+            ObjectMapperFactory.getObjectMapper().getFactory();
+    // the method of the requests sent without one
+    public static final String UNKNOWN_METHOD = "unknown";
+    private static final byte[] RESULT_KEY = "result\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERROR_KEY = "error\"".getBytes(StandardCharsets.UTF_8);
+
+    private final RpcTransport delegate;
+    private final RpcMetricsListener listener;
+    private final AtomicLong listenerErrorCount = new AtomicLong(0);
+
+    /**
+     * create the transport
+     *
+     * @param delegate the transport sending the requests
+     * @param listener the listener of the requests
+     */
+    public MetricsRpcTransport(RpcTransport delegate, RpcMetricsListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.sendRequest(groupID, node, UNKNOWN_METHOD, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        try {
+            this.listener.onRequest(groupID, node, method, request.length());
+        } catch (Exception e) {
+            this.onListenerError(e);
+        }
+        long startNanos = System.nanoTime();
+        this.delegate.sendRequest(
+                groupID,
+                node,
+                method,
+                request,
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        long latencyNanos = System.nanoTime() - startNanos;
+                        try {
+                            byte[] content = response.getContent();
+                            listener.onResponse(
+                                    groupID,
+                                    node,
+                                    method,
+                                    latencyNanos,
+                                    errorCodeOf(response),
+                                    Objects.isNull(content) ? 0 : content.length);
+                        } catch (Exception e) {
+                            onListenerError(e);
+                        }
+                        callback.onResponse(response);
+                    }
+                });
+    }
+
+    private void onListenerError(Exception e) {
+        // never fail the request because of the metrics
+        if (this.listenerErrorCount.getAndIncrement() == 0) {
+            logger.warn("the metrics listener failed, e: ", e);
+        }
+    }
+
+    /**
+     * @param response the response of the request
+     * @return 0 for success, the error code of the transport if it failed, otherwise the code of
+     *     the json rpc error
+     */
+    public static int errorCodeOf(Response response) {
+        if (response.getErrorCode() != 0) {
+            return response.getErrorCode();
+        }
+        byte[] content = response.getContent();
+        if (Objects.isNull(content) || content.length == 0 || !mayHaveError(content)) {
+            return 0;
+        }
+        try (JsonParser parser = jsonFactory.createParser(content)) {
+            // the batch responses are not scanned
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("error".equals(field)) {
+                    return errorCodeOfError(parser);
+                }
+                parser.skipChildren();
+            }
+        } catch (Exception e) {
+            // the malformed response is reported as succeeded here, and fails when it is parsed
+            logger.debug("scan the response failed, e: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    // false if the "result" key with a non-null value comes before any "error" key, the node puts
+    // the result after the short id and jsonrpc fields, so this only reads the first bytes
+    private static boolean mayHaveError(byte[] content) {
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '"') {
+                continue;
+            }
+            if (startsWith(content, i + 1, ERROR_KEY)) {
+                return true;
+            }
+            if (startsWith(content, i + 1, RESULT_KEY)) {
+                int next = i + 1 + RESULT_KEY.length;
+                while (next < content.length
+                        && (content[next] == ':' || Character.isWhitespace(content[next]))) {
+                    next++;
+                }
+                if (next < content.length && content[next] != 'n') {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] content, int offset, byte[] prefix) {
+        if (offset + prefix.length > content.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (content[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int errorCodeOfError(JsonParser parser) throws Exception {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return 0;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("code".equals(field) && parser.currentToken().isNumeric()) {
+                return parser.getIntValue();
+            }
+            parser.skipChildren();
+        }
+        return 0;
+    }
+
+    /** @return the count of the exceptions thrown by the listener */
+    public long getListenerErrorCount() {
+        return this.listenerErrorCount.get();
+    }
+
+    public RpcMetricsListener getListener() {
+        return this.listener;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+/** the load of a node sampled by the LoadAwareRpcTransport */
+public class NodeLoad {
+    private final long pendingTxSize;
+    private final long blockNumber;
+    private final boolean syncing;
+
+    /**
+     * @param pendingTxSize the pending tx size of the node
+     * @param blockNumber the block number of the node
+     * @param syncing true if the node is syncing blocks from the other nodes
+     */
+    public NodeLoad(long pendingTxSize, long blockNumber, boolean syncing) {
+        this.pendingTxSize = pendingTxSize;
+        this.blockNumber = blockNumber;
+        this.syncing = syncing;
+    }
+
+    public long getPendingTxSize() {
+        return pendingTxSize;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public boolean isSyncing() {
+        return syncing;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeLoad{"
+                + "pendingTxSize="
+                + pendingTxSize
+                + ", blockNumber="
+                + blockNumber
+                + ", syncing="
+                + syncing
+                + '}';
+    }
+}
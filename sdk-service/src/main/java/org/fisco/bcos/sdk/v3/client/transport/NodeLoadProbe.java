@@ -0,0 +1,29 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+/** sample the load of a node, e.g. by getPendingTxSize, getSyncStatus and getBlockNumber */
+public interface NodeLoadProbe {
+    /**
+     * probe the node without blocking, the nodes of the group are probed in parallel
+     *
+     * @param node the node name
+     * @return the future of the current load of the node, completed exceptionally if the node
+     *     can't be sampled, the node is not chosen until sampled again
+     */
+    CompletableFuture<NodeLoad> probe(String node);
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+
+/** the parameters of the LoadAwareRpcTransport */
+public class NodeSelectionConfig {
+    // the methods sent to the least loaded synced node
+    private Set<String> sendMethods = new HashSet<>(Arrays.asList(JsonRpcMethods.SEND_TRANSACTION));
+    // the methods sent to the fastest node not lagging behind
+    private Set<String> readMethods =
+            new HashSet<>(
+                    Arrays.asList(
+                            JsonRpcMethods.CALL,
+                            JsonRpcMethods.GET_BLOCK_NUMBER,
+                            JsonRpcMethods.GET_BLOCK_BY_HASH,
+                            JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                            JsonRpcMethods.GET_BLOCKHASH_BY_NUMBER,
+                            JsonRpcMethods.GET_TRANSACTION_BY_HASH,
+                            JsonRpcMethods.GET_TRANSACTIONRECEIPT,
+                            JsonRpcMethods.GET_CODE,
+                            JsonRpcMethods.GET_ABI,
+                            JsonRpcMethods.GET_TOTAL_TRANSACTION_COUNT,
+                            JsonRpcMethods.GET_SYSTEM_CONFIG_BY_KEY));
+    private long sampleIntervalMs = 1000;
+    // the node is lagging if its block number is behind the highest one by more than this value
+    private long maxBlockLag = 2;
+    // the samples older than this are ignored, the node is not chosen until sampled again
+    private long maxSampleAgeMs = 10000;
+    // the node is sampled as failed if it doesn't answer the probes in this time
+    private long probeTimeoutMs = 3000;
+    // the weight of the latest latency in the moving average of the latency of a node
+    private double latencyWeight = 0.2;
+
+    public Set<String> getSendMethods() {
+        return sendMethods;
+    }
+
+    public void setSendMethods(Set<String> sendMethods) {
+        this.sendMethods = sendMethods;
+    }
+
+    public Set<String> getReadMethods() {
+        return readMethods;
+    }
+
+    public void setReadMethods(Set<String> readMethods) {
+        this.readMethods = readMethods;
+    }
+
+    public long getSampleIntervalMs() {
+        return sampleIntervalMs;
+    }
+
+    public void setSampleIntervalMs(long sampleIntervalMs) {
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+
+    public long getMaxBlockLag() {
+        return maxBlockLag;
+    }
+
+    public void setMaxBlockLag(long maxBlockLag) {
+        this.maxBlockLag = maxBlockLag;
+    }
+
+    public long getMaxSampleAgeMs() {
+        return maxSampleAgeMs;
+    }
+
+    public void setMaxSampleAgeMs(long maxSampleAgeMs) {
+        this.maxSampleAgeMs = maxSampleAgeMs;
+    }
+
+    public long getProbeTimeoutMs() {
+        return probeTimeoutMs;
+    }
+
+    public void setProbeTimeoutMs(long probeTimeoutMs) {
+        this.probeTimeoutMs = probeTimeoutMs;
+    }
+
+    public double getLatencyWeight() {
+        return latencyWeight;
+    }
+
+    public void setLatencyWeight(double latencyWeight) {
+        this.latencyWeight = latencyWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeSelectionConfig{"
+                + "sendMethods="
+                + sendMethods
+                + ", readMethods="
+                + readMethods
+                + ", sampleIntervalMs="
+                + sampleIntervalMs
+                + ", maxBlockLag="
+                + maxBlockLag
+                + ", maxSampleAgeMs="
+                + maxSampleAgeMs
+                + ", probeTimeoutMs="
+                + probeTimeoutMs
+                + ", latencyWeight="
+                + latencyWeight
+                + '}';
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+
+/** the parameters of the CachingRpcTransport */
+public class ResponseCacheConfig {
+    // the methods returning the data immutable once committed, only these can be cached
+    public static final Set<String> CACHEABLE_METHODS =
+            new HashSet<>(
+                    Arrays.asList(
+                            JsonRpcMethods.GET_BLOCK_BY_HASH,
+                            JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                            JsonRpcMethods.GET_BLOCKHASH_BY_NUMBER,
+                            JsonRpcMethods.GET_TRANSACTION_BY_HASH,
+                            JsonRpcMethods.GET_TRANSACTIONRECEIPT,
+                            JsonRpcMethods.GET_CODE,
+                            JsonRpcMethods.GET_ABI));
+
+    private Set<String> methods = new HashSet<>(CACHEABLE_METHODS);
+    private int maxEntries = 10000;
+    // the total size of the cached responses
+    private long maxWeightBytes = 64L * 1024 * 1024;
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * set the methods to cache, the methods not in CACHEABLE_METHODS are ignored
+     *
+     * @param methods the json rpc methods
+     */
+    public void setMethods(Set<String> methods) {
+        this.methods = methods;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public void setMaxWeightBytes(long maxWeightBytes) {
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheConfig{"
+                + "methods="
+                + methods
+                + ", maxEntries="
+                + maxEntries
+                + ", maxWeightBytes="
+                + maxWeightBytes
+                + '}';
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+
+/** the parameters of the RetryingRpcTransport */
+public class RetryConfig {
+    // the methods only reading the chain, only these can be retried
+    public static final Set<String> READ_METHODS =
+            Collections.unmodifiableSet(
+                    new HashSet<>(
+                            Arrays.asList(
+                                    JsonRpcMethods.GET_BLOCK_NUMBER,
+                                    JsonRpcMethods.GET_PBFT_VIEW,
+                                    JsonRpcMethods.GET_CONSENSUS_STATUS,
+                                    JsonRpcMethods.GET_SEALER_LIST,
+                                    JsonRpcMethods.GET_SYSTEM_CONFIG_BY_KEY,
+                                    JsonRpcMethods.GET_OBSERVER_LIST,
+                                    JsonRpcMethods.GET_SYNC_STATUS,
+                                    JsonRpcMethods.GET_BLOCK_BY_HASH,
+                                    JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                                    JsonRpcMethods.GET_BLOCKHASH_BY_NUMBER,
+                                    JsonRpcMethods.GET_TRANSACTION_BY_HASH,
+                                    JsonRpcMethods.GET_TRANSACTIONRECEIPT,
+                                    JsonRpcMethods.GET_PENDING_TX_SIZE,
+                                    JsonRpcMethods.CALL,
+                                    JsonRpcMethods.GET_CODE,
+                                    JsonRpcMethods.GET_ABI,
+                                    JsonRpcMethods.GET_TOTAL_TRANSACTION_COUNT,
+                                    JsonRpcMethods.GET_NODE_INFO,
+                                    JsonRpcMethods.GET_PEERS,
+                                    JsonRpcMethods.GET_GROUP_PEERS,
+                                    JsonRpcMethods.GET_GROUP_LIST,
+                                    JsonRpcMethods.GET_GROUP_INFO,
+                                    JsonRpcMethods.GET_GROUP_INFO_LIST,
+                                    JsonRpcMethods.GET_GROUP_NODE_INFO)));
+
+    private Set<String> methods = new HashSet<>(READ_METHODS);
+    // the attempts of a request, including the first one
+    private int maxAttempts = 3;
+    // the backoff before the n-th retry is initialBackoffMs * multiplier ^ (n - 1)
+    private long initialBackoffMs = 50;
+    private long maxBackoffMs = 2000;
+    private double backoffMultiplier = 2;
+    // the backoff is reduced by a random ratio up to this, so the clients don't retry in lockstep
+    private double jitterRatio = 0.5;
+    // no retry is sent once the request has taken this long, 0 for no limit
+    private long maxElapsedMs = 10000;
+    // the retries sent can't exceed this ratio of the requests
+    private double maxRetryRatio = 0.1;
+    // the retries can be sent in a burst before the budget is exhausted
+    private double maxRetryBurst = 10;
+    // retry the request to any node on the other nodes of the group
+    private boolean failover = true;
+    // the interval to refresh the peers of the group to fail over to
+    private long peersRefreshIntervalMs = 30000;
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * set the methods to retry, the methods not in READ_METHODS are ignored
+     *
+     * @param methods the json rpc methods
+     */
+    public void setMethods(Set<String> methods) {
+        this.methods = methods;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    public void setJitterRatio(double jitterRatio) {
+        this.jitterRatio = jitterRatio;
+    }
+
+    public long getMaxElapsedMs() {
+        return maxElapsedMs;
+    }
+
+    public void setMaxElapsedMs(long maxElapsedMs) {
+        this.maxElapsedMs = maxElapsedMs;
+    }
+
+    public double getMaxRetryRatio() {
+        return maxRetryRatio;
+    }
+
+    public void setMaxRetryRatio(double maxRetryRatio) {
+        this.maxRetryRatio = maxRetryRatio;
+    }
+
+    public double getMaxRetryBurst() {
+        return maxRetryBurst;
+    }
+
+    public void setMaxRetryBurst(double maxRetryBurst) {
+        this.maxRetryBurst = maxRetryBurst;
+    }
+
+    public boolean isFailover() {
+        return failover;
+    }
+
+    public void setFailover(boolean failover) {
+        this.failover = failover;
+    }
+
+    public long getPeersRefreshIntervalMs() {
+        return peersRefreshIntervalMs;
+    }
+
+    public void setPeersRefreshIntervalMs(long peersRefreshIntervalMs) {
+        this.peersRefreshIntervalMs = peersRefreshIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryConfig{"
+                + "methods="
+                + methods
+                + ", maxAttempts="
+                + maxAttempts
+                + ", initialBackoffMs="
+                + initialBackoffMs
+                + ", maxBackoffMs="
+                + maxBackoffMs
+                + ", backoffMultiplier="
+                + backoffMultiplier
+                + ", jitterRatio="
+                + jitterRatio
+                + ", maxElapsedMs="
+                + maxElapsedMs
+                + ", maxRetryRatio="
+                + maxRetryRatio
+                + ", maxRetryBurst="
+                + maxRetryBurst
+                + ", failover="
+                + failover
+                + ", peersRefreshIntervalMs="
+                + peersRefreshIntervalMs
+                + '}';
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client.transport;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retry the failed reads with the exponential backoff and jitter.
+ *
+ * <p>Only the methods in RetryConfig.READ_METHODS are retried, the transactions are never sent
+ * twice. A request fails when the response has a non-zero error code, e.g. the timeout or the
+ * node disconnected, the json rpc errors returned by the node are passed to the callback as they
+ * are. The retry of the request sent to any node fails over to the nodes of the group not failed
+ * yet. The retries are limited by a budget proportional to the requests, so a failing group can't
+ * multiply the load.
+ */
+public class RetryingRpcTransport implements RpcTransport {
+    private static final Logger logger = LoggerFactory.getLogger(RetryingRpcTransport.class);
+    private static final ScheduledThreadPoolExecutor retryScheduler = createScheduler();
+    public static final int FAILED_ERROR_CODE = -1;
+
+    private final RpcTransport delegate;
+    private final Supplier<List<String>> nodesSupplier;
+    private final RetryConfig config;
+    private final Set<String> methods;
+    private double retryBudget;
+
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong attemptCount = new AtomicLong(0);
+    private final AtomicLong retryCount = new AtomicLong(0);
+    private final AtomicLong failoverCount = new AtomicLong(0);
+    private final AtomicLong recoveredCount = new AtomicLong(0);
+    private final AtomicLong attemptsExhaustedCount = new AtomicLong(0);
+    private final AtomicLong budgetExhaustedCount = new AtomicLong(0);
+    private final AtomicLong elapsedExceededCount = new AtomicLong(0);
+    // the successful requests by the attempt answering them
+    private final AtomicLongArray successCountByAttempt;
+    private final ConcurrentHashMap<String, AtomicLong> methodRetryCounts =
+            new ConcurrentHashMap<>();
+
+    /**
+     * create the transport
+     *
+     * @param delegate the transport sending the requests
+     * @param nodesSupplier supply the names of the nodes of the group to fail over to
+     * @param config the parameters of the retry
+     */
+    public RetryingRpcTransport(
+            RpcTransport delegate, Supplier<List<String>> nodesSupplier, RetryConfig config) {
+        this.delegate = delegate;
+        this.nodesSupplier = nodesSupplier;
+        this.config = config;
+        this.methods = new HashSet<>(config.getMethods());
+        if (this.methods.retainAll(RetryConfig.READ_METHODS)) {
+            logger.warn("only the reads can be retried, the methods are limited to: {}", methods);
+        }
+        this.retryBudget = config.getMaxRetryBurst();
+        this.successCountByAttempt = new AtomicLongArray(Math.max(1, config.getMaxAttempts()));
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        return new ScheduledThreadPoolExecutor(
+                1,
+                new BasicThreadFactory.Builder()
+                        .namingPattern("rpc-retry-%d")
+                        .daemon(true)
+                        .build());
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String request, ResponseCallback callback) {
+        this.delegate.sendRequest(groupID, node, request, callback);
+    }
+
+    @Override
+    public void sendRequest(
+            String groupID, String node, String method, String request, ResponseCallback callback) {
+        if (!this.methods.contains(method) || this.config.getMaxAttempts() <= 1) {
+            this.delegate.sendRequest(groupID, node, method, request, callback);
+            return;
+        }
+        this.requestCount.incrementAndGet();
+        this.addBudget();
+        String targetNode = Objects.isNull(node) ? "" : node;
+        new RetryingCall(groupID, targetNode, method, request, callback).send(targetNode, 1);
+    }
+
+    private class RetryingCall {
+        private final String groupID;
+        private final String node;
+        private final String method;
+        private final String request;
+        private final ResponseCallback callback;
+        private final long startNanos = System.nanoTime();
+        // the attempts are sequential, so the failed nodes are not shared by the threads
+        private final Set<String> failedNodes = new HashSet<>();
+
+        RetryingCall(
+                String groupID,
+                String node,
+                String method,
+                String request,
+                ResponseCallback callback) {
+            this.groupID = groupID;
+            this.node = node;
+            this.method = method;
+            this.request = request;
+            this.callback = callback;
+        }
+
+        void send(String targetNode, int attempt) {
+            attemptCount.incrementAndGet();
+            try {
+                delegate.sendRequest(
+                        this.groupID,
+                        targetNode,
+                        this.method,
+                        this.request,
+                        new ResponseCallback() {
+                            @Override
+                            public void onResponse(Response response) {
+                                onAttemptResponse(targetNode, attempt, response);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                Response response = new Response();
+                response.setErrorCode(FAILED_ERROR_CODE);
+                response.setErrorMessage("send request failed: " + e.getMessage());
+                this.onAttemptResponse(targetNode, attempt, response);
+            }
+        }
+
+        private void onAttemptResponse(String targetNode, int attempt, Response response) {
+            if (response.getErrorCode() == 0) {
+                successCountByAttempt.incrementAndGet(
+                        Math.min(attempt, successCountByAttempt.length()) - 1);
+                if (attempt > 1) {
+                    recoveredCount.incrementAndGet();
+                }
+                this.callback.onResponse(response);
+                return;
+            }
+            if (!targetNode.isEmpty()) {
+                this.failedNodes.add(targetNode);
+            }
+            if (attempt >= config.getMaxAttempts()) {
+                attemptsExhaustedCount.incrementAndGet();
+                this.callback.onResponse(response);
+                return;
+            }
+            long backoffMs = getBackoffMs(attempt);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+            if (config.getMaxElapsedMs() > 0 && elapsedMs + backoffMs > config.getMaxElapsedMs()) {
+                elapsedExceededCount.incrementAndGet();
+                this.callback.onResponse(response);
+                return;
+            }
+            if (!tryAcquireBudget()) {
+                budgetExhaustedCount.incrementAndGet();
+                this.callback.onResponse(response);
+                return;
+            }
+            String nextNode = this.selectNextNode();
+            retryCount.incrementAndGet();
+            methodRetryCounts.computeIfAbsent(this.method, k -> new AtomicLong()).incrementAndGet();
+            if (!nextNode.equals(targetNode)) {
+                failoverCount.incrementAndGet();
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                        "retry, method: {}, attempt: {}, node: {} -> {}, backoff: {}ms, error: {}",
+                        this.method,
+                        attempt + 1,
+                        targetNode,
+                        nextNode,
+                        backoffMs,
+                        response.getErrorCode());
+            }
+            retryScheduler.schedule(
+                    () -> this.send(nextNode, attempt + 1), backoffMs, TimeUnit.MILLISECONDS);
+        }
+
+        // the request to the specified node is retried on it, the others on a node not failed yet
+        private String selectNextNode() {
+            if (!this.node.isEmpty() || !config.isFailover()) {
+                return this.node;
+            }
+            List<String> nodes = nodesSupplier.get();
+            if (Objects.isNull(nodes) || nodes.isEmpty()) {
+                return "";
+            }
+            int start = ThreadLocalRandom.current().nextInt(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                String candidate = nodes.get((start + i) % nodes.size());
+                if (!this.failedNodes.contains(candidate)) {
+                    return candidate;
+                }
+            }
+            // all the nodes failed, let the native sdk choose
+            return "";
+        }
+    }
+
+    private long getBackoffMs(int attempt) {
+        double backoffMs =
+                this.config.getInitialBackoffMs()
+                        * Math.pow(this.config.getBackoffMultiplier(), attempt - 1);
+        backoffMs = Math.min(backoffMs, this.config.getMaxBackoffMs());
+        double jitter = this.config.getJitterRatio() * ThreadLocalRandom.current().nextDouble();
+        return Math.max(0, (long) (backoffMs * (1 - jitter)));
+    }
+
+    private synchronized void addBudget() {
+        this.retryBudget =
+                Math.min(
+                        this.config.getMaxRetryBurst(),
+                        this.retryBudget + this.config.getMaxRetryRatio());
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (this.retryBudget < 1) {
+            return false;
+        }
+        this.retryBudget -= 1;
+        return true;
+    }
+
+    /** @return the requests of the methods to retry */
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    /** @return the attempts sent, including the first ones */
+    public long getAttemptCount() {
+        return this.attemptCount.get();
+    }
+
+    public long getRetryCount() {
+        return this.retryCount.get();
+    }
+
+    /**
+     * @param method the json rpc method
+     * @return the retries of the requests of the method
+     */
+    public long getRetryCount(String method) {
+        AtomicLong count = this.methodRetryCounts.get(method);
+        return Objects.isNull(count) ? 0 : count.get();
+    }
+
+    /** @return the retries sent to another node */
+    public long getFailoverCount() {
+        return this.failoverCount.get();
+    }
+
+    /** @return the requests succeeded after the retries */
+    public long getRecoveredCount() {
+        return this.recoveredCount.get();
+    }
+
+    /** @return the requests failed after maxAttempts */
+    public long getAttemptsExhaustedCount() {
+        return this.attemptsExhaustedCount.get();
+    }
+
+    /** @return the retries not sent because the budget is exhausted */
+    public long getBudgetExhaustedCount() {
+        return this.budgetExhaustedCount.get();
+    }
+
+    /** @return the retries not sent because the request has taken maxElapsedMs */
+    public long getElapsedExceededCount() {
+        return this.elapsedExceededCount.get();
+    }
+
+    /**
+     * @param attempt the attempt, from 1 to maxAttempts
+     * @return the successful requests answered by the attempt
+     */
+    public long getSuccessCount(int attempt) {
+        if (attempt < 1 || attempt > this.successCountByAttempt.length()) {
+            return 0;
+        }
+        return this.successCountByAttempt.get(attempt - 1);
+    }
+
+    public RetryConfig getConfig() {
+        return this.config;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.fisco.bcos.sdk.v3.eventsub;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.model.EventLog;
+import org.fisco.bcos.sdk.v3.utils.DemandPublisher;
+import org.fisco.bcos.sdk.v3.utils.Flow;
+import org.fisco.bcos.sdk.v3.utils.PublisherConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publish the logs of an event subscription to the subscribers by their demand. The event is
+ * subscribed when the first subscriber is added and unsubscribed when the publisher is closed. The
+ * subscribers are completed once the logs to the toBlock are pushed, and fail with ClientException
+ * if the subscription fails.
+ */
+public class EventLogPublisher extends DemandPublisher<EventLog> {
+    private static final Logger logger = LoggerFactory.getLogger(EventLogPublisher.class);
+
+    private final EventSubscribe eventSubscribe;
+    private final EventSubParams params;
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+    // set once the node completes or fails the subscription, no need to unsubscribe it
+    private volatile boolean finished = false;
+    private volatile String eventSubId;
+
+    /**
+     * create the publisher of the event logs
+     *
+     * @param eventSubscribe the event subscribe to subscribe the event by
+     * @param params the params of the event
+     * @param config the overflow strategy and the buffer size of the subscribers
+     */
+    public EventLogPublisher(
+            EventSubscribe eventSubscribe, EventSubParams params, PublisherConfig config) {
+        super("event", config);
+        this.eventSubscribe = eventSubscribe;
+        this.params = params;
+    }
+
+    /**
+     * create the publisher of the event logs delivering the logs on the executor
+     *
+     * @param eventSubscribe the event subscribe to subscribe the event by
+     * @param params the params of the event
+     * @param config the overflow strategy and the buffer size of the subscribers
+     * @param executor the executor to call the subscribers
+     */
+    public EventLogPublisher(
+            EventSubscribe eventSubscribe,
+            EventSubParams params,
+            PublisherConfig config,
+            Executor executor) {
+        super("event", config, executor);
+        this.eventSubscribe = eventSubscribe;
+        this.params = params;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super EventLog> subscriber) {
+        super.subscribe(subscriber);
+        // subscribed after the first subscriber is added, so the first logs are not lost
+        if (!this.isClosed() && this.subscribed.compareAndSet(false, true)) {
+            this.eventSubId = this.eventSubscribe.subscribeEvent(this.params, this::onReceiveLog);
+            logger.info("subscribe event for publisher, eventSubId: {}", this.eventSubId);
+            // closed while subscribing
+            if (this.isClosed() && !this.finished) {
+                this.eventSubscribe.unsubscribeEvent(this.eventSubId);
+            }
+        }
+    }
+
+    private void onReceiveLog(String eventSubId, int status, List<EventLog> logs) {
+        if (Objects.nonNull(logs)) {
+            for (EventLog log : logs) {
+                this.publish(log);
+            }
+        }
+        if (status == EventSubStatus.SUCCESS.getStatus()) {
+            return;
+        }
+        this.finished = true;
+        if (status == EventSubStatus.PUSH_COMPLETED.getStatus()) {
+            this.close();
+            return;
+        }
+        String message = EventSubStatus.getDescMessage(status);
+        logger.warn(
+                "event subscription failed, eventSubId: {}, status: {}, message: {}",
+                eventSubId,
+                status,
+                message);
+        this.closeExceptionally(
+                new ClientException(
+                        status,
+                        message,
+                        "event subscription failed, status: " + status + ", message: " + message));
+    }
+
+    @Override
+    public void closeExceptionally(Throwable error) {
+        if (this.isClosed()) {
+            return;
+        }
+        super.closeExceptionally(error);
+        if (!this.finished && Objects.nonNull(this.eventSubId)) {
+            this.eventSubscribe.unsubscribeEvent(this.eventSubId);
+        }
+    }
+
+    public String getEventSubId() {
+        return this.eventSubId;
+    }
+}
@@ -16,9 +16,11 @@
 package org.fisco.bcos.sdk.v3.eventsub;
 
 import java.util.Set;
+import java.util.concurrent.Executor;
 import org.fisco.bcos.sdk.jni.common.JniException;
 import org.fisco.bcos.sdk.v3.client.Client;
 import org.fisco.bcos.sdk.v3.config.ConfigOption;
+import org.fisco.bcos.sdk.v3.utils.PublisherConfig;
 
 /**
  * Event subscribe interface.
@@ -57,6 +59,33 @@ public interface EventSubscribe {
      */
     String subscribeEvent(EventSubParams params, EventSubCallback callback);
 
+    /**
+     * Create the publisher of the logs of the event, the logs are delivered to the subscribers by
+     * their demand instead of pushed to a callback. The event is subscribed by the first
+     * subscriber.
+     *
+     * @param params the EventLogParams instance
+     * @param config the overflow strategy of the slow subscribers
+     * @return the publisher, close it to unsubscribe the event
+     */
+    default EventLogPublisher createEventPublisher(EventSubParams params, PublisherConfig config) {
+        return new EventLogPublisher(this, params, config);
+    }
+
+    /**
+     * Create the publisher of the logs of the event, delivering the logs to the subscribers on the
+     * given executor.
+     *
+     * @param params the EventLogParams instance
+     * @param config the overflow strategy of the slow subscribers
+     * @param executor the executor to call the subscribers
+     * @return the publisher, close it to unsubscribe the event
+     */
+    default EventLogPublisher createEventPublisher(
+            EventSubParams params, PublisherConfig config, Executor executor) {
+        return new EventLogPublisher(this, params, config, executor);
+    }
+
     /**
      * Unsubscribe events
      *
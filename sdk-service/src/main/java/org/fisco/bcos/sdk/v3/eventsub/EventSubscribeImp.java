@@ -17,13 +17,20 @@ package org.fisco.bcos.sdk.v3.eventsub;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 import java.util.Set;
 import org.fisco.bcos.sdk.jni.BcosSDKJniObj;
 import org.fisco.bcos.sdk.jni.common.JniException;
+import org.fisco.bcos.sdk.jni.common.Response;
 import org.fisco.bcos.sdk.jni.event.EventSubJniObj;
 import org.fisco.bcos.sdk.v3.client.Client;
 import org.fisco.bcos.sdk.v3.config.ConfigOption;
+import org.fisco.bcos.sdk.v3.config.model.ThreadPoolConfig;
 import org.fisco.bcos.sdk.v3.crypto.CryptoSuite;
+import org.fisco.bcos.sdk.v3.utils.CallbackDispatcher;
 import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,8 +43,12 @@ public class EventSubscribeImp implements EventSubscribe {
     private ConfigOption configOption;
     private CryptoSuite cryptoSuite;
     private EventSubJniObj eventSubJniObj;
+    // the logs of a subscription are passed to its callback in order
+    private CallbackDispatcher callbackDispatcher;
 
     private ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final ObjectReader eventSubResponseReader =
+            ObjectMapperFactory.getObjectReader(EventSubResponse.class);
 
     public EventSubscribeImp(Client client, ConfigOption configOption) throws JniException {
         this.groupId = client.getGroup();
@@ -45,6 +56,15 @@ public class EventSubscribeImp implements EventSubscribe {
         this.cryptoSuite = client.getCryptoSuite();
         this.eventSubJniObj = EventSubJniObj.build(client.getNativePointer());
         this.configOption = client.getConfigOption();
+        ThreadPoolConfig threadPoolConfig =
+                Objects.isNull(this.configOption) ? null : this.configOption.getThreadPoolConfig();
+        this.callbackDispatcher =
+                Objects.isNull(threadPoolConfig)
+                        ? CallbackDispatcher.inline("event")
+                        : CallbackDispatcher.create(
+                                "event",
+                                threadPoolConfig,
+                                threadPoolConfig.getEventCallbackPoolSize());
 
         logger.info(" EventSub constructor, group: {}, configOption: {}", groupId, configOption);
     }
@@ -65,6 +85,21 @@ public class EventSubscribeImp implements EventSubscribe {
         this.groupId = groupId;
     }
 
+    /** @return the dispatcher calling the callbacks of the subscriptions, to get the stats */
+    public CallbackDispatcher getCallbackDispatcher() {
+        return callbackDispatcher;
+    }
+
+    /**
+     * call the callbacks of the subscriptions by the dispatcher, e.g. on the executor of the
+     * application, the logs of a subscription are still passed in order
+     *
+     * @param callbackDispatcher the dispatcher
+     */
+    public void setCallbackDispatcher(CallbackDispatcher callbackDispatcher) {
+        this.callbackDispatcher = callbackDispatcher;
+    }
+
     public ConfigOption getConfigOption() {
         return configOption;
     }
@@ -94,40 +129,42 @@ public class EventSubscribeImp implements EventSubscribe {
         return eventSubJniObj.subscribeEvent(
                 groupId,
                 strParams,
-                (response) -> {
-                    {
-                        if (response.getErrorCode() != 0) {
-                            logger.error(
-                                    "subscribeEvent response error, errorCode: {}, errorMessage: {}",
-                                    response.getErrorCode(),
-                                    response.getErrorMessage());
-                            callback.onReceiveLog("", response.getErrorCode(), null);
-                            return;
-                        }
-
-                        String strResp = new String(response.getData());
-                        logger.debug(
-                                "subscribeEvent response, errorCode: {}, errorMessage: {}, data: {}",
-                                response.getErrorCode(),
-                                response.getErrorMessage(),
-                                strResp);
-
-                        ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
-                        try {
-                            EventSubResponse eventSubResponse =
-                                    objectMapper.readValue(strResp, EventSubResponse.class);
-                            callback.onReceiveLog(
-                                    eventSubResponse.getId(),
-                                    eventSubResponse.getStatus(),
-                                    eventSubResponse.getLogs());
-                        } catch (JsonProcessingException e) {
-                            logger.error(
-                                    "subscribeEvent response parser json error, resp: {}, e: {}",
-                                    strResp,
-                                    e);
-                        }
-                    }
-                });
+                (response) ->
+                        callbackDispatcher.dispatch(callback, () -> onEvent(response, callback)));
+    }
+
+    private void onEvent(Response response, EventSubCallback callback) {
+        if (response.getErrorCode() != 0) {
+            logger.error(
+                    "subscribeEvent response error, errorCode: {}, errorMessage: {}",
+                    response.getErrorCode(),
+                    response.getErrorMessage());
+            callback.onReceiveLog("", response.getErrorCode(), null);
+            return;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    "subscribeEvent response, errorCode: {}, errorMessage: {}, data: {}",
+                    response.getErrorCode(),
+                    response.getErrorMessage(),
+                    new String(response.getData(), StandardCharsets.UTF_8));
+        }
+
+        try {
+            // parse the bytes directly, without the String copy
+            EventSubResponse eventSubResponse =
+                    eventSubResponseReader.readValue(response.getData());
+            callback.onReceiveLog(
+                    eventSubResponse.getId(),
+                    eventSubResponse.getStatus(),
+                    eventSubResponse.getLogs());
+        } catch (IOException e) {
+            logger.error(
+                    "subscribeEvent response parser json error, resp: {}, e: {}",
+                    new String(response.getData(), StandardCharsets.UTF_8),
+                    e);
+        }
     }
 
     @Override
@@ -0,0 +1,249 @@
+/**
+ * Copyright 2014-2020 [fisco-dev]
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientTimeoutException;
+import org.fisco.bcos.sdk.v3.client.protocol.request.BatchRequest;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BatchResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BlockNumber;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchRequestTest {
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    /** a local node answering the json rpc requests and batches */
+    private static class StubNode implements RpcTransport {
+        private final boolean supportBatch;
+        private final AtomicInteger requestCount = new AtomicInteger(0);
+
+        StubNode(boolean supportBatch) {
+            this.supportBatch = supportBatch;
+        }
+
+        @Override
+        public void sendRequest(
+                String groupID,
+                String node,
+                String request,
+                ResponseCallback callback) {
+            requestCount.incrementAndGet();
+            Response response = new Response();
+            response.setErrorCode(0);
+            try {
+                JsonNode root = objectMapper.readTree(request);
+                JsonNode result;
+                if (root.isArray() && supportBatch) {
+                    ArrayNode array = objectMapper.createArrayNode();
+                    // answer in the reverse order
+                    for (int i = root.size() - 1; i >= 0; i--) {
+                        array.add(answer(root.get(i)));
+                    }
+                    result = array;
+                } else if (root.isArray()) {
+                    ObjectNode error = objectMapper.createObjectNode();
+                    error.put("jsonrpc", "2.0");
+                    error.put("id", 0);
+                    error.putObject("error").put("code", -32600).put("message", "Invalid");
+                    result = error;
+                } else {
+                    result = answer(root);
+                }
+                response.setContent(objectMapper.writeValueAsBytes(result));
+            } catch (Exception e) {
+                response.setErrorCode(-1);
+                response.setErrorMessage(e.getMessage());
+            }
+            callback.onResponse(response);
+        }
+
+        private ObjectNode answer(JsonNode request) {
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("jsonrpc", "2.0");
+            response.put("id", request.get("id").asLong());
+            String method = request.get("method").asText();
+            if (method.equals("getBlockNumber")) {
+                response.put("result", "0x10");
+            } else if (request.get("params").get(2).asText().equals("0xbad")) {
+                response.putObject("error").put("code", -32602).put("message", "no receipt");
+            } else {
+                ObjectNode receipt = response.putObject("result");
+                receipt.put("transactionHash", request.get("params").get(2).asText());
+                receipt.put("status", 0);
+            }
+            return response;
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        StubNode stubNode = new StubNode(true);
+        BatchResponse response =
+                new BatchRequest("group0", stubNode, new AtomicBoolean(true))
+                        .getBlockNumber()
+                        .getTransactionReceipt("0x01", false)
+                        .getTransactionReceipt("0xbad", false)
+                        .getTransactionReceipt("0x02", false)
+                        .send();
+
+        Assert.assertEquals(1, stubNode.requestCount.get());
+        Assert.assertTrue(response.isBatched());
+        Assert.assertEquals(4, response.size());
+        Assert.assertEquals(
+                BigInteger.valueOf(16), response.get(0, BlockNumber.class).getBlockNumber());
+        Assert.assertEquals(
+                "0x01",
+                response.get(1, BcosTransactionReceipt.class)
+                        .getTransactionReceipt()
+                        .getTransactionHash());
+        Assert.assertTrue(response.hasError(2));
+        Assert.assertEquals(-32602, response.getError(2).getCode());
+        Assert.assertEquals(
+                "0x02",
+                response.get(3, BcosTransactionReceipt.class)
+                        .getTransactionReceipt()
+                        .getTransactionHash());
+    }
+
+    @Test
+    public void testFallbackToSingleRequests() {
+        StubNode stubNode = new StubNode(false);
+        AtomicBoolean batchSupported = new AtomicBoolean(true);
+        BatchResponse response =
+                new BatchRequest("group0", stubNode, batchSupported)
+                        .getTransactionReceipt("0x01", false)
+                        .getTransactionReceipt("0x02", false)
+                        .send();
+        Assert.assertFalse(batchSupported.get());
+        Assert.assertFalse(response.isBatched());
+        // the rejected batch and the two single requests
+        Assert.assertEquals(3, stubNode.requestCount.get());
+        Assert.assertEquals(
+                "0x02",
+                response.get(1, BcosTransactionReceipt.class)
+                        .getTransactionReceipt()
+                        .getTransactionHash());
+
+        // the following batches are sent one by one directly
+        new BatchRequest("group0", stubNode, batchSupported).getBlockNumber().send();
+        Assert.assertEquals(4, stubNode.requestCount.get());
+    }
+
+    @Test
+    public void testTransportError() {
+        RpcTransport brokenTransport =
+                (groupID, node, request, callback) -> {
+                    Response response = new Response();
+                    response.setErrorCode(-1);
+                    response.setErrorMessage("connection closed");
+                    callback.onResponse(response);
+                };
+        BatchResponse response =
+                new BatchRequest("group0", brokenTransport, new AtomicBoolean(true))
+                        .getBlockNumber()
+                        .getPendingTxSize()
+                        .send();
+        Assert.assertEquals(2, response.size());
+        Assert.assertEquals(-1, response.getError(0).getCode());
+        Assert.assertEquals("connection closed", response.getError(1).getMessage());
+    }
+
+    @Test
+    public void testBatchRejectedByTransportError() {
+        StubNode stubNode = new StubNode(true);
+        AtomicBoolean rejectBatch = new AtomicBoolean(true);
+        // the node rejecting the array envelope by the transport error
+        RpcTransport transport =
+                (groupID, node, request, callback) -> {
+                    if (request.startsWith("[") && rejectBatch.get()) {
+                        Response response = new Response();
+                        response.setErrorCode(-1);
+                        response.setErrorMessage("invalid request");
+                        callback.onResponse(response);
+                        return;
+                    }
+                    stubNode.sendRequest(groupID, node, request, callback);
+                };
+        AtomicBoolean batchSupported = new AtomicBoolean(true);
+        BatchResponse response =
+                new BatchRequest("group0", transport, batchSupported)
+                        .getBlockNumber()
+                        .getTransactionReceipt("0x01", false)
+                        .send();
+        Assert.assertFalse(batchSupported.get());
+        Assert.assertFalse(response.isBatched());
+        Assert.assertFalse(response.hasError(0));
+        Assert.assertEquals(
+                "0x01",
+                response.get(1, BcosTransactionReceipt.class)
+                        .getTransactionReceipt()
+                        .getTransactionHash());
+
+        // the error is returned once the node answered a batch
+        batchSupported.set(true);
+        AtomicBoolean batchConfirmed = new AtomicBoolean(false);
+        rejectBatch.set(false);
+        new BatchRequest("group0", transport, batchSupported, batchConfirmed)
+                .getBlockNumber()
+                .send();
+        Assert.assertTrue(batchConfirmed.get());
+        rejectBatch.set(true);
+        response =
+                new BatchRequest("group0", transport, batchSupported, batchConfirmed)
+                        .getBlockNumber()
+                        .send();
+        Assert.assertTrue(batchSupported.get());
+        Assert.assertTrue(response.isBatched());
+        Assert.assertEquals("invalid request", response.getError(0).getMessage());
+    }
+
+    @Test
+    public void testTimeout() {
+        AtomicReference<ResponseCallback> pending = new AtomicReference<>();
+        // a hung node never answering in time
+        RpcTransport hungTransport = (groupID, node, request, callback) -> pending.set(callback);
+        try {
+            new BatchRequest("group0", hungTransport, new AtomicBoolean(true))
+                    .node("node0")
+                    .timeout(100)
+                    .getBlockNumber()
+                    .send();
+            Assert.fail("the batch must time out");
+        } catch (ClientTimeoutException e) {
+            Assert.assertEquals("batch(1)", e.getMethod());
+            Assert.assertEquals("node0", e.getNode());
+            Assert.assertEquals(100, e.getTimeoutMs());
+            Assert.assertTrue(e.getElapsedMs() >= 100);
+        }
+
+        // the late response is discarded
+        Response response = new Response();
+        response.setErrorCode(-1);
+        response.setErrorMessage("late");
+        pending.get().onResponse(response);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.BlockLimitTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockLimitTrackerTest {
+    private final AtomicLong nodeBlockNumber = new AtomicLong(100);
+    private final AtomicLong fetchCount = new AtomicLong(0);
+
+    private CompletableFuture<BigInteger> fetchBlockNumber() {
+        fetchCount.incrementAndGet();
+        return CompletableFuture.completedFuture(BigInteger.valueOf(nodeBlockNumber.get()));
+    }
+
+    @Test
+    public void testNotification() {
+        BlockLimitTracker tracker =
+                new BlockLimitTracker("group0", this::fetchBlockNumber, 500, 60000);
+        Assert.assertEquals(-1, tracker.getBlockLimit());
+        tracker.onResponse("group0", BigInteger.valueOf(10));
+        Assert.assertEquals(510, tracker.getBlockLimit());
+        // the block number never goes backwards
+        tracker.onResponse("group0", BigInteger.valueOf(9));
+        Assert.assertEquals(510, tracker.getBlockLimit());
+        // the notification of other group is ignored
+        tracker.onResponse("group1", BigInteger.valueOf(20));
+        Assert.assertEquals(10, tracker.getBlockNumber());
+        Assert.assertEquals(2, tracker.getNotifyCount());
+        Assert.assertEquals(0, fetchCount.get());
+    }
+
+    @Test
+    public void testRefreshWithoutNotification() throws Exception {
+        BlockLimitTracker tracker =
+                new BlockLimitTracker("group0", this::fetchBlockNumber, 500, 20);
+        tracker.start();
+        try {
+            for (int i = 0; i < 100 && tracker.getBlockNumber() < 100; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(600, tracker.getBlockLimit());
+            // the block limit doesn't drift
+            nodeBlockNumber.set(150);
+            for (int i = 0; i < 100 && tracker.getBlockNumber() < 150; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(650, tracker.getBlockLimit());
+        } finally {
+            tracker.stop();
+        }
+    }
+
+    @Test
+    public void testRefreshFailed() {
+        BlockLimitTracker tracker =
+                new BlockLimitTracker(
+                        "group0",
+                        () -> {
+                            CompletableFuture<BigInteger> future = new CompletableFuture<>();
+                            future.completeExceptionally(new RuntimeException("node down"));
+                            return future;
+                        },
+                        500,
+                        60000);
+        tracker.update(10);
+        tracker.refresh();
+        Assert.assertEquals(1, tracker.getRefreshFailedCount());
+        Assert.assertEquals(510, tracker.getBlockLimit());
+    }
+
+    @Test
+    public void testNotStoppedTrackerCollected() throws Exception {
+        BlockLimitTracker tracker =
+                new BlockLimitTracker("group0", this::fetchBlockNumber, 500, 10);
+        tracker.start();
+        WeakReference<BlockLimitTracker> reference = new WeakReference<>(tracker);
+        tracker = null;
+        // the refresh task of the shared scheduler doesn't keep the tracker not stopped
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(reference.get());
+    }
+}
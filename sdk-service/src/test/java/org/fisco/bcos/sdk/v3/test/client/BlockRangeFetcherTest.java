@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.fetcher.BlockRangeFetcher;
+import org.fisco.bcos.sdk.v3.client.fetcher.BlockRangeFetcherConfig;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockRangeFetcherTest {
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private final AtomicLong requestedMax = new AtomicLong(-1);
+    private volatile double failureRatio = 0;
+    private volatile long failedBlockNumber = -1;
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    // a node answering after a random delay, failing randomly
+    private CompletableFuture<BcosBlock.Block> fetchBlock(long blockNumber) {
+        requestedMax.accumulateAndGet(blockNumber, Math::max);
+        CompletableFuture<BcosBlock.Block> future = new CompletableFuture<>();
+        boolean fail =
+                blockNumber == failedBlockNumber
+                        || ThreadLocalRandom.current().nextDouble() < failureRatio;
+        scheduler.schedule(
+                () -> {
+                    if (fail) {
+                        future.completeExceptionally(new ClientException("injected failure"));
+                        return;
+                    }
+                    BcosBlock.Block block = new BcosBlock.Block();
+                    block.setNumber(blockNumber);
+                    List<BcosBlock.TransactionResult> transactions = new ArrayList<>();
+                    transactions.add(new BcosBlock.TransactionHash("0x" + blockNumber));
+                    block.setTransactions(transactions);
+                    future.complete(block);
+                },
+                ThreadLocalRandom.current().nextInt(5),
+                TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private CompletableFuture<TransactionReceipt> fetchReceipt(String transactionHash) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(transactionHash);
+        return CompletableFuture.completedFuture(receipt);
+    }
+
+    private BlockRangeFetcherConfig newConfig() {
+        BlockRangeFetcherConfig config = new BlockRangeFetcherConfig();
+        config.setMaxBufferedBlocks(32);
+        config.setRetryBackoffMs(1);
+        return config;
+    }
+
+    @Test
+    public void testFetchInOrder() throws Exception {
+        failureRatio = 0.05;
+        BlockRangeFetcherConfig config = newConfig();
+        config.setFetchReceipts(true);
+        BlockRangeFetcher fetcher =
+                new BlockRangeFetcher(this::fetchBlock, this::fetchReceipt, config);
+        List<Long> delivered = Collections.synchronizedList(new ArrayList<>());
+        Long last =
+                fetcher.fetch(
+                                1,
+                                1000,
+                                fetchedBlock -> {
+                                    long blockNumber = fetchedBlock.getBlockNumber();
+                                    // the requests never run ahead of the buffer bound
+                                    Assert.assertTrue(
+                                            requestedMax.get() - blockNumber
+                                                    < config.getMaxBufferedBlocks());
+                                    Assert.assertEquals(
+                                            blockNumber, fetchedBlock.getBlock().getNumber());
+                                    Assert.assertEquals(
+                                            "0x" + blockNumber,
+                                            fetchedBlock
+                                                    .getReceipts()
+                                                    .get(0)
+                                                    .getTransactionHash());
+                                    delivered.add(blockNumber);
+                                })
+                        .get(30, TimeUnit.SECONDS);
+        Assert.assertEquals(1000, last.longValue());
+        Assert.assertEquals(1000, delivered.size());
+        for (int i = 0; i < delivered.size(); i++) {
+            Assert.assertEquals(i + 1, delivered.get(i).longValue());
+        }
+        Assert.assertEquals(1000, fetcher.getDeliveredCount());
+        Assert.assertTrue(fetcher.getMaxBufferedCount() <= config.getMaxBufferedBlocks());
+        Assert.assertTrue(fetcher.getConcurrency() >= config.getMinConcurrency());
+        Assert.assertTrue(fetcher.getConcurrency() <= config.getMaxConcurrency());
+        Assert.assertFalse(fetcher.isRunning());
+    }
+
+    @Test
+    public void testResumeAfterFailure() throws Exception {
+        failedBlockNumber = 300;
+        BlockRangeFetcher fetcher =
+                new BlockRangeFetcher(this::fetchBlock, this::fetchReceipt, newConfig());
+        List<Long> delivered = Collections.synchronizedList(new ArrayList<>());
+        try {
+            fetcher.fetch(1, 500, fetchedBlock -> delivered.add(fetchedBlock.getBlockNumber()))
+                    .get(30, TimeUnit.SECONDS);
+            Assert.fail("the fetch must fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ClientException);
+        }
+        Assert.assertEquals(300, fetcher.getNextBlockNumber());
+        Assert.assertEquals(299, delivered.size());
+        Assert.assertEquals(newConfig().getMaxRetries(), fetcher.getRetryCount());
+
+        // the node recovers, resume from the failed block
+        failedBlockNumber = -1;
+        fetcher.fetch(
+                        fetcher.getNextBlockNumber(),
+                        500,
+                        fetchedBlock -> delivered.add(fetchedBlock.getBlockNumber()))
+                .get(30, TimeUnit.SECONDS);
+        Assert.assertEquals(500, delivered.size());
+        for (int i = 0; i < delivered.size(); i++) {
+            Assert.assertEquals(i + 1, delivered.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testConsumerFailure() throws Exception {
+        BlockRangeFetcher fetcher =
+                new BlockRangeFetcher(this::fetchBlock, this::fetchReceipt, newConfig());
+        CompletableFuture<Long> future =
+                fetcher.fetch(
+                        1,
+                        100,
+                        fetchedBlock -> {
+                            if (fetchedBlock.getBlockNumber() == 50) {
+                                throw new IllegalStateException("consumer failure");
+                            }
+                        });
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            Assert.fail("the fetch must fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ClientException);
+        }
+        Assert.assertEquals(50, fetcher.getNextBlockNumber());
+        Assert.assertEquals(49, fetcher.getDeliveredCount());
+    }
+
+    @Test
+    public void testPreviousFetchCompletionsIgnored() throws Exception {
+        // the requests answered by the test, in the order sent
+        List<Map.Entry<Long, CompletableFuture<BcosBlock.Block>>> requests =
+                new CopyOnWriteArrayList<>();
+        BlockRangeFetcherConfig config = newConfig();
+        config.setInitialConcurrency(4);
+        config.setMinConcurrency(4);
+        config.setMaxConcurrency(4);
+        config.setMaxRetries(0);
+        BlockRangeFetcher fetcher =
+                new BlockRangeFetcher(
+                        blockNumber -> {
+                            CompletableFuture<BcosBlock.Block> future = new CompletableFuture<>();
+                            requests.add(new AbstractMap.SimpleEntry<>(blockNumber, future));
+                            return future;
+                        },
+                        this::fetchReceipt,
+                        config);
+        List<Long> delivered = new CopyOnWriteArrayList<>();
+        CompletableFuture<Long> failed =
+                fetcher.fetch(1, 10, fetchedBlock -> delivered.add(-1L));
+        Assert.assertEquals(4, requests.size());
+        requests.get(0).getValue().completeExceptionally(new ClientException("injected"));
+        Assert.assertTrue(failed.isCompletedExceptionally());
+
+        CompletableFuture<Long> resumed =
+                fetcher.fetch(
+                        fetcher.getNextBlockNumber(),
+                        10,
+                        fetchedBlock -> delivered.add(fetchedBlock.getBlockNumber()));
+        Assert.assertEquals(8, requests.size());
+        // the late responses of the failed fetch neither take slots nor deliver blocks
+        for (int i = 1; i < 4; i++) {
+            requests.get(i).getValue().complete(newBlock(requests.get(i).getKey()));
+        }
+        Assert.assertEquals(8, requests.size());
+        Assert.assertTrue(delivered.isEmpty());
+
+        for (int i = 4; i < requests.size(); i++) {
+            requests.get(i).getValue().complete(newBlock(requests.get(i).getKey()));
+            // never more requests in flight than the concurrency
+            Assert.assertTrue(requests.size() - i - 1 <= 4);
+        }
+        Assert.assertEquals(10, resumed.get(5, TimeUnit.SECONDS).longValue());
+        Assert.assertEquals(10, delivered.size());
+        for (int i = 0; i < delivered.size(); i++) {
+            Assert.assertEquals(i + 1, delivered.get(i).longValue());
+        }
+        Assert.assertEquals(10, fetcher.getDeliveredCount());
+        Assert.assertEquals(0, fetcher.getRetryCount());
+    }
+
+    private static BcosBlock.Block newBlock(long blockNumber) {
+        BcosBlock.Block block = new BcosBlock.Block();
+        block.setNumber(blockNumber);
+        return block;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcRequest;
+import org.fisco.bcos.sdk.v3.client.transport.CachingRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.ResponseCacheConfig;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachingRpcTransportTest {
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    /** a node counting the requests, the receipts of the hashes starting with 0xp are pending */
+    private static class CountingNode implements RpcTransport {
+        private final AtomicInteger requestCount = new AtomicInteger(0);
+
+        @Override
+        public void sendRequest(
+                String groupID, String node, String request, ResponseCallback callback) {
+            requestCount.incrementAndGet();
+            Response response = new Response();
+            response.setErrorCode(0);
+            try {
+                JsonNode root = objectMapper.readTree(request);
+                ObjectNode result = objectMapper.createObjectNode();
+                result.put("jsonrpc", "2.0");
+                result.put("id", root.get("id").asLong());
+                String param = root.get("params").get(2).asText();
+                if (param.startsWith("0xp")) {
+                    result.putNull("result");
+                } else if (param.startsWith("0xe")) {
+                    result.putObject("error").put("code", -1).put("message", "error");
+                } else if (root.get("method").asText().equals(JsonRpcMethods.GET_CODE)) {
+                    result.put("result", param.startsWith("0x0") ? "" : "0x6080");
+                } else {
+                    result.putObject("result").put("transactionHash", param);
+                }
+                response.setContent(objectMapper.writeValueAsBytes(result));
+            } catch (Exception e) {
+                response.setErrorCode(-1);
+                response.setErrorMessage(e.getMessage());
+            }
+            callback.onResponse(response);
+        }
+    }
+
+    private JsonNode send(RpcTransport transport, String method, String param) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest(method, Arrays.asList("group0", "", param));
+        AtomicReference<Response> result = new AtomicReference<>();
+        transport.sendRequest(
+                "group0",
+                "",
+                method,
+                objectMapper.writeValueAsString(request),
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        result.set(response);
+                    }
+                });
+        return objectMapper.readTree(result.get().getContent());
+    }
+
+    @Test
+    public void testReadThrough() throws Exception {
+        CountingNode node = new CountingNode();
+        CachingRpcTransport transport = new CachingRpcTransport(node, new ResponseCacheConfig());
+        for (int i = 0; i < 10; i++) {
+            JsonNode receipt = send(transport, JsonRpcMethods.GET_TRANSACTIONRECEIPT, "0x01");
+            Assert.assertEquals("0x01", receipt.get("result").get("transactionHash").asText());
+        }
+        send(transport, JsonRpcMethods.GET_CODE, "0x1234");
+        send(transport, JsonRpcMethods.GET_CODE, "0x1234");
+
+        Assert.assertEquals(2, node.requestCount.get());
+        Assert.assertEquals(10, transport.getHitCount());
+        Assert.assertEquals(
+                0.9, transport.getHitRatio(JsonRpcMethods.GET_TRANSACTIONRECEIPT), 1e-9);
+        Assert.assertEquals(0.5, transport.getHitRatio(JsonRpcMethods.GET_CODE), 1e-9);
+        Assert.assertEquals(2, transport.getEntryCount());
+    }
+
+    @Test
+    public void testNotCached() throws Exception {
+        CountingNode node = new CountingNode();
+        ResponseCacheConfig config = new ResponseCacheConfig();
+        // call is not immutable, it is ignored
+        config.setMethods(
+                new HashSet<>(Arrays.asList(JsonRpcMethods.GET_CODE, JsonRpcMethods.CALL)));
+        CachingRpcTransport transport = new CachingRpcTransport(node, config);
+        for (int i = 0; i < 3; i++) {
+            // the pending receipt, the error, the unknown address and the disabled methods
+            send(transport, JsonRpcMethods.GET_TRANSACTIONRECEIPT, "0x01");
+            send(transport, JsonRpcMethods.CALL, "0x01");
+            send(transport, JsonRpcMethods.GET_CODE, "0xpending");
+            send(transport, JsonRpcMethods.GET_CODE, "0xerror");
+            send(transport, JsonRpcMethods.GET_CODE, "0x0000");
+        }
+        Assert.assertEquals(15, node.requestCount.get());
+        Assert.assertEquals(0, transport.getHitCount());
+        Assert.assertEquals(9, transport.getUncacheableCount());
+        Assert.assertEquals(0, transport.getEntryCount());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        CountingNode node = new CountingNode();
+        ResponseCacheConfig config = new ResponseCacheConfig();
+        config.setMethods(Collections.singleton(JsonRpcMethods.GET_TRANSACTIONRECEIPT));
+        config.setMaxEntries(3);
+        CachingRpcTransport transport = new CachingRpcTransport(node, config);
+        for (int i = 0; i < 5; i++) {
+            send(transport, JsonRpcMethods.GET_TRANSACTIONRECEIPT, "0x0" + i);
+        }
+        Assert.assertEquals(3, transport.getEntryCount());
+        Assert.assertEquals(2, transport.getEvictionCount());
+        // the least recently used one is evicted
+        send(transport, JsonRpcMethods.GET_TRANSACTIONRECEIPT, "0x00");
+        Assert.assertEquals(6, node.requestCount.get());
+
+        // bounded by the weight
+        config.setMaxEntries(100);
+        config.setMaxWeightBytes(transport.getWeightBytes() / 3 * 2);
+        CachingRpcTransport weighted = new CachingRpcTransport(node, config);
+        for (int i = 0; i < 3; i++) {
+            send(weighted, JsonRpcMethods.GET_TRANSACTIONRECEIPT, "0x0" + i);
+        }
+        Assert.assertEquals(2, weighted.getEntryCount());
+        Assert.assertTrue(weighted.getWeightBytes() <= config.getMaxWeightBytes());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.client.ClientFutures;
+import org.fisco.bcos.sdk.v3.client.ClientImpl;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BlockNumber;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientFuturesTest {
+    // the nodes and the callbacks of the requests, answered by the test
+    private final List<String> nodes = new CopyOnWriteArrayList<>();
+    private final List<ResponseCallback> callbacks = new CopyOnWriteArrayList<>();
+
+    private final RpcTransport node =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    nodes.add(node);
+                    callbacks.add(callback);
+                }
+            };
+
+    /** the client sending the requests by the transport, without the native sdk */
+    private static class TestClient extends ClientImpl {
+        TestClient(RpcTransport rpcTransport) {
+            super("group0", null, rpcTransport);
+        }
+    }
+
+    private void answer(int index, int errorCode, String content) {
+        Response response = new Response();
+        response.setErrorCode(errorCode);
+        response.setErrorMessage(errorCode == 0 ? "" : "node error");
+        response.setContent(content.getBytes());
+        callbacks.get(index).onResponse(response);
+    }
+
+    private static ClientException failure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ClientException);
+            return (ClientException) e.getCause();
+        }
+        Assert.fail();
+        return null;
+    }
+
+    @Test
+    public void testCompletion() throws Exception {
+        TestClient client = new TestClient(node);
+        CompletableFuture<BlockNumber> future = client.getBlockNumberAsync();
+        // completed by the response, not by a thread waiting for it
+        Assert.assertFalse(future.isDone());
+        answer(0, 0, "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":100}");
+        Assert.assertEquals(100, future.get(1, TimeUnit.SECONDS).getBlockNumber().longValue());
+        Assert.assertEquals("", nodes.get(0));
+
+        // the future of a request sent to a node
+        CompletableFuture<BlockNumber> nodeFuture =
+                ClientFutures.of(callback -> client.getBlockNumberAsync("node1", callback));
+        answer(1, 0, "{\"id\":2,\"jsonrpc\":\"2.0\",\"result\":101}");
+        Assert.assertEquals(101, nodeFuture.get(1, TimeUnit.SECONDS).getBlockNumber().longValue());
+        Assert.assertEquals("node1", nodes.get(1));
+    }
+
+    @Test
+    public void testErrorMapping() throws Exception {
+        TestClient client = new TestClient(node);
+        CompletableFuture<BlockNumber> rpcError = client.getBlockNumberAsync();
+        answer(
+                0,
+                0,
+                "{\"id\":1,\"jsonrpc\":\"2.0\","
+                        + "\"error\":{\"code\":-32602,\"message\":\"invalid params\"}}");
+        ClientException exception = failure(rpcError);
+        Assert.assertEquals(-32602, exception.getErrorCode());
+        Assert.assertEquals("invalid params", exception.getErrorMessage());
+
+        CompletableFuture<BlockNumber> transportError = client.getBlockNumberAsync();
+        answer(1, -1, "");
+        exception = failure(transportError);
+        Assert.assertEquals(-1, exception.getErrorCode());
+        Assert.assertEquals("node error", exception.getErrorMessage());
+
+        // the exception thrown by the call fails the future
+        CompletableFuture<BlockNumber> thrown =
+                ClientFutures.of(
+                        callback -> {
+                            throw new ClientException("send failed");
+                        });
+        Assert.assertEquals("send failed", failure(thrown).getMessage());
+    }
+
+    @Test
+    public void testSendTransaction() throws Exception {
+        TestClient client = new TestClient(node);
+        CompletableFuture<TransactionReceipt> future = client.sendTransactionAsync("0x1", false);
+        Assert.assertFalse(future.isDone());
+        answer(0, 0, "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":{\"transactionHash\":\"0xa\"}}");
+        Assert.assertEquals("0xa", future.get(1, TimeUnit.SECONDS).getTransactionHash());
+
+        // the error is received as the receipt with the status, as the TransactionCallback does
+        CompletableFuture<TransactionReceipt> failed = client.sendTransactionAsync("0x2", false);
+        answer(1, -1, "");
+        TransactionReceipt receipt = failed.get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(-1, receipt.getStatus());
+        Assert.assertEquals("node error", receipt.getMessage());
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.client.ClientImpl;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientTimeoutException;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetricsListener;
+import org.fisco.bcos.sdk.v3.client.transport.CachingRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.ResponseCacheConfig;
+import org.fisco.bcos.sdk.v3.client.transport.RetryConfig;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientImplTest {
+    private final List<String> sentRequests = new CopyOnWriteArrayList<>();
+
+    // answer every request with the block number 100
+    private final RpcTransport node =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    sentRequests.add(request);
+                    Response response = new Response();
+                    response.setErrorCode(0);
+                    response.setContent("{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":100}".getBytes());
+                    callback.onResponse(response);
+                }
+            };
+
+    // never answers, the callbacks are kept to answer after the requests timed out
+    private final List<ResponseCallback> pendingCallbacks = new CopyOnWriteArrayList<>();
+    private final RpcTransport silentNode =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    pendingCallbacks.add(callback);
+                }
+            };
+
+    /** the client sending the requests by the transport, without the native sdk */
+    static class TestClient extends ClientImpl {
+        TestClient(RpcTransport rpcTransport) {
+            super("group0", null, rpcTransport);
+        }
+    }
+
+    /** count the requests reported by the metrics transport */
+    private static class CountingListener implements RpcMetricsListener {
+        private final List<String> methods = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onRequest(String groupID, String node, String method, int requestSize) {
+            this.methods.add(method);
+        }
+
+        @Override
+        public void onResponse(
+                String groupID,
+                String node,
+                String method,
+                long latencyNanos,
+                int errorCode,
+                int responseSize) {}
+    }
+
+    @Test
+    public void testEnableReplacesTransport() {
+        TestClient client = new TestClient(node);
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        client.enableMetrics(first);
+        CachingRpcTransport cache = client.enableResponseCache(new ResponseCacheConfig());
+        client.enableMetrics(second);
+
+        // the metrics transport is replaced below the cache instead of stacked on it
+        Assert.assertSame(cache, client.getRpcTransport());
+        Assert.assertEquals(100, client.getBlockNumber().getBlockNumber().longValue());
+        Assert.assertTrue(first.methods.isEmpty());
+        Assert.assertEquals(1, second.methods.size());
+        Assert.assertEquals(1, sentRequests.size());
+
+        client.enableRetry(new RetryConfig());
+        client.enableRetry(new RetryConfig());
+        // inserted below the cache, whatever order the transports are enabled in
+        Assert.assertSame(cache, client.getRpcTransport());
+        Assert.assertEquals(100, client.getBlockNumber().getBlockNumber().longValue());
+        Assert.assertEquals(2, second.methods.size());
+    }
+
+    @Test
+    public void testSharedClientNotConfigurable() {
+        TestClient client = new TestClient(node);
+        client.markShared();
+        Assert.assertTrue(client.isShared());
+        Runnable[] configurations =
+                new Runnable[] {
+                    () -> client.setRequestTimeout(100),
+                    () -> client.enableRetry(new RetryConfig()),
+                    () -> client.enableResponseCache(new ResponseCacheConfig()),
+                    () -> client.setLazyBlockTransactions(true),
+                    () -> client.setRpcTransport(node)
+                };
+        for (Runnable configuration : configurations) {
+            try {
+                configuration.run();
+                Assert.fail();
+            } catch (ClientException e) {
+                Assert.assertTrue(e.getMessage().contains("group0"));
+            }
+        }
+        // stopped and destroyed by BcosSDK only, the calls of the users are ignored
+        client.stop();
+        client.destroy();
+        // the shared client still works, with the timeout of the caller's thread
+        Assert.assertEquals(
+                100,
+                client.withTimeout(1000, () -> client.getBlockNumber())
+                        .getBlockNumber()
+                        .longValue());
+        Assert.assertFalse(client.isLazyBlockTransactions());
+    }
+
+    @Test
+    public void testInvalidatedClientFailsFast() {
+        TestClient client = new TestClient(node);
+        client.invalidate("the shared client is evicted");
+        try {
+            client.getBlockNumber();
+            Assert.fail();
+        } catch (ClientException e) {
+            Assert.assertTrue(e.getMessage().contains("evicted"));
+        }
+        try {
+            client.getBlockLimit();
+            Assert.fail();
+        } catch (ClientException e) {
+            Assert.assertTrue(e.getMessage().contains("evicted"));
+        }
+        Assert.assertTrue(sentRequests.isEmpty());
+    }
+
+    // the timeout of the request failed to be answered by the silent node
+    private static long timeoutOf(TestClient client) {
+        try {
+            client.getBlockNumber();
+        } catch (ClientTimeoutException e) {
+            return e.getTimeoutMs();
+        }
+        Assert.fail();
+        return -1;
+    }
+
+    @Test
+    public void testRequestTimeout() {
+        TestClient client = new TestClient(silentNode);
+        client.setRequestTimeout(100);
+        long start = System.nanoTime();
+        try {
+            client.getBlockNumber("node0");
+            Assert.fail();
+        } catch (ClientTimeoutException e) {
+            Assert.assertEquals(ClientTimeoutException.TIMEOUT_ERROR_CODE, e.getErrorCode());
+            Assert.assertEquals("getBlockNumber", e.getMethod());
+            Assert.assertEquals("node0", e.getNode());
+            Assert.assertEquals(100, e.getTimeoutMs());
+            Assert.assertTrue(e.getElapsedMs() >= 100);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(elapsedMs >= 100 && elapsedMs < 5000);
+        Assert.assertEquals(1, pendingCallbacks.size());
+    }
+
+    @Test
+    public void testWithTimeoutRestored() throws Exception {
+        TestClient client = new TestClient(silentNode);
+        client.setRequestTimeout(200);
+        client.withTimeout(
+                100,
+                () -> {
+                    Assert.assertEquals(100, timeoutOf(client));
+                    Assert.assertEquals(
+                            50, client.withTimeout(50, () -> timeoutOf(client)).longValue());
+                    // the outer timeout is restored after the nested call
+                    Assert.assertEquals(100, timeoutOf(client));
+                    // the other threads are not affected
+                    Assert.assertEquals(
+                            200,
+                            CompletableFuture.supplyAsync(() -> timeoutOf(client))
+                                    .join()
+                                    .longValue());
+                    return null;
+                });
+        // restored after the call, even if the call throws
+        try {
+            client.withTimeout(50, () -> client.getBlockNumber());
+            Assert.fail();
+        } catch (ClientTimeoutException e) {
+            Assert.assertEquals(50, e.getTimeoutMs());
+        }
+        Assert.assertEquals(200, timeoutOf(client));
+    }
+
+    @Test
+    public void testLateResponseCounted() {
+        TestClient client = new TestClient(silentNode);
+        client.setRequestTimeout(50);
+        timeoutOf(client);
+        timeoutOf(client);
+        Assert.assertEquals(0, client.getLateResponseCount());
+
+        // the responses received after the timeout are discarded and counted
+        for (ResponseCallback callback : pendingCallbacks) {
+            Response response = new Response();
+            response.setErrorCode(0);
+            response.setContent("{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":100}".getBytes());
+            callback.onResponse(response);
+        }
+        Assert.assertEquals(2, client.getLateResponseCount());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.client.ClientRegistry;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientRegistryTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final AtomicInteger createCount = new AtomicInteger(0);
+    private final List<Client> closedClients = new ArrayList<>();
+    private volatile CountDownLatch slowGroupLatch = new CountDownLatch(0);
+    private volatile boolean failCreation = false;
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // a client answering only getGroup, created slowly for the group "slow"
+    private Client createClient(String groupID) {
+        createCount.incrementAndGet();
+        if (failCreation) {
+            throw new ClientException("the group not exist, groupID: " + groupID);
+        }
+        if ("slow".equals(groupID)) {
+            try {
+                slowGroupLatch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return (Client)
+                Proxy.newProxyInstance(
+                        Client.class.getClassLoader(),
+                        new Class<?>[] {Client.class},
+                        (proxy, method, args) -> {
+                            if ("getGroup".equals(method.getName())) {
+                                return groupID;
+                            }
+                            if ("hashCode".equals(method.getName())) {
+                                return System.identityHashCode(proxy);
+                            }
+                            if ("equals".equals(method.getName())) {
+                                return proxy == args[0];
+                            }
+                            return null;
+                        });
+    }
+
+    private synchronized void closeClient(Client client) {
+        closedClients.add(client);
+    }
+
+    private ClientRegistry newRegistry() {
+        return new ClientRegistry(this::createClient, this::closeClient);
+    }
+
+    @Test
+    public void testCreateOnce() throws Exception {
+        ClientRegistry registry = newRegistry();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Client>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                start.await();
+                                return registry.get("group0");
+                            }));
+        }
+        start.countDown();
+        Client client = futures.get(0).get();
+        for (Future<Client> future : futures) {
+            Assert.assertSame(client, future.get());
+        }
+        Assert.assertEquals(1, createCount.get());
+        Assert.assertEquals(1, registry.getCreatedCount());
+        Assert.assertEquals(63, registry.getReusedCount());
+        Assert.assertEquals("group0", client.getGroup());
+    }
+
+    @Test
+    public void testOtherGroupsNotBlocked() throws Exception {
+        ClientRegistry registry = newRegistry();
+        slowGroupLatch = new CountDownLatch(1);
+        Future<Client> slow = executor.submit(() -> registry.get("slow"));
+        // the slow group is being created
+        Client client = executor.submit(() -> registry.get("group0")).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("group0", client.getGroup());
+        Assert.assertFalse(slow.isDone());
+        Assert.assertNull(registry.getIfPresent("slow"));
+        slowGroupLatch.countDown();
+        Assert.assertEquals("slow", slow.get(5, TimeUnit.SECONDS).getGroup());
+        Assert.assertSame(slow.get(), registry.getIfPresent("slow"));
+    }
+
+    @Test
+    public void testFailureNotKept() {
+        ClientRegistry registry = newRegistry();
+        failCreation = true;
+        try {
+            registry.get("group0");
+            Assert.fail("the creation must fail");
+        } catch (ClientException e) {
+            Assert.assertTrue(e.getMessage().contains("group0"));
+        }
+        Assert.assertTrue(registry.getGroups().isEmpty());
+        failCreation = false;
+        Assert.assertEquals("group0", registry.get("group0").getGroup());
+        Assert.assertEquals(2, createCount.get());
+    }
+
+    @Test
+    public void testEvictAndClose() {
+        ClientRegistry registry = newRegistry();
+        Client client = registry.get("group0");
+        Assert.assertTrue(registry.evict("group0"));
+        Assert.assertFalse(registry.evict("group0"));
+        Assert.assertEquals(1, closedClients.size());
+        Assert.assertSame(client, closedClients.get(0));
+        Client recreated = registry.get("group0");
+        Assert.assertNotSame(client, recreated);
+
+        registry.get("group1");
+        registry.close();
+        Assert.assertTrue(registry.isClosed());
+        Assert.assertEquals(3, closedClients.size());
+        Assert.assertTrue(registry.getGroups().isEmpty());
+        try {
+            registry.get("group0");
+            Assert.fail("the registry is closed");
+        } catch (ClientException e) {
+            Assert.assertEquals(3, createCount.get());
+        }
+    }
+}
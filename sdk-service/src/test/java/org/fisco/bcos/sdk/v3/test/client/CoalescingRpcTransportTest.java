@@ -0,0 +1,190 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.transport.CoalescingConfig;
+import org.fisco.bcos.sdk.v3.client.transport.CoalescingRpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CoalescingRpcTransportTest {
+    // the requests sent to the node, answered by the test
+    private final List<String> sentRequests = new CopyOnWriteArrayList<>();
+    private final List<ResponseCallback> pendingCallbacks = new CopyOnWriteArrayList<>();
+    private final List<Response> responses = new CopyOnWriteArrayList<>();
+
+    private final RpcTransport node =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    sentRequests.add(request);
+                    pendingCallbacks.add(callback);
+                }
+            };
+
+    private final ResponseCallback collector =
+            new ResponseCallback() {
+                @Override
+                public void onResponse(Response response) {
+                    responses.add(response);
+                }
+            };
+
+    private static String request(String method, String params, int id) {
+        return "{\"jsonrpc\":\"2.0\",\"method\":\""
+                + method
+                + "\",\"params\":"
+                + params
+                + ",\"id\":"
+                + id
+                + "}";
+    }
+
+    private void answerFirst(String result) {
+        ResponseCallback callback = pendingCallbacks.remove(0);
+        Response response = new Response();
+        response.setErrorCode(0);
+        response.setContent(("{\"id\":1,\"result\":" + result + "}").getBytes());
+        callback.onResponse(response);
+    }
+
+    @Test
+    public void testCoalesceIdenticalReads() {
+        CoalescingRpcTransport transport =
+                new CoalescingRpcTransport(node, new CoalescingConfig());
+        String method = JsonRpcMethods.GET_SYSTEM_CONFIG_BY_KEY;
+        // the same request with the different ids
+        for (int i = 0; i < 10; i++) {
+            transport.sendRequest(
+                    "group0", "", method, request(method, "[\"tx_count_limit\"]", i), collector);
+        }
+        // the different params, node and group are not coalesced
+        transport.sendRequest(
+                "group0", "", method, request(method, "[\"tx_gas_limit\"]", 10), collector);
+        transport.sendRequest(
+                "group0", "node0", method, request(method, "[\"tx_count_limit\"]", 11), collector);
+        transport.sendRequest(
+                "group1", "", method, request(method, "[\"tx_count_limit\"]", 12), collector);
+        Assert.assertEquals(4, sentRequests.size());
+        Assert.assertEquals(4, transport.getInFlightCount());
+
+        answerFirst("\"1000\"");
+        Assert.assertEquals(10, responses.size());
+        for (Response response : responses) {
+            Assert.assertEquals(
+                    "{\"id\":1,\"result\":\"1000\"}", new String(response.getContent()));
+        }
+        // every waiter gets its own response
+        Assert.assertNotSame(responses.get(0), responses.get(1));
+        Assert.assertEquals(10, transport.getMaxWaiters());
+
+        // the completed request is not joined
+        transport.sendRequest(
+                "group0", "", method, request(method, "[\"tx_count_limit\"]", 13), collector);
+        Assert.assertEquals(5, sentRequests.size());
+
+        Assert.assertEquals(14, transport.getRequestCount());
+        Assert.assertEquals(5, transport.getFlightCount());
+        Assert.assertEquals(9, transport.getCoalescedCount());
+        Assert.assertEquals(9.0 / 14, transport.getCoalescingRatio(), 0.0001);
+        Assert.assertEquals(9.0 / 14, transport.getCoalescingRatio(method), 0.0001);
+        Assert.assertEquals(0, transport.getCoalescingRatio(JsonRpcMethods.CALL), 0.0001);
+    }
+
+    @Test
+    public void testNotCoalesced() {
+        CoalescingRpcTransport transport =
+                new CoalescingRpcTransport(node, new CoalescingConfig());
+        String method = JsonRpcMethods.SEND_TRANSACTION;
+        transport.sendRequest("group0", "", method, request(method, "[\"tx\"]", 0), collector);
+        transport.sendRequest("group0", "", method, request(method, "[\"tx\"]", 1), collector);
+        transport.sendRequest("group0", "", request(method, "[\"tx\"]", 2), collector);
+        Assert.assertEquals(3, sentRequests.size());
+        Assert.assertEquals(0, transport.getRequestCount());
+        Assert.assertEquals(0, transport.getInFlightCount());
+    }
+
+    @Test
+    public void testExpiredFlightNotJoined() throws Exception {
+        CoalescingConfig config = new CoalescingConfig();
+        config.setMaxJoinAgeMs(50);
+        CoalescingRpcTransport transport = new CoalescingRpcTransport(node, config);
+        String method = JsonRpcMethods.GET_BLOCK_NUMBER;
+        transport.sendRequest("group0", "", method, request(method, "[]", 0), collector);
+        Thread.sleep(100);
+        // the stuck request is not joined, the late waiter sends its own
+        transport.sendRequest("group0", "", method, request(method, "[]", 1), collector);
+        Assert.assertEquals(2, sentRequests.size());
+        Assert.assertEquals(1, transport.getExpiredFlightCount());
+
+        // the waiters of both requests are answered by their own request
+        answerFirst("1");
+        Assert.assertEquals(1, responses.size());
+        Assert.assertEquals(1, transport.getInFlightCount());
+        answerFirst("2");
+        Assert.assertEquals(2, responses.size());
+        Assert.assertEquals(0, transport.getInFlightCount());
+    }
+
+    @Test
+    public void testFailedWaiterNotAffectingOthers() throws Exception {
+        CoalescingRpcTransport transport =
+                new CoalescingRpcTransport(node, new CoalescingConfig());
+        String method = JsonRpcMethods.CALL;
+        String params = "[\"group0\",\"0x1\",\"0x2\"]";
+        transport.sendRequest(
+                "group0",
+                "",
+                method,
+                request(method, params, 0),
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        throw new IllegalStateException("callback failed");
+                    }
+                });
+        CountDownLatch latch = new CountDownLatch(1);
+        new Thread(
+                        () ->
+                                transport.sendRequest(
+                                        "group0",
+                                        "",
+                                        method,
+                                        request(method, params, 1),
+                                        new ResponseCallback() {
+                                            @Override
+                                            public void onResponse(Response response) {
+                                                latch.countDown();
+                                            }
+                                        }))
+                .start();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (transport.getCoalescedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        answerFirst("{}");
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, sentRequests.size());
+    }
+}
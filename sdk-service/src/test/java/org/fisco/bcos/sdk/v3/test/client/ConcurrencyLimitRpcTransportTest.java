@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.transport.ConcurrencyLimitConfig;
+import org.fisco.bcos.sdk.v3.client.transport.ConcurrencyLimitRpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrencyLimitRpcTransportTest {
+    // the requests sent to the node, answered by the test
+    private final List<String> sentRequests = new CopyOnWriteArrayList<>();
+    private final List<ResponseCallback> pendingCallbacks = new CopyOnWriteArrayList<>();
+    private final List<Response> responses = new CopyOnWriteArrayList<>();
+    // the request failed to be sent by the node transport
+    private volatile String failingRequest;
+
+    private final RpcTransport node =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    if (request.equals(failingRequest)) {
+                        throw new IllegalStateException("send failed");
+                    }
+                    sentRequests.add(request);
+                    pendingCallbacks.add(callback);
+                }
+            };
+
+    private final ResponseCallback collector =
+            new ResponseCallback() {
+                @Override
+                public void onResponse(Response response) {
+                    responses.add(response);
+                }
+            };
+
+    private ConcurrencyLimitRpcTransport newTransport(
+            ConcurrencyLimitConfig.AdmissionMode mode, int maxInFlight) {
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setAdmissionMode(mode);
+        config.setMaxInFlight(maxInFlight);
+        config.setMaxWaitMs(200);
+        config.setMaxQueueSize(2);
+        return new ConcurrencyLimitRpcTransport(node, config);
+    }
+
+    private void send(ConcurrencyLimitRpcTransport transport, String method, String request) {
+        transport.sendRequest("group0", "", method, request, collector);
+    }
+
+    private void answerFirst() {
+        ResponseCallback callback = pendingCallbacks.remove(0);
+        Response response = new Response();
+        response.setErrorCode(0);
+        callback.onResponse(response);
+    }
+
+    private int rejectedResponses() {
+        int count = 0;
+        for (Response response : responses) {
+            if (response.getErrorCode() == ConcurrencyLimitRpcTransport.REJECTED_ERROR_CODE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testFailFast() {
+        ConcurrencyLimitRpcTransport transport =
+                newTransport(ConcurrencyLimitConfig.AdmissionMode.FAIL_FAST, 2);
+        for (int i = 0; i < 3; i++) {
+            send(transport, JsonRpcMethods.CALL, "r" + i);
+        }
+        Assert.assertEquals(2, sentRequests.size());
+        Assert.assertEquals(1, rejectedResponses());
+        Assert.assertEquals(2, transport.getInFlight());
+
+        answerFirst();
+        send(transport, JsonRpcMethods.CALL, "r3");
+        Assert.assertEquals(3, sentRequests.size());
+        Assert.assertEquals(1, transport.getRejectedCount());
+        Assert.assertEquals(3, transport.getAdmittedCount());
+    }
+
+    @Test
+    public void testMethodLimit() {
+        ConcurrencyLimitRpcTransport transport =
+                newTransport(ConcurrencyLimitConfig.AdmissionMode.FAIL_FAST, 10);
+        transport.getConfig().addMethodMaxInFlight(JsonRpcMethods.SEND_TRANSACTION, 1);
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, "tx0");
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, "tx1");
+        send(transport, JsonRpcMethods.CALL, "call0");
+        Assert.assertEquals(2, sentRequests.size());
+        Assert.assertEquals(1, transport.getInFlight(JsonRpcMethods.SEND_TRANSACTION));
+        Assert.assertEquals(2, transport.getInFlight());
+        Assert.assertEquals(1, rejectedResponses());
+
+        answerFirst();
+        Assert.assertEquals(0, transport.getInFlight(JsonRpcMethods.SEND_TRANSACTION));
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, "tx2");
+        Assert.assertEquals("tx2", sentRequests.get(2));
+    }
+
+    @Test
+    public void testAsyncWait() throws Exception {
+        ConcurrencyLimitRpcTransport transport =
+                newTransport(ConcurrencyLimitConfig.AdmissionMode.ASYNC_WAIT, 1);
+        for (int i = 0; i < 4; i++) {
+            send(transport, JsonRpcMethods.CALL, "r" + i);
+        }
+        // one in flight, two queued and one rejected as the queue is full
+        Assert.assertEquals(1, sentRequests.size());
+        Assert.assertEquals(2, transport.getQueueDepth());
+        Assert.assertEquals(1, rejectedResponses());
+
+        // the queued requests are sent in order once the requests in flight are completed
+        answerFirst();
+        Assert.assertEquals("r1", sentRequests.get(1));
+        answerFirst();
+        Assert.assertEquals("r2", sentRequests.get(2));
+        Assert.assertEquals(0, transport.getQueueDepth());
+        Assert.assertEquals(2, transport.getMaxQueueDepth());
+
+        // the queued request waiting too long is rejected
+        send(transport, JsonRpcMethods.CALL, "r4");
+        Thread.sleep(300);
+        answerFirst();
+        Assert.assertEquals(3, sentRequests.size());
+        Assert.assertEquals(2, rejectedResponses());
+    }
+
+    @Test
+    public void testQueuedRequestExpiredWithoutResponses() throws Exception {
+        ConcurrencyLimitRpcTransport transport =
+                newTransport(ConcurrencyLimitConfig.AdmissionMode.ASYNC_WAIT, 1);
+        send(transport, JsonRpcMethods.CALL, "r0");
+        send(transport, JsonRpcMethods.CALL, "r1");
+        Assert.assertEquals(1, transport.getQueueDepth());
+
+        // the request in flight is never answered, the queued one is rejected by the timer
+        long deadline = System.currentTimeMillis() + 2000;
+        while (rejectedResponses() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, rejectedResponses());
+        Assert.assertEquals(0, transport.getQueueDepth());
+        Assert.assertEquals(1, transport.getInFlight());
+
+        answerFirst();
+        Assert.assertEquals(1, sentRequests.size());
+        Assert.assertEquals(0, transport.getInFlight());
+    }
+
+    @Test
+    public void testQueuedSendFailure() {
+        ConcurrencyLimitRpcTransport transport =
+                newTransport(ConcurrencyLimitConfig.AdmissionMode.ASYNC_WAIT, 1);
+        failingRequest = "r1";
+        send(transport, JsonRpcMethods.CALL, "r0");
+        send(transport, JsonRpcMethods.CALL, "r1");
+        send(transport, JsonRpcMethods.CALL, "r2");
+
+        // the response is received, the queued request failed to be sent is rejected and the next
+        // one is sent
+        answerFirst();
+        Assert.assertEquals(2, responses.size());
+        Assert.assertEquals(0, responses.get(0).getErrorCode().intValue());
+        Assert.assertEquals(1, rejectedResponses());
+        Assert.assertEquals("r2", sentRequests.get(1));
+        Assert.assertEquals(1, transport.getInFlight());
+        Assert.assertEquals(0, transport.getQueueDepth());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        ConcurrencyLimitRpcTransport transport =
+                newTransport(ConcurrencyLimitConfig.AdmissionMode.BLOCK, 1);
+        send(transport, JsonRpcMethods.CALL, "r0");
+
+        CompletableFuture<Void> blocked =
+                CompletableFuture.runAsync(() -> send(transport, JsonRpcMethods.CALL, "r1"));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (transport.getQueueDepth() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(1, transport.getQueueDepth());
+        Assert.assertFalse(blocked.isDone());
+
+        answerFirst();
+        blocked.get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(2, sentRequests.size());
+
+        // nothing completed within the max wait time
+        long start = System.nanoTime();
+        send(transport, JsonRpcMethods.CALL, "r2");
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 190);
+        Assert.assertEquals(2, sentRequests.size());
+        Assert.assertEquals(1, rejectedResponses());
+        Assert.assertEquals(2, transport.getAdmittedCount());
+    }
+}
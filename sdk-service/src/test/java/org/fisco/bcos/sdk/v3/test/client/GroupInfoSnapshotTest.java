@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.fisco.bcos.sdk.v3.client.GroupInfoSnapshot;
+import org.fisco.bcos.sdk.v3.client.exceptions.ClientException;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosGroupInfo;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupInfoSnapshotTest {
+    private static final String groupInfoResponse =
+            "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":{\"chainID\":\"chain0\","
+                    + "\"groupID\":\"group0\",\"genesisConfig\":\"{}\",\"nodeList\":[{\"type\":0,"
+                    + "\"name\":\"node0\",\"iniConfig\":\"{\\\"chainID\\\":\\\"chain0\\\","
+                    + "\\\"groupID\\\":\\\"group0\\\",\\\"smCryptoType\\\":false,"
+                    + "\\\"isWasm\\\":false}\"}]}}";
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("group-info-snapshot").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = new File(directory, "snapshot/group0.json");
+        GroupInfoSnapshot snapshot = newSnapshot();
+        snapshot.save(file);
+
+        GroupInfoSnapshot loaded = GroupInfoSnapshot.load(file);
+        Assert.assertEquals("group0", loaded.getGroupID());
+        Assert.assertEquals("chain0", loaded.getChainID());
+        Assert.assertFalse(loaded.isSmCrypto());
+        Assert.assertEquals(100, loaded.getBlockNumber());
+        Assert.assertEquals(snapshot.getChecksum(), loaded.getChecksum());
+
+        BcosGroupInfo.GroupInfo groupInfo = loaded.getGroupInfo();
+        Assert.assertEquals("group0", groupInfo.getGroupID());
+        Assert.assertEquals(1, groupInfo.getNodeList().size());
+        Assert.assertEquals("node0", groupInfo.getNodeList().get(0).getName());
+        Assert.assertEquals("chain0", groupInfo.getNodeList().get(0).getIniConfig().getChainID());
+
+        // saved again over the existing file
+        newSnapshot().save(file);
+        Assert.assertEquals(1, file.getParentFile().list().length);
+    }
+
+    @Test
+    public void testLoadTampered() throws Exception {
+        File file = new File(directory, "group0.json");
+        newSnapshot().save(file);
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Files.write(
+                file.toPath(),
+                content.replace("chain0", "chain1").getBytes(StandardCharsets.UTF_8));
+        try {
+            GroupInfoSnapshot.load(file);
+            Assert.fail("the tampered snapshot is loaded");
+        } catch (ClientException e) {
+            Assert.assertTrue(e.getMessage().contains("corrupted"));
+        }
+
+        Files.write(file.toPath(), "not json".getBytes(StandardCharsets.UTF_8));
+        try {
+            GroupInfoSnapshot.load(file);
+            Assert.fail("the invalid snapshot is loaded");
+        } catch (ClientException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCheckCompatible() {
+        GroupInfoSnapshot snapshot = newSnapshot();
+        snapshot.checkCompatible("chain0", false);
+        try {
+            snapshot.checkCompatible("chain1", false);
+            Assert.fail("the changed chain is regarded compatible");
+        } catch (ClientException e) {
+            // expected
+        }
+        try {
+            snapshot.checkCompatible("chain0", true);
+            Assert.fail("the changed crypto type is regarded compatible");
+        } catch (ClientException e) {
+            // expected
+        }
+    }
+
+    private GroupInfoSnapshot newSnapshot() {
+        return new GroupInfoSnapshot(
+                "group0",
+                "chain0",
+                false,
+                false,
+                100,
+                groupInfoResponse.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.transport.HedgeConfig;
+import org.fisco.bcos.sdk.v3.client.transport.HedgedRpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HedgedRpcTransportTest {
+    private static final List<String> nodes = Arrays.asList("node0", "node1");
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    /** simulated nodes answering after the configured latency, or failing at once */
+    private class StubNodes implements RpcTransport {
+        private final long[] latencyMs;
+        private final boolean[] failing;
+        private final AtomicInteger[] requestCounts = {new AtomicInteger(), new AtomicInteger()};
+
+        StubNodes(long[] latencyMs, boolean[] failing) {
+            this.latencyMs = latencyMs;
+            this.failing = failing;
+        }
+
+        @Override
+        public void sendRequest(
+                String groupID, String node, String request, ResponseCallback callback) {
+            int index = nodes.indexOf(node);
+            requestCounts[Math.max(0, index)].incrementAndGet();
+            Response response = new Response();
+            if (index >= 0 && failing[index]) {
+                response.setErrorCode(-1);
+                response.setErrorMessage("connection closed");
+                callback.onResponse(response);
+                return;
+            }
+            response.setErrorCode(0);
+            response.setErrorMessage(node);
+            scheduler.schedule(
+                    () -> callback.onResponse(response),
+                    latencyMs[Math.max(0, index)],
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private Response send(RpcTransport transport, String node, String method) throws Exception {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        transport.sendRequest(
+                "group0",
+                node,
+                method,
+                "{}",
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        future.complete(response);
+                    }
+                });
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private HedgeConfig config(double maxHedgeRatio, double maxHedgeBurst) {
+        HedgeConfig config = new HedgeConfig();
+        config.setInitialDelayMs(20);
+        config.setMaxHedgeRatio(maxHedgeRatio);
+        config.setMaxHedgeBurst(maxHedgeBurst);
+        return config;
+    }
+
+    @Test
+    public void testHedgeOnSlowNode() throws Exception {
+        StubNodes stubNodes = new StubNodes(new long[] {500, 5}, new boolean[] {false, false});
+        HedgedRpcTransport transport =
+                new HedgedRpcTransport(stubNodes, () -> nodes, config(1, 10));
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            Response response = send(transport, "", JsonRpcMethods.GET_BLOCK_BY_NUMBER);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertEquals("node1", response.getErrorMessage());
+            Assert.assertTrue(elapsedMs < 400);
+        }
+        Assert.assertEquals(10, transport.getHedgeableCount());
+        // half of the requests are sent to the slow node first
+        Assert.assertEquals(5, transport.getHedgeSentCount());
+        Assert.assertEquals(5, transport.getHedgeWinCount());
+    }
+
+    @Test
+    public void testBudgetCap() throws Exception {
+        StubNodes stubNodes = new StubNodes(new long[] {100, 5}, new boolean[] {false, false});
+        HedgedRpcTransport transport =
+                new HedgedRpcTransport(stubNodes, () -> nodes, config(0.1, 1));
+        for (int i = 0; i < 10; i++) {
+            send(transport, "", JsonRpcMethods.CALL);
+        }
+        // one hedge by the burst, the budget of 10 requests is another one
+        Assert.assertTrue(transport.getHedgeSentCount() <= 2);
+        Assert.assertTrue(transport.getBudgetExhaustedCount() >= 3);
+    }
+
+    @Test
+    public void testPrimaryFailure() throws Exception {
+        StubNodes stubNodes = new StubNodes(new long[] {5, 5}, new boolean[] {true, false});
+        HedgedRpcTransport transport =
+                new HedgedRpcTransport(stubNodes, () -> nodes, config(1, 10));
+        for (int i = 0; i < 4; i++) {
+            Response response = send(transport, "", JsonRpcMethods.GET_TRANSACTIONRECEIPT);
+            Assert.assertEquals(0, response.getErrorCode().intValue());
+        }
+        // all nodes failed
+        stubNodes.failing[1] = true;
+        Response response = send(transport, "", JsonRpcMethods.CALL);
+        Assert.assertEquals(-1, response.getErrorCode().intValue());
+    }
+
+    @Test
+    public void testNotHedged() throws Exception {
+        StubNodes stubNodes = new StubNodes(new long[] {50, 5}, new boolean[] {false, false});
+        AtomicInteger nodesQueried = new AtomicInteger(0);
+        HedgedRpcTransport transport =
+                new HedgedRpcTransport(
+                        stubNodes,
+                        () -> {
+                            nodesQueried.incrementAndGet();
+                            return nodes;
+                        },
+                        config(1, 10));
+        // the node is specified
+        Assert.assertEquals(
+                "node0",
+                send(transport, "node0", JsonRpcMethods.GET_BLOCK_BY_NUMBER).getErrorMessage());
+        // not an idempotent read
+        send(transport, "", JsonRpcMethods.SEND_TRANSACTION);
+        Assert.assertEquals(0, transport.getHedgeableCount());
+        Assert.assertEquals(0, transport.getHedgeSentCount());
+        // the nodes are not queried for the requests not hedged
+        Assert.assertEquals(0, nodesQueried.get());
+    }
+
+    @Test
+    public void testPrimaryFailureWhileHedging() throws Exception {
+        // the primary fails at about the hedge delay, racing with the scheduled hedge
+        RpcTransport racingNodes =
+                (groupID, node, request, callback) -> {
+                    Response response = new Response();
+                    boolean primary = "node0".equals(node);
+                    response.setErrorCode(primary ? -1 : 0);
+                    response.setErrorMessage(node);
+                    scheduler.schedule(
+                            () -> callback.onResponse(response),
+                            primary ? 20 : 30,
+                            TimeUnit.MILLISECONDS);
+                };
+        HedgedRpcTransport transport =
+                new HedgedRpcTransport(
+                        racingNodes, () -> Arrays.asList("node0", "node0", "node1"), config(1, 10));
+        for (int i = 0; i < 30; i++) {
+            Response response = send(transport, "", JsonRpcMethods.CALL);
+            // never the error of the primary while the hedge is still answering
+            Assert.assertEquals(0, response.getErrorCode().intValue());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcRequest;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcRequestWriter;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonRpcRequestWriterTest {
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    private void assertSameAsObjectMapper(JsonRpcRequest<?> request) throws Exception {
+        Assert.assertEquals(
+                objectMapper.writeValueAsString(request), JsonRpcRequestWriter.write(request));
+    }
+
+    @Test
+    public void testSameAsObjectMapper() throws Exception {
+        char[] hex = new char[200 * 1024];
+        Arrays.fill(hex, 'f');
+        String signedTransaction = "0x" + new String(hex);
+        assertSameAsObjectMapper(
+                new JsonRpcRequest<>(
+                        JsonRpcMethods.SEND_TRANSACTION,
+                        Arrays.asList("group0", "", signedTransaction, false)));
+        assertSameAsObjectMapper(
+                new JsonRpcRequest<>(
+                        JsonRpcMethods.GET_BLOCK_BY_NUMBER,
+                        Arrays.asList("group0", "node0", BigInteger.valueOf(100), true, false)));
+        assertSameAsObjectMapper(
+                new JsonRpcRequest<>(JsonRpcMethods.GET_BLOCK_NUMBER, Arrays.asList(1, 2L)));
+        // the strings to escape, the unicode and the null
+        assertSameAsObjectMapper(
+                new JsonRpcRequest<>(
+                        JsonRpcMethods.CALL,
+                        Arrays.asList("a\"b\\c\n\t\u0001", "\u4e2d\u6587/", null, "")));
+        assertSameAsObjectMapper(
+                new JsonRpcRequest<>(JsonRpcMethods.GET_GROUP_LIST, Collections.emptyList()));
+        assertSameAsObjectMapper(new JsonRpcRequest<>(JsonRpcMethods.GET_GROUP_LIST, null));
+
+        // the params written by the ObjectMapper
+        Map<String, Object> object = new HashMap<>();
+        object.put("to", "0x1");
+        object.put("value", 1.5);
+        object.put("list", Arrays.asList(1, "2"));
+        assertSameAsObjectMapper(
+                new JsonRpcRequest<>(JsonRpcMethods.CALL, Arrays.asList("group0", object, 2.5)));
+
+        JsonRpcRequest<String> request =
+                new JsonRpcRequest<>(JsonRpcMethods.GET_PEERS, Arrays.asList("group0"));
+        request.setJsonrpc("1.0");
+        assertSameAsObjectMapper(request);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        List<JsonRpcRequest> requests =
+                Arrays.asList(
+                        new JsonRpcRequest<>(JsonRpcMethods.GET_BLOCK_NUMBER, Arrays.asList("g")),
+                        new JsonRpcRequest<>(
+                                JsonRpcMethods.GET_CODE, Arrays.asList("g", "", "0x1")));
+        Assert.assertEquals(
+                objectMapper.writeValueAsString(requests), JsonRpcRequestWriter.write(requests));
+        Assert.assertEquals("[]", JsonRpcRequestWriter.write(Collections.emptyList()));
+    }
+
+    @Test
+    public void testBufferReused() throws Exception {
+        // the small request after the large one is not affected by the buffer
+        char[] hex = new char[1024 * 1024];
+        Arrays.fill(hex, 'a');
+        JsonRpcRequest<String> large =
+                new JsonRpcRequest<>(
+                        JsonRpcMethods.SEND_TRANSACTION, Arrays.asList("g", new String(hex)));
+        JsonRpcRequest<String> small =
+                new JsonRpcRequest<>(JsonRpcMethods.GET_BLOCK_NUMBER, Arrays.asList("g"));
+        for (int i = 0; i < 3; i++) {
+            assertSameAsObjectMapper(large);
+            assertSameAsObjectMapper(small);
+        }
+    }
+}
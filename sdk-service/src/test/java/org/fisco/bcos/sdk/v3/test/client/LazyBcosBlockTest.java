@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.fisco.bcos.sdk.v3.client.protocol.model.JsonTransactionResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LazyBcosBlockTest {
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    private static String block(String transactions) {
+        // formatted as the node does, with the spaces and the new lines
+        return "{\n"
+                + "  \"id\": 5,\n"
+                + "  \"jsonrpc\": \"2.0\",\n"
+                + "  \"result\": {\n"
+                + "    \"hash\": \"0x1\",\n"
+                + "    \"number\": 100,\n"
+                + "    \"transactions\": "
+                + transactions
+                + ",\n"
+                + "    \"txsRoot\": \"0x2\",\n"
+                + "    \"version\": 0\n"
+                + "  }\n"
+                + "}";
+    }
+
+    private static String transaction(int i) {
+        return "{\n"
+                + "      \"chainID\": \"chain0\",\n"
+                + "      \"from\": \"0x3\",\n"
+                + "      \"hash\": \"0xa"
+                + i
+                + "\",\n"
+                + "      \"input\": \"0x\\\"escaped\\\"\",\n"
+                + "      \"nonce\": \""
+                + i
+                + "\"\n"
+                + "    }";
+    }
+
+    private BcosBlock assertSameAsEager(String content) throws Exception {
+        BcosBlock eager = objectMapper.readValue(content.getBytes(), BcosBlock.class);
+        BcosBlock lazy = BcosBlock.readLazily(content.getBytes());
+        Assert.assertEquals(
+                objectMapper.writeValueAsString(eager), objectMapper.writeValueAsString(lazy));
+        return lazy;
+    }
+
+    @Test
+    public void testTransactionObjects() throws Exception {
+        StringBuilder transactions = new StringBuilder("[\n    ");
+        for (int i = 0; i < 40; i++) {
+            transactions.append(i == 0 ? "" : " ,\n    ").append(transaction(i));
+        }
+        transactions.append("\n  ]");
+        BcosBlock lazy = this.assertSameAsEager(block(transactions.toString()));
+
+        List<BcosBlock.TransactionResult> results = lazy.getBlock().getTransactions();
+        Assert.assertTrue(results instanceof BcosBlock.LazyTransactionList);
+        Assert.assertEquals(40, results.size());
+        Assert.assertEquals(100, lazy.getBlock().getNumber());
+        JsonTransactionResponse transaction = (JsonTransactionResponse) results.get(17).get();
+        Assert.assertEquals("0xa17", transaction.getHash());
+        Assert.assertEquals("0x\"escaped\"", transaction.getInput());
+
+        // every iteration parses the transactions again
+        List<String> hashes = new ArrayList<>();
+        for (BcosBlock.TransactionResult result : results) {
+            hashes.add(((JsonTransactionResponse) result.get()).getHash());
+        }
+        for (BcosBlock.TransactionResult result : results) {
+            Assert.assertNotNull(result.get());
+        }
+        Assert.assertEquals(40, hashes.size());
+        Assert.assertEquals("0xa39", hashes.get(39));
+        Assert.assertNotSame(results.get(0), results.get(0));
+    }
+
+    @Test
+    public void testTransactionHashes() throws Exception {
+        BcosBlock lazy = this.assertSameAsEager(block("[ \"0xa0\",\"0xa1\" , \"0xa2\"]"));
+        List<BcosBlock.TransactionResult> results = lazy.getBlock().getTransactions();
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals("0xa1", results.get(1).get());
+        Assert.assertEquals("0xa2", results.get(2).get());
+        try {
+            results.get(3);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            results.add(results.get(0));
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            // the transactions are read only
+        }
+    }
+
+    @Test
+    public void testEmptyBlock() throws Exception {
+        BcosBlock lazy = this.assertSameAsEager(block("[]"));
+        Assert.assertTrue(lazy.getBlock().getTransactions().isEmpty());
+        Assert.assertFalse(lazy.getBlock().getTransactions().iterator().hasNext());
+
+        String notFound = "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":null}";
+        Assert.assertNull(BcosBlock.readLazily(notFound.getBytes()).getBlock());
+    }
+}
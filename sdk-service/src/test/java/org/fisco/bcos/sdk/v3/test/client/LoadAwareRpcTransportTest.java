@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.transport.LoadAwareRpcTransport;
+import org.fisco.bcos.sdk.v3.client.transport.NodeLoad;
+import org.fisco.bcos.sdk.v3.client.transport.NodeSelectionConfig;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadAwareRpcTransportTest {
+    private static final String GROUP = "group0";
+    private static final List<String> nodes = Arrays.asList("node0", "node1", "node2");
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private final Map<String, SimulatedNode> simulatedNodes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> receivedCounts = new ConcurrentHashMap<>();
+
+    /** a node with the scripted load and latency */
+    private static class SimulatedNode {
+        volatile long pendingTxSize;
+        volatile long blockNumber;
+        volatile boolean syncing;
+        volatile long latencyMs;
+        volatile boolean down;
+        // the probes are never answered
+        volatile boolean hung;
+
+        SimulatedNode(long pendingTxSize, long blockNumber, long latencyMs) {
+            this.pendingTxSize = pendingTxSize;
+            this.blockNumber = blockNumber;
+            this.latencyMs = latencyMs;
+        }
+    }
+
+    private final RpcTransport simulatedTransport =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    receivedCounts
+                            .computeIfAbsent(
+                                    node == null || node.isEmpty() ? "" : node,
+                                    key -> new AtomicInteger(0))
+                            .incrementAndGet();
+                    SimulatedNode simulatedNode = simulatedNodes.get(node);
+                    long latencyMs = simulatedNode == null ? 0 : simulatedNode.latencyMs;
+                    scheduler.schedule(
+                            () -> {
+                                Response response = new Response();
+                                response.setErrorCode(0);
+                                response.setContent("{}".getBytes());
+                                callback.onResponse(response);
+                            },
+                            latencyMs,
+                            TimeUnit.MILLISECONDS);
+                }
+            };
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private LoadAwareRpcTransport newTransport() {
+        return newTransport(new NodeSelectionConfig());
+    }
+
+    private LoadAwareRpcTransport newTransport(NodeSelectionConfig config) {
+        return new LoadAwareRpcTransport(
+                simulatedTransport,
+                () -> nodes,
+                node -> {
+                    SimulatedNode simulatedNode = simulatedNodes.get(node);
+                    CompletableFuture<NodeLoad> future = new CompletableFuture<>();
+                    if (simulatedNode.hung) {
+                        return future;
+                    }
+                    if (simulatedNode.down) {
+                        future.completeExceptionally(
+                                new IllegalStateException("node down: " + node));
+                        return future;
+                    }
+                    // answered by another thread after the latency, as the native rpc does
+                    scheduler.schedule(
+                            () ->
+                                    future.complete(
+                                            new NodeLoad(
+                                                    simulatedNode.pendingTxSize,
+                                                    simulatedNode.blockNumber,
+                                                    simulatedNode.syncing)),
+                            simulatedNode.latencyMs,
+                            TimeUnit.MILLISECONDS);
+                    return future;
+                },
+                config);
+    }
+
+    private void send(LoadAwareRpcTransport transport, String method, int count)
+            throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            transport.sendRequest(
+                    GROUP,
+                    "",
+                    method,
+                    "{}",
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            latch.countDown();
+                        }
+                    });
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    private int received(String node) {
+        AtomicInteger count = receivedCounts.get(node);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    public void testSendToLeastLoadedSyncedNode() throws Exception {
+        simulatedNodes.put("node0", new SimulatedNode(100, 10, 0));
+        simulatedNodes.put("node1", new SimulatedNode(10, 10, 0));
+        simulatedNodes.put("node2", new SimulatedNode(0, 10, 0));
+        simulatedNodes.get("node2").syncing = true;
+        LoadAwareRpcTransport transport = newTransport();
+        transport.sample().get();
+
+        // node1 takes the transactions until it has as many as node0, then they are shared
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, 110);
+        Assert.assertEquals(0, received("node2"));
+        Assert.assertTrue(Math.abs(received("node1") - 100) <= 1);
+        Assert.assertEquals(110, received("node0") + received("node1"));
+        Assert.assertEquals(110, transport.getRoutedSendCount());
+        // the transactions are not counted in the read latency
+        Assert.assertEquals(-1, transport.getLatencyMicros("node1"));
+
+        // the load changes, the routed transactions are reset by the sample
+        receivedCounts.clear();
+        simulatedNodes.get("node0").pendingTxSize = 0;
+        simulatedNodes.get("node1").pendingTxSize = 1000;
+        transport.sample().get();
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, 50);
+        Assert.assertEquals(50, received("node0"));
+    }
+
+    @Test
+    public void testReadFromFastestNodeNotLagging() throws Exception {
+        simulatedNodes.put("node0", new SimulatedNode(0, 100, 20));
+        simulatedNodes.put("node1", new SimulatedNode(0, 100, 1));
+        // the fastest but lagging behind
+        simulatedNodes.put("node2", new SimulatedNode(0, 90, 0));
+        LoadAwareRpcTransport transport = newTransport();
+        transport.sample().get();
+        Assert.assertEquals(100, transport.getHighestBlockNumber());
+
+        // learn the latency of the nodes
+        send(transport, JsonRpcMethods.CALL, 2);
+        receivedCounts.clear();
+        for (int i = 0; i < 20; i++) {
+            send(transport, JsonRpcMethods.CALL, 1);
+        }
+        Assert.assertEquals(0, received("node2"));
+        Assert.assertEquals(20, received("node1"));
+        Assert.assertTrue(
+                transport.getLatencyMicros("node0") > transport.getLatencyMicros("node1"));
+
+        // node2 catches up
+        simulatedNodes.get("node2").blockNumber = 100;
+        transport.sample().get();
+        receivedCounts.clear();
+        send(transport, JsonRpcMethods.CALL, 1);
+        Assert.assertEquals(1, received("node2"));
+    }
+
+    @Test
+    public void testPassThrough() throws Exception {
+        simulatedNodes.put("node0", new SimulatedNode(0, 10, 0));
+        simulatedNodes.put("node1", new SimulatedNode(0, 10, 0));
+        simulatedNodes.put("node2", new SimulatedNode(0, 10, 0));
+        LoadAwareRpcTransport transport = newTransport();
+
+        // not sampled yet
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, 1);
+        Assert.assertEquals(1, received(""));
+
+        // the nodes failed to be sampled are not chosen
+        simulatedNodes.get("node0").down = true;
+        simulatedNodes.get("node1").down = true;
+        transport.sample().get();
+        Assert.assertEquals(2, transport.getSampleFailureCount());
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, 5);
+        Assert.assertEquals(5, received("node2"));
+
+        // the methods not routed and the requests to the specified node
+        send(transport, JsonRpcMethods.GET_PEERS, 1);
+        Assert.assertEquals(2, received(""));
+        transport.sendRequest(
+                GROUP,
+                "node0",
+                JsonRpcMethods.CALL,
+                "{}",
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {}
+                });
+        Assert.assertEquals(1, received("node0"));
+        Assert.assertEquals(2, transport.getPassThroughCount());
+    }
+
+    @Test
+    public void testHungNodeNotStallingSample() throws Exception {
+        simulatedNodes.put("node0", new SimulatedNode(0, 10, 50));
+        simulatedNodes.put("node1", new SimulatedNode(0, 10, 50));
+        simulatedNodes.put("node2", new SimulatedNode(0, 10, 0));
+        simulatedNodes.get("node0").hung = true;
+        NodeSelectionConfig config = new NodeSelectionConfig();
+        config.setProbeTimeoutMs(200);
+        LoadAwareRpcTransport transport = newTransport(config);
+
+        // the nodes are probed in parallel, the hung node fails by the probe timeout
+        long start = System.currentTimeMillis();
+        transport.sample().get();
+        long elapsedMs = System.currentTimeMillis() - start;
+        Assert.assertTrue(elapsedMs >= 200 && elapsedMs < 2000);
+        Assert.assertEquals(1, transport.getSampleFailureCount());
+        Assert.assertNull(transport.getNodeLoad("node0"));
+        Assert.assertNotNull(transport.getNodeLoad("node1"));
+        Assert.assertEquals(10, transport.getHighestBlockNumber());
+        send(transport, JsonRpcMethods.SEND_TRANSACTION, 10);
+        Assert.assertEquals(0, received("node0"));
+        Assert.assertEquals(10, received("node1") + received("node2"));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.transport.RetryConfig;
+import org.fisco.bcos.sdk.v3.client.transport.RetryingRpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RetryingRpcTransportTest {
+    private static final List<String> nodes = Arrays.asList("node0", "node1", "node2");
+
+    // the backend injecting the faults: the first requests and the requests to the down nodes fail
+    private final AtomicInteger failuresLeft = new AtomicInteger(0);
+    private final Set<String> downNodes = ConcurrentHashMap.newKeySet();
+    private final List<String> attemptNodes = new CopyOnWriteArrayList<>();
+
+    private final RpcTransport faultyBackend =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    attemptNodes.add(node);
+                    // the native sdk sends the request to any node to node0
+                    String target = node.isEmpty() ? "node0" : node;
+                    Response response = new Response();
+                    if (downNodes.contains(target) || failuresLeft.getAndDecrement() > 0) {
+                        response.setErrorCode(-1);
+                        response.setErrorMessage("timeout");
+                    } else {
+                        response.setErrorCode(0);
+                        response.setContent("{\"id\":1,\"result\":\"0x1\"}".getBytes());
+                    }
+                    callback.onResponse(response);
+                }
+            };
+
+    private RetryConfig newConfig() {
+        RetryConfig config = new RetryConfig();
+        config.setInitialBackoffMs(20);
+        config.setJitterRatio(0);
+        return config;
+    }
+
+    private RetryingRpcTransport newTransport(RetryConfig config) {
+        return new RetryingRpcTransport(faultyBackend, () -> nodes, config);
+    }
+
+    private Response send(RetryingRpcTransport transport, String node, String method)
+            throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Response[] result = new Response[1];
+        transport.sendRequest(
+                "group0",
+                node,
+                method,
+                "{}",
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        result[0] = response;
+                        latch.countDown();
+                    }
+                });
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    @Test
+    public void testRetryWithBackoff() throws Exception {
+        RetryingRpcTransport transport = newTransport(newConfig());
+        failuresLeft.set(2);
+        long start = System.nanoTime();
+        Response response = send(transport, "", JsonRpcMethods.GET_BLOCK_NUMBER);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertEquals(0, response.getErrorCode().intValue());
+        // the backoff of 20ms and 40ms
+        Assert.assertTrue(elapsedMs >= 60);
+        Assert.assertEquals(3, transport.getAttemptCount());
+        Assert.assertEquals(2, transport.getRetryCount());
+        Assert.assertEquals(2, transport.getRetryCount(JsonRpcMethods.GET_BLOCK_NUMBER));
+        Assert.assertEquals(1, transport.getRecoveredCount());
+        Assert.assertEquals(1, transport.getSuccessCount(3));
+        // the retries fail over to the other nodes
+        Assert.assertEquals("", attemptNodes.get(0));
+        Assert.assertTrue(nodes.contains(attemptNodes.get(1)));
+        Assert.assertTrue(nodes.contains(attemptNodes.get(2)));
+        Assert.assertNotEquals(attemptNodes.get(1), attemptNodes.get(2));
+        Assert.assertEquals(2, transport.getFailoverCount());
+    }
+
+    @Test
+    public void testFailoverSkipsFailedNodes() throws Exception {
+        RetryConfig config = newConfig();
+        config.setMaxAttempts(4);
+        config.setMaxRetryBurst(100);
+        RetryingRpcTransport transport = newTransport(config);
+        downNodes.add("node0");
+        downNodes.add("node1");
+        for (int i = 0; i < 10; i++) {
+            Response response = send(transport, "", JsonRpcMethods.CALL);
+            Assert.assertEquals(0, response.getErrorCode().intValue());
+        }
+        Assert.assertEquals(10, transport.getRecoveredCount());
+        Assert.assertEquals(0, transport.getAttemptsExhaustedCount());
+
+        // the request to the specified node is retried on it
+        attemptNodes.clear();
+        long failovers = transport.getFailoverCount();
+        Response response = send(transport, "node1", JsonRpcMethods.CALL);
+        Assert.assertEquals(-1, response.getErrorCode().intValue());
+        Assert.assertEquals(Arrays.asList("node1", "node1", "node1", "node1"), attemptNodes);
+        Assert.assertEquals(failovers, transport.getFailoverCount());
+        Assert.assertEquals(1, transport.getAttemptsExhaustedCount());
+    }
+
+    @Test
+    public void testTransactionNotRetried() throws Exception {
+        RetryConfig config = newConfig();
+        // the transactions can't be retried even if configured
+        config.getMethods().add(JsonRpcMethods.SEND_TRANSACTION);
+        RetryingRpcTransport transport = newTransport(config);
+        failuresLeft.set(1);
+        Response response = send(transport, "", JsonRpcMethods.SEND_TRANSACTION);
+        Assert.assertEquals(-1, response.getErrorCode().intValue());
+        Assert.assertEquals(1, attemptNodes.size());
+        Assert.assertEquals(0, transport.getRequestCount());
+        Assert.assertEquals(0, transport.getRetryCount());
+    }
+
+    @Test
+    public void testRetryBudget() throws Exception {
+        RetryConfig config = newConfig();
+        config.setMaxRetryBurst(2);
+        config.setMaxRetryRatio(0);
+        RetryingRpcTransport transport = newTransport(config);
+        failuresLeft.set(Integer.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            Response response = send(transport, "", JsonRpcMethods.GET_BLOCK_BY_NUMBER);
+            Assert.assertEquals(-1, response.getErrorCode().intValue());
+        }
+        // the first request takes the whole budget, the others fail at once
+        Assert.assertEquals(2, transport.getRetryCount());
+        Assert.assertEquals(1, transport.getAttemptsExhaustedCount());
+        Assert.assertEquals(4, transport.getBudgetExhaustedCount());
+        Assert.assertEquals(7, transport.getAttemptCount());
+    }
+
+    @Test
+    public void testMaxElapsed() throws Exception {
+        RetryConfig config = newConfig();
+        config.setInitialBackoffMs(100);
+        config.setMaxElapsedMs(50);
+        RetryingRpcTransport transport = newTransport(config);
+        failuresLeft.set(1);
+        Response response = send(transport, "", JsonRpcMethods.GET_BLOCK_NUMBER);
+        Assert.assertEquals(-1, response.getErrorCode().intValue());
+        Assert.assertEquals(1, transport.getElapsedExceededCount());
+        Assert.assertEquals(0, transport.getRetryCount());
+    }
+}
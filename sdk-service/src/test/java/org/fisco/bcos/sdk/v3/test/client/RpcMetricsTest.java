@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.test.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.client.metrics.Histogram;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetrics;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetricsListener;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetricsRegistry;
+import org.fisco.bcos.sdk.v3.client.transport.MetricsRpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RpcMetricsTest {
+    private static final String RESULT = "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":\"0x10\"}";
+    private static final String ERROR =
+            "{\"id\":1,\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32602,\"message\":\"error\"}}";
+
+    /** a node answering the requests later, by the test */
+    private static class StubNode implements RpcTransport {
+        private final AtomicReference<ResponseCallback> pending = new AtomicReference<>();
+
+        @Override
+        public void sendRequest(
+                String groupID, String node, String request, ResponseCallback callback) {
+            pending.set(callback);
+        }
+
+        void answer(int errorCode, String content) {
+            Response response = new Response();
+            response.setErrorCode(errorCode);
+            response.setContent(
+                    content == null ? null : content.getBytes(StandardCharsets.UTF_8));
+            pending.getAndSet(null).onResponse(response);
+        }
+    }
+
+    private static Response newResponse(String content) {
+        Response response = new Response();
+        response.setErrorCode(0);
+        response.setContent(content.getBytes(StandardCharsets.UTF_8));
+        return response;
+    }
+
+    @Test
+    public void testHistogramPrecision() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            long expected = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            // within the width of one bucket
+            Assert.assertTrue(actual >= expected);
+            Assert.assertTrue(actual <= expected + expected / 16 + 1);
+        }
+        Assert.assertEquals(values.length, histogram.getCount());
+        Assert.assertEquals(values[values.length - 1], histogram.getMax());
+
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(Histogram.MAX_VALUE, histogram.getMax());
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testErrorCode() {
+        Assert.assertEquals(0, MetricsRpcTransport.errorCodeOf(newResponse(RESULT)));
+        Assert.assertEquals(-32602, MetricsRpcTransport.errorCodeOf(newResponse(ERROR)));
+        // the error text in the result is not an error
+        Assert.assertEquals(
+                0,
+                MetricsRpcTransport.errorCodeOf(
+                        newResponse("{\"id\":1,\"result\":{\"error\":{\"code\":1}}}")));
+        Assert.assertEquals(
+                -1,
+                MetricsRpcTransport.errorCodeOf(
+                        newResponse(
+                                "{\"id\":1,\"result\":null,"
+                                        + "\"error\":{\"code\":-1,\"message\":\"\"}}")));
+        Response failed = new Response();
+        failed.setErrorCode(-5);
+        Assert.assertEquals(-5, MetricsRpcTransport.errorCodeOf(failed));
+        Assert.assertEquals(0, MetricsRpcTransport.errorCodeOf(newResponse("[" + ERROR + "]")));
+        Assert.assertEquals(0, MetricsRpcTransport.errorCodeOf(newResponse("{\"error\"")));
+    }
+
+    @Test
+    public void testMetricsByMethodAndNode() {
+        StubNode node = new StubNode();
+        RpcMetricsRegistry registry = new RpcMetricsRegistry();
+        MetricsRpcTransport transport = new MetricsRpcTransport(node, registry);
+        ResponseCallback ignored =
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {}
+                };
+
+        transport.sendRequest("group0", "node0", "call", "{\"method\":\"call\"}", ignored);
+        RpcMetrics callMetrics = registry.getMetrics("call", "node0");
+        Assert.assertEquals(1, callMetrics.getInFlight());
+        node.answer(0, RESULT);
+        Assert.assertEquals(0, callMetrics.getInFlight());
+
+        transport.sendRequest("group0", "node0", "call", "{\"method\":\"call\"}", ignored);
+        node.answer(0, ERROR);
+        transport.sendRequest("group0", "node1", "call", "{\"method\":\"call\"}", ignored);
+        node.answer(-5, null);
+        transport.sendRequest("group0", "", "getCode", "{}", ignored);
+        node.answer(0, RESULT);
+
+        Assert.assertEquals(2, callMetrics.getRequestCount());
+        Assert.assertEquals(1, callMetrics.getErrorCount());
+        Assert.assertEquals(1L, callMetrics.getErrorCounts().get(-32602).longValue());
+        Assert.assertEquals(2, callMetrics.getLatencyMicros().getCount());
+        Assert.assertEquals(17, callMetrics.getRequestSizes().getMax());
+        Assert.assertEquals(ERROR.length(), callMetrics.getResponseSizes().getMax());
+        Assert.assertEquals(
+                1L, registry.getMetrics("call", "node1").getErrorCounts().get(-5).longValue());
+        Assert.assertEquals(1, registry.getMetrics("getCode", "").getRequestCount());
+        Assert.assertEquals(2, registry.getMetrics("call").size());
+        Assert.assertEquals(3, registry.getAllMetrics().size());
+        Assert.assertNull(registry.getMetrics("getCode", "node0"));
+    }
+
+    @Test
+    public void testListenerFailure() {
+        StubNode node = new StubNode();
+        MetricsRpcTransport transport =
+                new MetricsRpcTransport(
+                        node,
+                        new RpcMetricsListener() {
+                            @Override
+                            public void onRequest(
+                                    String groupID, String n, String method, int requestSize) {
+                                throw new IllegalStateException("listener failure");
+                            }
+
+                            @Override
+                            public void onResponse(
+                                    String groupID,
+                                    String n,
+                                    String method,
+                                    long latencyNanos,
+                                    int errorCode,
+                                    int responseSize) {
+                                throw new IllegalStateException("listener failure");
+                            }
+                        });
+        AtomicReference<Response> received = new AtomicReference<>();
+        transport.sendRequest(
+                "group0",
+                "",
+                "call",
+                "{}",
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        received.set(response);
+                    }
+                });
+        node.answer(0, RESULT);
+        // the request is not affected by the listener
+        Assert.assertNotNull(received.get());
+        Assert.assertEquals(2, transport.getListenerErrorCount());
+    }
+}
@@ -47,6 +47,7 @@ import org.fisco.bcos.sdk.v3.transaction.model.dto.TransactionResponse;
 import org.fisco.bcos.sdk.v3.transaction.model.exception.NoSuchTransactionFileException;
 import org.fisco.bcos.sdk.v3.transaction.model.exception.TransactionBaseException;
 import org.fisco.bcos.sdk.v3.transaction.model.exception.TransactionException;
+import org.fisco.bcos.sdk.v3.transaction.pusher.SendRateController;
 import org.fisco.bcos.sdk.v3.transaction.pusher.TransactionPusherInterface;
 import org.fisco.bcos.sdk.v3.transaction.pusher.TransactionPusherService;
 import org.fisco.bcos.sdk.v3.transaction.tools.ContractLoader;
@@ -497,4 +498,13 @@ public class AssembleTransactionProcessor extends TransactionProcessor
     public ContractLoader getContractLoader() {
         return this.contractLoader;
     }
+
+    @Override
+    public void setSendRateController(SendRateController sendRateController) {
+        super.setSendRateController(sendRateController);
+        if (this.transactionPusher instanceof TransactionPusherService) {
+            ((TransactionPusherService) this.transactionPusher)
+                    .setSendRateController(sendRateController);
+        }
+    }
 }
@@ -401,7 +401,7 @@ public interface AssembleTransactionProcessorInterface {
      * @param abi contract abi, which could be obtained by compiling solidity contract.
      * @param bin contract binary
      * @param params contract function parameters
-     * @return raw transaction
+     * @return raw transaction, owned by the caller, release it by TransactionDataHandle
      */
     long getRawTransactionForConstructor(String abi, String bin, List<Object> params)
             throws ContractCodecException, JniException;
@@ -413,7 +413,7 @@ public interface AssembleTransactionProcessorInterface {
      * @param abi contract abi, which could be obtained by compiling solidity contract.
      * @param bin contract binary
      * @param params contract function parameters
-     * @return raw transaction
+     * @return raw transaction, owned by the caller, release it by TransactionDataHandle
      */
     long getRawTransactionForConstructor(
             BigInteger blockLimit, String abi, String bin, List<Object> params)
@@ -426,7 +426,7 @@ public interface AssembleTransactionProcessorInterface {
      * @param abi contract abi, which could be obtained by compiling solidity contract.
      * @param functionName function name
      * @param params contract function parameters
-     * @return raw transaction
+     * @return raw transaction, owned by the caller, release it by TransactionDataHandle
      */
     long getRawTransaction(String to, String abi, String functionName, List<Object> params)
             throws ContractCodecException, JniException;
@@ -439,7 +439,7 @@ public interface AssembleTransactionProcessorInterface {
      * @param abi contract abi, which could be obtained by compiling solidity contract.
      * @param functionName function name
      * @param params contract function parameters
-     * @return raw transaction
+     * @return raw transaction, owned by the caller, release it by TransactionDataHandle
      */
     long getRawTransaction(
             BigInteger blockLimit, String to, String abi, String functionName, List<Object> params)
@@ -5,6 +5,10 @@ import static org.fisco.bcos.sdk.v3.client.protocol.model.Transaction.LIQUID_SCA
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.bouncycastle.util.encoders.Hex;
 import org.fisco.bcos.sdk.jni.common.JniException;
 import org.fisco.bcos.sdk.jni.utilities.tx.TxPair;
@@ -12,6 +16,7 @@ import org.fisco.bcos.sdk.v3.client.Client;
 import org.fisco.bcos.sdk.v3.codec.ContractCodecException;
 import org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair;
 import org.fisco.bcos.sdk.v3.crypto.signature.SignatureResult;
+import org.fisco.bcos.sdk.v3.model.TransactionDataHandle;
 import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
 import org.fisco.bcos.sdk.v3.transaction.codec.encode.TransactionEncoderService;
 import org.fisco.bcos.sdk.v3.transaction.model.dto.TransactionResponse;
@@ -24,7 +29,18 @@ import org.fisco.bcos.sdk.v3.transaction.tools.ContractLoader;
 
 public class AssembleTransactionWithRemoteSignProcessor extends AssembleTransactionProcessor
         implements AssembleTransactionWithRemoteSignProviderInterface {
+    // shared by all the processors which not set their own sign executor, the remote sign request
+    // is io bound, so the threads are created on demand and recycled when idle
+    private static final ExecutorService DEFAULT_SIGN_EXECUTOR =
+            Executors.newCachedThreadPool(
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("remote-sign-%d")
+                            .daemon(true)
+                            .build());
+
     private final RemoteSignProviderInterface transactionSignProvider;
+    private Executor signExecutor = DEFAULT_SIGN_EXECUTOR;
+    private boolean useAsyncSignProvider = false;
 
     public AssembleTransactionWithRemoteSignProcessor(
             Client client,
@@ -80,8 +96,13 @@ public class AssembleTransactionWithRemoteSignProcessor extends AssembleTransact
             List<Object> params,
             RemoteSignCallbackInterface remoteSignCallbackInterface)
             throws ContractCodecException, JniException {
-        long transactionData = this.getRawTransactionForConstructor(abi, bin, params);
-        byte[] rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData);
+        byte[] rawTxHash;
+        // only the hash is handed to the sign provider, release the transaction data at once
+        try (TransactionDataHandle transactionData =
+                TransactionDataHandle.wrap(
+                        this.getRawTransactionForConstructor(abi, bin, params))) {
+            rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData.get());
+        }
         this.transactionSignProvider.requestForSignAsync(
                 rawTxHash, this.cryptoSuite.getCryptoTypeConfig(), remoteSignCallbackInterface);
     }
@@ -90,13 +111,13 @@ public class AssembleTransactionWithRemoteSignProcessor extends AssembleTransact
     public CompletableFuture<TransactionReceipt> deployAsync(
             String abi, String bin, List<Object> params)
             throws ContractCodecException, JniException {
-        long transactionData = this.getRawTransactionForConstructor(abi, bin, params);
-        byte[] rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData);
+        TransactionDataHandle transactionData =
+                TransactionDataHandle.wrap(this.getRawTransactionForConstructor(abi, bin, params));
         int txAttribute = 0;
         if (client.isWASM()) {
             txAttribute = LIQUID_CREATE | LIQUID_SCALE_CODEC;
         }
-        return this.signAndPush(transactionData, rawTxHash, txAttribute);
+        return this.signAndPush(transactionData, txAttribute);
     }
 
     @Override
@@ -136,8 +157,12 @@ public class AssembleTransactionWithRemoteSignProcessor extends AssembleTransact
             List<Object> params,
             RemoteSignCallbackInterface remoteSignCallbackInterface)
             throws ContractCodecException, JniException {
-        long transactionData = this.getRawTransaction(to, abi, functionName, params);
-        byte[] rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData);
+        byte[] rawTxHash;
+        // only the hash is handed to the sign provider, release the transaction data at once
+        try (TransactionDataHandle transactionData =
+                TransactionDataHandle.wrap(this.getRawTransaction(to, abi, functionName, params))) {
+            rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData.get());
+        }
         this.transactionSignProvider.requestForSignAsync(
                 rawTxHash, this.cryptoSuite.getCryptoTypeConfig(), remoteSignCallbackInterface);
     }
@@ -146,24 +171,30 @@ public class AssembleTransactionWithRemoteSignProcessor extends AssembleTransact
     public CompletableFuture<TransactionReceipt> sendTransactionAsync(
             String to, String abi, String functionName, List<Object> params)
             throws ContractCodecException, JniException {
-        long transactionData = this.getRawTransaction(to, abi, functionName, params);
-        byte[] rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData);
+        TransactionDataHandle transactionData =
+                TransactionDataHandle.wrap(this.getRawTransaction(to, abi, functionName, params));
         int txAttribute = 0;
         if (client.isWASM()) {
             txAttribute = LIQUID_SCALE_CODEC;
         }
-        return this.signAndPush(transactionData, rawTxHash, txAttribute);
+        return this.signAndPush(transactionData, txAttribute);
     }
 
     @Override
     public TransactionReceipt encodeAndPush(
             long transactionData, String signatureStr, int txAttribute) throws JniException {
-        SignatureResult signatureResult =
-                TransactionSignerServcie.decodeSignatureString(
-                        signatureStr,
-                        this.cryptoSuite.getCryptoTypeConfig(),
-                        this.cryptoSuite.getCryptoKeyPair().getHexPublicKey());
         byte[] rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData);
+        return this.encodeAndPush(
+                transactionData, rawTxHash, this.decodeSignature(signatureStr), txAttribute);
+    }
+
+    @Override
+    public TransactionReceipt encodeAndPush(
+            long transactionData,
+            byte[] rawTxHash,
+            SignatureResult signatureResult,
+            int txAttribute)
+            throws JniException {
         byte[] signedTransaction =
                 this.transactionEncoder.encodeToTransactionBytes(
                         transactionData, rawTxHash, signatureResult, txAttribute);
@@ -173,32 +204,126 @@ public class AssembleTransactionWithRemoteSignProcessor extends AssembleTransact
     @Override
     public CompletableFuture<TransactionReceipt> signAndPush(
             long transactionData, byte[] rawTxHash, int txAttribute) {
-        CompletableFuture<SignatureResult> future =
-                CompletableFuture.supplyAsync(
-                        () ->
-                                this.transactionSignProvider.requestForSign(
-                                        rawTxHash, this.cryptoSuite.getCryptoTypeConfig()));
+        CompletableFuture<TransactionReceipt> cr =
+                this.requestForSign(rawTxHash)
+                        .thenCompose(
+                                signatureResult -> {
+                                    if (signatureResult == null) {
+                                        log.error("Request remote signature is null");
+                                        return CompletableFuture.completedFuture(null);
+                                    }
+                                    try {
+                                        // reuse the hash which has been signed, no need to encode
+                                        // and hash the transaction data again
+                                        byte[] signedTransaction =
+                                                this.transactionEncoder.encodeToTransactionBytes(
+                                                        transactionData,
+                                                        rawTxHash,
+                                                        this.decodeSignature(
+                                                                signatureResult
+                                                                        .convertToString()),
+                                                        txAttribute);
+                                        return this.transactionPusher.pushAsync(
+                                                Hex.toHexString(signedTransaction));
+                                    } catch (JniException e) {
+                                        log.error("jni e: ", e);
+                                        return CompletableFuture.completedFuture(null);
+                                    }
+                                });
+        log.info("Sign and push over, wait for callback...");
+        return cr;
+    }
+
+    /**
+     * sign and push the transaction data owned by the processor, the transaction data is released
+     * when the returned future completes
+     */
+    private CompletableFuture<TransactionReceipt> signAndPush(
+            TransactionDataHandle transactionData, int txAttribute) throws JniException {
+        CompletableFuture<TransactionReceipt> future;
+        try {
+            byte[] rawTxHash = this.transactionEncoder.encodeAndHashBytes(transactionData.get());
+            future = this.signAndPush(transactionData.get(), rawTxHash, txAttribute);
+        } catch (JniException | RuntimeException e) {
+            transactionData.close();
+            throw e;
+        }
+        return future.whenComplete((receipt, e) -> transactionData.close());
+    }
+
+    /**
+     * request the remote sign provider for the signature of the transaction hash, without blocking
+     * the caller thread
+     *
+     * @param rawTxHash the transaction hash to be signed
+     * @return the future of the signature result
+     */
+    protected CompletableFuture<SignatureResult> requestForSign(byte[] rawTxHash) {
+        int cryptoType = this.cryptoSuite.getCryptoTypeConfig();
+        CompletableFuture<SignatureResult> future;
+        if (this.useAsyncSignProvider) {
+            future = new CompletableFuture<>();
+            try {
+                CompletableFuture<SignatureResult> signFuture = future;
+                this.transactionSignProvider.requestForSignAsync(
+                        rawTxHash,
+                        cryptoType,
+                        signature -> {
+                            signFuture.complete(signature);
+                            return 0;
+                        });
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        } else {
+            future =
+                    CompletableFuture.supplyAsync(
+                            () ->
+                                    this.transactionSignProvider.requestForSign(
+                                            rawTxHash, cryptoType),
+                            this.signExecutor);
+        }
         future.exceptionally(
                 e -> {
                     log.error("Request remote sign Error: {}", e.getMessage());
                     return null;
                 });
-        CompletableFuture<TransactionReceipt> cr =
-                future.thenApplyAsync(
-                        s -> {
-                            if (s == null) {
-                                log.error("Request remote signature is null");
-                                return null;
-                            }
-                            try {
-                                return this.encodeAndPush(
-                                        transactionData, s.convertToString(), txAttribute);
-                            } catch (JniException e) {
-                                log.error("jni e: ", e);
-                            }
-                            return null;
-                        });
-        log.info("Sign and push over, wait for callback...");
-        return cr;
+        return future;
+    }
+
+    private SignatureResult decodeSignature(String signatureStr) {
+        return TransactionSignerServcie.decodeSignatureString(
+                signatureStr,
+                this.cryptoSuite.getCryptoTypeConfig(),
+                this.cryptoSuite.getCryptoKeyPair().getHexPublicKey());
+    }
+
+    public Executor getSignExecutor() {
+        return this.signExecutor;
+    }
+
+    /**
+     * set the executor to run the blocking requestForSign of the remote sign provider, the default
+     * executor is shared by all the processors
+     *
+     * @param signExecutor the executor to request remote sign
+     */
+    public void setSignExecutor(Executor signExecutor) {
+        this.signExecutor = signExecutor;
+    }
+
+    public boolean isUseAsyncSignProvider() {
+        return this.useAsyncSignProvider;
+    }
+
+    /**
+     * when set to true, signAndPush requests the signature by requestForSignAsync of the remote
+     * sign provider and continues in the provider callback, no executor thread is held while
+     * waiting for the signature
+     *
+     * @param useAsyncSignProvider whether use the async interface of the remote sign provider
+     */
+    public void setUseAsyncSignProvider(boolean useAsyncSignProvider) {
+        this.useAsyncSignProvider = useAsyncSignProvider;
     }
 }
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import org.fisco.bcos.sdk.jni.common.JniException;
 import org.fisco.bcos.sdk.v3.codec.ContractCodecException;
+import org.fisco.bcos.sdk.v3.crypto.signature.SignatureResult;
 import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
 import org.fisco.bcos.sdk.v3.transaction.model.exception.NoSuchTransactionFileException;
 import org.fisco.bcos.sdk.v3.transaction.model.exception.TransactionBaseException;
@@ -107,6 +108,26 @@ public interface AssembleTransactionWithRemoteSignProviderInterface {
     TransactionReceipt encodeAndPush(long transactionData, String signatureStr, int txAttribute)
             throws JniException;
 
+    /**
+     * encode the signed transaction with the hash already computed for the sign request, and send
+     * to fisco bcos node.
+     *
+     * @param transactionData raw transaction
+     * @param rawTxHash the hash of the raw transaction, which has been signed
+     * @param signatureResult the signature of rawTxHash
+     * @param txAttribute the attribute of the transaction
+     * @return TransactionReceipt
+     */
+    default TransactionReceipt encodeAndPush(
+            long transactionData,
+            byte[] rawTxHash,
+            SignatureResult signatureResult,
+            int txAttribute)
+            throws JniException {
+        // the implementations not reusing the hash encode and hash the transaction again
+        return this.encodeAndPush(transactionData, signatureResult.convertToString(), txAttribute);
+    }
+
     /**
      * sign based on raw transaction and send to fisco bcos node.
      *
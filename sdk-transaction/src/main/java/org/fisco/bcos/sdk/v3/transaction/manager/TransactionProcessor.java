@@ -28,6 +28,7 @@ import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
 import org.fisco.bcos.sdk.v3.transaction.codec.encode.TransactionEncoderInterface;
 import org.fisco.bcos.sdk.v3.transaction.codec.encode.TransactionEncoderService;
 import org.fisco.bcos.sdk.v3.transaction.model.dto.CallRequest;
+import org.fisco.bcos.sdk.v3.transaction.pusher.SendRateController;
 import org.fisco.bcos.sdk.v3.utils.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,7 @@ public class TransactionProcessor implements TransactionProcessorInterface {
     protected final String groupId;
     protected final String chainId;
     protected TransactionEncoderInterface transactionEncoder;
+    protected SendRateController sendRateController;
 
     public TransactionProcessor(
             Client client, CryptoKeyPair cryptoKeyPair, String groupId, String chainId) {
@@ -56,8 +58,7 @@ public class TransactionProcessor implements TransactionProcessorInterface {
             String to, byte[] data, String abi, CryptoKeyPair cryptoKeyPair, int txAttribute) {
         TxPair txPair =
                 this.createDeploySignedTransaction(to, data, abi, cryptoKeyPair, txAttribute);
-        TransactionReceipt transactionReceipt =
-                this.client.sendTransaction(txPair.getSignedTx(), false).getTransactionReceipt();
+        TransactionReceipt transactionReceipt = this.sendTransaction(txPair.getSignedTx());
         if (Objects.nonNull(transactionReceipt)
                 && (Objects.isNull(transactionReceipt.getTransactionHash())
                         || "".equals(transactionReceipt.getTransactionHash()))) {
@@ -70,8 +71,7 @@ public class TransactionProcessor implements TransactionProcessorInterface {
     public TransactionReceipt sendTransactionAndGetReceipt(
             String to, byte[] data, CryptoKeyPair cryptoKeyPair, int txAttribute) {
         TxPair txPair = this.createSignedTransaction(to, data, cryptoKeyPair, txAttribute);
-        TransactionReceipt transactionReceipt =
-                this.client.sendTransaction(txPair.getSignedTx(), false).getTransactionReceipt();
+        TransactionReceipt transactionReceipt = this.sendTransaction(txPair.getSignedTx());
         if (Objects.nonNull(transactionReceipt)
                 && (Objects.isNull(transactionReceipt.getTransactionHash())
                         || "".equals(transactionReceipt.getTransactionHash()))) {
@@ -88,10 +88,28 @@ public class TransactionProcessor implements TransactionProcessorInterface {
             int txAttribute,
             TransactionCallback callback) {
         TxPair txPair = this.createSignedTransaction(to, data, cryptoKeyPair, txAttribute);
+        if (this.sendRateController != null) {
+            this.sendRateController.acquire();
+            callback = this.sendRateController.wrap(callback);
+        }
         this.client.sendTransactionAsync(txPair.getSignedTx(), false, callback);
         return txPair.getTxHash();
     }
 
+    private TransactionReceipt sendTransaction(String signedTransaction) {
+        if (this.sendRateController == null) {
+            return this.client.sendTransaction(signedTransaction, false).getTransactionReceipt();
+        }
+        this.sendRateController.acquire();
+        TransactionReceipt receipt = null;
+        try {
+            receipt = this.client.sendTransaction(signedTransaction, false).getTransactionReceipt();
+            return receipt;
+        } finally {
+            this.sendRateController.onReceipt(receipt);
+        }
+    }
+
     @Override
     public Call executeCall(CallRequest callRequest) {
         return this.executeCall(
@@ -154,4 +172,19 @@ public class TransactionProcessor implements TransactionProcessorInterface {
             return null;
         }
     }
+
+    /** @return the send rate controller, null if the send rate is not limited */
+    public SendRateController getSendRateController() {
+        return this.sendRateController;
+    }
+
+    /**
+     * throttle the transactions sent by this processor, the controller can be shared by the
+     * processors sending to the same group
+     *
+     * @param sendRateController the send rate controller, null to disable
+     */
+    public void setSendRateController(SendRateController sendRateController) {
+        this.sendRateController = sendRateController;
+    }
 }
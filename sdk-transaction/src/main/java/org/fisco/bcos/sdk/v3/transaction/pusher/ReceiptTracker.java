@@ -0,0 +1,455 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.pusher;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.client.protocol.model.JsonTransactionResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.request.BatchRequest;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BatchResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.TransactionReceiptStatus;
+import org.fisco.bcos.sdk.v3.transaction.model.exception.TransactionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Track the receipts of the sent transactions by one poll loop.
+ *
+ * <p>Instead of polling the receipt of every transaction, each poll gets the latest block number,
+ * scans the transaction hashes of the new blocks, and looks up the receipts of the tracked
+ * transactions found in them by batch requests. A newly tracked transaction is looked up once
+ * directly, in case it is committed before it is tracked. So the RPC count of a poll depends on the
+ * new blocks and the committed transactions, not on the count of the pending transactions. The
+ * poll interval is doubled while nothing is new, and reset when something is. A transaction is
+ * given up with a TransactionException of the TimeOut status when the blocks beyond its block
+ * limit are scanned.
+ */
+public class ReceiptTracker {
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptTracker.class);
+
+    private final LongSupplier blockNumberSupplier;
+    private final LongFunction<List<String>> blockTransactionsFetcher;
+    private final Function<List<String>, List<TransactionReceipt>> receiptsFetcher;
+    private final ReceiptTrackerConfig config;
+    private ScheduledExecutorService pollScheduler;
+
+    private static class TrackedTransaction {
+        // guarded by the tracker
+        private long blockLimit;
+        private final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+
+        TrackedTransaction(long blockLimit) {
+            this.blockLimit = blockLimit;
+        }
+    }
+
+    // guarded by this
+    private final Map<String, TrackedTransaction> tracked = new HashMap<>();
+    // the transactions to look up directly, not found by scanning the blocks
+    private final ArrayDeque<String> lookupQueue = new ArrayDeque<>();
+    private long latestBlockNumber = -1;
+    private long scannedBlockNumber = -1;
+    private long pollIntervalMs;
+    private long nextPollNanos = 0;
+
+    private final AtomicLong pollCount = new AtomicLong(0);
+    private final AtomicLong scannedBlockCount = new AtomicLong(0);
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong resolvedCount = new AtomicLong(0);
+    private final AtomicLong expiredCount = new AtomicLong(0);
+    private final AtomicLong failedPollCount = new AtomicLong(0);
+
+    /**
+     * create the tracker polling by the client
+     *
+     * @param client the client of the group the transactions are sent to
+     * @param config the parameters of the tracker
+     */
+    public ReceiptTracker(Client client, ReceiptTrackerConfig config) {
+        this(
+                () -> client.getBlockNumber().getBlockNumber().longValue(),
+                blockNumber ->
+                        getTransactionHashes(
+                                client.getBlockByNumber(
+                                                BigInteger.valueOf(blockNumber), false, true)
+                                        .getBlock()),
+                transactionHashes -> getReceipts(client, transactionHashes),
+                config);
+    }
+
+    /**
+     * create the tracker
+     *
+     * @param blockNumberSupplier supply the latest block number
+     * @param blockTransactionsFetcher fetch the transaction hashes of the block
+     * @param receiptsFetcher fetch the receipts of the transactions by one request, null for the
+     *     receipts not found
+     * @param config the parameters of the tracker
+     */
+    public ReceiptTracker(
+            LongSupplier blockNumberSupplier,
+            LongFunction<List<String>> blockTransactionsFetcher,
+            Function<List<String>, List<TransactionReceipt>> receiptsFetcher,
+            ReceiptTrackerConfig config) {
+        this.blockNumberSupplier = blockNumberSupplier;
+        this.blockTransactionsFetcher = blockTransactionsFetcher;
+        this.receiptsFetcher = receiptsFetcher;
+        this.config = config;
+        this.pollIntervalMs = config.getMinPollIntervalMs();
+    }
+
+    private static List<String> getTransactionHashes(BcosBlock.Block block) {
+        if (Objects.isNull(block) || Objects.isNull(block.getTransactions())) {
+            return Collections.emptyList();
+        }
+        List<String> transactionHashes = new ArrayList<>(block.getTransactions().size());
+        for (BcosBlock.TransactionResult transaction : block.getTransactions()) {
+            Object value = transaction.get();
+            transactionHashes.add(
+                    value instanceof JsonTransactionResponse
+                            ? ((JsonTransactionResponse) value).getHash()
+                            : (String) value);
+        }
+        return transactionHashes;
+    }
+
+    private static List<TransactionReceipt> getReceipts(
+            Client client, List<String> transactionHashes) {
+        BatchRequest batchRequest = client.batchRequest();
+        for (String transactionHash : transactionHashes) {
+            batchRequest.getTransactionReceipt(transactionHash, false);
+        }
+        BatchResponse batchResponse = batchRequest.send();
+        List<TransactionReceipt> receipts = new ArrayList<>(batchResponse.size());
+        for (int i = 0; i < batchResponse.size(); i++) {
+            receipts.add(
+                    batchResponse.hasError(i)
+                            ? null
+                            : batchResponse
+                                    .get(i, BcosTransactionReceipt.class)
+                                    .getTransactionReceipt());
+        }
+        return receipts;
+    }
+
+    /** start polling periodically */
+    public synchronized void start() {
+        if (this.pollScheduler != null) {
+            return;
+        }
+        this.pollScheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("receipt-tracker-%d")
+                                .daemon(true)
+                                .build());
+        // the ticks are skipped until the next poll time, so tracking a transaction can wake it up
+        this.pollScheduler.scheduleWithFixedDelay(
+                this::tick,
+                this.config.getMinPollIntervalMs(),
+                this.config.getMinPollIntervalMs(),
+                TimeUnit.MILLISECONDS);
+        logger.info("start receipt tracker, config: {}", this.config);
+    }
+
+    /** stop polling, the tracked transactions stay pending */
+    public synchronized void stop() {
+        if (this.pollScheduler != null) {
+            this.pollScheduler.shutdownNow();
+            this.pollScheduler = null;
+        }
+    }
+
+    /**
+     * track a transaction with the default block limit range
+     *
+     * @param transactionHash the hash of the sent transaction
+     * @return the future of the receipt
+     */
+    public CompletableFuture<TransactionReceipt> track(String transactionHash) {
+        long blockLimit;
+        synchronized (this) {
+            blockLimit =
+                    this.latestBlockNumber < 0
+                            ? -1
+                            : this.latestBlockNumber + this.config.getDefaultBlockLimitRange();
+        }
+        return this.track(transactionHash, blockLimit);
+    }
+
+    /**
+     * track a transaction
+     *
+     * @param transactionHash the hash of the sent transaction
+     * @param blockLimit the block limit of the transaction, negative to use the default range from
+     *     the block number of the next poll
+     * @return the future of the receipt, completed exceptionally with a TransactionException if the
+     *     transaction is not committed before its block limit
+     */
+    public synchronized CompletableFuture<TransactionReceipt> track(
+            String transactionHash, long blockLimit) {
+        Objects.requireNonNull(transactionHash, "the transaction hash must not be null");
+        TrackedTransaction transaction = this.tracked.get(transactionHash);
+        if (transaction == null) {
+            transaction = new TrackedTransaction(blockLimit);
+            this.tracked.put(transactionHash, transaction);
+            this.lookupQueue.add(transactionHash);
+            this.wakeUp();
+        }
+        return transaction.future;
+    }
+
+    // called with the lock held
+    private void wakeUp() {
+        this.pollIntervalMs = this.config.getMinPollIntervalMs();
+        this.nextPollNanos = 0;
+    }
+
+    private void tick() {
+        synchronized (this) {
+            if (this.tracked.isEmpty() || System.nanoTime() < this.nextPollNanos) {
+                return;
+            }
+        }
+        try {
+            this.poll();
+        } catch (Exception e) {
+            this.failedPollCount.incrementAndGet();
+            logger.warn("poll receipts failed, e: {}", e.getMessage());
+            synchronized (this) {
+                this.backOff();
+            }
+        }
+    }
+
+    // called with the lock held
+    private void backOff() {
+        this.pollIntervalMs = Math.min(this.config.getMaxPollIntervalMs(), this.pollIntervalMs * 2);
+        this.nextPollNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.pollIntervalMs);
+    }
+
+    /**
+     * poll once, called by the poll thread after start, or by the callers driving the poll
+     * themselves
+     *
+     * @return the count of the receipts resolved
+     */
+    public int poll() {
+        this.pollCount.incrementAndGet();
+        long blockNumber = this.blockNumberSupplier.getAsLong();
+        long fromBlockNumber;
+        long toBlockNumber;
+        synchronized (this) {
+            this.latestBlockNumber = Math.max(this.latestBlockNumber, blockNumber);
+            if (this.scannedBlockNumber < 0) {
+                // the transactions committed before are found by the direct lookups
+                this.scannedBlockNumber = blockNumber;
+            }
+            for (TrackedTransaction transaction : this.tracked.values()) {
+                if (transaction.blockLimit < 0) {
+                    // the block limit is unknown until the first block number
+                    transaction.blockLimit =
+                            this.latestBlockNumber + this.config.getDefaultBlockLimitRange();
+                }
+            }
+            fromBlockNumber = this.scannedBlockNumber + 1;
+            toBlockNumber =
+                    Math.min(
+                            this.latestBlockNumber,
+                            this.scannedBlockNumber + this.config.getMaxBlocksPerPoll());
+        }
+
+        // the transactions found in the new blocks
+        Set<String> found = new HashSet<>();
+        for (long number = fromBlockNumber; number <= toBlockNumber; number++) {
+            List<String> transactionHashes = this.blockTransactionsFetcher.apply(number);
+            this.scannedBlockCount.incrementAndGet();
+            synchronized (this) {
+                for (String transactionHash : transactionHashes) {
+                    if (this.tracked.containsKey(transactionHash)) {
+                        found.add(transactionHash);
+                    }
+                }
+                this.scannedBlockNumber = number;
+            }
+        }
+        List<String> lookups = new ArrayList<>(found);
+        synchronized (this) {
+            for (int i = 0; i < this.config.getMaxBatchSize() && !this.lookupQueue.isEmpty(); i++) {
+                String transactionHash = this.lookupQueue.poll();
+                if (this.tracked.containsKey(transactionHash) && !found.contains(transactionHash)) {
+                    lookups.add(transactionHash);
+                }
+            }
+        }
+
+        int resolved = 0;
+        int index = 0;
+        try {
+            for (; index < lookups.size(); index += this.config.getMaxBatchSize()) {
+                List<String> batch =
+                        lookups.subList(
+                                index,
+                                Math.min(lookups.size(), index + this.config.getMaxBatchSize()));
+                resolved += this.lookUp(batch, found);
+            }
+        } finally {
+            if (index < lookups.size()) {
+                // look up the rest by the next poll
+                synchronized (this) {
+                    this.lookupQueue.addAll(lookups.subList(index, lookups.size()));
+                }
+            }
+        }
+
+        this.expire();
+        synchronized (this) {
+            if (toBlockNumber >= fromBlockNumber || resolved > 0 || !this.lookupQueue.isEmpty()) {
+                this.pollIntervalMs = this.config.getMinPollIntervalMs();
+                this.nextPollNanos =
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.pollIntervalMs);
+            } else {
+                this.backOff();
+            }
+        }
+        return resolved;
+    }
+
+    private int lookUp(List<String> transactionHashes, Set<String> found) {
+        List<TransactionReceipt> receipts = this.receiptsFetcher.apply(transactionHashes);
+        this.batchCount.incrementAndGet();
+        int resolved = 0;
+        for (int i = 0; i < transactionHashes.size(); i++) {
+            String transactionHash = transactionHashes.get(i);
+            TransactionReceipt receipt = i < receipts.size() ? receipts.get(i) : null;
+            TrackedTransaction transaction;
+            synchronized (this) {
+                if (receipt == null) {
+                    if (found.contains(transactionHash)) {
+                        // in the block but the receipt is not visible yet
+                        this.lookupQueue.add(transactionHash);
+                    }
+                    continue;
+                }
+                transaction = this.tracked.remove(transactionHash);
+            }
+            if (transaction != null) {
+                this.resolvedCount.incrementAndGet();
+                resolved++;
+                transaction.future.complete(receipt);
+            }
+        }
+        return resolved;
+    }
+
+    private void expire() {
+        List<Map.Entry<String, TrackedTransaction>> expired = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, TrackedTransaction>> iterator =
+                    this.tracked.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, TrackedTransaction> entry = iterator.next();
+                TrackedTransaction transaction = entry.getValue();
+                if (transaction.future.isDone()) {
+                    // cancelled by the caller
+                    iterator.remove();
+                } else if (transaction.blockLimit >= 0
+                        && this.scannedBlockNumber
+                                > transaction.blockLimit + this.config.getExpireBlocks()) {
+                    iterator.remove();
+                    expired.add(entry);
+                }
+            }
+        }
+        for (Map.Entry<String, TrackedTransaction> entry : expired) {
+            this.expiredCount.incrementAndGet();
+            entry.getValue()
+                    .future
+                    .completeExceptionally(
+                            new TransactionException(
+                                    "the transaction is not committed before the block limit "
+                                            + entry.getValue().blockLimit,
+                                    TransactionReceiptStatus.TimeOut.getCode(),
+                                    BigInteger.ZERO,
+                                    entry.getKey()));
+        }
+    }
+
+    /** @return the count of the transactions waiting for receipt */
+    public synchronized int getPendingCount() {
+        return this.tracked.size();
+    }
+
+    /** @return the current poll interval, doubled while nothing is new */
+    public synchronized long getPollIntervalMs() {
+        return this.pollIntervalMs;
+    }
+
+    public synchronized long getScannedBlockNumber() {
+        return this.scannedBlockNumber;
+    }
+
+    public long getPollCount() {
+        return this.pollCount.get();
+    }
+
+    public long getScannedBlockCount() {
+        return this.scannedBlockCount.get();
+    }
+
+    /** @return the count of the batch requests of receipts */
+    public long getBatchCount() {
+        return this.batchCount.get();
+    }
+
+    public long getResolvedCount() {
+        return this.resolvedCount.get();
+    }
+
+    /** @return the count of the transactions given up after their block limit */
+    public long getExpiredCount() {
+        return this.expiredCount.get();
+    }
+
+    public long getFailedPollCount() {
+        return this.failedPollCount.get();
+    }
+
+    public ReceiptTrackerConfig getConfig() {
+        return this.config;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.pusher;
+
+/** the parameters of the ReceiptTracker */
+public class ReceiptTrackerConfig {
+    // the poll interval when new blocks or receipts are found
+    private long minPollIntervalMs = 200;
+    // the poll interval is doubled up to this value while nothing is new
+    private long maxPollIntervalMs = 2000;
+    // the max count of the receipts looked up by one batch request
+    private int maxBatchSize = 100;
+    // the max count of the new blocks scanned by one poll, the rest are scanned by the next polls
+    private int maxBlocksPerPoll = 10;
+    // stop polling a transaction when this count of blocks beyond its block limit are scanned
+    private long expireBlocks = 10;
+    // the block limit of the transactions tracked without one, relative to the latest block
+    private long defaultBlockLimitRange = 500;
+
+    public long getMinPollIntervalMs() {
+        return minPollIntervalMs;
+    }
+
+    public void setMinPollIntervalMs(long minPollIntervalMs) {
+        this.minPollIntervalMs = minPollIntervalMs;
+    }
+
+    public long getMaxPollIntervalMs() {
+        return maxPollIntervalMs;
+    }
+
+    public void setMaxPollIntervalMs(long maxPollIntervalMs) {
+        this.maxPollIntervalMs = maxPollIntervalMs;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBlocksPerPoll() {
+        return maxBlocksPerPoll;
+    }
+
+    public void setMaxBlocksPerPoll(int maxBlocksPerPoll) {
+        this.maxBlocksPerPoll = maxBlocksPerPoll;
+    }
+
+    public long getExpireBlocks() {
+        return expireBlocks;
+    }
+
+    public void setExpireBlocks(long expireBlocks) {
+        this.expireBlocks = expireBlocks;
+    }
+
+    public long getDefaultBlockLimitRange() {
+        return defaultBlockLimitRange;
+    }
+
+    public void setDefaultBlockLimitRange(long defaultBlockLimitRange) {
+        this.defaultBlockLimitRange = defaultBlockLimitRange;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiptTrackerConfig{"
+                + "minPollIntervalMs="
+                + minPollIntervalMs
+                + ", maxPollIntervalMs="
+                + maxPollIntervalMs
+                + ", maxBatchSize="
+                + maxBatchSize
+                + ", maxBlocksPerPoll="
+                + maxBlocksPerPoll
+                + ", expireBlocks="
+                + expireBlocks
+                + ", defaultBlockLimitRange="
+                + defaultBlockLimitRange
+                + '}';
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.pusher;
+
+/** the parameters of the SendRateController, the rates are in transactions per second */
+public class SendRateConfig {
+    private double initialRate = 100;
+    private double minRate = 10;
+    private double maxRate = 10000;
+    // the rate added every sample interval when the node is not overloaded
+    private double additiveIncrease = 50;
+    // the rate multiplied by this factor when the node is overloaded
+    private double decreaseFactor = 0.5;
+    // the txpool of the node is regarded as overloaded when the pending tx size exceeds this value
+    private long targetPendingTxSize = 10000;
+    // the node is regarded as overloaded when the ratio of failed and timeout transactions exceeds
+    // this value
+    private double maxFailureRatio = 0.05;
+    private long sampleIntervalMs = 1000;
+    // the rate is increased only when the transactions reported in a sample interval reach this
+    // ratio of the transactions permitted, so an idle sender can't ramp up and burst later
+    private double minUtilization = 0.8;
+
+    public double getInitialRate() {
+        return initialRate;
+    }
+
+    public void setInitialRate(double initialRate) {
+        this.initialRate = initialRate;
+    }
+
+    public double getMinRate() {
+        return minRate;
+    }
+
+    public void setMinRate(double minRate) {
+        this.minRate = minRate;
+    }
+
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    public void setMaxRate(double maxRate) {
+        this.maxRate = maxRate;
+    }
+
+    public double getAdditiveIncrease() {
+        return additiveIncrease;
+    }
+
+    public void setAdditiveIncrease(double additiveIncrease) {
+        this.additiveIncrease = additiveIncrease;
+    }
+
+    public double getDecreaseFactor() {
+        return decreaseFactor;
+    }
+
+    public void setDecreaseFactor(double decreaseFactor) {
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    public long getTargetPendingTxSize() {
+        return targetPendingTxSize;
+    }
+
+    public void setTargetPendingTxSize(long targetPendingTxSize) {
+        this.targetPendingTxSize = targetPendingTxSize;
+    }
+
+    public double getMaxFailureRatio() {
+        return maxFailureRatio;
+    }
+
+    public void setMaxFailureRatio(double maxFailureRatio) {
+        this.maxFailureRatio = maxFailureRatio;
+    }
+
+    public long getSampleIntervalMs() {
+        return sampleIntervalMs;
+    }
+
+    public void setSampleIntervalMs(long sampleIntervalMs) {
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+
+    public double getMinUtilization() {
+        return minUtilization;
+    }
+
+    public void setMinUtilization(double minUtilization) {
+        this.minUtilization = minUtilization;
+    }
+
+    @Override
+    public String toString() {
+        return "SendRateConfig{"
+                + "initialRate="
+                + initialRate
+                + ", minRate="
+                + minRate
+                + ", maxRate="
+                + maxRate
+                + ", additiveIncrease="
+                + additiveIncrease
+                + ", decreaseFactor="
+                + decreaseFactor
+                + ", targetPendingTxSize="
+                + targetPendingTxSize
+                + ", maxFailureRatio="
+                + maxFailureRatio
+                + ", sampleIntervalMs="
+                + sampleIntervalMs
+                + ", minUtilization="
+                + minUtilization
+                + '}';
+    }
+}
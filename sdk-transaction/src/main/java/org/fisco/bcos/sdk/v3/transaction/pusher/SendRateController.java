@@ -0,0 +1,339 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.pusher;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.TransactionReceiptStatus;
+import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adaptive send rate controller (additive increase, multiplicative decrease).
+ *
+ * <p>The pending tx size of the node is sampled every sample interval, together with the ratio of
+ * the failed and timeout transactions in the interval. The send rate is decreased multiplicatively
+ * when the txpool exceeds the target occupancy or the failure ratio is too high, otherwise it is
+ * increased additively if the transactions in the interval nearly used up the rate. The producers
+ * call {@link #acquire()} before sending a transaction and report the result by {@link
+ * #onReceipt(TransactionReceipt)}, {@link #onError()} or {@link #onTimeout()}.
+ */
+public class SendRateController {
+    private static final Logger logger = LoggerFactory.getLogger(SendRateController.class);
+
+    // complete the permits of acquireAsync, shared by the controllers
+    private static final ScheduledThreadPoolExecutor permitScheduler = createPermitScheduler();
+
+    private final LongSupplier pendingTxSizeSupplier;
+    private final SendRateConfig config;
+    private ScheduledExecutorService sampleScheduler;
+
+    private double rate;
+    private long intervalNanos;
+    private long nextPermitNanos = System.nanoTime();
+    private volatile long lastPendingTxSize = -1;
+
+    // counters of the current sample interval
+    private final AtomicLong windowSuccessCount = new AtomicLong(0);
+    private final AtomicLong windowErrorCount = new AtomicLong(0);
+    private final AtomicLong windowTimeoutCount = new AtomicLong(0);
+
+    private final AtomicLong successCount = new AtomicLong(0);
+    private final AtomicLong errorCount = new AtomicLong(0);
+    private final AtomicLong timeoutCount = new AtomicLong(0);
+    private final AtomicLong increaseCount = new AtomicLong(0);
+    private final AtomicLong decreaseCount = new AtomicLong(0);
+
+    /**
+     * create the controller sampling the pending tx size by the client
+     *
+     * @param client the client of the group to send transactions to
+     * @param config the parameters of the controller
+     */
+    public SendRateController(Client client, SendRateConfig config) {
+        this(() -> client.getPendingTxSize().getPendingTxSize().longValue(), config);
+    }
+
+    /**
+     * create the controller
+     *
+     * @param pendingTxSizeSupplier supply the current pending tx size of the node
+     * @param config the parameters of the controller
+     */
+    public SendRateController(LongSupplier pendingTxSizeSupplier, SendRateConfig config) {
+        this.pendingTxSizeSupplier = pendingTxSizeSupplier;
+        this.config = config;
+        this.setRate(config.getInitialRate());
+    }
+
+    private static ScheduledThreadPoolExecutor createPermitScheduler() {
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("send-rate-permit-%d")
+                                .daemon(true)
+                                .build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /** start sampling the node periodically */
+    public synchronized void start() {
+        if (this.sampleScheduler != null) {
+            return;
+        }
+        this.sampleScheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("send-rate-sampler-%d")
+                                .daemon(true)
+                                .build());
+        this.sampleScheduler.scheduleWithFixedDelay(
+                this::sample,
+                this.config.getSampleIntervalMs(),
+                this.config.getSampleIntervalMs(),
+                TimeUnit.MILLISECONDS);
+        logger.info("start send rate controller, config: {}", this.config);
+    }
+
+    /** stop sampling the node */
+    public synchronized void stop() {
+        if (this.sampleScheduler != null) {
+            this.sampleScheduler.shutdownNow();
+            this.sampleScheduler = null;
+        }
+    }
+
+    private void sample() {
+        long pendingTxSize = -1;
+        try {
+            pendingTxSize = this.pendingTxSizeSupplier.getAsLong();
+        } catch (Exception e) {
+            logger.warn("get pending tx size failed, e: {}", e.getMessage());
+        }
+        this.adjust(pendingTxSize);
+    }
+
+    /**
+     * adjust the send rate by one sample, called every sample interval
+     *
+     * @param pendingTxSize the pending tx size of the node, negative if unknown
+     * @return the adjusted send rate
+     */
+    public synchronized double adjust(long pendingTxSize) {
+        long success = this.windowSuccessCount.getAndSet(0);
+        long error = this.windowErrorCount.getAndSet(0);
+        long timeout = this.windowTimeoutCount.getAndSet(0);
+        long total = success + error + timeout;
+        double failureRatio = total == 0 ? 0 : (double) (error + timeout) / total;
+        this.lastPendingTxSize = pendingTxSize;
+
+        if (pendingTxSize > this.config.getTargetPendingTxSize()
+                || failureRatio > this.config.getMaxFailureRatio()) {
+            this.setRate(this.rate * this.config.getDecreaseFactor());
+            this.decreaseCount.incrementAndGet();
+        } else if (pendingTxSize >= 0 && this.isRateUsedUp(total)) {
+            // never increase the rate blindly when the node can't be sampled or the rate is not
+            // used, the sender would burst into the node at the rate never tried
+            this.setRate(this.rate + this.config.getAdditiveIncrease());
+            this.increaseCount.incrementAndGet();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    "adjust send rate, pendingTxSize: {}, failureRatio: {}, rate: {}",
+                    pendingTxSize,
+                    failureRatio,
+                    this.rate);
+        }
+        return this.rate;
+    }
+
+    private boolean isRateUsedUp(long total) {
+        double permitted = this.rate * this.config.getSampleIntervalMs() / 1000;
+        return total > 0 && total >= permitted * this.config.getMinUtilization();
+    }
+
+    private void setRate(double rate) {
+        this.rate = Math.max(this.config.getMinRate(), Math.min(this.config.getMaxRate(), rate));
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / this.rate);
+    }
+
+    /** block until the transaction is allowed to be sent at the current rate */
+    public void acquire() {
+        long waitNanos = this.reserve();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * acquire the permit without blocking the caller
+     *
+     * @return the future completed when the transaction is allowed to be sent at the current rate
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long waitNanos = this.reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        permitScheduler.schedule(() -> permit.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+
+    // reserve the next permit, return the time to wait for it
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        // idle time is not saved up, so the producers can't burst after a pause
+        long waitNanos = Math.max(0, this.nextPermitNanos - now);
+        this.nextPermitNanos = Math.max(this.nextPermitNanos, now) + this.intervalNanos;
+        return waitNanos;
+    }
+
+    /**
+     * acquire the permit without blocking
+     *
+     * @return true if the transaction is allowed to be sent now
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (this.nextPermitNanos > now) {
+            return false;
+        }
+        this.nextPermitNanos = now + this.intervalNanos;
+        return true;
+    }
+
+    /**
+     * report the receipt of a sent transaction. Only the receipts showing the node is overloaded
+     * are regarded as failures, the execution failures of the contract are not.
+     *
+     * @param receipt the receipt, null if the transaction failed to be sent
+     */
+    public void onReceipt(TransactionReceipt receipt) {
+        if (Objects.isNull(receipt)) {
+            this.onError();
+        } else if (receipt.getStatus() == TransactionReceiptStatus.TimeOut.getCode()) {
+            this.onTimeout();
+        } else if (receipt.getStatus() == TransactionReceiptStatus.TxPoolIsFull.getCode()) {
+            this.onError();
+        } else {
+            this.onSuccess();
+        }
+    }
+
+    public void onSuccess() {
+        this.windowSuccessCount.incrementAndGet();
+        this.successCount.incrementAndGet();
+    }
+
+    public void onError() {
+        this.windowErrorCount.incrementAndGet();
+        this.errorCount.incrementAndGet();
+    }
+
+    public void onTimeout() {
+        this.windowTimeoutCount.incrementAndGet();
+        this.timeoutCount.incrementAndGet();
+    }
+
+    /**
+     * wrap the callback to report the result to the controller before calling it
+     *
+     * @param callback the callback of the transaction, may be null
+     * @return the wrapped callback
+     */
+    public TransactionCallback wrap(TransactionCallback callback) {
+        TransactionCallback wrapped =
+                new TransactionCallback() {
+                    @Override
+                    public void onResponse(TransactionReceipt receipt) {
+                        onReceipt(receipt);
+                        if (callback != null) {
+                            callback.onResponse(receipt);
+                        }
+                    }
+
+                    @Override
+                    public void onError(int errorCode, String errorMessage) {
+                        SendRateController.this.onError();
+                        if (callback != null) {
+                            callback.onError(errorCode, errorMessage);
+                        }
+                    }
+
+                    @Override
+                    public void onTimeout() {
+                        SendRateController.this.onTimeout();
+                        if (callback != null) {
+                            callback.onTimeout();
+                        }
+                    }
+                };
+        if (callback != null) {
+            wrapped.setTimeout(callback.getTimeout());
+        }
+        return wrapped;
+    }
+
+    /** @return the current send rate, transactions per second */
+    public synchronized double getRate() {
+        return this.rate;
+    }
+
+    /** @return the pending tx size of the last sample, negative if unknown */
+    public long getLastPendingTxSize() {
+        return this.lastPendingTxSize;
+    }
+
+    public long getSuccessCount() {
+        return this.successCount.get();
+    }
+
+    public long getErrorCount() {
+        return this.errorCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return this.timeoutCount.get();
+    }
+
+    public long getIncreaseCount() {
+        return this.increaseCount.get();
+    }
+
+    public long getDecreaseCount() {
+        return this.decreaseCount.get();
+    }
+
+    public SendRateConfig getConfig() {
+        return this.config;
+    }
+}
@@ -24,6 +24,7 @@ import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
 public class TransactionPusherService implements TransactionPusherInterface {
 
     private Client client;
+    private SendRateController sendRateController;
 
     /**
      * create the TransactionPusherService
@@ -37,7 +38,14 @@ public class TransactionPusherService implements TransactionPusherInterface {
 
     @Override
     public void pushOnly(String signedTransaction) {
-        this.client.sendTransactionAsync(signedTransaction, false, null);
+        if (this.sendRateController == null) {
+            this.client.sendTransactionAsync(signedTransaction, false, null);
+            return;
+        }
+        this.sendRateController.acquire();
+        // the result is not returned, but still counted by the controller
+        this.client.sendTransactionAsync(
+                signedTransaction, false, this.sendRateController.wrap(null));
     }
 
     @Override
@@ -48,17 +56,39 @@ public class TransactionPusherService implements TransactionPusherInterface {
 
     @Override
     public TransactionReceipt push(String signedTransaction) {
-        return this.client.sendTransaction(signedTransaction, false).getTransactionReceipt();
+        if (this.sendRateController == null) {
+            return this.client.sendTransaction(signedTransaction, false).getTransactionReceipt();
+        }
+        this.sendRateController.acquire();
+        TransactionReceipt receipt = null;
+        try {
+            receipt = this.client.sendTransaction(signedTransaction, false).getTransactionReceipt();
+            return receipt;
+        } finally {
+            this.sendRateController.onReceipt(receipt);
+        }
     }
 
     @Override
     public void pushAsync(String signedTransactionData, TransactionCallback callback) {
+        if (this.sendRateController != null) {
+            this.sendRateController.acquire();
+            callback = this.sendRateController.wrap(callback);
+        }
         this.client.sendTransactionAsync(signedTransactionData, false, callback);
     }
 
     @Override
     public CompletableFuture<TransactionReceipt> pushAsync(String signedTransaction) {
-        return CompletableFuture.supplyAsync(() -> this.push(signedTransaction));
+        if (this.sendRateController == null) {
+            return this.client.sendTransactionAsync(signedTransaction, false);
+        }
+        SendRateController controller = this.sendRateController;
+        // sent once permitted, the caller is never blocked
+        return controller
+                .acquireAsync()
+                .thenCompose(permit -> this.client.sendTransactionAsync(signedTransaction, false))
+                .whenComplete((receipt, e) -> controller.onReceipt(e == null ? receipt : null));
     }
 
     /** @return the client */
@@ -70,4 +100,14 @@ public class TransactionPusherService implements TransactionPusherInterface {
     public void setClient(Client client) {
         this.client = client;
     }
+
+    /** @return the send rate controller, null if the send rate is not limited */
+    public SendRateController getSendRateController() {
+        return this.sendRateController;
+    }
+
+    /** @param sendRateController the controller to throttle the transactions, null to disable */
+    public void setSendRateController(SendRateController sendRateController) {
+        this.sendRateController = sendRateController;
+    }
 }
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.sender;
+
+/** the strategy to select the account of the AccountSenderPool for a transaction */
+public enum AccountSelectStrategy {
+    /** select the accounts in turn */
+    ROUND_ROBIN,
+    /** select the account with the least transactions waiting for receipt */
+    LEAST_IN_FLIGHT,
+    /** select the account by the hash of the key, the same key always uses the same account */
+    STICKY_BY_KEY
+}
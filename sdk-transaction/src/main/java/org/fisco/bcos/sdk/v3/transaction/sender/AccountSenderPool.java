@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.sender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.crypto.CryptoSuite;
+import org.fisco.bcos.sdk.v3.crypto.exceptions.LoadKeyStoreException;
+import org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair;
+import org.fisco.bcos.sdk.v3.crypto.keystore.KeyTool;
+import org.fisco.bcos.sdk.v3.crypto.keystore.P12KeyStore;
+import org.fisco.bcos.sdk.v3.crypto.keystore.PEMKeyStore;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+import org.fisco.bcos.sdk.v3.transaction.manager.AssembleTransactionProcessorInterface;
+import org.fisco.bcos.sdk.v3.transaction.manager.TransactionProcessorFactory;
+
+/**
+ * A pool of accounts sending transactions, each account has its own processor, so the signing and
+ * the transactions are spread over the accounts instead of serialized on a single one.
+ */
+public class AccountSenderPool {
+    private final List<PooledAccount> accounts;
+    private final AccountSelectStrategy strategy;
+    private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+    /**
+     * create the pool with an AssembleTransactionProcessor for each account
+     *
+     * @param client the client to send transactions
+     * @param cryptoKeyPairs the accounts
+     * @param strategy the strategy to select the account for a transaction
+     */
+    public AccountSenderPool(
+            Client client, List<CryptoKeyPair> cryptoKeyPairs, AccountSelectStrategy strategy) {
+        this(
+                cryptoKeyPairs,
+                cryptoKeyPair ->
+                        TransactionProcessorFactory.createAssembleTransactionProcessor(
+                                client, cryptoKeyPair),
+                strategy);
+    }
+
+    /**
+     * create the pool
+     *
+     * @param cryptoKeyPairs the accounts
+     * @param processorFactory create the processor of an account
+     * @param strategy the strategy to select the account for a transaction
+     */
+    public AccountSenderPool(
+            List<CryptoKeyPair> cryptoKeyPairs,
+            Function<CryptoKeyPair, ? extends AssembleTransactionProcessorInterface>
+                    processorFactory,
+            AccountSelectStrategy strategy) {
+        if (cryptoKeyPairs == null || cryptoKeyPairs.isEmpty()) {
+            throw new IllegalArgumentException("the account sender pool requires accounts");
+        }
+        List<PooledAccount> pooledAccounts = new ArrayList<>(cryptoKeyPairs.size());
+        for (CryptoKeyPair cryptoKeyPair : cryptoKeyPairs) {
+            pooledAccounts.add(
+                    new PooledAccount(cryptoKeyPair, processorFactory.apply(cryptoKeyPair)));
+        }
+        this.accounts = Collections.unmodifiableList(pooledAccounts);
+        this.strategy = strategy;
+    }
+
+    /**
+     * load the accounts from the key stores
+     *
+     * @param cryptoSuite the crypto suite of the accounts
+     * @param keyTools the key stores, e.g. P12KeyStore or PEMKeyStore
+     * @return the accounts
+     */
+    public static List<CryptoKeyPair> loadKeyPairs(
+            CryptoSuite cryptoSuite, List<? extends KeyTool> keyTools) {
+        List<CryptoKeyPair> cryptoKeyPairs = new ArrayList<>(keyTools.size());
+        for (KeyTool keyTool : keyTools) {
+            // create from the factory, not to replace the account of the crypto suite
+            cryptoKeyPairs.add(cryptoSuite.getKeyPairFactory().createKeyPair(keyTool.getKeyPair()));
+        }
+        return cryptoKeyPairs;
+    }
+
+    /**
+     * load the accounts from the account files
+     *
+     * @param cryptoSuite the crypto suite of the accounts
+     * @param accountFileFormat the format of the account files, p12 or pem
+     * @param accountFilePaths the account files
+     * @param password the password of the p12 files, ignored for pem
+     * @return the accounts
+     */
+    public static List<CryptoKeyPair> loadKeyPairs(
+            CryptoSuite cryptoSuite,
+            String accountFileFormat,
+            List<String> accountFilePaths,
+            String password) {
+        List<KeyTool> keyTools = new ArrayList<>(accountFilePaths.size());
+        for (String accountFilePath : accountFilePaths) {
+            if (accountFileFormat.compareToIgnoreCase("p12") == 0) {
+                keyTools.add(new P12KeyStore(accountFilePath, password));
+            } else if (accountFileFormat.compareToIgnoreCase("pem") == 0) {
+                keyTools.add(new PEMKeyStore(accountFilePath));
+            } else {
+                throw new LoadKeyStoreException(
+                        "unsupported account file format : "
+                                + accountFileFormat
+                                + ", current supported are p12 and pem");
+            }
+        }
+        return loadKeyPairs(cryptoSuite, keyTools);
+    }
+
+    /**
+     * select the account for a transaction
+     *
+     * @param key the key of the transaction for STICKY_BY_KEY, may be null
+     * @return the selected account
+     */
+    public PooledAccount select(String key) {
+        int size = this.accounts.size();
+        switch (this.strategy) {
+            case STICKY_BY_KEY:
+                if (key != null) {
+                    return this.accounts.get(Math.floorMod(key.hashCode(), size));
+                }
+                break;
+            case LEAST_IN_FLIGHT:
+                // start from a rotating index, so the ties are spread over the accounts
+                int start = Math.floorMod(this.nextIndex.getAndIncrement(), size);
+                PooledAccount selected = this.accounts.get(start);
+                for (int i = 1; i < size; i++) {
+                    PooledAccount account = this.accounts.get((start + i) % size);
+                    if (account.getInFlightCount() < selected.getInFlightCount()) {
+                        selected = account;
+                    }
+                }
+                return selected;
+            default:
+                break;
+        }
+        return this.accounts.get(Math.floorMod(this.nextIndex.getAndIncrement(), size));
+    }
+
+    /**
+     * send a transaction by the selected account
+     *
+     * @param key the key of the transaction for STICKY_BY_KEY, may be null
+     * @param to the target contract address
+     * @param abi the contract abi
+     * @param functionName the contract function name
+     * @param params the contract function parameters
+     * @return the future of the receipt
+     */
+    public CompletableFuture<TransactionReceipt> sendTransactionAsync(
+            String key, String to, String abi, String functionName, List<Object> params) {
+        PooledAccount account = this.select(key);
+        CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        long sentNanos = System.nanoTime();
+        account.onSent();
+        try {
+            account.getProcessor()
+                    .sendTransactionAsync(
+                            to,
+                            abi,
+                            functionName,
+                            params,
+                            new TransactionCallback() {
+                                @Override
+                                public void onResponse(TransactionReceipt receipt) {
+                                    account.onCompleted(
+                                            sentNanos, receipt != null && receipt.isStatusOK());
+                                    future.complete(receipt);
+                                }
+                            });
+        } catch (Exception e) {
+            account.onCompleted(sentNanos, false);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** @return the accounts of the pool */
+    public List<PooledAccount> getAccounts() {
+        return this.accounts;
+    }
+
+    public AccountSelectStrategy getStrategy() {
+        return this.strategy;
+    }
+
+    public int size() {
+        return this.accounts.size();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.sender;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+import org.fisco.bcos.sdk.v3.transaction.manager.AssembleTransactionProcessorInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Send transactions sharded by conflict key.
+ *
+ * <p>The transactions with the same conflict key (e.g. the account mutated by the transaction) are
+ * sent one by one in the submitted order, the next one is sent after the receipt of the previous
+ * one is received. The transactions with different conflict keys are sent concurrently, so the
+ * node can execute them in parallel if the contract is parallel (DAG) enabled.
+ */
+public class ConflictKeySender {
+    private static final Logger logger = LoggerFactory.getLogger(ConflictKeySender.class);
+
+    private final Executor executor;
+    // 0 for unlimited, the transactions over the limit wait for a permit without a thread
+    private final int maxInFlight;
+    private int availablePermits;
+    private final ArrayDeque<CompletableFuture<Void>> permitWaiters = new ArrayDeque<>();
+    // the last transaction of each conflict key, removed once it is completed
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> keyTails =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong submittedCount = new AtomicLong(0);
+    private final AtomicLong completedCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong reorderedCount = new AtomicLong(0);
+    private final AtomicLong inFlightCount = new AtomicLong(0);
+    private final AtomicLong maxCompletedSeq = new AtomicLong(-1);
+    private volatile long firstSubmitNanos = 0;
+
+    /**
+     * create the sender without limiting the transactions in flight
+     *
+     * @param executor the executor to sign and send the transactions
+     */
+    public ConflictKeySender(Executor executor) {
+        this(executor, 0);
+    }
+
+    /**
+     * create the sender
+     *
+     * @param executor the executor to sign and send the transactions
+     * @param maxInFlight the max count of the transactions waiting for receipt, 0 for unlimited
+     */
+    public ConflictKeySender(Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = Math.max(0, maxInFlight);
+        this.availablePermits = this.maxInFlight;
+    }
+
+    /**
+     * submit a transaction
+     *
+     * @param conflictKey the conflict key of the transaction
+     * @param sender send the transaction and return the future of the receipt
+     * @return the future of the receipt, completed in the order of the same conflict key
+     */
+    public CompletableFuture<TransactionReceipt> submit(
+            String conflictKey, Supplier<CompletableFuture<TransactionReceipt>> sender) {
+        Objects.requireNonNull(conflictKey, "the conflict key must not be null");
+        long seq = this.submittedCount.getAndIncrement();
+        if (seq == 0) {
+            this.firstSubmitNanos = System.nanoTime();
+        }
+        CompletableFuture<TransactionReceipt> result = new CompletableFuture<>();
+        // completed after the callers of the result are called back, then the next transaction of
+        // the key is sent, so the futures of a key are completed in order
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        CompletableFuture<Void> previous = this.keyTails.put(conflictKey, released);
+        if (previous == null) {
+            previous = CompletableFuture.completedFuture(null);
+        }
+        previous.thenCompose(v -> this.acquirePermit())
+                .thenComposeAsync(v -> this.send(sender), this.executor)
+                .whenComplete(
+                        (receipt, e) -> {
+                            this.keyTails.remove(conflictKey, released);
+                            this.onComplete(seq, receipt, e);
+                            try {
+                                if (e == null) {
+                                    result.complete(receipt);
+                                } else {
+                                    result.completeExceptionally(e);
+                                }
+                            } finally {
+                                released.complete(null);
+                            }
+                        });
+        return result;
+    }
+
+    /**
+     * send a transaction by the processor
+     *
+     * @param conflictKey the conflict key of the transaction
+     * @param processor the processor to send the transaction
+     * @param to the target contract address
+     * @param abi the contract abi
+     * @param functionName the contract function name
+     * @param params the contract function parameters
+     * @return the future of the receipt, completed in the order of the same conflict key
+     */
+    public CompletableFuture<TransactionReceipt> submit(
+            String conflictKey,
+            AssembleTransactionProcessorInterface processor,
+            String to,
+            String abi,
+            String functionName,
+            List<Object> params) {
+        return this.submit(
+                conflictKey,
+                () -> {
+                    CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+                    try {
+                        processor.sendTransactionAsync(
+                                to,
+                                abi,
+                                functionName,
+                                params,
+                                new TransactionCallback() {
+                                    @Override
+                                    public void onResponse(TransactionReceipt receipt) {
+                                        future.complete(receipt);
+                                    }
+                                });
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                    return future;
+                });
+    }
+
+    // never blocks, the future is completed once a transaction in flight is completed if none left
+    private CompletableFuture<Void> acquirePermit() {
+        if (this.maxInFlight == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        synchronized (this.permitWaiters) {
+            if (this.availablePermits > 0) {
+                this.availablePermits--;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> permit = new CompletableFuture<>();
+            this.permitWaiters.add(permit);
+            return permit;
+        }
+    }
+
+    private void releasePermit() {
+        if (this.maxInFlight == 0) {
+            return;
+        }
+        CompletableFuture<Void> waiter;
+        synchronized (this.permitWaiters) {
+            waiter = this.permitWaiters.poll();
+            if (waiter == null) {
+                this.availablePermits++;
+                return;
+            }
+        }
+        // handed over to the waiter, which is sent on the executor
+        waiter.complete(null);
+    }
+
+    private CompletableFuture<TransactionReceipt> send(
+            Supplier<CompletableFuture<TransactionReceipt>> sender) {
+        this.inFlightCount.incrementAndGet();
+        CompletableFuture<TransactionReceipt> future;
+        try {
+            future = sender.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        return future.whenComplete(
+                (receipt, e) -> {
+                    this.inFlightCount.decrementAndGet();
+                    this.releasePermit();
+                });
+    }
+
+    private void onComplete(long seq, TransactionReceipt receipt, Throwable e) {
+        this.completedCount.incrementAndGet();
+        if (e != null || receipt == null || !receipt.isStatusOK()) {
+            this.failedCount.incrementAndGet();
+            if (e != null && logger.isDebugEnabled()) {
+                logger.debug("send transaction failed, seq: {}, e: {}", seq, e.getMessage());
+            }
+        }
+        // completed before a transaction submitted earlier
+        long previousMax = this.maxCompletedSeq.getAndAccumulate(seq, Math::max);
+        if (previousMax > seq) {
+            this.reorderedCount.incrementAndGet();
+        }
+    }
+
+    public long getSubmittedCount() {
+        return this.submittedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount.get();
+    }
+
+    /** @return the count of the transactions failed to send or with a non-zero receipt status */
+    public long getFailedCount() {
+        return this.failedCount.get();
+    }
+
+    /** @return the count of the transactions completed before some transaction submitted earlier */
+    public long getReorderedCount() {
+        return this.reorderedCount.get();
+    }
+
+    /** @return the count of the transactions sent and waiting for receipt */
+    public long getInFlightCount() {
+        return this.inFlightCount.get();
+    }
+
+    /** @return the count of the conflict keys having transactions not completed */
+    public int getActiveKeyCount() {
+        return this.keyTails.size();
+    }
+
+    /** @return the completed transactions per second since the first submission */
+    public double getThroughput() {
+        if (this.submittedCount.get() == 0) {
+            return 0;
+        }
+        double seconds = (System.nanoTime() - this.firstSubmitNanos) / 1e9;
+        return seconds <= 0 ? 0 : this.completedCount.get() / seconds;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction.sender;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair;
+import org.fisco.bcos.sdk.v3.transaction.manager.AssembleTransactionProcessorInterface;
+
+/** an account of the AccountSenderPool, with its own processor and statistics */
+public class PooledAccount {
+    private final CryptoKeyPair cryptoKeyPair;
+    private final String address;
+    private final AssembleTransactionProcessorInterface processor;
+
+    private final AtomicLong inFlightCount = new AtomicLong(0);
+    private final AtomicLong successCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong totalLatencyNanos = new AtomicLong(0);
+    private final AtomicLong maxLatencyNanos = new AtomicLong(0);
+
+    PooledAccount(CryptoKeyPair cryptoKeyPair, AssembleTransactionProcessorInterface processor) {
+        this.cryptoKeyPair = cryptoKeyPair;
+        this.address = cryptoKeyPair.getAddress();
+        this.processor = processor;
+    }
+
+    void onSent() {
+        this.inFlightCount.incrementAndGet();
+    }
+
+    void onCompleted(long sentNanos, boolean success) {
+        long latency = System.nanoTime() - sentNanos;
+        this.inFlightCount.decrementAndGet();
+        if (success) {
+            this.successCount.incrementAndGet();
+        } else {
+            this.failedCount.incrementAndGet();
+        }
+        this.totalLatencyNanos.addAndGet(latency);
+        this.maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    public CryptoKeyPair getCryptoKeyPair() {
+        return this.cryptoKeyPair;
+    }
+
+    public String getAddress() {
+        return this.address;
+    }
+
+    public AssembleTransactionProcessorInterface getProcessor() {
+        return this.processor;
+    }
+
+    /** @return the count of the transactions waiting for receipt */
+    public long getInFlightCount() {
+        return this.inFlightCount.get();
+    }
+
+    public long getSuccessCount() {
+        return this.successCount.get();
+    }
+
+    /** @return the count of the transactions failed to send or with a non-zero receipt status */
+    public long getFailedCount() {
+        return this.failedCount.get();
+    }
+
+    /** @return the average latency from sending to receipt in milliseconds */
+    public double getAverageLatencyMs() {
+        long completed = this.successCount.get() + this.failedCount.get();
+        if (completed == 0) {
+            return 0;
+        }
+        return (double) this.totalLatencyNanos.get() / completed / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** @return the max latency from sending to receipt in milliseconds */
+    public long getMaxLatencyMs() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxLatencyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "PooledAccount{"
+                + "address='"
+                + address
+                + '\''
+                + ", inFlightCount="
+                + inFlightCount
+                + ", successCount="
+                + successCount
+                + ", failedCount="
+                + failedCount
+                + ", averageLatencyMs="
+                + getAverageLatencyMs()
+                + '}';
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.tx.pusher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.TransactionReceiptStatus;
+import org.fisco.bcos.sdk.v3.transaction.model.exception.TransactionException;
+import org.fisco.bcos.sdk.v3.transaction.pusher.ReceiptTracker;
+import org.fisco.bcos.sdk.v3.transaction.pusher.ReceiptTrackerConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReceiptTrackerTest {
+
+    /** a chain committing the sent transactions into blocks, counting the rpc requests */
+    private static class SimulatedChain {
+        private final List<List<String>> blocks = new ArrayList<>();
+        private final Map<String, TransactionReceipt> receipts = new ConcurrentHashMap<>();
+        private final List<String> txPool = new ArrayList<>();
+        private final AtomicLong rpcCount = new AtomicLong(0);
+        private final AtomicLong lookupCount = new AtomicLong(0);
+
+        SimulatedChain() {
+            blocks.add(Collections.emptyList());
+        }
+
+        synchronized void send(String transactionHash) {
+            txPool.add(transactionHash);
+        }
+
+        synchronized void seal(int maxTransactions) {
+            List<String> block = new ArrayList<>();
+            while (!txPool.isEmpty() && block.size() < maxTransactions) {
+                String transactionHash = txPool.remove(0);
+                block.add(transactionHash);
+                TransactionReceipt receipt = new TransactionReceipt();
+                receipt.setTransactionHash(transactionHash);
+                receipt.setBlockNumber(String.valueOf(blocks.size()));
+                receipts.put(transactionHash, receipt);
+            }
+            blocks.add(block);
+        }
+
+        synchronized long getBlockNumber() {
+            rpcCount.incrementAndGet();
+            return blocks.size() - 1;
+        }
+
+        synchronized List<String> getBlock(long blockNumber) {
+            rpcCount.incrementAndGet();
+            return blocks.get((int) blockNumber);
+        }
+
+        List<TransactionReceipt> getReceipts(List<String> transactionHashes) {
+            rpcCount.incrementAndGet();
+            lookupCount.addAndGet(transactionHashes.size());
+            List<TransactionReceipt> result = new ArrayList<>();
+            for (String transactionHash : transactionHashes) {
+                result.add(receipts.get(transactionHash));
+            }
+            return result;
+        }
+
+        ReceiptTracker newTracker(ReceiptTrackerConfig config) {
+            return new ReceiptTracker(
+                    this::getBlockNumber, this::getBlock, this::getReceipts, config);
+        }
+    }
+
+    @Test
+    public void testResolveByScanningBlocks() throws Exception {
+        SimulatedChain chain = new SimulatedChain();
+        ReceiptTracker tracker = chain.newTracker(new ReceiptTrackerConfig());
+        List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String transactionHash = "0x" + i;
+            chain.send(transactionHash);
+            futures.add(tracker.track(transactionHash, 100));
+        }
+        // the direct lookups of the newly tracked transactions, nothing committed yet
+        for (int i = 0; i < 10; i++) {
+            tracker.poll();
+        }
+        Assert.assertEquals(1000, tracker.getPendingCount());
+        for (int i = 0; i < 5; i++) {
+            chain.seal(200);
+            tracker.poll();
+        }
+        for (int i = 0; i < 1000; i++) {
+            TransactionReceipt receipt = futures.get(i).get();
+            Assert.assertEquals("0x" + i, receipt.getTransactionHash());
+        }
+        Assert.assertEquals(0, tracker.getPendingCount());
+        Assert.assertEquals(1000, tracker.getResolvedCount());
+        // every transaction is looked up once directly and once after it is committed
+        Assert.assertEquals(2000, chain.lookupCount.get());
+    }
+
+    @Test
+    public void testRpcCountIndependentOfPending() {
+        Assert.assertEquals(countRpcPerPoll(10), countRpcPerPoll(100000));
+    }
+
+    private long countRpcPerPoll(int pendingCount) {
+        SimulatedChain chain = new SimulatedChain();
+        ReceiptTrackerConfig config = new ReceiptTrackerConfig();
+        config.setMaxBatchSize(pendingCount);
+        ReceiptTracker tracker = chain.newTracker(config);
+        for (int i = 0; i < pendingCount; i++) {
+            tracker.track("0x" + i, 1000000);
+        }
+        // finish the direct lookups
+        tracker.poll();
+        long rpcCount = chain.rpcCount.get();
+        for (int i = 0; i < 100; i++) {
+            chain.seal(100);
+            tracker.poll();
+        }
+        return chain.rpcCount.get() - rpcCount;
+    }
+
+    @Test
+    public void testCommittedBeforeTracked() throws Exception {
+        SimulatedChain chain = new SimulatedChain();
+        ReceiptTracker tracker = chain.newTracker(new ReceiptTrackerConfig());
+        chain.send("0x1");
+        chain.seal(10);
+        chain.seal(10);
+        CompletableFuture<TransactionReceipt> future = tracker.track("0x1");
+        tracker.poll();
+        Assert.assertEquals("1", future.get().getBlockNumber());
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        SimulatedChain chain = new SimulatedChain();
+        ReceiptTrackerConfig config = new ReceiptTrackerConfig();
+        config.setExpireBlocks(2);
+        ReceiptTracker tracker = chain.newTracker(config);
+        // never committed
+        CompletableFuture<TransactionReceipt> future = tracker.track("0x1", 5);
+        for (int i = 0; i < 7; i++) {
+            chain.seal(10);
+            tracker.poll();
+        }
+        Assert.assertFalse(future.isDone());
+        chain.seal(10);
+        tracker.poll();
+        try {
+            future.get();
+            Assert.fail("the transaction must expire");
+        } catch (ExecutionException e) {
+            TransactionException transactionException = (TransactionException) e.getCause();
+            Assert.assertEquals(
+                    TransactionReceiptStatus.TimeOut.getCode(), transactionException.getStatus());
+            Assert.assertEquals("0x1", transactionException.getTransactionHash().get());
+        }
+        Assert.assertEquals(1, tracker.getExpiredCount());
+        Assert.assertEquals(0, tracker.getPendingCount());
+    }
+
+    @Test
+    public void testBackOff() {
+        SimulatedChain chain = new SimulatedChain();
+        ReceiptTrackerConfig config = new ReceiptTrackerConfig();
+        ReceiptTracker tracker = chain.newTracker(config);
+        tracker.track("0x1", 100);
+        long interval = config.getMinPollIntervalMs();
+        for (int i = 0; i < 10; i++) {
+            // nothing new, nor found by the direct lookup
+            tracker.poll();
+            interval = Math.min(config.getMaxPollIntervalMs(), interval * 2);
+            Assert.assertEquals(interval, tracker.getPollIntervalMs());
+        }
+        Assert.assertEquals(config.getMaxPollIntervalMs(), tracker.getPollIntervalMs());
+        chain.seal(10);
+        tracker.poll();
+        Assert.assertEquals(config.getMinPollIntervalMs(), tracker.getPollIntervalMs());
+    }
+}
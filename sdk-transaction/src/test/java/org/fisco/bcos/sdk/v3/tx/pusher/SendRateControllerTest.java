@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.tx.pusher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+import org.fisco.bcos.sdk.v3.transaction.pusher.SendRateConfig;
+import org.fisco.bcos.sdk.v3.transaction.pusher.SendRateController;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SendRateControllerTest {
+
+    /** a node processing a fixed number of transactions per second with a bounded txpool */
+    private static class SimulatedNode {
+        private final long txPoolLimit;
+        private long capacity;
+        private long pendingTxSize = 0;
+
+        SimulatedNode(long capacity, long txPoolLimit) {
+            this.capacity = capacity;
+            this.txPoolLimit = txPoolLimit;
+        }
+
+        // send the transactions of one second, report the results and return the peak pending
+        long runOneSecond(long sent, SendRateController controller) {
+            long accepted = Math.min(sent, this.txPoolLimit - this.pendingTxSize);
+            for (long i = 0; i < sent - accepted; i++) {
+                controller.onError();
+            }
+            this.pendingTxSize += accepted;
+            long peak = this.pendingTxSize;
+            long processed = Math.min(this.pendingTxSize, this.capacity);
+            this.pendingTxSize -= processed;
+            for (long i = 0; i < processed; i++) {
+                controller.onSuccess();
+            }
+            return peak;
+        }
+    }
+
+    private static class PhaseResult {
+        double averageRate;
+        long maxPendingTxSize;
+    }
+
+    private PhaseResult runPhase(SimulatedNode node, SendRateController controller, int seconds) {
+        PhaseResult result = new PhaseResult();
+        double totalRate = 0;
+        for (int i = 0; i < seconds; i++) {
+            double rate = controller.getRate();
+            totalRate += rate;
+            long peak = node.runOneSecond((long) rate, controller);
+            result.maxPendingTxSize = Math.max(result.maxPendingTxSize, peak);
+            controller.adjust(node.pendingTxSize);
+        }
+        result.averageRate = totalRate / seconds;
+        return result;
+    }
+
+    @Test
+    public void testFollowCapacityChange() {
+        SendRateConfig config = new SendRateConfig();
+        config.setTargetPendingTxSize(10000);
+        SimulatedNode node = new SimulatedNode(2000, 15000);
+        SendRateController controller = new SendRateController(() -> node.pendingTxSize, config);
+
+        // ramp up and converge to the capacity
+        runPhase(node, controller, 100);
+        PhaseResult steady = runPhase(node, controller, 200);
+        Assert.assertTrue(steady.averageRate > 2000 * 0.8);
+        Assert.assertTrue(steady.averageRate < 2000 * 1.2);
+        Assert.assertTrue(steady.maxPendingTxSize < 15000);
+
+        // the capacity of the node drops
+        node.capacity = 500;
+        runPhase(node, controller, 100);
+        PhaseResult degraded = runPhase(node, controller, 200);
+        Assert.assertTrue(degraded.averageRate > 500 * 0.8);
+        Assert.assertTrue(degraded.averageRate < 500 * 1.2);
+        Assert.assertTrue(degraded.maxPendingTxSize < 15000);
+
+        // the capacity of the node recovers
+        node.capacity = 4000;
+        runPhase(node, controller, 100);
+        PhaseResult recovered = runPhase(node, controller, 200);
+        Assert.assertTrue(recovered.averageRate > 4000 * 0.8);
+        Assert.assertTrue(recovered.averageRate < 4000 * 1.2);
+        Assert.assertTrue(controller.getDecreaseCount() > 0);
+        Assert.assertTrue(controller.getIncreaseCount() > 0);
+    }
+
+    @Test
+    public void testDecreaseOnFailures() {
+        SendRateConfig config = new SendRateConfig();
+        config.setInitialRate(1000);
+        SendRateController controller = new SendRateController(() -> 0, config);
+        for (int i = 0; i < 90; i++) {
+            controller.onSuccess();
+        }
+        for (int i = 0; i < 10; i++) {
+            controller.onTimeout();
+        }
+        Assert.assertEquals(500, controller.adjust(0), 0.001);
+        // the window is reset after adjust, never increase when idle
+        Assert.assertEquals(500, controller.adjust(0), 0.001);
+        for (int i = 0; i < 399; i++) {
+            controller.onSuccess();
+        }
+        // nor when the rate is not used up
+        Assert.assertEquals(500, controller.adjust(0), 0.001);
+        for (int i = 0; i < 400; i++) {
+            controller.onSuccess();
+        }
+        Assert.assertEquals(550, controller.adjust(0), 0.001);
+        for (int i = 0; i < 550; i++) {
+            controller.onSuccess();
+        }
+        // never increase when the pending tx size is unknown
+        Assert.assertEquals(550, controller.adjust(-1), 0.001);
+
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus(0);
+        controller.onReceipt(receipt);
+        controller.onReceipt(null);
+        Assert.assertEquals(1440, controller.getSuccessCount());
+        Assert.assertEquals(1, controller.getErrorCount());
+        Assert.assertEquals(10, controller.getTimeoutCount());
+    }
+
+    @Test
+    public void testAcquire() {
+        SendRateConfig config = new SendRateConfig();
+        config.setInitialRate(100);
+        SendRateController controller = new SendRateController(() -> 0, config);
+        long start = System.nanoTime();
+        for (int i = 0; i < 21; i++) {
+            controller.acquire();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        Assert.assertTrue(elapsedMs >= 190);
+        Assert.assertFalse(controller.tryAcquire());
+    }
+
+    @Test
+    public void testWrapCallback() {
+        SendRateController controller = new SendRateController(() -> 0, new SendRateConfig());
+        AtomicInteger responses = new AtomicInteger(0);
+        TransactionCallback callback =
+                controller.wrap(
+                        new TransactionCallback() {
+                            @Override
+                            public void onResponse(TransactionReceipt receipt) {
+                                responses.incrementAndGet();
+                            }
+                        });
+        callback.onTimeout();
+        callback.onError(-1, "network error");
+        Assert.assertEquals(2, responses.get());
+        Assert.assertEquals(1, controller.getTimeoutCount());
+        Assert.assertEquals(1, controller.getErrorCount());
+        Assert.assertEquals(0, controller.getSuccessCount());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.tx.pusher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.client.ClientImpl;
+import org.fisco.bcos.sdk.v3.client.RpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.TransactionReceiptStatus;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.transaction.pusher.SendRateConfig;
+import org.fisco.bcos.sdk.v3.transaction.pusher.SendRateController;
+import org.fisco.bcos.sdk.v3.transaction.pusher.TransactionPusherService;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionPusherServiceTest {
+    // the callbacks of the transactions sent, answered by the test
+    private final List<ResponseCallback> callbacks = new CopyOnWriteArrayList<>();
+
+    private final RpcTransport node =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    callbacks.add(callback);
+                }
+            };
+
+    /** the client sending the requests by the transport, without the native sdk */
+    private static class TestClient extends ClientImpl {
+        TestClient(RpcTransport rpcTransport) {
+            super("group0", null, rpcTransport);
+        }
+    }
+
+    private void answer(int index, int status) {
+        Response response = new Response();
+        response.setErrorCode(0);
+        response.setContent(
+                ("{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":{\"transactionHash\":\"0xa"
+                                + index
+                                + "\",\"status\":"
+                                + status
+                                + "}}")
+                        .getBytes());
+        callbacks.get(index).onResponse(response);
+    }
+
+    @Test
+    public void testPushAsync() throws Exception {
+        TransactionPusherService pusher = new TransactionPusherService(new TestClient(node));
+        // returned at once, completed by the response without a thread waiting for it
+        CompletableFuture<TransactionReceipt> future = pusher.pushAsync("0x1");
+        Assert.assertFalse(future.isDone());
+        Assert.assertEquals(1, callbacks.size());
+        answer(0, 0);
+        Assert.assertEquals("0xa0", future.get(1, TimeUnit.SECONDS).getTransactionHash());
+    }
+
+    @Test
+    public void testPushAsyncWithSendRateController() throws Exception {
+        TransactionPusherService pusher = new TransactionPusherService(new TestClient(node));
+        SendRateController controller = new SendRateController(() -> 0, new SendRateConfig());
+        pusher.setSendRateController(controller);
+
+        CompletableFuture<TransactionReceipt> succeeded = pusher.pushAsync("0x1");
+        CompletableFuture<TransactionReceipt> rejected = pusher.pushAsync("0x2");
+        Assert.assertEquals(0, controller.getSuccessCount());
+        waitForSent(2);
+        answer(0, 0);
+        answer(1, TransactionReceiptStatus.TxPoolIsFull.getCode());
+        succeeded.get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(
+                TransactionReceiptStatus.TxPoolIsFull.getCode(),
+                rejected.get(1, TimeUnit.SECONDS).getStatus());
+        // the receipts are reported to the controller
+        Assert.assertEquals(1, controller.getSuccessCount());
+        Assert.assertEquals(1, controller.getErrorCount());
+    }
+
+    @Test
+    public void testPushAsyncNotBlockedByRate() throws Exception {
+        TransactionPusherService pusher = new TransactionPusherService(new TestClient(node));
+        SendRateConfig config = new SendRateConfig();
+        config.setInitialRate(10);
+        SendRateController controller = new SendRateController(() -> 0, config);
+        pusher.setSendRateController(controller);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(pusher.pushAsync("0x" + i));
+        }
+        // the permits of 100ms are waited for by the futures, not by the caller
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+        Assert.assertEquals(1, callbacks.size());
+        waitForSent(3);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 190);
+        for (int i = 0; i < 3; i++) {
+            answer(i, 0);
+            Assert.assertEquals(
+                    "0xa" + i, futures.get(i).get(1, TimeUnit.SECONDS).getTransactionHash());
+        }
+        Assert.assertEquals(3, controller.getSuccessCount());
+    }
+
+    @Test
+    public void testPushOnlyReported() throws Exception {
+        TransactionPusherService pusher = new TransactionPusherService(new TestClient(node));
+        SendRateController controller = new SendRateController(() -> 0, new SendRateConfig());
+        pusher.setSendRateController(controller);
+        pusher.pushOnly("0x1");
+        answer(0, TransactionReceiptStatus.TxPoolIsFull.getCode());
+        Assert.assertEquals(1, controller.getErrorCount());
+    }
+
+    private void waitForSent(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && callbacks.size() < count; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, callbacks.size());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.tx.sender;
+
+import java.lang.reflect.Proxy;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.callback.TransactionCallback;
+import org.fisco.bcos.sdk.v3.transaction.manager.AssembleTransactionProcessorInterface;
+import org.fisco.bcos.sdk.v3.transaction.sender.AccountSelectStrategy;
+import org.fisco.bcos.sdk.v3.transaction.sender.AccountSenderPool;
+import org.fisco.bcos.sdk.v3.transaction.sender.PooledAccount;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccountSenderPoolTest {
+    // the callbacks not responded yet of each account
+    private final Map<String, List<TransactionCallback>> pendingCallbacks =
+            new ConcurrentHashMap<>();
+
+    private static class MockKeyPair extends CryptoKeyPair {
+        private final String address;
+
+        MockKeyPair(String address) {
+            this.address = address;
+        }
+
+        @Override
+        public String getAddress() {
+            return this.address;
+        }
+
+        @Override
+        public CryptoKeyPair generateKeyPair() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CryptoKeyPair createKeyPair(KeyPair keyPair) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private AssembleTransactionProcessorInterface mockProcessor(CryptoKeyPair cryptoKeyPair) {
+        List<TransactionCallback> callbacks = Collections.synchronizedList(new ArrayList<>());
+        this.pendingCallbacks.put(cryptoKeyPair.getAddress(), callbacks);
+        return (AssembleTransactionProcessorInterface)
+                Proxy.newProxyInstance(
+                        getClass().getClassLoader(),
+                        new Class<?>[] {AssembleTransactionProcessorInterface.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("sendTransactionAsync")
+                                    && args.length == 5) {
+                                callbacks.add((TransactionCallback) args[4]);
+                                return null;
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        });
+    }
+
+    private AccountSenderPool createPool(AccountSelectStrategy strategy) {
+        List<CryptoKeyPair> cryptoKeyPairs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            cryptoKeyPairs.add(new MockKeyPair("0x" + i));
+        }
+        return new AccountSenderPool(cryptoKeyPairs, this::mockProcessor, strategy);
+    }
+
+    private void respondAll(int status) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus(status);
+        for (List<TransactionCallback> callbacks : this.pendingCallbacks.values()) {
+            synchronized (callbacks) {
+                for (TransactionCallback callback : callbacks) {
+                    callback.onResponse(receipt);
+                }
+                callbacks.clear();
+            }
+        }
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        AccountSenderPool pool = createPool(AccountSelectStrategy.ROUND_ROBIN);
+        List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(pool.sendTransactionAsync(null, "0x1", "", "set", new ArrayList<>()));
+        }
+        for (PooledAccount account : pool.getAccounts()) {
+            Assert.assertEquals(10, account.getInFlightCount());
+        }
+        respondAll(0);
+        for (CompletableFuture<TransactionReceipt> future : futures) {
+            Assert.assertEquals(0, future.get(1, TimeUnit.SECONDS).getStatus());
+        }
+        for (PooledAccount account : pool.getAccounts()) {
+            Assert.assertEquals(0, account.getInFlightCount());
+            Assert.assertEquals(10, account.getSuccessCount());
+            Assert.assertEquals(0, account.getFailedCount());
+        }
+    }
+
+    @Test
+    public void testStickyByKey() {
+        AccountSenderPool pool = createPool(AccountSelectStrategy.STICKY_BY_KEY);
+        for (int i = 0; i < 100; i++) {
+            String key = "user" + (i % 10);
+            Assert.assertSame(pool.select(key), pool.select(key));
+        }
+        pool.sendTransactionAsync("user1", "0x1", "", "set", new ArrayList<>());
+        pool.sendTransactionAsync("user1", "0x1", "", "set", new ArrayList<>());
+        Assert.assertEquals(2, pool.select("user1").getInFlightCount());
+        respondAll(16);
+        Assert.assertEquals(2, pool.select("user1").getFailedCount());
+    }
+
+    @Test
+    public void testLeastInFlight() {
+        AccountSenderPool pool = createPool(AccountSelectStrategy.LEAST_IN_FLIGHT);
+        for (int i = 0; i < 3; i++) {
+            pool.sendTransactionAsync(null, "0x1", "", "set", new ArrayList<>());
+        }
+        // the only idle account is selected
+        PooledAccount idle = pool.select(null);
+        Assert.assertEquals(0, idle.getInFlightCount());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertSame(idle, pool.select(null));
+        }
+        pool.sendTransactionAsync(null, "0x1", "", "set", new ArrayList<>());
+        for (PooledAccount account : pool.getAccounts()) {
+            Assert.assertEquals(1, account.getInFlightCount());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.tx.sender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+import org.fisco.bcos.sdk.v3.transaction.sender.ConflictKeySender;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConflictKeySenderTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ScheduledExecutorService node = Executors.newScheduledThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        node.shutdownNow();
+    }
+
+    private static TransactionReceipt receipt(int status) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus(status);
+        return receipt;
+    }
+
+    @Test
+    public void testKeepOrderOfSameKey() throws Exception {
+        ConflictKeySender sender = new ConflictKeySender(executor);
+        CompletableFuture<TransactionReceipt> slow = new CompletableFuture<>();
+        List<String> sent = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<TransactionReceipt> a1 =
+                sender.submit(
+                        "a",
+                        () -> {
+                            sent.add("a1");
+                            return slow;
+                        });
+        CompletableFuture<TransactionReceipt> a2 =
+                sender.submit(
+                        "a",
+                        () -> {
+                            sent.add("a2");
+                            return CompletableFuture.completedFuture(receipt(0));
+                        });
+        CompletableFuture<TransactionReceipt> b1 =
+                sender.submit(
+                        "b",
+                        () -> {
+                            sent.add("b1");
+                            return CompletableFuture.completedFuture(receipt(0));
+                        });
+
+        // the other key is not blocked by the slow transaction
+        b1.get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(sent.contains("a2"));
+        Assert.assertFalse(a2.isDone());
+
+        slow.complete(receipt(0));
+        a2.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(a1.isDone());
+        Assert.assertTrue(sent.indexOf("a1") < sent.indexOf("a2"));
+        Assert.assertEquals(3, sender.getCompletedCount());
+        // a1 and a2 are completed after b1
+        Assert.assertEquals(2, sender.getReorderedCount());
+        Assert.assertEquals(0, sender.getFailedCount());
+        Assert.assertEquals(0, sender.getActiveKeyCount());
+    }
+
+    @Test
+    public void testCompletedInOrderOfKey() throws Exception {
+        // the next transaction is sent by the thread completing the previous one
+        ConflictKeySender sender = new ConflictKeySender(Runnable::run);
+        CompletableFuture<TransactionReceipt> slow = new CompletableFuture<>();
+        List<String> completed = new CopyOnWriteArrayList<>();
+        sender.submit("a", () -> slow).whenComplete((receipt, e) -> completed.add("a1"));
+        sender.submit("a", () -> CompletableFuture.completedFuture(receipt(0)))
+                .whenComplete((receipt, e) -> completed.add("a2"));
+
+        slow.complete(receipt(0));
+        Assert.assertEquals(Arrays.asList("a1", "a2"), completed);
+        Assert.assertEquals(0, sender.getReorderedCount());
+        Assert.assertEquals(0, sender.getActiveKeyCount());
+    }
+
+    @Test
+    public void testInFlightLimitNotBlockingExecutor() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            ConflictKeySender sender = new ConflictKeySender(singleThread, 1);
+            List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                // the receipts are completed on the same executor the sender uses
+                futures.add(
+                        sender.submit(
+                                "account" + i,
+                                () ->
+                                        CompletableFuture.supplyAsync(
+                                                () -> receipt(0), singleThread)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(4, sender.getCompletedCount());
+            Assert.assertEquals(0, sender.getInFlightCount());
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testContinueAfterFailure() throws Exception {
+        ConflictKeySender sender = new ConflictKeySender(executor);
+        CompletableFuture<TransactionReceipt> failed =
+                sender.submit(
+                        "a",
+                        () -> {
+                            throw new IllegalStateException("sign failed");
+                        });
+        CompletableFuture<TransactionReceipt> next =
+                sender.submit("a", () -> CompletableFuture.completedFuture(receipt(16)));
+        Assert.assertEquals(16, next.get(5, TimeUnit.SECONDS).getStatus());
+        Assert.assertTrue(failed.isCompletedExceptionally());
+        Assert.assertEquals(2, sender.getFailedCount());
+    }
+
+    @Test
+    public void testConcurrentKeys() throws Exception {
+        ConflictKeySender sender = new ConflictKeySender(executor, 16);
+        Map<String, List<Integer>> executed = new ConcurrentHashMap<>();
+        List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String key = "account" + (i % 8);
+            int index = i;
+            futures.add(
+                    sender.submit(
+                            key,
+                            () -> {
+                                CompletableFuture<TransactionReceipt> future =
+                                        new CompletableFuture<>();
+                                executed.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>())
+                                        .add(index);
+                                node.schedule(
+                                        () -> future.complete(receipt(0)),
+                                        ThreadLocalRandom.current().nextInt(3),
+                                        TimeUnit.MILLISECONDS);
+                                return future;
+                            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(30, TimeUnit.SECONDS);
+
+        for (List<Integer> indexes : executed.values()) {
+            for (int i = 1; i < indexes.size(); i++) {
+                Assert.assertTrue(indexes.get(i - 1) < indexes.get(i));
+            }
+        }
+        Assert.assertEquals(400, sender.getCompletedCount());
+        Assert.assertEquals(0, sender.getInFlightCount());
+        Assert.assertTrue(sender.getReorderedCount() > 0);
+        Assert.assertTrue(sender.getThroughput() > 0);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.fisco.bcos.sdk.v3.client.protocol.request.BatchRequest;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BatchResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.config.Config;
+import org.fisco.bcos.sdk.v3.config.ConfigOption;
+import org.fisco.bcos.sdk.v3.model.ConstantConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** compare fetching the receipts one at a time with fetching them by batches */
+public class BatchRequestBenchmarkTest {
+    private static final String configFile =
+            BatchRequestBenchmarkTest.class
+                    .getClassLoader()
+                    .getResource(ConstantConfig.CONFIG_FILE_NAME)
+                    .getPath();
+    private static final String GROUP = "group0";
+    private static final int MAX_BLOCKS = 200;
+    private static final int BATCH_SIZE = 100;
+
+    @Test
+    public void testBatchReceipts() throws Exception {
+        ConfigOption configOption = Config.load(configFile);
+        Client client = Client.build(GROUP, configOption);
+
+        long blockNumber = client.getBlockNumber().getBlockNumber().longValue();
+        List<String> transactionHashes = new ArrayList<>();
+        for (long i = Math.max(0, blockNumber - MAX_BLOCKS); i <= blockNumber; i++) {
+            BcosBlock block = client.getBlockByNumber(BigInteger.valueOf(i), false, true);
+            for (BcosBlock.TransactionResult result : block.getBlock().getTransactions()) {
+                transactionHashes.add((String) result.get());
+            }
+        }
+        if (transactionHashes.isEmpty()) {
+            System.out.println("no transactions on chain, skip the benchmark");
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> singleResults = new ArrayList<>();
+        for (String hash : transactionHashes) {
+            BcosTransactionReceipt receipt = client.getTransactionReceipt(hash, false);
+            singleResults.add(receipt.getTransactionReceipt().getTransactionHash());
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<String> batchResults = new ArrayList<>();
+        boolean batched = true;
+        for (int i = 0; i < transactionHashes.size(); i += BATCH_SIZE) {
+            BatchRequest batchRequest = client.batchRequest();
+            for (String hash :
+                    transactionHashes.subList(
+                            i, Math.min(i + BATCH_SIZE, transactionHashes.size()))) {
+                batchRequest.getTransactionReceipt(hash, false);
+            }
+            BatchResponse response = batchRequest.send();
+            batched = batched && response.isBatched();
+            for (int j = 0; j < response.size(); j++) {
+                Assert.assertFalse(response.hasError(j));
+                batchResults.add(
+                        response.get(j, BcosTransactionReceipt.class)
+                                .getTransactionReceipt()
+                                .getTransactionHash());
+            }
+        }
+        long batchNanos = System.nanoTime() - start;
+
+        Assert.assertEquals(singleResults, batchResults);
+        System.out.println(
+                "receipts: "
+                        + transactionHashes.size()
+                        + ", one at a time: "
+                        + singleNanos / 1000000
+                        + "ms, batch of "
+                        + BATCH_SIZE
+                        + ": "
+                        + batchNanos / 1000000
+                        + "ms, batched by node: "
+                        + batched);
+        client.stop();
+        client.destroy();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.transport.ConcurrencyLimitConfig;
+import org.fisco.bcos.sdk.v3.client.transport.ConcurrencyLimitRpcTransport;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * an unbounded producer sends transactions as fast as it can to a node much slower than the
+ * producer. The node keeps the requests and the callbacks until it answers them, as the native
+ * layer does. Limited by the ConcurrencyLimitRpcTransport, the requests kept by the node and the
+ * used heap must not grow with the requests sent. The requests can be set by
+ * -Dstress.iterations, default 200000.
+ */
+public class ConcurrencyLimitStressTest {
+    private static final int MAX_IN_FLIGHT = 1000;
+    private static final int REQUEST_SIZE = 1024;
+    private static final long NODE_LATENCY_MICROS = 200;
+    // the heap held by the requests in flight and the jvm itself
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    private final ScheduledExecutorService nodeScheduler = Executors.newScheduledThreadPool(4);
+    private final AtomicInteger keptByNode = new AtomicInteger(0);
+    private final AtomicInteger maxKeptByNode = new AtomicInteger(0);
+
+    @After
+    public void tearDown() {
+        nodeScheduler.shutdownNow();
+    }
+
+    private final RpcTransport slowNode =
+            new RpcTransport() {
+                @Override
+                public void sendRequest(
+                        String groupID, String node, String request, ResponseCallback callback) {
+                    maxKeptByNode.accumulateAndGet(keptByNode.incrementAndGet(), Math::max);
+                    nodeScheduler.schedule(
+                            () -> {
+                                keptByNode.decrementAndGet();
+                                Response response = new Response();
+                                response.setErrorCode(0);
+                                response.setContent(request.getBytes());
+                                callback.onResponse(response);
+                            },
+                            NODE_LATENCY_MICROS,
+                            TimeUnit.MICROSECONDS);
+                }
+            };
+
+    @Test
+    public void testBlockUnboundedProducer() throws Exception {
+        this.stress(ConcurrencyLimitConfig.AdmissionMode.BLOCK);
+    }
+
+    @Test
+    public void testAsyncWaitUnboundedProducer() throws Exception {
+        this.stress(ConcurrencyLimitConfig.AdmissionMode.ASYNC_WAIT);
+    }
+
+    private void stress(ConcurrencyLimitConfig.AdmissionMode mode) throws Exception {
+        int iterations = Integer.getInteger("stress.iterations", 200000);
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setAdmissionMode(mode);
+        config.setMaxInFlight(MAX_IN_FLIGHT);
+        config.setMaxQueueSize(MAX_IN_FLIGHT);
+        config.setMaxWaitMs(0);
+        ConcurrencyLimitRpcTransport transport = new ConcurrencyLimitRpcTransport(slowNode, config);
+
+        char[] payload = new char[REQUEST_SIZE];
+        Arrays.fill(payload, 'a');
+        AtomicLong completed = new AtomicLong(0);
+        AtomicLong rejected = new AtomicLong(0);
+        ResponseCallback callback =
+                new ResponseCallback() {
+                    @Override
+                    public void onResponse(Response response) {
+                        if (response.getErrorCode() != 0) {
+                            rejected.incrementAndGet();
+                        }
+                        completed.incrementAndGet();
+                    }
+                };
+
+        long baseline = usedHeap();
+        long maxUsedHeap = 0;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            // a new request every time, as the producer encodes every transaction
+            String request = i + new String(payload);
+            if (mode == ConcurrencyLimitConfig.AdmissionMode.ASYNC_WAIT) {
+                // the producer backs off once the queue is full
+                while (transport.getQueueDepth() >= config.getMaxQueueSize()) {
+                    Thread.yield();
+                }
+            }
+            transport.sendRequest("group0", "", JsonRpcMethods.SEND_TRANSACTION, request, callback);
+            if (i % (iterations / 10) == 0) {
+                maxUsedHeap = Math.max(maxUsedHeap, usedHeap());
+            }
+        }
+        long deadline = System.currentTimeMillis() + 30000;
+        while (completed.get() < iterations && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        System.out.println(
+                mode
+                        + ", requests: "
+                        + iterations
+                        + ", elapsed: "
+                        + elapsedMs
+                        + "ms, max kept by node: "
+                        + maxKeptByNode.get()
+                        + ", max queue depth: "
+                        + transport.getMaxQueueDepth()
+                        + ", total wait: "
+                        + transport.getTotalWaitMs()
+                        + "ms, heap growth: "
+                        + (maxUsedHeap - baseline) / 1024
+                        + "kB");
+
+        Assert.assertEquals(iterations, completed.get());
+        Assert.assertEquals(0, rejected.get());
+        Assert.assertTrue(maxKeptByNode.get() <= MAX_IN_FLIGHT);
+        Assert.assertTrue(transport.getMaxQueueDepth() <= MAX_IN_FLIGHT);
+        Assert.assertTrue(maxUsedHeap - baseline < MAX_HEAP_GROWTH);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        System.gc();
+        Thread.sleep(10);
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
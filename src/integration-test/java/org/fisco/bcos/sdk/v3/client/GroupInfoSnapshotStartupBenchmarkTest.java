@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.sdk.jni.BcosSDKJniObj;
+import org.fisco.bcos.sdk.v3.config.Config;
+import org.fisco.bcos.sdk.v3.config.ConfigOption;
+import org.fisco.bcos.sdk.v3.model.ConstantConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * compare the startup latency of the clients getting the group info from the node (cold start)
+ * with the clients started from the group info snapshot (warm start). All the clients share one
+ * native sdk, so only the startup of the client is measured. The clients per round can be set by
+ * -Dbenchmark.iterations, default 20.
+ */
+public class GroupInfoSnapshotStartupBenchmarkTest {
+    private static final String configFile =
+            GroupInfoSnapshotStartupBenchmarkTest.class
+                    .getClassLoader()
+                    .getResource(ConstantConfig.CONFIG_FILE_NAME)
+                    .getPath();
+    private static final String GROUP = "group0";
+
+    @Test
+    public void testColdAndWarmStart() throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 20);
+        ConfigOption configOption = Config.load(configFile);
+        long nativePointer = BcosSDKJniObj.create(configOption.getJniConfig());
+        File snapshotFile =
+                new File(Files.createTempDirectory("group-info-snapshot").toFile(), GROUP);
+        try {
+            ClientImpl client = (ClientImpl) Client.build(GROUP, configOption, nativePointer);
+            client.exportGroupInfoSnapshot(snapshotFile);
+            close(client);
+
+            long[] coldNanos = new long[iterations];
+            long[] warmNanos = new long[iterations];
+            // alternate the cold and warm starts, so both see the same node load
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                ClientImpl cold = (ClientImpl) Client.build(GROUP, configOption, nativePointer);
+                coldNanos[i] = System.nanoTime() - start;
+                close(cold);
+
+                start = System.nanoTime();
+                ClientImpl warm =
+                        (ClientImpl)
+                                Client.build(
+                                        GROUP,
+                                        configOption,
+                                        nativePointer,
+                                        GroupInfoSnapshot.load(snapshotFile));
+                warmNanos[i] = System.nanoTime() - start;
+                // the snapshot of the same chain is always revalidated
+                warm.getRevalidation().get(10, TimeUnit.SECONDS);
+                Assert.assertEquals(client.getChainId(), warm.getChainId());
+                Assert.assertTrue(warm.getBlockLimit().longValue() > 0);
+                close(warm);
+            }
+
+            long coldMedian = median(coldNanos);
+            long warmMedian = median(warmNanos);
+            System.out.println(
+                    "iterations: "
+                            + iterations
+                            + ", cold start median: "
+                            + TimeUnit.NANOSECONDS.toMicros(coldMedian)
+                            + "us, warm start median: "
+                            + TimeUnit.NANOSECONDS.toMicros(warmMedian)
+                            + "us");
+            Assert.assertTrue(warmMedian < coldMedian);
+        } finally {
+            snapshotFile.delete();
+            snapshotFile.getParentFile().delete();
+            BcosSDKJniObj.destroy(nativePointer);
+        }
+    }
+
+    // the native sdk is shared, so only the block limit tracker of the client is stopped
+    private static void close(ClientImpl client) {
+        if (client.getBlockLimitTracker() != null) {
+            client.getBlockLimitTracker().stop();
+        }
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import org.fisco.bcos.sdk.v3.client.protocol.model.JsonTransactionResponse;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * compare parsing the transactions of a large block at once with parsing them lazily by
+ * BcosBlock.readLazily, for reading the header only, a few transactions and all the transactions.
+ * The allocated bytes per operation and the heap retained by the parsed blocks are printed. The
+ * iterations can be set by -Dbenchmark.iterations, default 50.
+ */
+public class LazyBlockBenchmarkTest {
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private static final int TRANSACTIONS_PER_BLOCK = 10000;
+    private static final int ACCESSED_TRANSACTIONS = 10;
+    // the blocks kept to measure the retained heap
+    private static final int RETAINED_BLOCKS = 10;
+    private static final String hash =
+            "0x24e190d013390901562265e4e3158dbb392c83e50e7cfa394d56d4afac4536a7";
+    private static final String address = "0x8c17cf316c1063ab6c89df875e96c9f0f5b2f744";
+    private static final String input =
+            "0x4ed3885e0000000000000000000000000000000000000000000000000000000000000020"
+                    + "000000000000000000000000000000000000000000000000000000000000000b"
+                    + "48656c6c6f20576f726c64000000000000000000000000000000000000000000";
+
+    private interface BlockParser {
+        BcosBlock parse(byte[] content) throws Exception;
+    }
+
+    private interface BlockVisitor {
+        long visit(BcosBlock block);
+    }
+
+    @Test
+    public void testLazyBlock() throws Exception {
+        byte[] content = this.buildBlock();
+        ObjectReader objectReader = ObjectMapperFactory.getObjectReader(BcosBlock.class);
+        BlockParser eager = objectReader::readValue;
+        BlockParser lazy = BcosBlock::readLazily;
+
+        // the same block by both ways
+        Assert.assertEquals(
+                objectMapper.writeValueAsString(eager.parse(content)),
+                objectMapper.writeValueAsString(lazy.parse(content)));
+
+        BlockVisitor header = block -> block.getBlock().getNumber();
+        BlockVisitor someTransactions =
+                block -> {
+                    List<BcosBlock.TransactionResult> transactions =
+                            block.getBlock().getTransactions();
+                    long nonces = 0;
+                    for (int i = 0; i < ACCESSED_TRANSACTIONS; i++) {
+                        nonces += nonce(transactions.get(i * 997));
+                    }
+                    return nonces;
+                };
+        BlockVisitor allTransactions =
+                block -> {
+                    long nonces = 0;
+                    for (BcosBlock.TransactionResult transaction :
+                            block.getBlock().getTransactions()) {
+                        nonces += nonce(transaction);
+                    }
+                    return nonces;
+                };
+
+        System.out.println(
+                "block of "
+                        + TRANSACTIONS_PER_BLOCK
+                        + " transactions, payload: "
+                        + content.length / 1024
+                        + "kB");
+        for (String name : new String[] {"eager", "lazy"}) {
+            BlockParser parser = name.equals("eager") ? eager : lazy;
+            this.benchmark(name + ", header only", content, parser, header);
+            this.benchmark(
+                    name + ", " + ACCESSED_TRANSACTIONS + " transactions",
+                    content,
+                    parser,
+                    someTransactions);
+            this.benchmark(name + ", all transactions", content, parser, allTransactions);
+        }
+
+        long eagerRetained = retainedPerBlock(content, eager);
+        long lazyRetained = retainedPerBlock(content, lazy);
+        System.out.println(
+                "retained per block, eager: "
+                        + eagerRetained / 1024
+                        + "kB, lazy: "
+                        + lazyRetained / 1024
+                        + "kB");
+        Assert.assertTrue(lazyRetained < eagerRetained);
+    }
+
+    private void benchmark(String name, byte[] content, BlockParser parser, BlockVisitor visitor)
+            throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 50);
+        long checksum = 0;
+        // warm up
+        for (int i = 0; i < iterations; i++) {
+            checksum += visitor.visit(parser.parse(content));
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += visitor.visit(parser.parse(content));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.println(
+                name
+                        + ": "
+                        + elapsedNanos / iterations / 1000
+                        + "us/op, "
+                        + (allocated < 0 ? "unknown" : allocated / iterations / 1024 + "kB")
+                        + " allocated/op, checksum: "
+                        + checksum);
+    }
+
+    // the heap kept by the parsed blocks, with the transactions of the lazy blocks not accessed
+    private static long retainedPerBlock(byte[] content, BlockParser parser) throws Exception {
+        List<BcosBlock> blocks = new ArrayList<>();
+        long baseline = usedHeap();
+        for (int i = 0; i < RETAINED_BLOCKS; i++) {
+            // a copy, so every block keeps its own response as the client does
+            blocks.add(parser.parse(content.clone()));
+        }
+        long retained = (usedHeap() - baseline) / blocks.size();
+        Assert.assertEquals(RETAINED_BLOCKS, blocks.size());
+        return retained;
+    }
+
+    private static long nonce(BcosBlock.TransactionResult transaction) {
+        return Long.parseLong(((JsonTransactionResponse) transaction.get()).getNonce());
+    }
+
+    // the bytes allocated by the current thread, -1 if not supported by the jvm
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        System.gc();
+        Thread.sleep(10);
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private byte[] buildBlock() throws Exception {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", 1);
+        response.put("jsonrpc", "2.0");
+        ObjectNode block = response.putObject("result");
+        block.putArray("consensusWeights").add(1);
+        block.put("extraData", "0x");
+        block.put("gasUsed", "36488");
+        block.put("hash", hash);
+        block.put("number", 1000);
+        ObjectNode parentInfo = block.putArray("parentInfo").addObject();
+        parentInfo.put("blockHash", hash);
+        parentInfo.put("blockNumber", 999);
+        block.put("receiptsRoot", hash);
+        block.put("sealer", 0);
+        block.putArray("sealerList").add("0x751bbcec9ab8fc8a8ecc9da7827e40a7f1b71080");
+        block.put("stateRoot", hash);
+        block.put("timestamp", 1637579843630L);
+        ArrayNode transactions = block.putArray("transactions");
+        for (int i = 0; i < TRANSACTIONS_PER_BLOCK; i++) {
+            ObjectNode transaction = transactions.addObject();
+            transaction.put("blockLimit", 1500);
+            transaction.put("chainID", "chain0");
+            transaction.put("from", address);
+            transaction.put("groupID", "group0");
+            transaction.put("hash", hash);
+            transaction.put("importTime", 1637579843000L + i);
+            transaction.put("input", input);
+            transaction.put("nonce", String.valueOf(855475221066568941L + i));
+            transaction.put("signature", hash + hash.substring(2));
+            transaction.put("to", address);
+            transaction.put("version", 0);
+        }
+        block.put("txsRoot", hash);
+        block.put("version", 0);
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.nio.charset.StandardCharsets;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.model.JsonRpcResponse;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * compare parsing the responses by ObjectMapper.readValue from a String copy with parsing them by
+ * the cached ObjectReader of the type from the bytes. The iterations can be set by
+ * -Dbenchmark.iterations, default 2000.
+ */
+public class ResponseParseBenchmarkTest {
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private static final int TRANSACTIONS_PER_BLOCK = 200;
+    private static final int LOGS_PER_RECEIPT = 4;
+    private static final String hash =
+            "0x24e190d013390901562265e4e3158dbb392c83e50e7cfa394d56d4afac4536a7";
+    private static final String address = "0x8c17cf316c1063ab6c89df875e96c9f0f5b2f744";
+    private static final String input =
+            "0x4ed3885e0000000000000000000000000000000000000000000000000000000000000020"
+                    + "000000000000000000000000000000000000000000000000000000000000000b"
+                    + "48656c6c6f20576f726c64000000000000000000000000000000000000000000";
+
+    @Test
+    public void testParseBlock() throws Exception {
+        byte[] block = this.buildBlock();
+        BcosBlock bcosBlock = this.benchmark("block", block, BcosBlock.class);
+        Assert.assertEquals(TRANSACTIONS_PER_BLOCK, bcosBlock.getBlock().getTransactions().size());
+    }
+
+    @Test
+    public void testParseReceipt() throws Exception {
+        byte[] receipt = this.buildReceipt();
+        BcosTransactionReceipt bcosReceipt =
+                this.benchmark("receipt", receipt, BcosTransactionReceipt.class);
+        Assert.assertEquals(
+                LOGS_PER_RECEIPT, bcosReceipt.getTransactionReceipt().getLogEntries().size());
+    }
+
+    private <T extends JsonRpcResponse> T benchmark(String name, byte[] payload, Class<T> type)
+            throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 2000);
+        ObjectReader objectReader = ObjectMapperFactory.getObjectReader(type);
+        // warm up
+        for (int i = 0; i < iterations; i++) {
+            objectMapper.readValue(new String(payload, StandardCharsets.UTF_8), type);
+            objectReader.readValue(payload);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            objectMapper.readValue(new String(payload, StandardCharsets.UTF_8), type);
+        }
+        long mapperNanos = System.nanoTime() - start;
+
+        T result = null;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            result = objectReader.readValue(payload);
+        }
+        long readerNanos = System.nanoTime() - start;
+
+        System.out.println(
+                name
+                        + ", payload: "
+                        + payload.length
+                        + " bytes, ObjectMapper from String: "
+                        + mapperNanos / iterations / 1000
+                        + "us/op, ObjectReader from bytes: "
+                        + readerNanos / iterations / 1000
+                        + "us/op");
+        // the same result by both ways
+        T expected = objectMapper.readValue(new String(payload, StandardCharsets.UTF_8), type);
+        Assert.assertEquals(
+                objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(result));
+        return result;
+    }
+
+    private byte[] buildBlock() throws Exception {
+        ObjectNode response = this.newResponse();
+        ObjectNode block = response.putObject("result");
+        block.putArray("consensusWeights").add(1);
+        block.put("extraData", "0x");
+        block.put("gasUsed", "36488");
+        block.put("hash", hash);
+        block.put("number", 1000);
+        ObjectNode parentInfo = block.putArray("parentInfo").addObject();
+        parentInfo.put("blockHash", hash);
+        parentInfo.put("blockNumber", 999);
+        block.put("receiptsRoot", hash);
+        block.put("sealer", 0);
+        block.putArray("sealerList").add("0x751bbcec9ab8fc8a8ecc9da7827e40a7f1b71080");
+        ObjectNode signature = block.putArray("signatureList").addObject();
+        signature.put("sealerIndex", 0);
+        signature.put("signature", hash + hash.substring(2));
+        block.put("stateRoot", hash);
+        block.put("timestamp", 1637579843630L);
+        ArrayNode transactions = block.putArray("transactions");
+        for (int i = 0; i < TRANSACTIONS_PER_BLOCK; i++) {
+            ObjectNode transaction = transactions.addObject();
+            transaction.put("blockLimit", 1500);
+            transaction.put("chainID", "chain0");
+            transaction.put("from", address);
+            transaction.put("groupID", "group0");
+            transaction.put("hash", hash);
+            transaction.put("importTime", 1637579843000L + i);
+            transaction.put("input", input);
+            transaction.put("nonce", String.valueOf(855475221066568941L + i));
+            transaction.put("signature", hash + hash.substring(2));
+            transaction.put("to", address);
+            transaction.put("version", 0);
+        }
+        block.put("txsRoot", hash);
+        block.put("version", 0);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private byte[] buildReceipt() throws Exception {
+        ObjectNode response = this.newResponse();
+        ObjectNode receipt = response.putObject("result");
+        receipt.put("blockNumber", 1000);
+        receipt.put("contractAddress", "");
+        receipt.put("from", address);
+        receipt.put("gasUsed", "19813");
+        receipt.put("input", input);
+        ArrayNode logs = receipt.putArray("logEntries");
+        for (int i = 0; i < LOGS_PER_RECEIPT; i++) {
+            ObjectNode log = logs.addObject();
+            log.put("address", address);
+            log.putArray("topics").add(hash).add(hash);
+            log.put("data", input);
+        }
+        receipt.put("output", "0x");
+        receipt.put("status", 0);
+        receipt.put("to", address);
+        receipt.put("transactionHash", hash);
+        receipt.put("version", 0);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private ObjectNode newResponse() {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", 1);
+        response.put("jsonrpc", "2.0");
+        return response;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetrics;
+import org.fisco.bcos.sdk.v3.client.metrics.RpcMetricsRegistry;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcMethods;
+import org.fisco.bcos.sdk.v3.client.protocol.request.JsonRpcRequest;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosTransactionReceipt;
+import org.fisco.bcos.sdk.v3.client.transport.MetricsRpcTransport;
+import org.fisco.bcos.sdk.v3.crypto.CryptoSuite;
+import org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair;
+import org.fisco.bcos.sdk.v3.model.CryptoType;
+import org.fisco.bcos.sdk.v3.model.Response;
+import org.fisco.bcos.sdk.v3.model.callback.ResponseCallback;
+import org.fisco.bcos.sdk.v3.utils.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * measure the overhead of the MetricsRpcTransport on a saturated sender. The node answers at once,
+ * so the sender is bound by the cpu of the client. First the cost of the metrics per request is
+ * measured by the senders only encoding the requests and decoding the receipts, alternating the
+ * rounds with and without the metrics and comparing the best round of each. Then it is compared
+ * with the cost per request of the senders also signing the transactions. The requests per round
+ * can be set by -Dbenchmark.iterations, default 200000.
+ */
+public class RpcMetricsOverheadBenchmarkTest {
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private static final int ROUNDS = 5;
+    // the signing senders are much slower, so they send fewer requests per round
+    private static final int SIGNING_ITERATIONS_DIVISOR = 20;
+    private static final double MAX_OVERHEAD = 0.01;
+    private static final String hash =
+            "0x24e190d013390901562265e4e3158dbb392c83e50e7cfa394d56d4afac4536a7";
+    private static final String address = "0x8c17cf316c1063ab6c89df875e96c9f0f5b2f744";
+
+    private final ObjectReader receiptReader =
+            ObjectMapperFactory.getObjectReader(BcosTransactionReceipt.class);
+    private final CryptoSuite cryptoSuite = new CryptoSuite(CryptoType.ECDSA_TYPE);
+    private final AtomicLong checksum = new AtomicLong(0);
+
+    /** a node answering every request at once with the same receipt */
+    private static class InstantNode implements RpcTransport {
+        private final byte[] receipt;
+
+        InstantNode(byte[] receipt) {
+            this.receipt = receipt;
+        }
+
+        @Override
+        public void sendRequest(
+                String groupID, String node, String request, ResponseCallback callback) {
+            Response response = new Response();
+            response.setErrorCode(0);
+            response.setContent(this.receipt);
+            callback.onResponse(response);
+        }
+    }
+
+    @Test
+    public void testOverhead() throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 200000);
+        int signingIterations = Math.max(1, iterations / SIGNING_ITERATIONS_DIVISOR);
+        int threads = Runtime.getRuntime().availableProcessors();
+        RpcTransport node = new InstantNode(this.buildReceipt());
+        RpcMetricsRegistry registry = new RpcMetricsRegistry();
+        RpcTransport metrics = new MetricsRpcTransport(node, registry);
+
+        // warm up
+        this.run(node, false, iterations, threads);
+        this.run(metrics, false, iterations, threads);
+        this.run(node, true, signingIterations, threads);
+
+        long bestPlain = Long.MAX_VALUE;
+        long bestMetrics = Long.MAX_VALUE;
+        long bestSigning = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            bestPlain = Math.min(bestPlain, this.run(node, false, iterations, threads));
+            bestMetrics = Math.min(bestMetrics, this.run(metrics, false, iterations, threads));
+            bestSigning = Math.min(bestSigning, this.run(node, true, signingIterations, threads));
+        }
+        double metricsNanos = Math.max(0, (double) (bestMetrics - bestPlain) / iterations);
+        double senderNanos = (double) bestSigning / signingIterations;
+        double overhead = metricsNanos / senderNanos;
+        System.out.println(
+                "threads: "
+                        + threads
+                        + ", metrics: "
+                        + String.format("%.1f", metricsNanos)
+                        + " ns/req, encode and decode: "
+                        + bestPlain / iterations
+                        + " ns/req, sign, encode and decode: "
+                        + String.format("%.1f", senderNanos)
+                        + " ns/req, overhead of the saturated sender: "
+                        + String.format("%.3f%%", overhead * 100));
+        RpcMetrics sendMetrics = registry.getMetrics(JsonRpcMethods.SEND_TRANSACTION, "");
+        System.out.println(sendMetrics);
+        Assert.assertEquals(0, sendMetrics.getInFlight());
+        Assert.assertEquals(0, sendMetrics.getErrorCount());
+        Assert.assertTrue("the overhead of the metrics: " + overhead, overhead < MAX_OVERHEAD);
+    }
+
+    // send the requests by the threads, return the elapsed nanos
+    private long run(RpcTransport transport, boolean sign, int iterations, int threads)
+            throws Exception {
+        CountDownLatch latch = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int count = iterations / threads;
+            workers.add(
+                    new Thread(
+                            () -> {
+                                try {
+                                    this.send(transport, sign, count);
+                                } catch (Exception e) {
+                                    throw new IllegalStateException(e);
+                                } finally {
+                                    latch.countDown();
+                                }
+                            }));
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        latch.await();
+        return System.nanoTime() - start;
+    }
+
+    private void send(RpcTransport transport, boolean sign, int count) throws Exception {
+        CryptoKeyPair keyPair = this.cryptoSuite.getCryptoKeyPair();
+        for (int i = 0; i < count; i++) {
+            String transactionHash = sign ? this.cryptoSuite.hash(hash + i) : hash;
+            String signedTransaction =
+                    sign
+                            ? this.cryptoSuite.sign(transactionHash, keyPair).convertToString()
+                            : transactionHash;
+            JsonRpcRequest request =
+                    new JsonRpcRequest(
+                            JsonRpcMethods.SEND_TRANSACTION,
+                            Arrays.asList("group0", "", signedTransaction, false));
+            transport.sendRequest(
+                    "group0",
+                    "",
+                    request.getMethod(),
+                    objectMapper.writeValueAsString(request),
+                    new ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            try {
+                                BcosTransactionReceipt receipt =
+                                        receiptReader.readValue(response.getContent());
+                                checksum.addAndGet(
+                                        receipt.getTransactionReceipt().getStatus());
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                    });
+        }
+    }
+
+    private byte[] buildReceipt() throws Exception {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", 1);
+        response.put("jsonrpc", "2.0");
+        ObjectNode receipt = response.putObject("result");
+        receipt.put("blockNumber", 1000);
+        receipt.put("contractAddress", "");
+        receipt.put("from", address);
+        receipt.put("gasUsed", "19813");
+        receipt.put("input", "0x4ed3885e");
+        ArrayNode logs = receipt.putArray("logEntries");
+        ObjectNode log = logs.addObject();
+        log.put("address", address);
+        log.putArray("topics").add(hash);
+        log.put("data", "0x");
+        receipt.put("output", "0x");
+        receipt.put("status", 0);
+        receipt.put("to", address);
+        receipt.put("transactionHash", hash);
+        receipt.put("version", 0);
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
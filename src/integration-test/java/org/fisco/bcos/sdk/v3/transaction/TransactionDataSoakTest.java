@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014-2020  [fisco-dev]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.fisco.bcos.sdk.v3.transaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.fisco.bcos.sdk.v3.model.TransactionDataHandle;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * create and release TransactionData in a loop, the resident memory of the process must not grow
+ * with the iterations. The iterations can be set by -Dsoak.iterations, default 3,000,000.
+ */
+public class TransactionDataSoakTest {
+    private static final String statusFile = "/proc/self/status";
+    private static final String to = "0x0102e8b6fc8cdf9626fddc1c3ea8c1e79b3fce94";
+    private static final String input =
+            "0x4ed3885e0000000000000000000000000000000000000000000000000000000000000020"
+                    + "0000000000000000000000000000000000000000000000000000000000000004"
+                    + "7465737400000000000000000000000000000000000000000000000000000000";
+    // the RSS may grow a little because of the jvm itself
+    private static final long maxRssGrowthKB = 64 * 1024;
+
+    @Test
+    public void testCreateAndClose() throws Exception {
+        long iterations = Long.getLong("soak.iterations", 3000000L);
+        // warm up the jvm and the native allocator
+        createAndClose(iterations / 10);
+        long aliveCount = TransactionDataHandle.getAliveCount();
+        long leakedCount = TransactionDataHandle.getLeakedCount();
+        long rssBefore = readRssKB();
+
+        createAndClose(iterations);
+
+        long rssAfter = readRssKB();
+        Assert.assertEquals(aliveCount, TransactionDataHandle.getAliveCount());
+        Assert.assertEquals(leakedCount, TransactionDataHandle.getLeakedCount());
+        if (rssBefore > 0 && rssAfter > 0) {
+            System.out.println(
+                    "iterations: "
+                            + iterations
+                            + ", rss before: "
+                            + rssBefore
+                            + "kB, rss after: "
+                            + rssAfter
+                            + "kB");
+            Assert.assertTrue(rssAfter - rssBefore < maxRssGrowthKB);
+        }
+    }
+
+    @Test
+    public void testReleaseUnreachable() throws Exception {
+        long expectedLeakedCount = TransactionDataHandle.getLeakedCount() + 1000;
+        for (int i = 0; i < 1000; i++) {
+            // not closed on purpose
+            TransactionDataHandle.create("group0", "chain0", to, input, "", i);
+        }
+        for (int i = 0;
+                i < 10 && TransactionDataHandle.getLeakedCount() < expectedLeakedCount;
+                i++) {
+            System.gc();
+            Thread.sleep(100);
+            TransactionDataHandle.releaseUnreachable();
+        }
+        Assert.assertEquals(expectedLeakedCount, TransactionDataHandle.getLeakedCount());
+    }
+
+    @Test
+    public void testReaperReleasesUnreachable() throws Exception {
+        long expectedLeakedCount = TransactionDataHandle.getLeakedCount() + 1000;
+        for (int i = 0; i < 1000; i++) {
+            // not closed on purpose, and no more handle created after them
+            TransactionDataHandle.create("group0", "chain0", to, input, "", i);
+        }
+        for (int i = 0;
+                i < 10 && TransactionDataHandle.getLeakedCount() < expectedLeakedCount;
+                i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(expectedLeakedCount, TransactionDataHandle.getLeakedCount());
+    }
+
+    private void createAndClose(long iterations) throws Exception {
+        for (long i = 0; i < iterations; i++) {
+            try (TransactionDataHandle transactionData =
+                    TransactionDataHandle.create("group0", "chain0", to, input, "", i)) {
+                Assert.assertNotEquals(0, transactionData.get());
+            }
+        }
+    }
+
+    // return -1 if the RSS is not available on this platform
+    private long readRssKB() throws IOException {
+        File file = new File(statusFile);
+        if (!file.exists()) {
+            return -1;
+        }
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return -1;
+    }
+}